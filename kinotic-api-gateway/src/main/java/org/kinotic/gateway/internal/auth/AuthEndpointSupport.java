@@ -9,6 +9,7 @@ import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.kinotic.core.api.exceptions.TooManyRequestsException;
 import org.kinotic.gateway.api.config.KinoticApiGatewayProperties;
 import org.kinotic.gateway.internal.endpoints.rest.OidcConstants;
 import org.kinotic.gateway.internal.endpoints.rest.RedirectFlowSessionSupport;
@@ -21,6 +22,7 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -208,6 +210,11 @@ public class AuthEndpointSupport {
                   respondJwt(ctx, user);
               })
               .onFailure(err -> {
+                  Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+                  if (cause instanceof TooManyRequestsException) {
+                      respondError(ctx, 429, "Too many login attempts, try again later");
+                      return;
+                  }
                   log.warn("Token endpoint error: {}", err.getMessage());
                   respondError(ctx, 401, "Invalid credentials");
               });
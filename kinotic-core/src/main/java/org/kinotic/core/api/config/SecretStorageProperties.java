@@ -27,4 +27,18 @@ public class SecretStorageProperties {
      * Chronicle Map settings. Required when {@code backend} is {@link SecretStorageBackendType#HFT}.
      */
     private ChronicleMapProperties chronicleMap;
+    /**
+     * How long a resolved secret is cached before it is read from the backend again.
+     * Writes and deletes invalidate the cached secret on every node in the cluster, so this only bounds how long a
+     * value changed directly in the backend can be stale. Use 0 to disable caching.
+     */
+    private long cacheTtlMs = 30_000;
+    /**
+     * How long a secret that was not found is cached before the backend is checked again.
+     */
+    private long negativeCacheTtlMs = 5_000;
+    /**
+     * The maximum number of secrets, and secrets not found, cached.
+     */
+    private long cacheMaxEntries = 10_000;
 }
@@ -0,0 +1,22 @@
+package org.kinotic.core.api.exceptions;
+
+/**
+ * Thrown when a request is rejected because the server is at capacity for that kind of work.
+ * The caller may retry later, HTTP endpoints report this as a 429.
+ */
+public class TooManyRequestsException extends ContinuumException {
+    public TooManyRequestsException() {
+    }
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+
+    public TooManyRequestsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public TooManyRequestsException(Throwable cause) {
+        super(cause);
+    }
+}
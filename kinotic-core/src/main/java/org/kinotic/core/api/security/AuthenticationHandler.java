@@ -9,6 +9,7 @@ import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.ext.web.RoutingContext;
 import org.kinotic.core.api.event.EventConstants;
+import org.kinotic.core.api.exceptions.TooManyRequestsException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -60,11 +61,23 @@ public class AuthenticationHandler implements Handler<RoutingContext> {
                               ctx.next();
                           }else{
                               ctx.request().resume();
-                              ctx.fail(401, event.cause());
+                              // the security service may shed load when it is at capacity, report that as a 429 so clients back off
+                              ctx.fail(isTooManyRequests(event.cause()) ? 429 : 401, event.cause());
                           }
                       });
     }
 
+    private static boolean isTooManyRequests(Throwable throwable) {
+        Throwable current = throwable;
+        while (current != null) {
+            if (current instanceof TooManyRequestsException) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
     private boolean handlePreflight(RoutingContext ctx) {
         final HttpServerRequest request = ctx.request();
         // See: https://www.w3.org/TR/cors/#cross-origin-request-with-preflight-0
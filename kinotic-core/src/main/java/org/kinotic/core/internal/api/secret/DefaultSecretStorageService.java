@@ -1,16 +1,23 @@
 package org.kinotic.core.internal.api.secret;
 
-import lombok.RequiredArgsConstructor;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import jakarta.annotation.PreDestroy;
+import org.kinotic.core.api.config.KinoticProperties;
+import org.kinotic.core.api.config.SecretStorageProperties;
 import org.kinotic.core.api.secret.SecretStorageService;
+import org.kinotic.core.internal.platform.PlatformSecretsService;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Rotation-aware secret storage service.
@@ -19,27 +26,76 @@ import java.util.concurrent.CompletableFuture;
  * Reads query all candidate derivations ({@link SecretNameDeriver#deriveAll}) so entries
  * written under a prior master key remain readable during a rotation window. Deletes remove
  * every candidate name to avoid orphans after rotation.
+ * <p>
+ * Candidates are read in parallel, and the value of the first candidate in derivation order that
+ * exists wins. Resolved secrets are held in a short lived {@link SecretCache}, which is invalidated
+ * on every node of the cluster when a secret is written or deleted, and locally when the master keys rotate.
  */
 @Component
-@RequiredArgsConstructor
 public class DefaultSecretStorageService implements SecretStorageService {
 
+    private static final String INVALIDATION_ADDRESS = "kinotic.secrets.invalidate";
+    private static final String NAME_SEPARATOR = ",";
+
     private final SecretNameDeriver secretNameDeriver;
     private final SecretStorageBackend secretStorageBackend;
+    private final Vertx vertx;
+    private final SecretCache secretCache;
+    private final MessageConsumer<String> invalidationConsumer;
+
+    public DefaultSecretStorageService(SecretNameDeriver secretNameDeriver,
+                                       SecretStorageBackend secretStorageBackend,
+                                       KinoticProperties kinoticProperties,
+                                       PlatformSecretsService platformSecretsService,
+                                       Vertx vertx) {
+        this.secretNameDeriver = secretNameDeriver;
+        this.secretStorageBackend = secretStorageBackend;
+        this.vertx = vertx;
+
+        SecretStorageProperties properties = kinoticProperties.getSecretStorage() != null
+                ? kinoticProperties.getSecretStorage() : new SecretStorageProperties();
+        this.secretCache = new SecretCache(properties);
+
+        // Derived names change when the master keys rotate
+        platformSecretsService.addSecretStorageMasterKeysListener(updated -> secretCache.invalidateAll());
+        // Derived names are opaque, so they are safe to send to the rest of the cluster
+        this.invalidationConsumer = vertx.eventBus().<String>consumer(INVALIDATION_ADDRESS,
+                                                                      message -> secretCache.invalidate(Arrays.asList(message.body().split(NAME_SEPARATOR))));
+    }
+
+    @PreDestroy
+    public void stop() {
+        invalidationConsumer.unregister();
+    }
 
     @Override
     public CompletableFuture<Void> setSecret(String secretScope, String key, String value) {
-        return secretStorageBackend.setSecret(secretNameDeriver.deriveActive(secretScope, key), value);
+        String derivedName = secretNameDeriver.deriveActive(secretScope, key);
+        return invalidatingWrite(List.of(derivedName), () -> secretStorageBackend.setSecret(derivedName, value));
     }
 
     @Override
     public CompletableFuture<String> getSecret(String secretScope, String key) {
-        return tryReadCandidates(secretNameDeriver.deriveAll(secretScope, key), 0);
+        List<String> candidates = secretNameDeriver.deriveAll(secretScope, key);
+        // Cached under the active derivation, so a rotation never returns a value cached for the old keys
+        String cacheName = candidates.getFirst();
+        SecretCache.Lookup cached = secretCache.get(cacheName);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.value());
+        }
+        long invalidationCount = secretCache.invalidationCount();
+        return readCandidates(candidates).thenApply(resolution -> {
+            if (resolution.cacheable()) {
+                secretCache.put(cacheName, resolution.value(), invalidationCount);
+            }
+            return resolution.value();
+        });
     }
 
     @Override
     public CompletableFuture<Void> deleteSecret(String secretScope, String key) {
-        return secretStorageBackend.deleteSecrets(secretNameDeriver.deriveAll(secretScope, key));
+        List<String> derivedNames = secretNameDeriver.deriveAll(secretScope, key);
+        return invalidatingWrite(derivedNames, () -> secretStorageBackend.deleteSecrets(derivedNames));
     }
 
     @Override
@@ -48,29 +104,45 @@ public class DefaultSecretStorageService implements SecretStorageService {
         for (Map.Entry<String, String> e : secrets.entrySet()) {
             derived.put(secretNameDeriver.deriveActive(secretScope, e.getKey()), e.getValue());
         }
-        return secretStorageBackend.setSecrets(derived);
+        return invalidatingWrite(List.copyOf(derived.keySet()), () -> secretStorageBackend.setSecrets(derived));
     }
 
     @Override
     public CompletableFuture<Map<String, String>> getSecrets(String secretScope, List<String> keys) {
+        Map<String, String> out = new HashMap<>(keys.size());
         Map<String, List<String>> logicalToCandidates = new HashMap<>(keys.size());
         Set<String> allCandidates = new HashSet<>();
         for (String k : keys) {
             List<String> cands = secretNameDeriver.deriveAll(secretScope, k);
-            logicalToCandidates.put(k, cands);
-            allCandidates.addAll(cands);
+            SecretCache.Lookup cached = secretCache.get(cands.getFirst());
+            if (cached != null) {
+                if (cached.value() != null) {
+                    out.put(k, cached.value());
+                }
+            } else {
+                logicalToCandidates.put(k, cands);
+                allCandidates.addAll(cands);
+            }
+        }
+        if (logicalToCandidates.isEmpty()) {
+            return CompletableFuture.completedFuture(out);
         }
+        long invalidationCount = secretCache.invalidationCount();
         return secretStorageBackend.getSecrets(List.copyOf(allCandidates))
                                    .thenApply(backendResults -> {
-            Map<String, String> out = new HashMap<>(keys.size());
             for (Map.Entry<String, List<String>> e : logicalToCandidates.entrySet()) {
+                String found = null;
                 for (String candidate : e.getValue()) {
                     String value = backendResults.get(candidate);
                     if (value != null) {
-                        out.put(e.getKey(), value);
+                        found = value;
                         break;
                     }
                 }
+                if (found != null) {
+                    out.put(e.getKey(), found);
+                }
+                secretCache.put(e.getValue().getFirst(), found, invalidationCount);
             }
             return out;
         });
@@ -82,19 +154,72 @@ public class DefaultSecretStorageService implements SecretStorageService {
         for (String k : keys) {
             derivedNames.addAll(secretNameDeriver.deriveAll(secretScope, k));
         }
-        return secretStorageBackend.deleteSecrets(derivedNames);
+        return invalidatingWrite(derivedNames, () -> secretStorageBackend.deleteSecrets(derivedNames));
     }
 
-    private CompletableFuture<String> tryReadCandidates(List<String> candidates, int idx) {
-        if (idx >= candidates.size()) {
-            return CompletableFuture.completedFuture(null);
+    /**
+     * Performs the write, invalidating the cached secrets locally before and after it, and on the rest of the cluster once it completes.
+     * Invalidating before as well keeps this node from returning the old value once the write has started.
+     */
+    private CompletableFuture<Void> invalidatingWrite(List<String> derivedNames,
+                                                      Supplier<CompletableFuture<Void>> write) {
+        secretCache.invalidate(derivedNames);
+        return write.get().whenComplete((v, ex) -> {
+            secretCache.invalidate(derivedNames);
+            if (!derivedNames.isEmpty()) {
+                vertx.eventBus().publish(INVALIDATION_ADDRESS, String.join(NAME_SEPARATOR, derivedNames));
+            }
+        });
+    }
+
+    /**
+     * Reads all candidates in parallel, completing with the value of the first candidate in order that exists
+     * as soon as all the candidates before it are known to be missing.
+     * Failed reads are treated as missing, as they were when candidates were read one at a time,
+     * but a result is not cacheable if any read failed.
+     */
+    private CompletableFuture<Resolution> readCandidates(List<String> candidates) {
+        List<CompletableFuture<String>> reads = new ArrayList<>(candidates.size());
+        for (String candidate : candidates) {
+            CompletableFuture<String> read;
+            try {
+                read = secretStorageBackend.getSecret(candidate);
+            } catch (Exception e) {
+                read = CompletableFuture.failedFuture(e);
+            }
+            reads.add(read);
         }
-        return secretStorageBackend.getSecret(candidates.get(idx))
-                                   .handle((value, ex) -> {
-            if (ex == null && value != null) {
-                return CompletableFuture.completedFuture(value);
+
+        CompletableFuture<Resolution> ret = new CompletableFuture<>();
+        Runnable resolve = () -> {
+            boolean cacheable = true;
+            for (CompletableFuture<String> read : reads) {
+                if (!read.isDone()) {
+                    return;
+                }
+                if (read.isCompletedExceptionally()) {
+                    cacheable = false;
+                } else {
+                    String value = read.join();
+                    if (value != null) {
+                        ret.complete(new Resolution(value, cacheable));
+                        return;
+                    }
+                }
             }
-            return tryReadCandidates(candidates, idx + 1);
-        }).thenCompose(f -> f);
+            ret.complete(new Resolution(null, cacheable));
+        };
+        for (CompletableFuture<String> read : reads) {
+            read.whenComplete((value, ex) -> resolve.run());
+        }
+        return ret;
+    }
+
+    /**
+     * The result of reading the candidates for a secret
+     * @param value the secret value or null if not found
+     * @param cacheable false if the result may be wrong because a backend read failed
+     */
+    private record Resolution(String value, boolean cacheable) {
     }
 }
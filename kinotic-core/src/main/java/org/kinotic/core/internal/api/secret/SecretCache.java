@@ -0,0 +1,115 @@
+package org.kinotic.core.internal.api.secret;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.kinotic.core.api.config.SecretStorageProperties;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short lived cache of resolved secrets, keyed by the HKDF-derived name, so secret names are never kept in the clear.
+ * <p>
+ * Values are kept as plain strings, the same as they are returned to callers, so they stay in memory until garbage collected
+ * even once the entry is evicted, expired or invalidated.
+ * Secrets that were not found are cached too, for {@link SecretStorageProperties#getNegativeCacheTtlMs()}.
+ */
+class SecretCache {
+
+    private final Cache<String, Lookup> cache;
+    /**
+     * Incremented on every invalidation, so a value read from the backend before an invalidation is not cached after it
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+    /**
+     * The invalidation count of the last {@link #invalidateAll()}, entries cached before it are ignored
+     * even if they were added while the cache was being cleared
+     */
+    private final AtomicLong lastInvalidateAll = new AtomicLong();
+
+    SecretCache(SecretStorageProperties properties) {
+        if (properties.getCacheTtlMs() > 0) {
+            long ttlNanos = TimeUnit.MILLISECONDS.toNanos(properties.getCacheTtlMs());
+            long negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(properties.getNegativeCacheTtlMs());
+            cache = Caffeine.newBuilder()
+                            .maximumSize(properties.getCacheMaxEntries())
+                            .expireAfter(new Expiry<String, Lookup>() {
+                                @Override
+                                public long expireAfterCreate(String key, Lookup value, long currentTime) {
+                                    return value.value() == null ? negativeTtlNanos : ttlNanos;
+                                }
+
+                                @Override
+                                public long expireAfterUpdate(String key, Lookup value, long currentTime, long currentDuration) {
+                                    return expireAfterCreate(key, value, currentTime);
+                                }
+
+                                @Override
+                                public long expireAfterRead(String key, Lookup value, long currentTime, long currentDuration) {
+                                    return currentDuration;
+                                }
+                            })
+                            .build();
+        } else {
+            cache = null;
+        }
+    }
+
+    /**
+     * @return the current invalidation count, to pass to {@link #put(String, String, long)} once the value is read
+     */
+    long invalidationCount() {
+        return invalidations.get();
+    }
+
+    /**
+     * Gets the cached secret
+     * @param derivedName the derived name of the secret
+     * @return the cached secret, or null if it is not cached. {@link Lookup#value()} is null if the secret is cached as missing.
+     */
+    Lookup get(String derivedName) {
+        if (cache == null) {
+            return null;
+        }
+        Lookup lookup = cache.getIfPresent(derivedName);
+        return lookup != null && lookup.invalidationCount() >= lastInvalidateAll.get() ? lookup : null;
+    }
+
+    /**
+     * Caches the secret, unless anything was invalidated since the value was read.
+     * The check is made while the entry is locked, so it cannot race an invalidation of the same name.
+     * @param derivedName the derived name of the secret
+     * @param value the secret value or null if the secret was not found
+     * @param invalidationCount the {@link #invalidationCount()} from before the value was read
+     */
+    void put(String derivedName, String value, long invalidationCount) {
+        if (cache != null) {
+            cache.asMap().compute(derivedName, (name, existing) -> invalidations.get() == invalidationCount
+                    ? new Lookup(value, invalidationCount) : existing);
+        }
+    }
+
+    void invalidate(Collection<String> derivedNames) {
+        invalidations.incrementAndGet();
+        if (cache != null) {
+            cache.invalidateAll(derivedNames);
+        }
+    }
+
+    void invalidateAll() {
+        lastInvalidateAll.set(invalidations.incrementAndGet());
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * A secret found in the cache
+     * @param value the secret value or null if the secret is cached as missing
+     * @param invalidationCount the {@link #invalidationCount()} from before the value was read
+     */
+    record Lookup(String value, long invalidationCount) {
+    }
+}
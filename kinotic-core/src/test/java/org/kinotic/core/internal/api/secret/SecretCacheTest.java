@@ -0,0 +1,138 @@
+package org.kinotic.core.internal.api.secret;
+
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kinotic.core.api.config.KinoticProperties;
+import org.kinotic.core.api.config.SecretStorageProperties;
+import org.kinotic.core.api.config.VersionedKeySet;
+import org.kinotic.core.internal.platform.PlatformSecretsService;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SecretCacheTest {
+
+    private static final String SCOPE = "test-scope";
+    private static final String KEY = "api-key";
+
+    private Vertx vertx;
+
+    @BeforeEach
+    public void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        vertx.close().await();
+    }
+
+    @Test
+    public void testMissingSecretIsCachedUntilNegativeTtlExpires() {
+        SecretCache cache = new SecretCache(new SecretStorageProperties().setNegativeCacheTtlMs(200));
+
+        cache.put("derived", null, cache.invalidationCount());
+
+        SecretCache.Lookup lookup = cache.get("derived");
+        assertNotNull(lookup, "A missing secret is cached");
+        assertNull(lookup.value());
+        await().atMost(Duration.ofSeconds(5)).until(() -> cache.get("derived") == null);
+    }
+
+    @Test
+    public void testValueReadBeforeInvalidationIsNotCached() {
+        SecretCache cache = new SecretCache(new SecretStorageProperties());
+
+        long beforeInvalidate = cache.invalidationCount();
+        cache.invalidate(List.of("derived"));
+        cache.put("derived", "stale", beforeInvalidate);
+        assertNull(cache.get("derived"));
+
+        long beforeInvalidateAll = cache.invalidationCount();
+        cache.invalidateAll();
+        cache.put("derived", "stale", beforeInvalidateAll);
+        assertNull(cache.get("derived"));
+
+        cache.put("derived", "current", cache.invalidationCount());
+        assertEquals("current", cache.get("derived").value());
+    }
+
+    @Test
+    public void testMissingSecretIsReadFromBackendOnce() {
+        CountingBackend backend = new CountingBackend();
+        DefaultSecretStorageService service = service(backend);
+        try {
+            assertNull(service.getSecret(SCOPE, KEY).join());
+            assertNull(service.getSecret(SCOPE, KEY).join());
+            assertEquals(1, backend.reads.get());
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    public void testInvalidationFromEventBusEvictsCachedSecret() {
+        CountingBackend backend = new CountingBackend();
+        DefaultSecretStorageService service = service(backend);
+        try {
+            service.setSecret(SCOPE, KEY, "first").join();
+            assertEquals("first", service.getSecret(SCOPE, KEY).join());
+
+            // Written behind this node's back, as another node of the cluster would
+            String derivedName = nameDeriver().deriveActive(SCOPE, KEY);
+            backend.setSecret(derivedName, "second").join();
+            assertEquals("first", service.getSecret(SCOPE, KEY).join(), "The cached value is used until invalidated");
+
+            vertx.eventBus().publish("kinotic.secrets.invalidate", derivedName);
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> "second".equals(service.getSecret(SCOPE, KEY).join()));
+        } finally {
+            service.stop();
+        }
+    }
+
+    private DefaultSecretStorageService service(SecretStorageBackend backend) {
+        PlatformSecretsService platformSecretsService = platformSecretsService();
+        return new DefaultSecretStorageService(new SecretNameDeriver(platformSecretsService),
+                                               backend,
+                                               new KinoticProperties().setSecretStorage(new SecretStorageProperties()),
+                                               platformSecretsService,
+                                               vertx);
+    }
+
+    private static SecretNameDeriver nameDeriver() {
+        return new SecretNameDeriver(platformSecretsService());
+    }
+
+    private static PlatformSecretsService platformSecretsService() {
+        VersionedKeySet keys = new VersionedKeySet()
+                .setActiveKeyId("k1")
+                .setKeys(List.of(new VersionedKeySet.KeyEntry("k1", Base64.getEncoder().encodeToString(new byte[32]))));
+        return new PlatformSecretsService(new KinoticProperties(), null, Optional.empty()) {
+            @Override
+            public VersionedKeySet getSecretStorageMasterKeys() {
+                return keys;
+            }
+        };
+    }
+
+    private static class CountingBackend extends InMemoryBackend {
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public CompletableFuture<String> getSecret(String derivedName) {
+            reads.incrementAndGet();
+            return super.getSecret(derivedName);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.kinotic.os.api.config;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the cache of successfully authenticated participants.
+ * Bound under {@code kinotic.domain.authenticationCache.*}.
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+@NoArgsConstructor
+public class AuthenticationCacheProperties {
+
+    /**
+     * When {@code false}, every request is fully authenticated (JWT verification or bcrypt check plus user lookup).
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long an authenticated participant is cached. For JWTs the entry never outlives the token's {@code exp} claim.
+     * Entries are also invalidated cluster wide whenever the user or its credentials change.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * The maximum number of cached participants.
+     */
+    private long maximumSize = 10_000;
+
+}
@@ -0,0 +1,37 @@
+package org.kinotic.os.api.config;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the read-through cache used by control-plane crud services
+ * (organizations, applications, projects, OIDC configurations).
+ * Bound under {@code kinotic.domain.crudCache.*}.
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+@NoArgsConstructor
+public class CrudCacheProperties {
+
+    /**
+     * When {@code false}, services that opt in to read caching will always read from Elasticsearch.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a cached entity is kept after it was loaded.
+     * Entries are also invalidated cluster wide whenever the entity is saved or deleted.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * The maximum number of entities cached per index.
+     */
+    private long maximumSize = 10_000;
+
+}
@@ -2,6 +2,7 @@ package org.kinotic.os.api.config;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.kinotic.os.api.model.workload.PlacementStrategy;
 
 /**
  *
@@ -16,4 +17,24 @@ public class DomainProperties {
      */
     private EmailProperties email = new EmailProperties();
 
+    /**
+     * Read-through cache configuration for control-plane crud services.
+     */
+    private CrudCacheProperties crudCache = new CrudCacheProperties();
+
+    /**
+     * Cache configuration for authenticated participants.
+     */
+    private AuthenticationCacheProperties authenticationCache = new AuthenticationCacheProperties();
+
+    /**
+     * Configuration for the pool that performs password hashing and verification.
+     */
+    private PasswordHashingProperties passwordHashing = new PasswordHashingProperties();
+
+    /**
+     * How workloads are placed on VmNodes when more than one node has enough free resources.
+     */
+    private PlacementStrategy vmPlacementStrategy = PlacementStrategy.BEST_FIT;
+
 }
@@ -0,0 +1,34 @@
+package org.kinotic.os.api.config;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Configuration for the dedicated pool that performs BCrypt password hashing and verification.
+ * Bound under {@code kinotic.domain.passwordHashing.*}.
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+@NoArgsConstructor
+public class PasswordHashingProperties {
+
+    /**
+     * The number of threads used for password hashing, defaults to half the available processors.
+     */
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * The max number of password operations waiting for a thread. Once full new operations are rejected immediately.
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * The max number of password operations queued or running at once for a single auth scope,
+     * so a login storm against one organization or application cannot starve the others.
+     */
+    private int maxConcurrentPerScope = 64;
+
+}
@@ -0,0 +1,17 @@
+package org.kinotic.os.api.model.workload;
+
+/**
+ * Determines which {@link VmNode} is chosen when more than one node can host a {@link Workload}.
+ */
+public enum PlacementStrategy {
+    /**
+     * Chooses the node with the least free resources that still fits the workload.
+     * Packs workloads tightly, leaving larger nodes free for larger workloads.
+     */
+    BEST_FIT,
+    /**
+     * Chooses the node with the most free resources.
+     * Spreads workloads evenly across the cluster.
+     */
+    WORST_FIT
+}
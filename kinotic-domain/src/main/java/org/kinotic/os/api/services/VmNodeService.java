@@ -22,4 +22,24 @@ public interface VmNodeService extends IdentifiableCrudService<VmNode, String> {
      */
     CompletableFuture<VmNode> findAvailableNode(int requiredCpus, int requiredMemoryMb, int requiredDiskMb);
 
+    /**
+     * Finds a node with sufficient resources and atomically reserves them for a workload.
+     * Concurrent reservations will never allocate more than a node's total resources.
+     * @param requiredCpus the number of vCPUs required
+     * @param requiredMemoryMb the amount of memory required in megabytes
+     * @param requiredDiskMb the amount of disk space required in megabytes
+     * @return a future that will complete with the node the resources were reserved on, or null if none available
+     */
+    CompletableFuture<VmNode> reserveNode(int requiredCpus, int requiredMemoryMb, int requiredDiskMb);
+
+    /**
+     * Releases resources previously reserved with {@link #reserveNode(int, int, int)}.
+     * @param nodeId the id of the node the resources were reserved on
+     * @param cpus the number of vCPUs to release
+     * @param memoryMb the amount of memory to release in megabytes
+     * @param diskMb the amount of disk space to release in megabytes
+     * @return a future that will complete when the resources have been released
+     */
+    CompletableFuture<Void> releaseResources(String nodeId, int cpus, int memoryMb, int diskMb);
+
 }
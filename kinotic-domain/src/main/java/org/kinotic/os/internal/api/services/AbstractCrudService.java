@@ -13,6 +13,8 @@ import org.kinotic.core.api.exceptions.AuthorizationException;
 import org.kinotic.core.api.security.AuthScopeType;
 import org.kinotic.core.api.security.SecurityContext;
 import org.kinotic.os.api.model.OrganizationScoped;
+import org.kinotic.os.internal.api.services.cache.CrudReadCache;
+import org.kinotic.os.internal.api.services.cache.CrudReadCacheManager;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -32,12 +34,39 @@ public abstract class AbstractCrudService<T extends Identifiable<String>> implem
 
     private boolean organizationScoped;
 
+    /**
+     * Read-through cache for {@link #findById(String)}, null unless the subclass opted in with {@link #enableReadCache(CrudReadCacheManager)}
+     */
+    private CrudReadCache<T> readCache;
+
     @PostConstruct
     public void verifyIndexExists() {
         this.organizationScoped = OrganizationScoped.class.isAssignableFrom(type);
         crudServiceTemplate.verifyIndexExists(indexName);
     }
 
+    /**
+     * Opts this service in to read-through caching of {@link #findById(String)}.
+     * Intended for control-plane entities that are read on most requests but rarely change.
+     * Cached entries are invalidated cluster wide by {@link #save(Identifiable)}, {@link #saveSync(Identifiable)}
+     * and {@link #deleteById(String)}, so subclasses that write through {@code crudServiceTemplate} directly
+     * must call {@link #invalidateCachedEntity(String)} themselves.
+     *
+     * @param readCacheManager used to create the cache for this service's index
+     */
+    protected void enableReadCache(CrudReadCacheManager readCacheManager) {
+        this.readCache = readCacheManager.createCache(indexName, type);
+    }
+
+    /**
+     * Removes the entity with the given id from the read cache on all nodes, if read caching is enabled.
+     */
+    protected void invalidateCachedEntity(String id) {
+        if (readCache != null && id != null) {
+            readCache.invalidate(id);
+        }
+    }
+
     private boolean shouldEnforceOrgScope() {
         return organizationScoped && !securityContext.isElevatedAccess();
     }
@@ -67,12 +96,18 @@ public abstract class AbstractCrudService<T extends Identifiable<String>> implem
                                                               + " '" + id + "' owned by another organization"));
                                           }
                                           return crudServiceTemplate.deleteById(indexName, id, b -> b.routing(orgId))
-                                                                    .thenApply(response -> null);
+                                                                    .thenApply(response -> {
+                                                                        invalidateCachedEntity(id);
+                                                                        return null;
+                                                                    });
                                       });
         }
         String routing = getRoutingKeyFromId(id);
         return crudServiceTemplate.deleteById(indexName, id, routing != null ? b -> b.routing(routing) : null)
-                                  .thenApply(response -> null);
+                                  .thenApply(response -> {
+                                      invalidateCachedEntity(id);
+                                      return null;
+                                  });
     }
 
     @Override
@@ -89,18 +124,25 @@ public abstract class AbstractCrudService<T extends Identifiable<String>> implem
     public CompletableFuture<T> findById(String id) {
         if (shouldEnforceOrgScope()) {
             String orgId = requireOrganizationId();
-            return crudServiceTemplate.findById(indexName, id, type, b -> b.routing(orgId))
-                                      .thenApply(value -> {
-                                          if (value == null) {
-                                              return null;
-                                          }
-                                          if (!orgId.equals(((OrganizationScoped<?>) value).getOrganizationId())) {
-                                              return null;
-                                          }
-                                          return value;
-                                      });
+            return findByIdWithRouting(id, orgId)
+                    .thenApply(value -> {
+                        if (value == null) {
+                            return null;
+                        }
+                        if (!orgId.equals(((OrganizationScoped<?>) value).getOrganizationId())) {
+                            return null;
+                        }
+                        return value;
+                    });
+        }
+        return findByIdWithRouting(id, getRoutingKeyFromId(id));
+    }
+
+    private CompletableFuture<T> findByIdWithRouting(String id, String routing) {
+        if (readCache != null) {
+            return readCache.get(id, routing, () -> crudServiceTemplate.findById(indexName, id, type,
+                                                                                routing != null ? b -> b.routing(routing) : null));
         }
-        String routing = getRoutingKeyFromId(id);
         return crudServiceTemplate.findById(indexName, id, type,
                                             routing != null ? b -> b.routing(routing) : null);
     }
@@ -113,7 +155,10 @@ public abstract class AbstractCrudService<T extends Identifiable<String>> implem
         String routing = getObjectRoutingKey(value);
         return crudServiceTemplate.save(indexName, value.getId(), value,
                                         routing != null ? b -> b.routing(routing) : null)
-                                  .thenApply(indexResponse -> value);
+                                  .thenApply(indexResponse -> {
+                                      invalidateCachedEntity(value.getId());
+                                      return value;
+                                  });
     }
 
     @Override
@@ -141,7 +186,10 @@ public abstract class AbstractCrudService<T extends Identifiable<String>> implem
         String routing = getObjectRoutingKey(value);
         return crudServiceTemplate.saveSync(indexName, value.getId(), value,
                                             routing != null ? b -> b.routing(routing) : null)
-                                  .thenApply(indexResponse -> value);
+                                  .thenApply(indexResponse -> {
+                                      invalidateCachedEntity(value.getId());
+                                      return value;
+                                  });
     }
 
     /**
@@ -9,6 +9,7 @@ import org.kinotic.os.api.services.ApplicationService;
 import org.kinotic.os.api.services.ProjectService;
 import org.kinotic.os.api.services.iam.OidcConfigurationService;
 import org.kinotic.os.api.utils.DomainUtil;
+import org.kinotic.os.internal.api.services.cache.CrudReadCacheManager;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
@@ -26,12 +27,14 @@ public class DefaultApplicationService extends AbstractCrudService<Application>
                                      ProjectService projectService,
                                      OidcConfigurationService oidcConfigurationService,
                                      CrudServiceTemplate crudServiceTemplate,
-                                     SecurityContext securityContext) {
+                                     SecurityContext securityContext,
+                                     CrudReadCacheManager readCacheManager) {
         super("kinotic_application",
               Application.class,
               esAsyncClient,
               crudServiceTemplate,
               securityContext);
+        enableReadCache(readCacheManager);
         this.projectService = projectService;
         this.oidcConfigurationService = oidcConfigurationService;
     }
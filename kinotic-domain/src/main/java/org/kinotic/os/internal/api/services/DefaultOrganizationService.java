@@ -6,6 +6,7 @@ import org.apache.commons.lang3.Validate;
 import org.kinotic.core.api.security.SecurityContext;
 import org.kinotic.os.api.model.Organization;
 import org.kinotic.os.api.services.OrganizationService;
+import org.kinotic.os.internal.api.services.cache.CrudReadCacheManager;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
@@ -18,8 +19,10 @@ public class DefaultOrganizationService extends AbstractCrudService<Organization
 
     public DefaultOrganizationService(CrudServiceTemplate crudServiceTemplate,
                                       ElasticsearchAsyncClient esAsyncClient,
-                                      SecurityContext securityContext) {
+                                      SecurityContext securityContext,
+                                      CrudReadCacheManager readCacheManager) {
         super("kinotic_organization", Organization.class, esAsyncClient, crudServiceTemplate, securityContext);
+        enableReadCache(readCacheManager);
     }
 
     @Override
@@ -11,6 +11,7 @@ import org.kinotic.os.api.model.Project;
 import org.kinotic.os.api.services.ProjectRepoProvisioner;
 import org.kinotic.os.api.services.ProjectService;
 import org.kinotic.os.api.utils.DomainUtil;
+import org.kinotic.os.internal.api.services.cache.CrudReadCacheManager;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
@@ -29,12 +30,14 @@ public class DefaultProjectService extends AbstractApplicationCrudService<Projec
     public DefaultProjectService(CrudServiceTemplate crudServiceTemplate,
                                  ElasticsearchAsyncClient esAsyncClient,
                                  SecurityContext securityContext,
-                                 ProjectRepoProvisioner repoProvisioner) {
+                                 ProjectRepoProvisioner repoProvisioner,
+                                 CrudReadCacheManager readCacheManager) {
         super(INDEX,
               Project.class,
               esAsyncClient,
               crudServiceTemplate,
               securityContext);
+        enableReadCache(readCacheManager);
         this.repoProvisioner = repoProvisioner;
     }
 
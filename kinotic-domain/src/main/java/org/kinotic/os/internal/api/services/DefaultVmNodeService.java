@@ -1,54 +1,90 @@
 package org.kinotic.os.internal.api.services;
 
 import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.Validate;
-import org.kinotic.core.api.crud.Page;
+import org.kinotic.core.api.crud.CursorPage;
 import org.kinotic.core.api.crud.Pageable;
+import org.kinotic.core.api.crud.Sort;
 import org.kinotic.core.api.security.SecurityContext;
+import org.kinotic.os.api.config.KinoticDomainProperties;
 import org.kinotic.os.api.model.workload.VmNode;
 import org.kinotic.os.api.model.workload.VmNodeStatus;
 import org.kinotic.os.api.services.VmNodeService;
+import org.kinotic.os.internal.api.services.placement.NodeCapacity;
+import org.kinotic.os.internal.api.services.placement.VmNodePlacementEngine;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
+@Slf4j
 @Component
 public class DefaultVmNodeService extends AbstractCrudService<VmNode> implements VmNodeService {
 
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int MAX_PERSIST_ATTEMPTS = 5;
+
+    private final VmNodePlacementEngine placementEngine;
+    private final KinoticDomainProperties properties;
+    private volatile CompletableFuture<Void> placementEngineLoaded;
+
     public DefaultVmNodeService(ElasticsearchAsyncClient esAsyncClient,
                                 CrudServiceTemplate crudServiceTemplate,
-                                SecurityContext securityContext) {
+                                SecurityContext securityContext,
+                                VmNodePlacementEngine placementEngine,
+                                KinoticDomainProperties properties) {
         super("kinotic_vm_node",
               VmNode.class,
               esAsyncClient,
               crudServiceTemplate,
               securityContext);
+        this.placementEngine = placementEngine;
+        this.properties = properties;
     }
 
     @Override
     public CompletableFuture<VmNode> findAvailableNode(int requiredCpus, int requiredMemoryMb, int requiredDiskMb) {
-        // Use a script query to compute available resources at query time.
-        // Available = total - allocated, and we need available >= required.
-        // For simplicity, we use range queries on the allocated fields combined with the totals.
-        // However, ES doesn't support computed fields in queries directly.
-        // Instead, we search for ONLINE nodes and then filter in code.
-        return crudServiceTemplate.search(indexName,
-                                          Pageable.create(0, 100, null),
-                                          type,
-                                          builder -> builder
-                .query(q -> q
-                        .bool(b -> b
-                                .filter(TermQuery.of(tq -> tq.field("status").value(VmNodeStatus.ONLINE.name()))._toQuery())
-                        )))
-                .thenApply(page -> page.getContent()
-                                       .stream()
-                                       .filter(node -> node.getAvailableCpus() >= requiredCpus
-                                               && node.getAvailableMemoryMb() >= requiredMemoryMb
-                                               && node.getAvailableDiskMb() >= requiredDiskMb)
-                                       .findFirst()
-                                       .orElse(null));
+        return ensurePlacementEngineLoaded().thenCompose(unused -> {
+            NodeCapacity capacity = placementEngine.find(requiredCpus,
+                                                         requiredMemoryMb,
+                                                         requiredDiskMb,
+                                                         properties.getDomain().getVmPlacementStrategy());
+            if (capacity == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return findById(capacity.nodeId());
+        });
+    }
+
+    @Override
+    public CompletableFuture<VmNode> reserveNode(int requiredCpus, int requiredMemoryMb, int requiredDiskMb) {
+        return ensurePlacementEngineLoaded().thenCompose(unused -> {
+            NodeCapacity reserved = placementEngine.reserve(requiredCpus,
+                                                            requiredMemoryMb,
+                                                            requiredDiskMb,
+                                                            properties.getDomain().getVmPlacementStrategy());
+            if (reserved == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return persistAllocation(reserved.nodeId(), 1);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseResources(String nodeId, int cpus, int memoryMb, int diskMb) {
+        Validate.notNull(nodeId, "nodeId cannot be null");
+        return ensurePlacementEngineLoaded().thenCompose(unused -> {
+            NodeCapacity released = placementEngine.release(nodeId, cpus, memoryMb, diskMb);
+            if (released == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return persistAllocation(released.nodeId(), 1).thenApply(node -> null);
+        });
     }
 
     @Override
@@ -56,7 +92,113 @@ public class DefaultVmNodeService extends AbstractCrudService<VmNode> implements
         Validate.notNull(entity, "VmNode cannot be null");
         Validate.notNull(entity.getId(), "VmNode id cannot be null");
         entity.setLastSeen(new Date());
-        return super.save(entity);
+        return super.save(entity).thenApply(saved -> {
+            placementEngine.upsert(saved);
+            return saved;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteById(String id) {
+        return super.deleteById(id).thenApply(unused -> {
+            placementEngine.remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * Writes the allocation tracked by the placement engine to the persisted node, so it is visible to queries.
+     * The placement engine remains the source of truth for allocations.
+     * The write is conditional on the version of the document that was read, and the allocation is read from the
+     * placement engine after the document, so a conflicting write is retried with the newer allocation rather than
+     * an older snapshot landing last.
+     */
+    private CompletableFuture<VmNode> persistAllocation(String nodeId, int attempt) {
+        return crudServiceTemplate.findById(indexName, nodeId, type, null, Function.identity()).thenCompose(result -> {
+            NodeCapacity capacity = placementEngine.getCapacity(nodeId);
+            if (!result.found() || result.source() == null || capacity == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            VmNode node = result.source();
+            node.setAllocatedCpus(capacity.allocatedCpus())
+                .setAllocatedMemoryMb(capacity.allocatedMemoryMb())
+                .setAllocatedDiskMb(capacity.allocatedDiskMb());
+            return crudServiceTemplate.save(indexName,
+                                            nodeId,
+                                            node,
+                                            builder -> builder.ifSeqNo(result.seqNo())
+                                                              .ifPrimaryTerm(result.primaryTerm()))
+                                      .thenApply(indexResponse -> {
+                                          invalidateCachedEntity(nodeId);
+                                          return node;
+                                      })
+                                      .exceptionallyCompose(throwable -> {
+                                          if (isConflict(throwable) && attempt < MAX_PERSIST_ATTEMPTS) {
+                                              log.debug("VmNode {} changed while persisting its allocation, retrying", nodeId);
+                                              return persistAllocation(nodeId, attempt + 1);
+                                          }
+                                          return CompletableFuture.failedFuture(throwable);
+                                      });
+        });
+    }
+
+    private static boolean isConflict(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof ElasticsearchException e && e.status() == 409;
+    }
+
+    /**
+     * Seeds the placement engine with all ONLINE nodes the first time a placement is requested on this node.
+     * Nodes already known to the engine, for example from the replicated cache, keep their current allocation.
+     */
+    private CompletableFuture<Void> ensurePlacementEngineLoaded() {
+        CompletableFuture<Void> ret = placementEngineLoaded;
+        if (ret == null) {
+            synchronized (this) {
+                ret = placementEngineLoaded;
+                if (ret == null) {
+                    CompletableFuture<Void> loading = loadOnlineNodes(null);
+                    // Assigned before the completion handler is added, since it runs immediately if loading already failed
+                    placementEngineLoaded = loading;
+                    loading.whenComplete((unused, throwable) -> {
+                        if (throwable != null) {
+                            log.error("Failed to load VmNodes into the placement engine", throwable);
+                            synchronized (this) {
+                                if (placementEngineLoaded == loading) {
+                                    placementEngineLoaded = null; // allow a later placement to try again
+                                }
+                            }
+                        } else {
+                            log.debug("Loaded {} VmNodes into the placement engine", placementEngine.size());
+                        }
+                    });
+                    ret = loading;
+                }
+            }
+        }
+        return ret;
+    }
+
+    private CompletableFuture<Void> loadOnlineNodes(String cursor) {
+        return crudServiceTemplate.search(indexName,
+                                          Pageable.create(cursor, LOAD_PAGE_SIZE, Sort.by("id")),
+                                          type,
+                                          builder -> builder
+                .query(q -> q
+                        .bool(b -> b
+                                .filter(TermQuery.of(tq -> tq.field("status").value(VmNodeStatus.ONLINE.name()))._toQuery())
+                        )))
+                .thenCompose(page -> {
+                    page.getContent().forEach(placementEngine::addIfAbsent);
+                    String nextCursor = ((CursorPage<VmNode>) page).getCursor();
+                    if (page.getContent().size() < LOAD_PAGE_SIZE || nextCursor == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return loadOnlineNodes(nextCursor);
+                });
     }
 
 }
@@ -11,12 +11,14 @@ import org.kinotic.core.api.security.SecurityService;
 import org.kinotic.os.api.model.iam.AuthType;
 import org.kinotic.os.api.model.iam.IamUser;
 import org.kinotic.os.api.services.iam.IamUserService;
-import org.kinotic.os.api.utils.DomainUtil;
 import org.kinotic.os.internal.api.model.iam.IamCredential;
+import org.kinotic.os.internal.api.services.iam.AuthenticatedParticipantCache;
 import org.kinotic.os.internal.api.services.iam.IamCredentialService;
 import org.kinotic.os.internal.api.services.iam.KinoticJwtIssuer;
+import org.kinotic.os.internal.api.services.iam.PasswordHashingService;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +42,9 @@ import java.util.concurrent.CompletableFuture;
  * </ol>
  * IdP JWTs are never accepted directly here — the OIDC roundtrip terminates at the gateway,
  * which mints a Kinotic JWT for the STOMP handoff.
+ * <p>
+ * Successful authentications are cached in the {@link AuthenticatedParticipantCache}, so steady state
+ * requests with the same credentials cost a single digest and cache lookup.
  */
 @Slf4j
 @Component
@@ -49,6 +54,8 @@ public class KinoticSecurityService implements SecurityService {
     private final IamUserService userService;
     private final IamCredentialService credentialService;
     private final KinoticJwtIssuer jwtIssuer;
+    private final AuthenticatedParticipantCache participantCache;
+    private final PasswordHashingService passwordHashingService;
 
     /**
      * Entry point for all authentication. Parses the {@code authScopeType}/{@code authScopeId}
@@ -79,7 +86,13 @@ public class KinoticSecurityService implements SecurityService {
         String authHeader = authInfo.get("Authorization");
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authenticateKinoticJwt(authScopeType, authScopeId, authHeader.substring(7));
+            String token = authHeader.substring(7);
+            String cacheKey = participantCache.createKey(authScopeType, authScopeId, "Bearer", token);
+            Participant cached = participantCache.get(cacheKey);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            return authenticateKinoticJwt(authScopeType, authScopeId, token, cacheKey);
         } else {
             return authenticateEmailPassword(authScopeType, authScopeId, authInfo);
         }
@@ -106,6 +119,13 @@ public class KinoticSecurityService implements SecurityService {
             return CompletableFuture.failedFuture(new AuthenticationException("login and passcode headers are required for email/password authentication"));
         }
 
+        String cacheKey = participantCache.createKey(authScopeType, authScopeId, "Basic", email, password);
+        Participant cached = participantCache.get(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long generation = participantCache.generation();
+
         return userService.findByEmailAndScope(email, authScopeType, authScopeId)
                           .thenCompose(user -> {
                               if (user == null) {
@@ -119,6 +139,10 @@ public class KinoticSecurityService implements SecurityService {
                               }
                               return credentialService.findById(user.getId())
                                                       .thenCompose(credential -> verifyPasswordAndCreateParticipant(user, credential, password));
+                          })
+                          .thenApply(participant -> {
+                              participantCache.put(cacheKey, participant, null, generation);
+                              return participant;
                           });
     }
 
@@ -128,10 +152,14 @@ public class KinoticSecurityService implements SecurityService {
         if (credential == null) {
             return CompletableFuture.failedFuture(new AuthenticationException("Invalid credentials"));
         }
-        if (!DomainUtil.verifyPassword(password, credential.getPasswordHash())) {
-            return CompletableFuture.failedFuture(new AuthenticationException("Invalid credentials"));
-        }
-        return CompletableFuture.completedFuture(createParticipantFromUser(user));
+        // BCrypt is slow by design, so it runs on the dedicated password hashing pool rather than the calling thread
+        return passwordHashingService.verify(PasswordHashingService.scopeOf(user), password, credential.getPasswordHash())
+                                     .thenCompose(matches -> {
+                                         if (!matches) {
+                                             return CompletableFuture.failedFuture(new AuthenticationException("Invalid credentials"));
+                                         }
+                                         return CompletableFuture.completedFuture(createParticipantFromUser(user));
+                                     });
     }
 
     /**
@@ -143,8 +171,10 @@ public class KinoticSecurityService implements SecurityService {
      */
     private CompletableFuture<Participant> authenticateKinoticJwt(String authScopeType,
                                                                   String authScopeId,
-                                                                  String token) {
+                                                                  String token,
+                                                                  String cacheKey) {
         CompletableFuture<Participant> result = new CompletableFuture<>();
+        long generation = participantCache.generation();
         jwtIssuer.authenticate(token)
                  .onSuccess(user -> {
                      JsonObject p = user.principal();
@@ -174,7 +204,13 @@ public class KinoticSecurityService implements SecurityService {
                          } else if (!iamUser.isEnabled()) {
                              result.completeExceptionally(new AuthenticationException("User account is disabled"));
                          } else {
-                             result.complete(createParticipantFromUser(iamUser));
+                             Participant participant = createParticipantFromUser(iamUser);
+                             Long exp = p.getLong("exp");
+                             participantCache.put(cacheKey,
+                                                  participant,
+                                                  exp != null ? Instant.ofEpochSecond(exp) : null,
+                                                  generation);
+                             result.complete(participant);
                          }
                      });
                  })
@@ -0,0 +1,12 @@
+package org.kinotic.os.internal.api.services.cache;
+
+import java.io.Serializable;
+
+/**
+ * Message sent over the Ignite topic to invalidate a cached entity on all other nodes.
+ *
+ * @param indexName the index the entity is stored in
+ * @param id        the id of the entity that changed
+ */
+public record CrudCacheInvalidation(String indexName, String id) implements Serializable {
+}
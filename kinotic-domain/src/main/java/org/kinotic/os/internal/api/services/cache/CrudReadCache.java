@@ -0,0 +1,139 @@
+package org.kinotic.os.internal.api.services.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.kinotic.os.api.config.CrudCacheProperties;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for a single index, used by {@code AbstractCrudService.findById}.
+ * Entries are keyed by id and routing, and are stored as serialized json so callers can freely
+ * mutate the entities they are handed without corrupting the cache.
+ * <p>
+ * Instances are created by {@link CrudReadCacheManager#createCache(String, Class)}.
+ */
+@Slf4j
+public class CrudReadCache<T> {
+
+    private final String indexName;
+    private final Class<T> type;
+    private final ObjectMapper objectMapper;
+    private final CrudReadCacheManager manager;
+    private final Cache<Key, byte[]> cache;
+    /**
+     * Incremented on every invalidation, so a load that started before an invalidation does not
+     * populate the cache with a stale value.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongCounter requestCounter;
+    private final Attributes hitAttributes;
+    private final Attributes missAttributes;
+
+    CrudReadCache(String indexName,
+                  Class<T> type,
+                  CrudCacheProperties properties,
+                  ObjectMapper objectMapper,
+                  CrudReadCacheManager manager,
+                  LongCounter requestCounter) {
+        this.indexName = indexName;
+        this.type = type;
+        this.objectMapper = objectMapper;
+        this.manager = manager;
+        this.requestCounter = requestCounter;
+        this.cache = Caffeine.newBuilder()
+                             .expireAfterWrite(properties.getTtl())
+                             .maximumSize(properties.getMaximumSize())
+                             .recordStats()
+                             .build();
+        this.hitAttributes = Attributes.builder()
+                                       .put("index", indexName)
+                                       .put("result", "hit")
+                                       .build();
+        this.missAttributes = Attributes.builder()
+                                        .put("index", indexName)
+                                        .put("result", "miss")
+                                        .build();
+    }
+
+    /**
+     * Returns the cached entity if present, otherwise loads it with the given loader and caches the result.
+     * Missing entities (null results) are not cached.
+     *
+     * @param id      of the entity
+     * @param routing used to load the entity, or null if none
+     * @param loader  to load the entity from the backing store
+     * @return a {@link CompletableFuture} that will complete with the entity or null if it does not exist
+     */
+    public CompletableFuture<T> get(String id, String routing, Supplier<CompletableFuture<T>> loader) {
+        Key key = new Key(id, routing);
+        byte[] cached = cache.getIfPresent(key);
+        if (cached != null) {
+            try {
+                T value = objectMapper.readValue(cached, type);
+                requestCounter.add(1, hitAttributes);
+                return CompletableFuture.completedFuture(value);
+            } catch (Exception e) {
+                log.warn("Could not read cached {} with id {}, reloading", type.getSimpleName(), id, e);
+                cache.invalidate(key);
+            }
+        }
+        requestCounter.add(1, missAttributes);
+
+        long startGeneration = generation.get();
+        return loader.get().thenApply(value -> {
+            if (value != null) {
+                try {
+                    byte[] bytes = objectMapper.writeValueAsBytes(value);
+                    // only populate if no invalidation happened while we were loading
+                    if (generation.get() == startGeneration) {
+                        cache.put(key, bytes);
+                    }
+                } catch (Exception e) {
+                    log.warn("Could not cache {} with id {}", type.getSimpleName(), id, e);
+                }
+            }
+            return value;
+        });
+    }
+
+    /**
+     * Invalidates the entity locally and on all other nodes in the cluster.
+     *
+     * @param id of the entity that was modified or deleted
+     */
+    public void invalidate(String id) {
+        invalidateLocal(id);
+        manager.publishInvalidation(indexName, id);
+    }
+
+    /**
+     * Invalidates all cached entries for the given id, regardless of the routing used to load them.
+     */
+    void invalidateLocal(String id) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.id().equals(id));
+    }
+
+    String getIndexName() {
+        return indexName;
+    }
+
+    double hitRate() {
+        return cache.stats().hitRate();
+    }
+
+    long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private record Key(String id, String routing) {
+    }
+}
@@ -0,0 +1,108 @@
+package org.kinotic.os.internal.api.services.cache;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.cluster.ClusterGroup;
+import org.kinotic.os.api.config.CrudCacheProperties;
+import org.kinotic.os.api.config.KinoticDomainProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates the {@link CrudReadCache}s used by crud services that opt in to read caching,
+ * and keeps them consistent across the cluster by broadcasting invalidations over an Ignite topic.
+ */
+@Slf4j
+@Component
+public class CrudReadCacheManager {
+
+    public static final String INVALIDATION_TOPIC = "kinotic.crud.cache.invalidation";
+
+    private final CrudCacheProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Ignite ignite;
+    private final ConcurrentHashMap<String, CrudReadCache<?>> caches = new ConcurrentHashMap<>();
+    private final LongCounter requestCounter;
+
+    public CrudReadCacheManager(KinoticDomainProperties domainProperties,
+                                ObjectMapper objectMapper,
+                                OpenTelemetry openTelemetry,
+                                @Autowired(required = false) Ignite ignite) {
+        this.properties = domainProperties.getDomain().getCrudCache();
+        this.objectMapper = objectMapper;
+        this.ignite = ignite;
+
+        Meter meter = openTelemetry.getMeter("kinotic.crud.cache");
+
+        requestCounter = meter.counterBuilder("crud.cache.requests")
+                              .setDescription("Crud read cache lookups (hit or miss)")
+                              .setUnit("requests")
+                              .build();
+
+        meter.gaugeBuilder("crud.cache.hit.ratio")
+             .setDescription("Crud read cache hit ratio since startup")
+             .buildWithCallback(measurement -> caches.values().forEach(
+                     cache -> measurement.record(cache.hitRate(), Attributes.builder()
+                                                                            .put("index", cache.getIndexName())
+                                                                            .build())));
+
+        meter.gaugeBuilder("crud.cache.size")
+             .setDescription("Number of entities held in the crud read cache")
+             .setUnit("entities")
+             .ofLongs()
+             .buildWithCallback(measurement -> caches.values().forEach(
+                     cache -> measurement.record(cache.estimatedSize(), Attributes.builder()
+                                                                                  .put("index", cache.getIndexName())
+                                                                                  .build())));
+
+        // Will be null when clustering is disabled
+        if (ignite != null) {
+            ignite.message().localListen(INVALIDATION_TOPIC, (nodeId, message) -> {
+                if (message instanceof CrudCacheInvalidation invalidation) {
+                    CrudReadCache<?> cache = caches.get(invalidation.indexName());
+                    if (cache != null) {
+                        cache.invalidateLocal(invalidation.id());
+                    }
+                }
+                return true; // keep listening
+            });
+        }
+    }
+
+    /**
+     * Creates the read cache for the given index.
+     *
+     * @param indexName the index the entities are stored in
+     * @param type      of the entities
+     * @return the cache, or null if crud read caching is disabled
+     */
+    public <T> CrudReadCache<T> createCache(String indexName, Class<T> type) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        CrudReadCache<T> cache = new CrudReadCache<>(indexName, type, properties, objectMapper, this, requestCounter);
+        caches.put(indexName, cache);
+        return cache;
+    }
+
+    void publishInvalidation(String indexName, String id) {
+        if (ignite == null) {
+            return;
+        }
+        try {
+            ClusterGroup remotes = ignite.cluster().forRemotes();
+            if (!remotes.nodes().isEmpty()) {
+                ignite.message(remotes).send(INVALIDATION_TOPIC, new CrudCacheInvalidation(indexName, id));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to publish crud cache invalidation for {} {}", indexName, id, e);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.kinotic.os.internal.api.services.iam;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.cluster.ClusterGroup;
+import org.kinotic.core.api.security.Participant;
+import org.kinotic.os.api.config.AuthenticationCacheProperties;
+import org.kinotic.os.api.config.KinoticDomainProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches successfully authenticated {@link Participant}s so repeated requests with the same credentials
+ * do not pay for JWT verification, bcrypt checks and user lookups every time.
+ * <p>
+ * Entries are keyed by a SHA-256 digest of the auth scope and credentials, so no raw credentials are held in memory.
+ * Entries created from a JWT never outlive the token's expiry. Failed authentications are never cached.
+ * <p>
+ * Entries are invalidated by user id whenever an IamUser or its credentials are saved or deleted,
+ * and the invalidation is broadcast to the rest of the cluster over an Ignite topic.
+ */
+@Slf4j
+@Component
+public class AuthenticatedParticipantCache {
+
+    public static final String INVALIDATION_TOPIC = "kinotic.auth.cache.invalidation";
+
+    private final AuthenticationCacheProperties properties;
+    private final Ignite ignite;
+    private final Cache<String, CachedParticipant> cache;
+    // Incremented on every invalidation so an authentication that started before the invalidation cannot repopulate the cache
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuthenticatedParticipantCache(KinoticDomainProperties domainProperties,
+                                         @Autowired(required = false) Ignite ignite) {
+        this.properties = domainProperties.getDomain().getAuthenticationCache();
+        this.ignite = ignite;
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(properties.getMaximumSize())
+                             .expireAfter(new CachedParticipantExpiry())
+                             .build();
+
+        // Will be null when clustering is disabled
+        if (ignite != null) {
+            ignite.message().localListen(INVALIDATION_TOPIC, (nodeId, message) -> {
+                if (message instanceof String userId) {
+                    invalidateLocal(userId);
+                }
+                return true; // keep listening
+            });
+        }
+    }
+
+    /**
+     * Creates the cache key for the given scope and credentials.
+     *
+     * @param authScopeType the scope type the caller is authenticating against
+     * @param authScopeId   the scope id the caller is authenticating against
+     * @param credentials   the credential parts, such as the bearer token or the login and passcode
+     * @return the digest to use as the key, or null if caching is disabled
+     */
+    public String createKey(String authScopeType, String authScopeId, String... credentials) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(authScopeType.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(authScopeId.getBytes(StandardCharsets.UTF_8));
+            for (String credential : credentials) {
+                digest.update((byte) 0);
+                digest.update(credential.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @return the current generation, this must be read before authenticating and passed to {@link #put(String, Participant, Instant, long)}
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * @param key created by {@link #createKey(String, String, String...)}, may be null
+     * @return the cached participant or null if none is cached
+     */
+    public Participant get(String key) {
+        if (key == null) {
+            return null;
+        }
+        CachedParticipant cached = cache.getIfPresent(key);
+        return cached != null ? cached.participant() : null;
+    }
+
+    /**
+     * Caches a successfully authenticated participant.
+     *
+     * @param key         created by {@link #createKey(String, String, String...)}, if null nothing is cached
+     * @param participant that was authenticated
+     * @param expiresAt   when the credentials expire such as the JWT {@code exp}, or null if they do not expire
+     * @param generation  the value of {@link #generation()} read before authentication started
+     */
+    public void put(String key, Participant participant, Instant expiresAt, long generation) {
+        if (key == null) {
+            return;
+        }
+        long ttlNanos = properties.getTtl().toNanos();
+        if (expiresAt != null) {
+            long untilExpiry = Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis()) * 1_000_000L;
+            ttlNanos = Math.min(ttlNanos, untilExpiry);
+        }
+        if (ttlNanos <= 0) {
+            return;
+        }
+        CachedParticipant cachedParticipant = new CachedParticipant(participant, ttlNanos);
+        cache.put(key, cachedParticipant);
+        // An invalidation may have raced with the authentication, in which case the entry could be stale
+        if (this.generation.get() != generation) {
+            cache.asMap().remove(key, cachedParticipant);
+        }
+    }
+
+    /**
+     * Removes all cached participants for the given user on this node and all other nodes in the cluster.
+     *
+     * @param userId the id of the IamUser that changed
+     */
+    public void invalidate(String userId) {
+        invalidateLocal(userId);
+        if (ignite == null) {
+            return;
+        }
+        try {
+            ClusterGroup remotes = ignite.cluster().forRemotes();
+            if (!remotes.nodes().isEmpty()) {
+                ignite.message(remotes).send(INVALIDATION_TOPIC, userId);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to publish authentication cache invalidation for user {}", userId, e);
+        }
+    }
+
+    void invalidateLocal(String userId) {
+        generation.incrementAndGet();
+        cache.asMap().values().removeIf(cached -> userId.equals(cached.participant().getId()));
+    }
+
+    private record CachedParticipant(Participant participant, long ttlNanos) {
+    }
+
+    private static class CachedParticipantExpiry implements Expiry<String, CachedParticipant> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedParticipant value, long currentTime) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedParticipant value, long currentTime, long currentDuration) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedParticipant value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
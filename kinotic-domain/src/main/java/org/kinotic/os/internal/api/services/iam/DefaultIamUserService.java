@@ -11,7 +11,6 @@ import org.kinotic.core.api.security.SecurityContext;
 import org.kinotic.os.api.model.iam.AuthType;
 import org.kinotic.os.api.model.iam.IamUser;
 import org.kinotic.os.api.services.iam.IamUserService;
-import org.kinotic.os.api.utils.DomainUtil;
 import org.kinotic.os.internal.api.services.AbstractCrudService;
 import org.kinotic.os.internal.api.services.CrudServiceTemplate;
 import org.kinotic.os.internal.api.model.iam.IamCredential;
@@ -25,13 +24,19 @@ import java.util.concurrent.CompletableFuture;
 public class DefaultIamUserService extends AbstractCrudService<IamUser> implements IamUserService {
 
     private final IamCredentialService credentialStore;
+    private final AuthenticatedParticipantCache participantCache;
+    private final PasswordHashingService passwordHashingService;
 
     public DefaultIamUserService(CrudServiceTemplate crudServiceTemplate,
                                  ElasticsearchAsyncClient esAsyncClient,
                                  IamCredentialService credentialStore,
-                                 SecurityContext securityContext) {
+                                 SecurityContext securityContext,
+                                 AuthenticatedParticipantCache participantCache,
+                                 PasswordHashingService passwordHashingService) {
         super("kinotic_iam_user", IamUser.class, esAsyncClient, crudServiceTemplate, securityContext);
         this.credentialStore = credentialStore;
+        this.participantCache = participantCache;
+        this.passwordHashingService = passwordHashingService;
     }
 
     @Override
@@ -52,7 +57,13 @@ public class DefaultIamUserService extends AbstractCrudService<IamUser> implemen
             entity.setId(UUID.randomUUID().toString());
         }
         entity.setUpdated(new Date());
-        return enforceUniqueEmailInScope(entity).thenCompose(v -> super.save(entity));
+        return enforceUniqueEmailInScope(entity)
+                .thenCompose(v -> super.save(entity))
+                .thenApply(saved -> {
+                    // the user may have been disabled, or had its scope or tenant changed
+                    participantCache.invalidate(saved.getId());
+                    return saved;
+                });
     }
 
     /**
@@ -168,16 +179,17 @@ public class DefaultIamUserService extends AbstractCrudService<IamUser> implemen
             user.setAuthType(password != null ? AuthType.LOCAL : AuthType.OIDC);
         }
 
-        return save(user)
-                .thenCompose(savedUser -> {
-                    if (password != null) {
-                        IamCredential credential = new IamCredential()
-                                .setId(savedUser.getId())
-                                .setPasswordHash(DomainUtil.hashPassword(password));
-                        return credentialStore.save(credential).thenApply(c -> savedUser);
-                    }
-                    return CompletableFuture.completedFuture(savedUser);
-                });
+        if (password == null) {
+            return save(user);
+        }
+        // Hash first, so a rejected or failed hash never leaves a user without a credential
+        return passwordHashingService
+                .hash(PasswordHashingService.scopeOf(user), password)
+                .thenCompose(hash -> save(user)
+                        .thenCompose(savedUser -> credentialStore.save(new IamCredential()
+                                                                               .setId(savedUser.getId())
+                                                                               .setPasswordHash(hash))
+                                                                 .thenApply(c -> savedUser)));
     }
 
 //    @Override // commented off the interface — kept for the eventual user-management UI
@@ -186,18 +198,33 @@ public class DefaultIamUserService extends AbstractCrudService<IamUser> implemen
         Validate.notNull(currentPassword, "currentPassword cannot be null");
         Validate.notNull(newPassword, "newPassword cannot be null");
 
-        return credentialStore.findById(userId)
-                .thenCompose(credential -> {
-                    if (credential == null) {
+        return findById(userId)
+                .thenCompose(user -> {
+                    if (user == null) {
                         return CompletableFuture.failedFuture(
-                                new IllegalArgumentException("No credential found for user " + userId));
+                                new IllegalArgumentException("No user found for id " + userId));
                     }
-                    if (!DomainUtil.verifyPassword(currentPassword, credential.getPasswordHash())) {
+                    return credentialStore.findById(userId)
+                                          .thenApply(credential -> new UserCredential(user, credential));
+                })
+                .thenCompose(userCredential -> {
+                    IamCredential credential = userCredential.credential();
+                    if (credential == null) {
                         return CompletableFuture.failedFuture(
-                                new IllegalArgumentException("Current password is incorrect"));
+                                new IllegalArgumentException("No credential found for user " + userId));
                     }
-                    credential.setPasswordHash(DomainUtil.hashPassword(newPassword));
-                    return credentialStore.save(credential).thenApply(c -> (Void) null);
+                    String scope = PasswordHashingService.scopeOf(userCredential.user());
+                    return passwordHashingService
+                            .verify(scope, currentPassword, credential.getPasswordHash())
+                            .thenCompose(matches -> {
+                                if (!matches) {
+                                    return CompletableFuture.failedFuture(
+                                            new IllegalArgumentException("Current password is incorrect"));
+                                }
+                                return passwordHashingService.hash(scope, newPassword);
+                            })
+                            .thenCompose(hash -> credentialStore.save(credential.setPasswordHash(hash)))
+                            .thenApply(c -> (Void) null);
                 });
     }
 
@@ -206,10 +233,18 @@ public class DefaultIamUserService extends AbstractCrudService<IamUser> implemen
         Validate.notNull(userId, "userId cannot be null");
         Validate.notNull(newPassword, "newPassword cannot be null");
 
-        IamCredential credential = new IamCredential()
-                .setId(userId)
-                .setPasswordHash(DomainUtil.hashPassword(newPassword));
-        return credentialStore.save(credential).thenApply(c -> null);
+        return findById(userId)
+                .thenCompose(user -> {
+                    if (user == null) {
+                        return CompletableFuture.failedFuture(
+                                new IllegalArgumentException("No user found for id " + userId));
+                    }
+                    return passwordHashingService.hash(PasswordHashingService.scopeOf(user), newPassword);
+                })
+                .thenCompose(hash -> credentialStore.save(new IamCredential()
+                                                                  .setId(userId)
+                                                                  .setPasswordHash(hash)))
+                .thenApply(c -> null);
     }
 
     @Override
@@ -218,4 +253,7 @@ public class DefaultIamUserService extends AbstractCrudService<IamUser> implemen
                 .thenCompose(v -> super.deleteById(id));
     }
 
+    private record UserCredential(IamUser user, IamCredential credential) {
+    }
+
 }
@@ -7,7 +7,6 @@ import org.kinotic.os.api.model.iam.AuthType;
 import org.kinotic.os.api.model.iam.IamUser;
 import org.kinotic.os.api.services.iam.IamUserService;
 import org.kinotic.os.api.services.iam.LocalAuthenticationService;
-import org.kinotic.os.api.utils.DomainUtil;
 import org.springframework.stereotype.Component;
 
 import java.util.concurrent.CompletableFuture;
@@ -20,6 +19,7 @@ public class DefaultLocalAuthenticationService implements LocalAuthenticationSer
 
     private final IamUserService iamUserService;
     private final IamCredentialService credentialStore;
+    private final PasswordHashingService passwordHashingService;
 
     @Override
     public CompletableFuture<IamUser> authenticateLocal(String email, String password) {
@@ -47,12 +47,14 @@ public class DefaultLocalAuthenticationService implements LocalAuthenticationSer
                 return CompletableFuture.completedFuture(null);
             }
             return credentialStore.findById(user.getId())
-                                  .thenApply(credential -> {
-                                      if (credential == null
-                                              || !DomainUtil.verifyPassword(password, credential.getPasswordHash())) {
-                                          return null;
+                                  .thenCompose(credential -> {
+                                      if (credential == null) {
+                                          return CompletableFuture.completedFuture(null);
                                       }
-                                      return user;
+                                      return passwordHashingService.verify(PasswordHashingService.scopeOf(user),
+                                                                           password,
+                                                                           credential.getPasswordHash())
+                                                                   .thenApply(matches -> matches ? user : null);
                                   });
         });
     }
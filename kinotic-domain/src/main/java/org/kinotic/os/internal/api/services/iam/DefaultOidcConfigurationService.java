@@ -11,6 +11,7 @@ import org.kinotic.os.api.services.OrganizationService;
 import org.kinotic.os.api.services.iam.OidcConfigurationService;
 import org.kinotic.os.internal.api.services.AbstractCrudService;
 import org.kinotic.os.internal.api.services.CrudServiceTemplate;
+import org.kinotic.os.internal.api.services.cache.CrudReadCacheManager;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
@@ -27,8 +28,10 @@ public class DefaultOidcConfigurationService extends AbstractCrudService<OidcCon
     public DefaultOidcConfigurationService(CrudServiceTemplate crudServiceTemplate,
                                            ElasticsearchAsyncClient esAsyncClient,
                                            OrganizationService organizationService,
-                                           SecurityContext securityContext) {
+                                           SecurityContext securityContext,
+                                           CrudReadCacheManager readCacheManager) {
         super("kinotic_oidc_configuration", OidcConfiguration.class, esAsyncClient, crudServiceTemplate, securityContext);
+        enableReadCache(readCacheManager);
         this.organizationService = organizationService;
     }
 
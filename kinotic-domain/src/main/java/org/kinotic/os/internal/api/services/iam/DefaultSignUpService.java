@@ -14,7 +14,6 @@ import org.kinotic.os.api.model.iam.SignUpRequest;
 import org.kinotic.os.api.services.OrganizationService;
 import org.kinotic.os.api.services.iam.IamUserService;
 import org.kinotic.os.api.services.iam.SignUpService;
-import org.kinotic.os.api.utils.DomainUtil;
 import org.kinotic.os.internal.api.services.CrudServiceTemplate;
 import org.kinotic.os.internal.api.services.EmailService;
 import org.kinotic.os.internal.api.model.iam.IamCredential;
@@ -38,6 +37,7 @@ public class DefaultSignUpService implements SignUpService {
     private final IamCredentialService credentialStore;
     private final OrganizationService organizationService;
     private final EmailService emailService;
+    private final PasswordHashingService passwordHashingService;
 
     @PostConstruct
     public void verifyIndexExists() {
@@ -106,39 +106,41 @@ public class DefaultSignUpService implements SignUpService {
     }
 
     private CompletableFuture<String> createOrgAndUser(SignUpRequest request, String password) {
-        // Create the organization
-        Organization org = new Organization()
-                .setName(request.getOrgName())
-                .setDescription(request.getOrgDescription());
-
-        return organizationService.save(org)
-                .thenCompose(savedOrg -> {
-                    // Create the user scoped to the new organization
-                    IamUser user = new IamUser()
-                            .setId(UUID.randomUUID().toString())
-                            .setEmail(request.getEmail())
-                            .setDisplayName(request.getDisplayName())
-                            .setAuthType(AuthType.LOCAL)
-                            .setAuthScopeType("ORGANIZATION")
-                            .setAuthScopeId(savedOrg.getId())
-                            .setEnabled(true)
-                            .setCreated(new Date())
-                            .setUpdated(new Date());
-
-                    return userService.save(user)
-                            .thenCompose(savedUser -> {
-                                // Update org with createdBy
-                                savedOrg.setCreatedBy(savedUser.getId());
-                                return organizationService.save(savedOrg)
-                                        .thenApply(updatedOrg -> savedUser);
-                            })
-                            .thenCompose(savedUser -> {
-                                // Create the credential with the user-supplied password
-                                IamCredential credential = new IamCredential()
-                                        .setId(savedUser.getId())
-                                        .setPasswordHash(DomainUtil.hashPassword(password));
-                                return credentialStore.save(credential)
-                                        .thenApply(c -> savedOrg.getId());
+        // Hash first, so a rejected or failed hash never leaves an organization or user without a credential
+        return passwordHashingService.hash(PasswordHashingService.SIGN_UP_SCOPE, password)
+                .thenCompose(hash -> {
+                    // Create the organization
+                    Organization org = new Organization()
+                            .setName(request.getOrgName())
+                            .setDescription(request.getOrgDescription());
+
+                    return organizationService.save(org)
+                            .thenCompose(savedOrg -> {
+                                // Create the user scoped to the new organization
+                                IamUser user = new IamUser()
+                                        .setId(UUID.randomUUID().toString())
+                                        .setEmail(request.getEmail())
+                                        .setDisplayName(request.getDisplayName())
+                                        .setAuthType(AuthType.LOCAL)
+                                        .setAuthScopeType("ORGANIZATION")
+                                        .setAuthScopeId(savedOrg.getId())
+                                        .setEnabled(true)
+                                        .setCreated(new Date())
+                                        .setUpdated(new Date());
+
+                                return userService.save(user)
+                                        .thenCompose(savedUser -> {
+                                            // Update org with createdBy
+                                            savedOrg.setCreatedBy(savedUser.getId());
+                                            return organizationService.save(savedOrg)
+                                                    .thenApply(updatedOrg -> savedUser);
+                                        })
+                                        .thenCompose(savedUser ->
+                                            // Create the credential with the user-supplied password
+                                            credentialStore.save(new IamCredential()
+                                                                         .setId(savedUser.getId())
+                                                                         .setPasswordHash(hash))
+                                                    .thenApply(c -> savedOrg.getId()));
                             });
                 })
                 .thenCompose(orgId ->
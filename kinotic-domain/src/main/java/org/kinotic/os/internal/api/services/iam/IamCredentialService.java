@@ -17,6 +17,7 @@ public class IamCredentialService {
     private static final String INDEX_NAME = "kinotic_iam_credential";
 
     private final CrudServiceTemplate crudServiceTemplate;
+    private final AuthenticatedParticipantCache participantCache;
 
     @PostConstruct
     public void verifyIndexExists() {
@@ -32,12 +33,19 @@ public class IamCredentialService {
                                             credential.getId(),
                                             credential,
                                             null)
-                                  .thenApply(response -> credential);
+                                  .thenApply(response -> {
+                                      // a changed password must not keep authenticating with the old one
+                                      participantCache.invalidate(credential.getId());
+                                      return credential;
+                                  });
     }
 
     public CompletableFuture<Void> deleteById(String userId) {
         return crudServiceTemplate.deleteById(INDEX_NAME, userId, null)
-                                  .thenApply(response -> null);
+                                  .thenApply(response -> {
+                                      participantCache.invalidate(userId);
+                                      return null;
+                                  });
     }
 
 }
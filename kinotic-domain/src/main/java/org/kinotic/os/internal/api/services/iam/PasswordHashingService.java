@@ -0,0 +1,189 @@
+package org.kinotic.os.internal.api.services.iam;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.kinotic.core.api.exceptions.TooManyRequestsException;
+import org.kinotic.os.api.config.KinoticDomainProperties;
+import org.kinotic.os.api.config.PasswordHashingProperties;
+import org.kinotic.os.api.model.iam.IamUser;
+import org.kinotic.os.api.utils.DomainUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt password hashing and verification on a dedicated, bounded pool of threads.
+ * BCrypt is deliberately slow, so running it on whatever thread completed a previous future (often a Vert.x event loop
+ * or an Elasticsearch I/O thread) lets a burst of logins stall unrelated traffic.
+ * <p>
+ * Admission control is applied before any work is queued. Operations are rejected with a {@link TooManyRequestsException}
+ * when the queue is full, or when the auth scope already has {@link PasswordHashingProperties#getMaxConcurrentPerScope()}
+ * operations queued or running.
+ */
+@Slf4j
+@Component
+public class PasswordHashingService {
+
+    private static final AttributeKey<String> OPERATION = AttributeKey.stringKey("operation");
+    private static final AttributeKey<String> REASON = AttributeKey.stringKey("reason");
+
+    /**
+     * The scope used when hashing the password for a sign-up, since the organization the user will belong to does not exist
+     * until the password is hashed. This also limits how many sign-ups are hashed at once.
+     */
+    public static final String SIGN_UP_SCOPE = "SIGN_UP";
+
+    private final PasswordHashingProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, Integer> inFlightPerScope = new ConcurrentHashMap<>();
+    private final LongHistogram durationHistogram;
+    private final LongCounter rejectedCounter;
+
+    public PasswordHashingService(KinoticDomainProperties domainProperties,
+                                  OpenTelemetry openTelemetry) {
+        this.properties = domainProperties.getDomain().getPasswordHashing();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(),
+                                               properties.getThreads(),
+                                               0L,
+                                               TimeUnit.MILLISECONDS,
+                                               new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                                               runnable -> {
+                                                   Thread thread = new Thread(runnable, "kinotic-password-hash-" + threadCount.incrementAndGet());
+                                                   thread.setDaemon(true);
+                                                   return thread;
+                                               },
+                                               new ThreadPoolExecutor.AbortPolicy());
+
+        Meter meter = openTelemetry.getMeter("kinotic.password.hashing");
+
+        durationHistogram = meter.histogramBuilder("password.hash.duration")
+                                 .setDescription("Time spent hashing or verifying a password, excluding time queued")
+                                 .setUnit("ms")
+                                 .ofLongs()
+                                 .build();
+
+        rejectedCounter = meter.counterBuilder("password.hash.rejected")
+                               .setDescription("Password operations rejected because the pool or auth scope was at capacity")
+                               .setUnit("operations")
+                               .build();
+
+        meter.gaugeBuilder("password.hash.queue.depth")
+             .setDescription("Password operations waiting for a thread")
+             .setUnit("operations")
+             .ofLongs()
+             .buildWithCallback(measurement -> measurement.record(executor.getQueue().size()));
+
+        meter.gaugeBuilder("password.hash.active")
+             .setDescription("Password operations currently running")
+             .setUnit("operations")
+             .ofLongs()
+             .buildWithCallback(measurement -> measurement.record(executor.getActiveCount()));
+    }
+
+    /**
+     * @param user to get the scope for
+     * @return the auth scope of the user, for use as the scope of a password operation
+     */
+    public static String scopeOf(IamUser user) {
+        return user.getAuthScopeType() + ":" + user.getAuthScopeId();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Verifies that the given raw password matches the given BCrypt hash.
+     *
+     * @param scope       the auth scope the password belongs to, such as {@code ORGANIZATION:<id>}, used for the per scope limit
+     * @param rawPassword to verify
+     * @param hash        the BCrypt hash to verify against
+     * @return {@link CompletableFuture} emitting true if the password matches, or failing with a {@link TooManyRequestsException} if rejected
+     */
+    public CompletableFuture<Boolean> verify(String scope, String rawPassword, String hash) {
+        return submit(scope, "verify", () -> DomainUtil.verifyPassword(rawPassword, hash));
+    }
+
+    /**
+     * Hashes the given raw password using BCrypt.
+     *
+     * @param scope       the auth scope the password belongs to, used for the per scope limit
+     * @param rawPassword to hash
+     * @return {@link CompletableFuture} emitting the hash, or failing with a {@link TooManyRequestsException} if rejected
+     */
+    public CompletableFuture<String> hash(String scope, String rawPassword) {
+        return submit(scope, "hash", () -> DomainUtil.hashPassword(rawPassword));
+    }
+
+    /**
+     * Runs the work on the password hashing pool, applying admission control. Package-private so tests can submit work that blocks.
+     */
+    <T> CompletableFuture<T> submit(String scope, String operation, Supplier<T> work) {
+        if (!acquireScope(scope)) {
+            return reject(operation, "scope", "Too many concurrent password operations for " + scope + ", try again later");
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                T value = null;
+                Throwable failure = null;
+                try {
+                    value = work.get();
+                } catch (Throwable t) {
+                    failure = t;
+                }
+                durationHistogram.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                                         Attributes.of(OPERATION, operation));
+                // release before completing, since dependent stages run synchronously on this thread
+                releaseScope(scope);
+
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(value);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            releaseScope(scope);
+            return reject(operation, "queue", "Too many concurrent password operations, try again later");
+        }
+        return result;
+    }
+
+    private <T> CompletableFuture<T> reject(String operation, String reason, String message) {
+        rejectedCounter.add(1, Attributes.of(OPERATION, operation, REASON, reason));
+        log.debug("Rejected password {} operation, {} at capacity", operation, reason);
+        return CompletableFuture.failedFuture(new TooManyRequestsException(message));
+    }
+
+    private boolean acquireScope(String scope) {
+        boolean[] acquired = new boolean[1];
+        inFlightPerScope.compute(scope, (key, count) -> {
+            int current = count != null ? count : 0;
+            if (current >= properties.getMaxConcurrentPerScope()) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseScope(String scope) {
+        // idle scopes are removed so the map does not grow with every scope ever seen
+        inFlightPerScope.computeIfPresent(scope, (key, count) -> count <= 1 ? null : count - 1);
+    }
+}
@@ -0,0 +1,96 @@
+package org.kinotic.os.internal.api.services.placement;
+
+import org.kinotic.os.api.model.workload.VmNode;
+
+import java.io.Serializable;
+
+/**
+ * Immutable snapshot of the resources of a single {@link VmNode}.
+ * Instances are compared by value, which is what allows reservations to be made with an atomic compare-and-replace.
+ * Every change increments the version, so an older snapshot of a node can always be told apart from a newer one.
+ *
+ * @param nodeId            the id of the {@link VmNode}
+ * @param totalCpus         total number of vCPUs on the node
+ * @param totalMemoryMb     total memory on the node in megabytes
+ * @param totalDiskMb       total disk space on the node in megabytes
+ * @param allocatedCpus     number of vCPUs allocated to workloads
+ * @param allocatedMemoryMb memory allocated to workloads in megabytes
+ * @param allocatedDiskMb   disk space allocated to workloads in megabytes
+ * @param version           incremented every time the capacity of the node changes
+ */
+public record NodeCapacity(String nodeId,
+                           int totalCpus,
+                           int totalMemoryMb,
+                           int totalDiskMb,
+                           int allocatedCpus,
+                           int allocatedMemoryMb,
+                           int allocatedDiskMb,
+                           long version) implements Serializable {
+
+    public static NodeCapacity fromVmNode(VmNode node) {
+        return new NodeCapacity(node.getId(),
+                                node.getTotalCpus(),
+                                node.getTotalMemoryMb(),
+                                node.getTotalDiskMb(),
+                                node.getAllocatedCpus(),
+                                node.getAllocatedMemoryMb(),
+                                node.getAllocatedDiskMb(),
+                                0);
+    }
+
+    public int freeCpus() {
+        return totalCpus - allocatedCpus;
+    }
+
+    public int freeMemoryMb() {
+        return totalMemoryMb - allocatedMemoryMb;
+    }
+
+    public int freeDiskMb() {
+        return totalDiskMb - allocatedDiskMb;
+    }
+
+    /**
+     * @return true if the free resources of this node can satisfy the given requirements
+     */
+    public boolean fits(int requiredCpus, int requiredMemoryMb, int requiredDiskMb) {
+        return freeCpus() >= requiredCpus
+                && freeMemoryMb() >= requiredMemoryMb
+                && freeDiskMb() >= requiredDiskMb;
+    }
+
+    /**
+     * @return a copy of this capacity with the given resources added to the allocation, negative values release resources.
+     *         Allocations never drop below zero.
+     */
+    public NodeCapacity allocate(int cpus, int memoryMb, int diskMb) {
+        return new NodeCapacity(nodeId,
+                                totalCpus,
+                                totalMemoryMb,
+                                totalDiskMb,
+                                Math.max(0, allocatedCpus + cpus),
+                                Math.max(0, allocatedMemoryMb + memoryMb),
+                                Math.max(0, allocatedDiskMb + diskMb),
+                                version + 1);
+    }
+
+    /**
+     * @return a copy of this capacity with the totals of the given node, keeping the current allocation,
+     *         or this capacity if the totals are unchanged
+     */
+    public NodeCapacity withTotalsOf(VmNode node) {
+        if (totalCpus == node.getTotalCpus()
+                && totalMemoryMb == node.getTotalMemoryMb()
+                && totalDiskMb == node.getTotalDiskMb()) {
+            return this;
+        }
+        return new NodeCapacity(nodeId,
+                                node.getTotalCpus(),
+                                node.getTotalMemoryMb(),
+                                node.getTotalDiskMb(),
+                                allocatedCpus,
+                                allocatedMemoryMb,
+                                allocatedDiskMb,
+                                version + 1);
+    }
+}
@@ -0,0 +1,134 @@
+package org.kinotic.os.internal.api.services.placement;
+
+import org.kinotic.os.api.model.workload.PlacementStrategy;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of {@link NodeCapacity} sorted by free cpu, then free memory, then free disk.
+ * Lookups are lock free, updates are serialized so a node is never present twice in the sorted set.
+ * Updates older than the {@link NodeCapacity#version()} already indexed for a node are ignored, so an update applied late,
+ * after a newer compare-and-replace of the same node was indexed, never overwrites the newer capacity.
+ */
+public class NodeCapacityIndex {
+
+    private static final Comparator<NodeCapacity> BY_FREE_RESOURCES =
+            Comparator.comparingInt(NodeCapacity::freeCpus)
+                      .thenComparingInt(NodeCapacity::freeMemoryMb)
+                      .thenComparingInt(NodeCapacity::freeDiskMb)
+                      .thenComparing(NodeCapacity::nodeId);
+
+    private final ConcurrentHashMap<String, NodeCapacity> byNodeId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<NodeCapacity> byFreeResources = new ConcurrentSkipListSet<>(BY_FREE_RESOURCES);
+
+    public synchronized void update(NodeCapacity capacity) {
+        NodeCapacity previous = byNodeId.get(capacity.nodeId());
+        if (previous != null) {
+            if (previous.version() >= capacity.version()) {
+                return;
+            }
+            byFreeResources.remove(previous);
+        }
+        byNodeId.put(capacity.nodeId(), capacity);
+        byFreeResources.add(capacity);
+    }
+
+    public synchronized void remove(String nodeId) {
+        NodeCapacity previous = byNodeId.remove(nodeId);
+        if (previous != null) {
+            byFreeResources.remove(previous);
+        }
+    }
+
+    public NodeCapacity get(String nodeId) {
+        return byNodeId.get(nodeId);
+    }
+
+    public int size() {
+        return byNodeId.size();
+    }
+
+    /**
+     * Finds the node that best satisfies the requirements according to the strategy.
+     *
+     * @return the chosen node or null if no node has enough free resources
+     */
+    public NodeCapacity find(int requiredCpus, int requiredMemoryMb, int requiredDiskMb, PlacementStrategy strategy) {
+        Iterator<NodeCapacity> candidates = candidates(requiredCpus, requiredMemoryMb, requiredDiskMb, strategy);
+        return candidates.hasNext() ? candidates.next() : null;
+    }
+
+    /**
+     * Returns the nodes that can satisfy the requirements, in the order they should be tried for the given strategy.
+     */
+    public Iterator<NodeCapacity> candidates(int requiredCpus,
+                                             int requiredMemoryMb,
+                                             int requiredDiskMb,
+                                             PlacementStrategy strategy) {
+        Iterator<NodeCapacity> ordered;
+        if (strategy == PlacementStrategy.WORST_FIT) {
+            ordered = byFreeResources.descendingIterator();
+        } else {
+            // skip every node with less free cpu than required, the remaining nodes are in best fit order
+            NodeCapacity probe = new NodeCapacity("", requiredCpus, requiredMemoryMb, requiredDiskMb, 0, 0, 0, 0);
+            ordered = byFreeResources.tailSet(probe, true).iterator();
+        }
+        return new FittingIterator(ordered, requiredCpus, requiredMemoryMb, requiredDiskMb, strategy);
+    }
+
+    private static class FittingIterator implements Iterator<NodeCapacity> {
+
+        private final Iterator<NodeCapacity> delegate;
+        private final int requiredCpus;
+        private final int requiredMemoryMb;
+        private final int requiredDiskMb;
+        private final PlacementStrategy strategy;
+        private NodeCapacity next;
+
+        FittingIterator(Iterator<NodeCapacity> delegate,
+                        int requiredCpus,
+                        int requiredMemoryMb,
+                        int requiredDiskMb,
+                        PlacementStrategy strategy) {
+            this.delegate = delegate;
+            this.requiredCpus = requiredCpus;
+            this.requiredMemoryMb = requiredMemoryMb;
+            this.requiredDiskMb = requiredDiskMb;
+            this.strategy = strategy;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (delegate.hasNext()) {
+                NodeCapacity candidate = delegate.next();
+                if (strategy == PlacementStrategy.WORST_FIT && candidate.freeCpus() < requiredCpus) {
+                    return; // descending order, nothing after this can fit
+                }
+                if (candidate.fits(requiredCpus, requiredMemoryMb, requiredDiskMb)) {
+                    next = candidate;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public NodeCapacity next() {
+            NodeCapacity ret = next;
+            if (ret == null) {
+                throw new NoSuchElementException();
+            }
+            advance();
+            return ret;
+        }
+    }
+}
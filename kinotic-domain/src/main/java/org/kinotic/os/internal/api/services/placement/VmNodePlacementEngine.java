@@ -0,0 +1,224 @@
+package org.kinotic.os.internal.api.services.placement;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.ContinuousQuery;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.kinotic.os.api.model.workload.PlacementStrategy;
+import org.kinotic.os.api.model.workload.VmNode;
+import org.kinotic.os.api.model.workload.VmNodeStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.EventType;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Places workloads on {@link VmNode}s using an in-memory {@link NodeCapacityIndex}.
+ * <p>
+ * The source of truth for node capacity is a replicated Ignite cache, every node keeps its local index in sync with a
+ * continuous query. Reservations are made with an atomic compare-and-replace on the cache entry, so concurrent
+ * placements anywhere in the cluster can never over allocate a node. When clustering is disabled a local map is used instead.
+ * <p>
+ * Allocations are owned by this engine once a node is known, {@link #upsert(VmNode)} only updates the node totals.
+ */
+@Slf4j
+@Component
+public class VmNodePlacementEngine {
+
+    public static final String CAPACITY_CACHE_NAME = "__kinoticVmNodeCapacityCache";
+
+    /**
+     * How many times the candidate list is walked before giving up when reservations keep losing races
+     */
+    private static final int MAX_RESERVE_ATTEMPTS = 8;
+
+    private final NodeCapacityIndex index = new NodeCapacityIndex();
+    private final IgniteCache<String, NodeCapacity> capacityCache;
+    private final ConcurrentHashMap<String, NodeCapacity> localCapacities;
+    private final QueryCursor<Cache.Entry<String, NodeCapacity>> continuousQueryCursor;
+
+    public VmNodePlacementEngine(@Autowired(required = false) Ignite ignite) {
+        // Will be null when clustering is disabled
+        if (ignite != null) {
+            capacityCache = ignite.cache(CAPACITY_CACHE_NAME);
+            localCapacities = null;
+
+            ContinuousQuery<String, NodeCapacity> query = new ContinuousQuery<>();
+            query.setInitialQuery(new ScanQuery<>());
+            query.setLocalListener(events -> {
+                for (CacheEntryEvent<? extends String, ? extends NodeCapacity> event : events) {
+                    if (event.getEventType() == EventType.REMOVED || event.getEventType() == EventType.EXPIRED) {
+                        index.remove(event.getKey());
+                    } else if (event.getValue() != null) {
+                        index.update(event.getValue());
+                    }
+                }
+            });
+            continuousQueryCursor = capacityCache.query(query);
+            for (Cache.Entry<String, NodeCapacity> entry : continuousQueryCursor) {
+                index.update(entry.getValue());
+            }
+        } else {
+            capacityCache = null;
+            localCapacities = new ConcurrentHashMap<>();
+            continuousQueryCursor = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (continuousQueryCursor != null) {
+            continuousQueryCursor.close();
+        }
+    }
+
+    /**
+     * @return the number of nodes that workloads can currently be placed on
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Adds the node if it is not known yet, keeping any existing allocation tracked by this engine.
+     * Used to seed the engine from the persisted {@link VmNode}s.
+     */
+    public void addIfAbsent(VmNode node) {
+        if (node.getStatus() != VmNodeStatus.ONLINE) {
+            return;
+        }
+        NodeCapacity capacity = NodeCapacity.fromVmNode(node);
+        NodeCapacity existing = putIfAbsent(capacity);
+        index.update(existing != null ? existing : capacity);
+    }
+
+    /**
+     * Adds or updates the node. Nodes that are not {@link VmNodeStatus#ONLINE} are removed from placement.
+     * The totals are taken from the node, the allocation is only taken from the node if the engine does not know it yet.
+     */
+    public void upsert(VmNode node) {
+        if (node.getStatus() != VmNodeStatus.ONLINE) {
+            remove(node.getId());
+            return;
+        }
+        NodeCapacity reported = NodeCapacity.fromVmNode(node);
+        while (true) {
+            NodeCapacity current = getCapacity(node.getId());
+            if (current == null) {
+                if (putIfAbsent(reported) == null) {
+                    index.update(reported);
+                    return;
+                }
+            } else {
+                NodeCapacity updated = current.withTotalsOf(node);
+                if (updated.equals(current) || replace(current, updated)) {
+                    index.update(updated);
+                    return;
+                }
+            }
+        }
+    }
+
+    public void remove(String nodeId) {
+        if (capacityCache != null) {
+            capacityCache.remove(nodeId);
+        } else {
+            localCapacities.remove(nodeId);
+        }
+        index.remove(nodeId);
+    }
+
+    /**
+     * Finds a node that can host the requirements without reserving anything.
+     *
+     * @return the chosen node or null if no node has enough free resources
+     */
+    public NodeCapacity find(int requiredCpus, int requiredMemoryMb, int requiredDiskMb, PlacementStrategy strategy) {
+        return index.find(requiredCpus, requiredMemoryMb, requiredDiskMb, strategy);
+    }
+
+    /**
+     * Atomically reserves the requirements on the node chosen by the strategy.
+     *
+     * @return the capacity of the chosen node after the reservation, or null if no node has enough free resources
+     */
+    public NodeCapacity reserve(int requiredCpus, int requiredMemoryMb, int requiredDiskMb, PlacementStrategy strategy) {
+        for (int attempt = 0; attempt < MAX_RESERVE_ATTEMPTS; attempt++) {
+            boolean lostRace = false;
+            Iterator<NodeCapacity> candidates = index.candidates(requiredCpus, requiredMemoryMb, requiredDiskMb, strategy);
+            while (candidates.hasNext()) {
+                NodeCapacity candidate = candidates.next();
+                NodeCapacity reserved = candidate.allocate(requiredCpus, requiredMemoryMb, requiredDiskMb);
+                if (replace(candidate, reserved)) {
+                    index.update(reserved);
+                    return reserved;
+                }
+                // someone else changed the node, refresh our view and try the next candidate
+                lostRace = true;
+                refresh(candidate.nodeId());
+            }
+            if (!lostRace) {
+                return null;
+            }
+        }
+        log.warn("Could not reserve {} cpus, {}MB memory, {}MB disk after {} attempts due to contention",
+                 requiredCpus, requiredMemoryMb, requiredDiskMb, MAX_RESERVE_ATTEMPTS);
+        return null;
+    }
+
+    /**
+     * Releases resources previously reserved on the node.
+     *
+     * @return the capacity of the node after the release, or null if the node is not known
+     */
+    public NodeCapacity release(String nodeId, int cpus, int memoryMb, int diskMb) {
+        while (true) {
+            NodeCapacity current = getCapacity(nodeId);
+            if (current == null) {
+                return null;
+            }
+            NodeCapacity released = current.allocate(-cpus, -memoryMb, -diskMb);
+            if (replace(current, released)) {
+                index.update(released);
+                return released;
+            }
+        }
+    }
+
+    private void refresh(String nodeId) {
+        NodeCapacity current = getCapacity(nodeId);
+        if (current != null) {
+            index.update(current);
+        } else {
+            index.remove(nodeId);
+        }
+    }
+
+    /**
+     * @return the current capacity of the node or null if the node is not known
+     */
+    public NodeCapacity getCapacity(String nodeId) {
+        return capacityCache != null ? capacityCache.get(nodeId) : localCapacities.get(nodeId);
+    }
+
+    private NodeCapacity putIfAbsent(NodeCapacity capacity) {
+        if (capacityCache != null) {
+            return capacityCache.getAndPutIfAbsent(capacity.nodeId(), capacity);
+        }
+        return localCapacities.putIfAbsent(capacity.nodeId(), capacity);
+    }
+
+    private boolean replace(NodeCapacity expected, NodeCapacity updated) {
+        if (capacityCache != null) {
+            return capacityCache.replace(expected.nodeId(), expected, updated);
+        }
+        return localCapacities.replace(expected.nodeId(), expected, updated);
+    }
+}
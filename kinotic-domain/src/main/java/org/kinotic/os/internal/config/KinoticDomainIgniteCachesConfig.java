@@ -0,0 +1,36 @@
+package org.kinotic.os.internal.config;
+
+import org.apache.ignite.cache.CacheAtomicityMode;
+import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.cache.CacheWriteSynchronizationMode;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.kinotic.os.internal.api.services.placement.NodeCapacity;
+import org.kinotic.os.internal.api.services.placement.VmNodePlacementEngine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ignite caches used by the domain services.
+ */
+@Configuration
+@ConditionalOnProperty(
+        value="kinotic.disableClustering",
+        havingValue = "false",
+        matchIfMissing = true)
+public class KinoticDomainIgniteCachesConfig {
+
+    @Bean
+    public CacheConfiguration<String, NodeCapacity> vmNodeCapacityCache(){
+        // NOTE: Key is the VmNode id
+        // Replicated so every node can compute placements from local memory, atomic so reservations can use replace(k, old, new)
+        CacheConfiguration<String, NodeCapacity> cacheConfiguration = new CacheConfiguration<>();
+        cacheConfiguration.setName(VmNodePlacementEngine.CAPACITY_CACHE_NAME);
+        cacheConfiguration.setCacheMode(CacheMode.REPLICATED);
+        cacheConfiguration.setAtomicityMode(CacheAtomicityMode.ATOMIC);
+        cacheConfiguration.setWriteSynchronizationMode(CacheWriteSynchronizationMode.FULL_SYNC);
+
+        return cacheConfiguration;
+    }
+
+}
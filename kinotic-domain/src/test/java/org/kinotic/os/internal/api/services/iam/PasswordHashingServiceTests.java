@@ -0,0 +1,120 @@
+package org.kinotic.os.internal.api.services.iam;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.Test;
+import org.kinotic.core.api.exceptions.TooManyRequestsException;
+import org.kinotic.os.api.config.KinoticDomainProperties;
+import org.kinotic.os.api.utils.DomainUtil;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link PasswordHashingService} keeps BCrypt work off the calling thread and applies admission control.
+ */
+public class PasswordHashingServiceTests {
+
+    private static final String PASSWORD = "test-password";
+
+    @Test
+    public void testVerifyNeverRunsOnEventLoop() throws Exception {
+        String hash = DomainUtil.hashPassword(PASSWORD);
+        Vertx vertx = Vertx.vertx();
+        PasswordHashingService service = new PasswordHashingService(new KinoticDomainProperties(), OpenTelemetry.noop());
+        try {
+            CompletableFuture<Boolean> doneOnReturn = new CompletableFuture<>();
+            CompletableFuture<String> completionThread = new CompletableFuture<>();
+            CompletableFuture<Boolean> completedOnEventLoop = new CompletableFuture<>();
+            CompletableFuture<Boolean> matches = new CompletableFuture<>();
+
+            vertx.getOrCreateContext().runOnContext(v -> {
+                CompletableFuture<Boolean> verify = service.verify("ORGANIZATION:a", PASSWORD, hash);
+                // verifying inline would complete the future before it is returned
+                doneOnReturn.complete(verify.isDone());
+                verify.whenComplete((result, throwable) -> {
+                    completionThread.complete(Thread.currentThread().getName());
+                    completedOnEventLoop.complete(Context.isOnEventLoopThread());
+                    if (throwable != null) {
+                        matches.completeExceptionally(throwable);
+                    } else {
+                        matches.complete(result);
+                    }
+                });
+            });
+
+            assertFalse(doneOnReturn.get(1, TimeUnit.MINUTES), "Password should not be verified on the event loop");
+            assertTrue(matches.get(1, TimeUnit.MINUTES), "Password should match");
+            assertTrue(completionThread.join().startsWith("kinotic-password-hash-"),
+                       "Password should be verified on the password hashing pool");
+            assertFalse(completedOnEventLoop.join(), "Password should not be verified on the event loop");
+        } finally {
+            service.shutdown();
+            vertx.close().toCompletionStage().toCompletableFuture().join();
+        }
+    }
+
+    @Test
+    public void testRejectsWhenScopeOrQueueIsFull() {
+        KinoticDomainProperties properties = new KinoticDomainProperties();
+        properties.getDomain().getPasswordHashing()
+                  .setThreads(1)
+                  .setQueueCapacity(1)
+                  .setMaxConcurrentPerScope(1);
+        PasswordHashingService service = new PasswordHashingService(properties, OpenTelemetry.noop());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // the first operation holds the only thread until released, so the queue state does not depend on BCrypt timing
+            CompletableFuture<String> running = service.submit("ORGANIZATION:a", "hash", () -> {
+                started.countDown();
+                await(release);
+                return "running";
+            });
+            assertTrue(await(started), "Operation should start on the pool");
+
+            CompletableFuture<String> sameScope = service.hash("ORGANIZATION:a", PASSWORD);
+            CompletableFuture<String> queued = service.hash("ORGANIZATION:b", PASSWORD);
+            CompletableFuture<String> queueFull = service.hash("ORGANIZATION:c", PASSWORD);
+
+            assertTrue(isTooManyRequests(sameScope), "Second operation for the same scope should be rejected");
+            assertTrue(isTooManyRequests(queueFull), "Operation should be rejected when the queue is full");
+            assertFalse(running.isDone(), "Running operation should still be held");
+            assertFalse(queued.isDone(), "Queued operation should wait for the running one");
+
+            release.countDown();
+            assertEquals("running", running.join(), "Running operation should complete");
+            assertTrue(DomainUtil.verifyPassword(PASSWORD, queued.join()), "Queued operation should complete");
+
+            // once the scope is idle again new operations are accepted
+            assertTrue(DomainUtil.verifyPassword(PASSWORD, service.hash("ORGANIZATION:a", PASSWORD).join()),
+                       "Scope should accept operations once idle");
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isTooManyRequests(CompletableFuture<?> future) {
+        try {
+            future.join();
+            return false;
+        } catch (CompletionException e) {
+            return e.getCause() instanceof TooManyRequestsException;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.kinotic.os.internal.api.services.placement;
+
+import org.junit.jupiter.api.Test;
+import org.kinotic.os.api.model.workload.PlacementStrategy;
+import org.kinotic.os.api.model.workload.VmNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests placements with the {@link VmNodePlacementEngine} running without Ignite,
+ * including many concurrent reservations that must never over allocate a node.
+ */
+public class VmNodePlacementEngineTests {
+
+    private static final int NODE_COUNT = 50;
+    private static final int CPUS_PER_NODE = 8;
+    private static final int THREADS = 16;
+
+    @Test
+    public void testConcurrentBestFitReservations() throws Exception {
+        testConcurrentReservations(PlacementStrategy.BEST_FIT);
+    }
+
+    @Test
+    public void testConcurrentWorstFitReservations() throws Exception {
+        testConcurrentReservations(PlacementStrategy.WORST_FIT);
+    }
+
+    @Test
+    public void testBestFitChoosesTightestNode() {
+        VmNodePlacementEngine engine = new VmNodePlacementEngine(null);
+        engine.upsert(createNode("large", 32, 65_536, 500_000));
+        engine.upsert(createNode("small", 4, 8_192, 100_000));
+        engine.upsert(createNode("medium", 8, 16_384, 200_000));
+
+        assertEquals("small", engine.find(4, 4_096, 10_000, PlacementStrategy.BEST_FIT).nodeId());
+        assertEquals("medium", engine.find(4, 12_000, 10_000, PlacementStrategy.BEST_FIT).nodeId());
+        assertEquals("large", engine.find(4, 4_096, 10_000, PlacementStrategy.WORST_FIT).nodeId());
+        assertNull(engine.find(64, 1, 1, PlacementStrategy.BEST_FIT), "Expected no node to fit");
+    }
+
+    @Test
+    public void testReleaseMakesResourcesAvailableAgain() {
+        VmNodePlacementEngine engine = new VmNodePlacementEngine(null);
+        engine.upsert(createNode("node", 4, 8_192, 100_000));
+
+        NodeCapacity reserved = engine.reserve(4, 1_024, 1_024, PlacementStrategy.BEST_FIT);
+        assertNotNull(reserved);
+        assertEquals(0, reserved.freeCpus());
+        assertNull(engine.reserve(1, 1, 1, PlacementStrategy.BEST_FIT), "Expected the node to be full");
+
+        NodeCapacity released = engine.release("node", 4, 1_024, 1_024);
+        assertEquals(4, released.freeCpus());
+        assertEquals("node", engine.reserve(1, 1, 1, PlacementStrategy.BEST_FIT).nodeId());
+    }
+
+    @Test
+    public void testUpsertKeepsAllocation() {
+        VmNodePlacementEngine engine = new VmNodePlacementEngine(null);
+        engine.upsert(createNode("node", 4, 8_192, 100_000));
+        engine.reserve(2, 1_024, 1_024, PlacementStrategy.BEST_FIT);
+
+        // a node reporting new totals keeps the allocation tracked by the engine
+        engine.upsert(createNode("node", 8, 8_192, 100_000));
+        NodeCapacity capacity = engine.getCapacity("node");
+        assertEquals(8, capacity.totalCpus());
+        assertEquals(2, capacity.allocatedCpus());
+        assertEquals(6, engine.find(6, 1, 1, PlacementStrategy.BEST_FIT).freeCpus());
+    }
+
+    /**
+     * Requests more single cpu reservations than there are cpus in the cluster from many threads at once.
+     * Exactly as many reservations as there are cpus must succeed, and every node must end up fully allocated.
+     */
+    private void testConcurrentReservations(PlacementStrategy strategy) throws Exception {
+        VmNodePlacementEngine engine = new VmNodePlacementEngine(null);
+        for (int i = 0; i < NODE_COUNT; i++) {
+            engine.upsert(createNode("node-" + i, CPUS_PER_NODE, 16_384, 200_000));
+        }
+        int capacity = NODE_COUNT * CPUS_PER_NODE;
+        int requestsPerThread = capacity * 2 / THREADS;
+
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int r = 0; r < requestsPerThread; r++) {
+                        if (engine.reserve(1, 128, 1_024, strategy) != null) {
+                            placed.incrementAndGet();
+                        } else {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(capacity, placed.get(), "Every cpu should be reserved exactly once");
+        assertEquals(THREADS * requestsPerThread - capacity, rejected.get());
+        for (int i = 0; i < NODE_COUNT; i++) {
+            NodeCapacity nodeCapacity = engine.getCapacity("node-" + i);
+            assertEquals(CPUS_PER_NODE, nodeCapacity.allocatedCpus(), "Node " + nodeCapacity.nodeId() + " was not fully allocated");
+        }
+        assertNull(engine.find(1, 1, 1, strategy), "The index should show the cluster as full");
+    }
+
+    private VmNode createNode(String id, int cpus, int memoryMb, int diskMb) {
+        return new VmNode(id, id, id + ".local")
+                .setTotalCpus(cpus)
+                .setTotalMemoryMb(memoryMb)
+                .setTotalDiskMb(diskMb);
+    }
+}
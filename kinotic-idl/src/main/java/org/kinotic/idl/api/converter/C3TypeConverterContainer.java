@@ -14,7 +14,7 @@ import java.util.function.BiFunction;
  *
  * Created by Navíd Mitchell 🤪 on 4/26/23.
  */
-public class C3TypeConverterContainer<R, S> implements C3TypeConverter<R, C3Type, S> {
+public class C3TypeConverterContainer<R, S> implements C3TypeConverter<R, C3Type, S>, ClassBasedC3TypeConverter {
 
     private final Map<Class<? extends C3Type>,
                       BiFunction<? extends C3Type, C3ConversionContext<R, S>, R>> converterMap = new HashMap<>();
@@ -37,6 +37,11 @@ public class C3TypeConverterContainer<R, S> implements C3TypeConverter<R, C3Type
         return converterMap.containsKey(c3Type.getClass());
     }
 
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return converterMap.containsKey(c3TypeClass);
+    }
+
     @Override
     public R convert(C3Type c3Type, C3ConversionContext<R, S> conversionContext) {
         @SuppressWarnings("unchecked")
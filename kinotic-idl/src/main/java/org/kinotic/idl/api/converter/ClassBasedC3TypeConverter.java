@@ -0,0 +1,24 @@
+package org.kinotic.idl.api.converter;
+
+import org.kinotic.idl.api.schema.C3Type;
+
+/**
+ * Implemented by {@link C3TypeConverter}s that decide if a {@link C3Type} is supported based only on its class.
+ * This allows the {@link C3ConversionContext} to find the converter for a {@link C3Type} by class once,
+ * rather than calling {@link C3TypeConverter#supports(C3Type)} on every converter for every {@link C3Type} converted.
+ * <p>
+ * Converters that do not implement this are treated as predicate based, and {@link C3TypeConverter#supports(C3Type)}
+ * will still be called for every {@link C3Type} that they could apply to.
+ */
+public interface ClassBasedC3TypeConverter {
+
+    /**
+     * Checks if all {@link C3Type}s of the given class are supported by this converter.
+     * This must agree with {@link C3TypeConverter#supports(C3Type)}.
+     *
+     * @param c3TypeClass the concrete class of the {@link C3Type} to check
+     * @return true if this converter can convert the class false if not
+     */
+    boolean supportsClass(Class<? extends C3Type> c3TypeClass);
+
+}
@@ -6,6 +6,7 @@ import org.kinotic.idl.api.schema.C3Type;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
 import org.kinotic.idl.api.converter.Cacheable;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.converter.IdlConverterStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,7 +26,20 @@ public class DefaultC3ConversionContext<R, S> implements C3ConversionContext<R,
 
     private final Deque<C3Type> errorStack = new ArrayDeque<>();
 
-    private final Map<C3Type, R> cache = new HashMap<>();
+    /**
+     * The candidate converters for each concrete {@link C3Type} class, in the order they are defined by the strategy.
+     */
+    private final Map<Class<? extends C3Type>, C3TypeConverter<R, ? extends C3Type, S>[]> converterIndex = new HashMap<>();
+
+    /**
+     * Results by identity, so a {@link C3Type} that has already been converted is found without hashing its type tree
+     */
+    private final Map<C3Type, R> identityCache = new IdentityHashMap<>();
+
+    /**
+     * Results by structural equality, so equal {@link C3Type}s from different schemas still share a result
+     */
+    private final Map<StructuralKey, R> structuralCache = new HashMap<>();
 
     private final S state;
 
@@ -51,14 +65,23 @@ public class DefaultC3ConversionContext<R, S> implements C3ConversionContext<R,
 
             boolean cache = strategy.shouldCache() && converter instanceof Cacheable;
             R result = null;
+            StructuralKey structuralKey = null;
 
             if(cache){
-                result = this.cache.get(c3Type);
+                result = identityCache.get(c3Type);
+                if(result == null){
+                    structuralKey = new StructuralKey(c3Type);
+                    result = structuralCache.get(structuralKey);
+                    if(result != null){
+                        identityCache.put(c3Type, result);
+                    }
+                }
             }
             if(result == null) {
                 result = converter.convert(c3Type, this);
                 if (cache) {
-                    this.cache.put(c3Type, result);
+                    identityCache.put(c3Type, result);
+                    structuralCache.put(structuralKey, result);
                 }
             }
             return result;
@@ -76,14 +99,39 @@ public class DefaultC3ConversionContext<R, S> implements C3ConversionContext<R,
     }
 
     private C3TypeConverter<R, ? extends C3Type, S> findConverter(C3Type c3Type) {
-        for (C3TypeConverter<R, ? extends C3Type, S> converter : strategy.converters()) {
-            if (converter.supports(c3Type)) {
+        C3TypeConverter<R, ? extends C3Type, S>[] candidates
+                = converterIndex.computeIfAbsent(c3Type.getClass(), this::indexConverters);
+
+        for (C3TypeConverter<R, ? extends C3Type, S> converter : candidates) {
+            if (converter instanceof ClassBasedC3TypeConverter || converter.supports(c3Type)) {
                 return converter;
             }
         }
         return null;
     }
 
+    /**
+     * Finds the converters that could support the given class.
+     * Class based converters that do not support the class are left out, and since the first class based converter that
+     * supports the class always matches, no converters after it are included.
+     */
+    private C3TypeConverter<R, ? extends C3Type, S>[] indexConverters(Class<? extends C3Type> c3TypeClass) {
+        List<C3TypeConverter<R, ? extends C3Type, S>> candidates = new ArrayList<>();
+        for (C3TypeConverter<R, ? extends C3Type, S> converter : strategy.converters()) {
+            if (converter instanceof ClassBasedC3TypeConverter classBasedConverter) {
+                if (classBasedConverter.supportsClass(c3TypeClass)) {
+                    candidates.add(converter);
+                    break;
+                }
+            } else {
+                candidates.add(converter);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        C3TypeConverter<R, ? extends C3Type, S>[] ret = candidates.toArray(new C3TypeConverter[0]);
+        return ret;
+    }
+
     /**
      * Log an exception when appropriate dealing with only logging once even when recursion has occurred
      * @param e to log
@@ -114,4 +162,29 @@ public class DefaultC3ConversionContext<R, S> implements C3ConversionContext<R,
         }
     }
 
+    /**
+     * Wraps a {@link C3Type} so its hash code, which can require walking the whole type tree, is only computed once.
+     */
+    private static final class StructuralKey {
+        private final C3Type c3Type;
+        private final int hash;
+
+        private StructuralKey(C3Type c3Type) {
+            this.c3Type = c3Type;
+            this.hash = c3Type.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StructuralKey that)) return false;
+            return hash == that.hash && c3Type.equals(that.c3Type);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
 }
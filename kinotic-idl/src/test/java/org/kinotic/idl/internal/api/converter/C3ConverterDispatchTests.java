@@ -0,0 +1,194 @@
+package org.kinotic.idl.internal.api.converter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.kinotic.idl.api.converter.*;
+import org.kinotic.idl.api.schema.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Converts a set of large entity schemas with predicate based converters and with {@link ClassBasedC3TypeConverter}s,
+ * and checks that both dispatch strategies produce the same results.
+ */
+public class C3ConverterDispatchTests {
+
+    private static final int ENTITY_COUNT = 200;
+    private static final int PROPERTY_COUNT = 60;
+
+    @Test
+    public void testClassBasedDispatchMatchesPredicateDispatch() {
+        List<ObjectC3Type> schemas = createSchemas();
+
+        AtomicInteger predicateObjectConversions = new AtomicInteger();
+        AtomicInteger classBasedObjectConversions = new AtomicInteger();
+        List<String> predicateResults = convertAll(new TestStrategy(false, predicateObjectConversions), schemas);
+        List<String> classBasedResults = convertAll(new TestStrategy(true, classBasedObjectConversions), schemas);
+
+        Assertions.assertEquals(predicateResults, classBasedResults);
+        // Every entity plus the shared Address object, which must only be converted once since it is cacheable
+        Assertions.assertEquals(ENTITY_COUNT + 1, classBasedObjectConversions.get());
+        Assertions.assertEquals(predicateObjectConversions.get(), classBasedObjectConversions.get());
+    }
+
+    private static List<String> convertAll(TestStrategy strategy, List<ObjectC3Type> schemas) {
+        // A single context is used for all schemas, the same way an application's schemas are converted
+        DefaultC3ConversionContext<String, Void> context = new DefaultC3ConversionContext<>(strategy);
+        List<String> ret = new ArrayList<>(schemas.size());
+        for (ObjectC3Type schema : schemas) {
+            ret.add(context.convert(schema));
+        }
+        return ret;
+    }
+
+    private static List<ObjectC3Type> createSchemas() {
+        List<ObjectC3Type> ret = new ArrayList<>(ENTITY_COUNT);
+        for (int e = 0; e < ENTITY_COUNT; e++) {
+            // Each entity gets its own, structurally equal, copy of the Address object
+            ObjectC3Type address = new ObjectC3Type()
+                    .setName("Address")
+                    .setNamespace("org.kinotic.benchmark")
+                    .addProperty("street", new StringC3Type())
+                    .addProperty("city", new StringC3Type())
+                    .addProperty("zip", new IntC3Type());
+
+            ObjectC3Type entity = new ObjectC3Type()
+                    .setName("Entity" + e)
+                    .setNamespace("org.kinotic.benchmark");
+            for (int p = 0; p < PROPERTY_COUNT; p++) {
+                C3Type type = switch (p % 6) {
+                    case 0 -> new StringC3Type();
+                    case 1 -> new LongC3Type();
+                    case 2 -> new BooleanC3Type();
+                    case 3 -> new DateC3Type();
+                    case 4 -> new ArrayC3Type().setContains(new StringC3Type());
+                    default -> new ArrayC3Type().setContains(address);
+                };
+                entity.addProperty("property" + p, type);
+            }
+            entity.addProperty("address", address);
+            ret.add(entity);
+        }
+        return ret;
+    }
+
+    /**
+     * Converts types to a simple type signature.
+     */
+    private static class TestStrategy implements IdlConverterStrategy<String, Void> {
+
+        private final Set<C3TypeConverter<String, ? extends C3Type, Void>> converters;
+
+        TestStrategy(boolean classBased, AtomicInteger objectConversions) {
+            C3TypeConverterContainer<String, Void> container = new C3TypeConverterContainer<>();
+            container.addConverter(StringC3Type.class, (c3Type, context) -> "string")
+                     .addConverter(LongC3Type.class, (c3Type, context) -> "long")
+                     .addConverter(IntC3Type.class, (c3Type, context) -> "int")
+                     .addConverter(BooleanC3Type.class, (c3Type, context) -> "boolean")
+                     .addConverter(DateC3Type.class, (c3Type, context) -> "date");
+
+            List<C3TypeConverter<String, ? extends C3Type, Void>> list = new ArrayList<>();
+            if (classBased) {
+                list.add(container);
+                list.add(new ClassBasedArrayConverter());
+                list.add(new ClassBasedObjectConverter(objectConversions));
+            } else {
+                // Wrapped so the container is also dispatched by calling supports
+                list.add(new PredicateConverter<>(container));
+                list.add(new ArrayConverter());
+                list.add(new ObjectConverter(objectConversions));
+            }
+            this.converters = new LinkedHashSet<>(list);
+        }
+
+        @Override
+        public Set<C3TypeConverter<String, ? extends C3Type, Void>> converters() {
+            return converters;
+        }
+
+        @Override
+        public Void initialState() {
+            return null;
+        }
+
+        @Override
+        public boolean shouldCache() {
+            return true;
+        }
+    }
+
+    private record PredicateConverter<T extends C3Type>(C3TypeConverter<String, T, Void> delegate)
+            implements C3TypeConverter<String, T, Void> {
+
+        @Override
+        public boolean supports(C3Type c3Type) {
+            return delegate.supports(c3Type);
+        }
+
+        @Override
+        public String convert(T c3Type, C3ConversionContext<String, Void> conversionContext) {
+            return delegate.convert(c3Type, conversionContext);
+        }
+    }
+
+    private static class ArrayConverter implements C3TypeConverter<String, ArrayC3Type, Void> {
+
+        @Override
+        public boolean supports(C3Type c3Type) {
+            return c3Type instanceof ArrayC3Type;
+        }
+
+        @Override
+        public String convert(ArrayC3Type c3Type, C3ConversionContext<String, Void> conversionContext) {
+            return conversionContext.convert(c3Type.getContains()) + "[]";
+        }
+    }
+
+    private static class ClassBasedArrayConverter extends ArrayConverter implements ClassBasedC3TypeConverter {
+
+        @Override
+        public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+            return ArrayC3Type.class.isAssignableFrom(c3TypeClass);
+        }
+    }
+
+    private static class ObjectConverter implements C3TypeConverter<String, ObjectC3Type, Void>, Cacheable {
+
+        private final AtomicInteger conversions;
+
+        ObjectConverter(AtomicInteger conversions) {
+            this.conversions = conversions;
+        }
+
+        @Override
+        public boolean supports(C3Type c3Type) {
+            return c3Type instanceof ObjectC3Type;
+        }
+
+        @Override
+        public String convert(ObjectC3Type c3Type, C3ConversionContext<String, Void> conversionContext) {
+            conversions.incrementAndGet();
+            StringBuilder sb = new StringBuilder(c3Type.getName()).append('{');
+            for (PropertyDefinition property : c3Type.getProperties()) {
+                sb.append(property.getName())
+                  .append(':')
+                  .append(conversionContext.convert(property.getType()))
+                  .append(';');
+            }
+            return sb.append('}').toString();
+        }
+    }
+
+    private static class ClassBasedObjectConverter extends ObjectConverter implements ClassBasedC3TypeConverter {
+
+        ClassBasedObjectConverter(AtomicInteger conversions) {
+            super(conversions);
+        }
+
+        @Override
+        public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+            return ObjectC3Type.class.isAssignableFrom(c3TypeClass);
+        }
+    }
+}
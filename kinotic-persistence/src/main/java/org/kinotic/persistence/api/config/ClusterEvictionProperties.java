@@ -26,5 +26,11 @@ public class ClusterEvictionProperties {
      */
     private Long cacheSyncTimeoutMs = 30000L; // 30 seconds
 
+    /**
+     * The window in which evictions for the same organization and application are coalesced
+     * into a single cluster broadcast
+     */
+    private Long coalesceWindowMs = 100L;
+
     
 }
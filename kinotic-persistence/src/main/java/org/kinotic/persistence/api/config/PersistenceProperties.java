@@ -52,6 +52,28 @@ public class PersistenceProperties {
      */
     private long maxHttpBodySize = -1; // No Limit
 
+    /**
+     * The max number of entities sent to Elasticsearch in a single bulk request, when streaming the body of an OpenAPI bulk request.
+     */
+    private int openApiBulkChunkSize = 1000;
+
+    /**
+     * The max number of bulk requests sent to Elasticsearch concurrently for a single OpenAPI bulk request.
+     * Reading of the HTTP body is paused while this many bulk requests are outstanding.
+     */
+    private int openApiBulkMaxInFlight = 2;
+
+    /**
+     * How long decisions made by a ParticipantPolicyAuthorizer are cached, zero to not cache them.
+     */
+    @NotNull
+    private Duration policyDecisionCacheTtl = Duration.ofSeconds(5);
+
+    /**
+     * The max number of decisions made by a ParticipantPolicyAuthorizer that are cached.
+     */
+    private long policyDecisionCacheMaxSize = 10_000;
+
     private OpenApiSecurityType openApiSecurityType = OpenApiSecurityType.NONE;
 
     private int openApiPort = 8080;
@@ -14,6 +14,7 @@ import org.kinotic.persistence.api.model.idl.decorators.EntityServiceDecoratorsC
 import org.kinotic.persistence.api.model.idl.decorators.EntityServiceDecoratorsDecorator;
 import org.kinotic.persistence.api.model.idl.decorators.PolicyDecorator;
 import org.kinotic.persistence.api.services.security.AuthorizationService;
+import org.kinotic.persistence.internal.api.services.security.graphos.PolicyDecisionCache;
 import org.kinotic.persistence.internal.api.services.security.graphos.PolicyEvaluator;
 import org.kinotic.persistence.internal.api.services.security.graphos.PolicyEvaluatorWithOperation;
 import org.kinotic.persistence.internal.api.services.security.graphos.PolicyEvaluatorWithoutOperation;
@@ -28,6 +29,12 @@ public class EntityDefinitionPolicyAuthorizationService implements Authorization
 
     public EntityDefinitionPolicyAuthorizationService(EntityDefinition entityDefinition,
                                                       PolicyAuthorizer policyAuthorizer) {
+        this(entityDefinition, policyAuthorizer, PolicyDecisionCache.disabled());
+    }
+
+    public EntityDefinitionPolicyAuthorizationService(EntityDefinition entityDefinition,
+                                                      PolicyAuthorizer policyAuthorizer,
+                                                      PolicyDecisionCache decisionCache) {
 
         this.entityDefinitionId = PersistenceUtil.createEntityDefinitionId(entityDefinition.getOrganizationId(),
                                                                            entityDefinition.getApplicationId(),
@@ -47,7 +54,9 @@ public class EntityDefinitionPolicyAuthorizationService implements Authorization
 
         SharedPolicyManager sharedPolicyManager = new SharedPolicyManager(entityPolicies != null ? entityPolicies.getPolicies() : null,
                                                                           fieldPolicies);
-        sharedEvaluator = new PolicyEvaluatorWithoutOperation(policyAuthorizer, sharedPolicyManager);
+        sharedEvaluator = new PolicyEvaluatorWithoutOperation(policyAuthorizer, sharedPolicyManager, decisionCache, entityDefinitionId);
+        // The policies may have changed, so any decisions made for the previous entity definition are no longer valid
+        decisionCache.invalidate(entityDefinitionId);
 
         // Check if we have any policy decorators to apply to operations
         EntityServiceDecoratorsDecorator decorators = schema.findDecorator(EntityServiceDecoratorsDecorator.class);
@@ -59,7 +68,12 @@ public class EntityDefinitionPolicyAuthorizationService implements Authorization
             for (Map.Entry<EntityOperation, List<EntityServiceDecorator>> entry : operationDecorators.entrySet()) {
                 List<List<String>> operationPolicies = extractPolicies(entry.getValue());
                 if(!operationPolicies.isEmpty()){
-                    operationEvaluators.put(entry.getKey(), new PolicyEvaluatorWithOperation(policyAuthorizer, sharedPolicyManager, operationPolicies));
+                    operationEvaluators.put(entry.getKey(), new PolicyEvaluatorWithOperation(policyAuthorizer,
+                                                                                             sharedPolicyManager,
+                                                                                             operationPolicies,
+                                                                                             decisionCache,
+                                                                                             entityDefinitionId,
+                                                                                             entry.getKey().name()));
                 }
             }
         }
@@ -6,13 +6,10 @@ import org.kinotic.persistence.api.model.EntityContext;
 import org.kinotic.persistence.api.model.NamedQueryOperation;
 import org.kinotic.persistence.api.model.idl.decorators.PolicyDecorator;
 import org.kinotic.persistence.api.services.security.AuthorizationService;
-import org.kinotic.persistence.internal.api.services.security.graphos.DefaultPolicyAuthorizationRequest;
-import org.kinotic.persistence.internal.api.services.security.graphos.PolicyExpression;
-import org.kinotic.persistence.internal.api.services.security.graphos.PolicyExpressionUtil;
+import org.kinotic.persistence.internal.api.services.security.graphos.PolicyDecisionCache;
+import org.kinotic.persistence.internal.api.services.security.graphos.PolicyPlan;
 
-import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 
 /**
  * This {@link AuthorizationService} will authorize Named Query execution requests
@@ -22,44 +19,52 @@ public class NamedQueryPolicyAuthorizationService implements AuthorizationServic
 
     private final PolicyAuthorizer policyAuthorizer;
     /**
-     * The {@link PolicyExpression} provided by the named query
+     * The compiled policies provided by the named query
      */
-    private final PolicyExpression policyExpression;
-    /**
-     * The set of policies that are required to execute the named query
-     */
-    private final Set<String> allPolicies = new HashSet<>();
+    private final PolicyPlan policyPlan;
+    private final int queryExpressionIndex;
+    private final PolicyDecisionCache decisionCache;
+    private final String target;
+    private final long policyVersion = PolicyDecisionCache.nextPolicyVersion();
 
     public NamedQueryPolicyAuthorizationService(FunctionDefinition namedQuery,
                                                 PolicyAuthorizer policyAuthorizer) {
+        this(namedQuery, policyAuthorizer, PolicyDecisionCache.disabled());
+    }
+
+    public NamedQueryPolicyAuthorizationService(FunctionDefinition namedQuery,
+                                                PolicyAuthorizer policyAuthorizer,
+                                                PolicyDecisionCache decisionCache) {
         this.policyAuthorizer = policyAuthorizer;
+        this.decisionCache = decisionCache;
+        this.target = "namedQuery:" + namedQuery.getName();
         PolicyDecorator policyDecorator = namedQuery.findDecorator(PolicyDecorator.class);
         if(policyDecorator == null){
             throw new IllegalArgumentException("the Named Query must contain contain a PolicyDecorator");
         }
-        this.policyExpression = PolicyExpressionUtil.createPolicyExpression(policyDecorator.getPolicies());
-        PolicyExpressionUtil.collectPolicies(this.policyExpression, allPolicies);
+        PolicyPlan.Builder builder = PolicyPlan.builder();
+        this.queryExpressionIndex = builder.addExpression(policyDecorator.getPolicies());
+        this.policyPlan = builder.build();
     }
 
 
     @Override
     public CompletableFuture<Void> authorize(NamedQueryOperation operationIdentifier, EntityContext entityContext) {
 
-        Map<String, PolicyAuthorizationRequest> policyRequests = allPolicies.stream()
-                                                                            .collect(Collectors.toMap(policy -> policy, DefaultPolicyAuthorizationRequest::new));
-
-        List<PolicyAuthorizationRequest> requests = new ArrayList<>(policyRequests.values());
+        // The policies are the same for every operation, so the decision is as well
+        return decisionCache.get(entityContext, target, null, policyVersion, policyPlan.getPolicies(), () -> isQueryAllowed(entityContext))
+                            .thenCompose(queryAllowed -> {
+                                if(queryAllowed){
+                                    return CompletableFuture.completedFuture(null);
+                                }else{
+                                    return CompletableFuture.failedFuture(new AuthorizationException("The Named Query is not authorized"));
 
-        return policyAuthorizer.authorize(requests, entityContext)
-                               .thenCompose(ignored -> {
-
-                                   boolean queryAllowed = this.policyExpression.evaluate(policyRequests);
-                                   if(queryAllowed){
-                                       return CompletableFuture.completedFuture(null);
-                                   }else{
-                                       return CompletableFuture.failedFuture(new AuthorizationException("The Named Query is not authorized"));
+                                }
+                            });
+    }
 
-                                   }
-                               });
+    private CompletableFuture<Boolean> isQueryAllowed(EntityContext entityContext) {
+        return policyPlan.evaluate(policyAuthorizer, entityContext)
+                         .thenApply(results -> results[queryExpressionIndex]);
     }
 }
@@ -0,0 +1,11 @@
+package org.kinotic.persistence.api.services.security.graphos;
+
+/**
+ * A {@link PolicyAuthorizer} that decides using only the participant of the {@link org.kinotic.persistence.api.model.EntityContext},
+ * so its decisions can be cached for a short time and reused for later requests by the same participant.
+ * When a bean of this type is provided, the default {@link org.kinotic.persistence.api.services.security.AuthorizationServiceFactory}
+ * authorizes requests with it and caches its decisions.
+ */
+public interface ParticipantPolicyAuthorizer extends PolicyAuthorizer {
+
+}
@@ -9,27 +9,39 @@ import org.kinotic.persistence.api.model.idl.decorators.PolicyDecorator;
 import org.kinotic.persistence.api.services.security.AuthorizationService;
 import org.kinotic.persistence.api.services.security.AuthorizationServiceFactory;
 import org.kinotic.persistence.internal.api.services.security.NoopAuthorizationService;
+import org.kinotic.persistence.internal.api.services.security.graphos.PolicyDecisionCache;
 
 import java.util.concurrent.CompletableFuture;
 
 /**
+ * Creates {@link AuthorizationService}s that authorize requests using the policies defined for entities and named queries.
+ * Decisions made by a {@link ParticipantPolicyAuthorizer} are cached, by default with {@link PolicyDecisionCache#DEFAULT_TTL}.
+ * Decisions made by any other {@link PolicyAuthorizer} are not cached unless a {@link PolicyDecisionCache} is provided,
+ * which should only be done when the authorizer decides using the participant alone.
  * Created By Navíd Mitchell 🤪on 12/31/24
  */
 @RequiredArgsConstructor
 public class PolicyAuthorizationServiceFactory implements AuthorizationServiceFactory {
 
     private final PolicyAuthorizer policyAuthorizer;
+    private final PolicyDecisionCache decisionCache;
     private final NoopAuthorizationService<NamedQueryOperation> noopAuthorizationService = new NoopAuthorizationService<>();
 
+    public PolicyAuthorizationServiceFactory(PolicyAuthorizer policyAuthorizer) {
+        this(policyAuthorizer, policyAuthorizer instanceof ParticipantPolicyAuthorizer
+                ? new PolicyDecisionCache(PolicyDecisionCache.DEFAULT_TTL, PolicyDecisionCache.DEFAULT_MAXIMUM_SIZE)
+                : PolicyDecisionCache.disabled());
+    }
+
     @Override
     public CompletableFuture<AuthorizationService<EntityOperation>> createEntityDefinitionAuthorizationService(EntityDefinition entityDefinition) {
-        return CompletableFuture.completedFuture(new EntityDefinitionPolicyAuthorizationService(entityDefinition, policyAuthorizer));
+        return CompletableFuture.completedFuture(new EntityDefinitionPolicyAuthorizationService(entityDefinition, policyAuthorizer, decisionCache));
     }
 
     @Override
     public CompletableFuture<AuthorizationService<NamedQueryOperation>> createNamedQueryAuthorizationService(FunctionDefinition namedQuery) {
         if(namedQuery.containsDecorator(PolicyDecorator.class)) {
-            return CompletableFuture.completedFuture(new NamedQueryPolicyAuthorizationService(namedQuery, policyAuthorizer));
+            return CompletableFuture.completedFuture(new NamedQueryPolicyAuthorizationService(namedQuery, policyAuthorizer, decisionCache));
         }else {
             return CompletableFuture.completedFuture(noopAuthorizationService);
         }
@@ -60,6 +60,16 @@ public class DefaultEntitiesRepository implements EntitiesRepository {
         }
     }
 
+    /**
+     * Gets the {@link EntityRepository} for the given {@link EntityDefinition}.
+     * This is for internal services that need more than what the {@link EntitiesRepository} exposes.
+     * @param entityDefinitionId the id of the {@link EntityDefinition}
+     * @return {@link CompletableFuture} emitting the {@link EntityRepository}
+     */
+    public CompletableFuture<EntityRepository> getEntityRepository(String entityDefinitionId) {
+        return entityServiceCache.get(entityDefinitionId);
+    }
+
     @WithSpan
     @Override
     public <T> CompletableFuture<Void> bulkSave(@SpanAttribute("entityDefinitionId") String entityDefinitionId,
@@ -3,8 +3,11 @@ package org.kinotic.persistence.internal.api.services;
 import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch._types.OpType;
 import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.BulkRequest;
 import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.UpdateRequest;
 import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
 import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
@@ -56,6 +59,25 @@ public class DefaultEntityRepository implements EntityRepository {
     private final EntityDefinition entityDefinition;
     private final PersistenceProperties persistenceProperties;
 
+    @WithSpan
+    @Override
+    public CompletableFuture<SearchResponse<Void>> aggregate(Map<String, Aggregation> aggregations, EntityContext context) {
+        return validateContext(context)
+                .thenCompose(un -> authService.authorize(EntityOperation.FIND_ALL, context))
+                .thenCompose(un -> esAsyncClient.search(builder -> {
+                    builder.index(entityDefinition.getItemIndex())
+                           .size(0)
+                           .trackTotalHits(t -> t.enabled(true))
+                           .aggregations(aggregations);
+
+                    Query.Builder queryBuilder = readPreProcessor.createQueryWithTenantLogic(entityDefinition, context, builder::routing);
+                    if(queryBuilder != null){
+                        builder.query(queryBuilder.build());
+                    }
+                    return builder;
+                }, Void.class));
+    }
+
     @WithSpan
     @Override
     public <T> CompletableFuture<Void> bulkSave(T entities, EntityContext context) {
@@ -280,6 +302,11 @@ public class DefaultEntityRepository implements EntityRepository {
                                                    .thenCompose(v -> doFindByIds(composedIds, type, context)));
     }
 
+    @Override
+    public EntityDefinition getEntityDefinition() {
+        return entityDefinition;
+    }
+
     @WithSpan
     @Override
     public <T> CompletableFuture<List<T>> namedQuery(String queryName,
@@ -1,5 +1,7 @@
 package org.kinotic.persistence.internal.api.services;
 
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
 import org.kinotic.core.api.crud.Page;
 import org.kinotic.core.api.crud.Pageable;
 import org.kinotic.idl.api.schema.FunctionDefinition;
@@ -10,6 +12,7 @@ import org.kinotic.persistence.api.model.TenantSpecificId;
 import org.kinotic.persistence.api.model.ParameterHolder;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -18,6 +21,16 @@ import java.util.concurrent.CompletableFuture;
  */
 public interface EntityRepository {
 
+    /**
+     * Runs the given aggregations over all the entities visible to the given context, no entities are returned.
+     * Multi tenancy filtering is applied the same way as for {@link #findAll(Pageable, Class, EntityContext)}.
+     *
+     * @param aggregations the aggregations to run keyed by aggregation name
+     * @param context      the context for this operation
+     * @return {@link CompletableFuture} emitting the {@link SearchResponse} holding the total hits and the aggregation results
+     */
+    CompletableFuture<SearchResponse<Void>> aggregate(Map<String, Aggregation> aggregations, EntityContext context);
+
     /**
      * Saves all given entities.
      * @param entities all the entities to save
@@ -132,6 +145,11 @@ public interface EntityRepository {
      */
     <T> CompletableFuture<List<T>> findByIdsWithTenant(List<TenantSpecificId> ids, Class<T> type, EntityContext context);
 
+    /**
+     * @return the {@link EntityDefinition} this repository provides access to
+     */
+    EntityDefinition getEntityDefinition();
+
     /**
      * Executes a named query.
      *
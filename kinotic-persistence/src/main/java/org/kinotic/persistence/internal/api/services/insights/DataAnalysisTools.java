@@ -13,6 +13,7 @@ import reactor.core.publisher.FluxSink;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -25,11 +26,16 @@ import java.util.stream.Collectors;
 public class DataAnalysisTools {
 
     private final EntitiesRepository entitiesRepository;
+    private final EntityStatisticsService statisticsService;
     private final Participant participant;
     private final FluxSink<InsightProgress> progressSink;
     
-    public DataAnalysisTools(EntitiesRepository entitiesRepository, Participant participant, FluxSink<InsightProgress> progressSink) {
+    public DataAnalysisTools(EntitiesRepository entitiesRepository,
+                             EntityStatisticsService statisticsService,
+                             Participant participant,
+                             FluxSink<InsightProgress> progressSink) {
         this.entitiesRepository = entitiesRepository;
+        this.statisticsService = statisticsService;
         this.participant = participant;
         this.progressSink = progressSink;
     }
@@ -102,50 +108,53 @@ public class DataAnalysisTools {
 
     /**
      * Tool that allows Spring AI to get statistical information about data in a EntityDefinition.
+     * Statistics are computed over all the data with aggregations, not from a sample.
      */
    // @Tool
     public String getDataStatistics(String entityDefinitionId) {
         log.debug("AI requesting data statistics for EntityDefinition: {}", entityDefinitionId);
-        
+
         try {
-            EntityContext context = createEntityContext();
-            
-            // Get total count
-            CompletableFuture<Long> countFuture = entitiesRepository.count(entityDefinitionId, context);
-            long totalCount = countFuture.join();
-            
-            if (totalCount == 0) {
-                return String.format("EntityDefinition '%s' contains no data.", entityDefinitionId);
-            }
-            
-            // Get sample for field analysis
-            Pageable pageable = Pageable.ofSize(Math.min(100, (int) totalCount));
-            CompletableFuture<Page<Map>> dataFuture = entitiesRepository.findAll(entityDefinitionId, pageable, Map.class, context);
-            Page<Map> sampleData = dataFuture.join();
-            
-            StringBuilder result = new StringBuilder();
-            result.append(String.format("Data Statistics for EntityDefinition '%s':\n\n", entityDefinitionId));
-            result.append(String.format("Total Records: %d\n", totalCount));
-            result.append(String.format("Sample Size for Analysis: %d\n\n", sampleData.getContent().size()));
-            
-            // Analyze field characteristics
-            if (!sampleData.getContent().isEmpty()) {
-                Map<String, FieldStats> fieldStats = analyzeFields(sampleData.getContent());
-                
-                result.append("Field Analysis:\n");
-                fieldStats.forEach((fieldName, stats) -> {
-                    result.append(String.format("- %s: %s\n", fieldName, stats.toString()));
-                });
-            }
-            
-            return result.toString();
-            
+            return getDataStatisticsAsync(entityDefinitionId).join(); // Blocking wait - needed for tool interface
         } catch (Exception e) {
-            log.error("Error getting statistics for EntityDefinition {}: {}", entityDefinitionId, e.getMessage());
-            return String.format("Error retrieving statistics for EntityDefinition %s: %s", entityDefinitionId, e.getMessage());
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Error getting statistics for EntityDefinition {}: {}", entityDefinitionId, cause.getMessage());
+            return String.format("Error retrieving statistics for EntityDefinition %s: %s", entityDefinitionId, cause.getMessage());
         }
     }
 
+    /**
+     * Async version of {@link #getDataStatistics(String)}.
+     */
+    public CompletableFuture<String> getDataStatisticsAsync(String entityDefinitionId) {
+        return statisticsService
+                .getEntityStatistics(entityDefinitionId, createEntityContext())
+                .thenApply(statistics -> {
+                    if (statistics.totalCount() == 0) {
+                        return String.format("EntityDefinition '%s' contains no data.", entityDefinitionId);
+                    }
+
+                    StringBuilder result = new StringBuilder();
+                    result.append(String.format("Data Statistics for EntityDefinition '%s':\n\n", entityDefinitionId));
+                    result.append(String.format("Total Records: %d\n\n", statistics.totalCount()));
+
+                    result.append("Field Analysis:\n");
+                    for (FieldStatistics field : statistics.fields()) {
+                        result.append(String.format("- %s: Type: %s, Unique values: ~%d, Missing: %d/%d",
+                                                    field.fieldName(),
+                                                    field.kind(),
+                                                    field.uniqueValues(),
+                                                    field.missing(),
+                                                    statistics.totalCount()));
+                        if (field.summary() != null) {
+                            result.append(", ").append(formatSummary(field));
+                        }
+                        result.append("\n");
+                    }
+                    return result.toString();
+                });
+    }
+
     /**
      * Tool that allows Spring AI to search and analyze specific data patterns.
      */
@@ -195,74 +204,77 @@ public class DataAnalysisTools {
 
     /**
      * Tool that analyzes field value distributions to help with visualization choices.
+     * The distribution is computed over all the data with aggregations, not from a sample.
      */
   //  @Tool
-    @SuppressWarnings("unchecked")
     public String analyzeFieldDistribution(String entityDefinitionId, String fieldName) {
         log.debug("AI analyzing distribution of field '{}' in EntityDefinition: {}", fieldName, entityDefinitionId);
-        
+
         try {
-            // Get sample data to analyze the field
-            EntityContext context = createEntityContext();
-            Pageable pageable = Pageable.ofSize(100);
-            CompletableFuture<Page<Map>> dataFuture = entitiesRepository.findAll(entityDefinitionId, pageable, Map.class, context);
-            Page<Map> sampleData = dataFuture.join();
-            
-            if (sampleData.getContent().isEmpty()) {
-                return String.format("No data available to analyze field '%s' in EntityDefinition '%s'", fieldName, entityDefinitionId);
-            }
-            
-            StringBuilder result = new StringBuilder();
-            result.append(String.format("Field Distribution Analysis for '%s' in EntityDefinition '%s':\n\n", fieldName, entityDefinitionId));
-            
-            Map<Object, Integer> valueDistribution = new HashMap<>();
-            int nullValues = 0;
-            
-            for (Map<String, Object> record : sampleData.getContent()) {
-                Object fieldValue = extractFieldValue(record, fieldName);
-                if (fieldValue == null) {
-                    nullValues++;
-                } else {
-                    valueDistribution.merge(fieldValue, 1, Integer::sum);
-                }
-            }
-            
-            // Calculate total non-null values from the distribution
-            final int totalValues = valueDistribution.values().stream().mapToInt(Integer::intValue).sum();
-            
-            if (totalValues == 0) {
-                result.append(String.format("Field '%s' not found or contains no values.\n", fieldName));
-                return result.toString();
-            }
-            
-            result.append(String.format("Total values analyzed: %d\n", totalValues + nullValues));
-            result.append(String.format("Non-null values: %d\n", totalValues));
-            result.append(String.format("Null values: %d\n\n", nullValues));
-            
-            // Show top value distributions
-            result.append("Value Distribution (top 10):\n");
-            valueDistribution.entrySet().stream()
-                .sorted(Map.Entry.<Object, Integer>comparingByValue().reversed())
-                .limit(10)
-                .forEach(entry -> {
-                    double percentage = (entry.getValue() * 100.0) / totalValues;
-                    result.append(String.format("- %s: %d (%.1f%%)\n", entry.getKey(), entry.getValue(), percentage));
-                });
-            
-            // Determine field characteristics
-            result.append("\nField Characteristics:\n");
-            result.append(String.format("- Unique values: %d\n", valueDistribution.size()));
-            result.append(String.format("- Data type: %s\n", determineFieldType(valueDistribution.keySet())));
-            result.append(String.format("- Suitable for categorical analysis: %s\n", valueDistribution.size() <= 20 ? "Yes" : "No"));
-            
-            return result.toString();
-            
+            return analyzeFieldDistributionAsync(entityDefinitionId, fieldName).join(); // Blocking wait - needed for tool interface
         } catch (Exception e) {
-            log.error("Error analyzing field distribution for '{}' in EntityDefinition {}: {}", fieldName, entityDefinitionId, e.getMessage());
-            return String.format("Error analyzing field '%s': %s", fieldName, e.getMessage());
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Error analyzing field distribution for '{}' in EntityDefinition {}: {}", fieldName, entityDefinitionId, cause.getMessage());
+            return String.format("Error analyzing field '%s': %s", fieldName, cause.getMessage());
         }
     }
 
+    /**
+     * Async version of {@link #analyzeFieldDistribution(String, String)}.
+     */
+    public CompletableFuture<String> analyzeFieldDistributionAsync(String entityDefinitionId, String fieldName) {
+        return statisticsService
+                .getFieldStatistics(entityDefinitionId, fieldName, createEntityContext())
+                .thenApply(field -> {
+                    StringBuilder result = new StringBuilder();
+                    result.append(String.format("Field Distribution Analysis for '%s' in EntityDefinition '%s':\n\n", fieldName, entityDefinitionId));
+
+                    long nonMissing = field.topValues().stream().mapToLong(FieldStatistics.ValueCount::count).sum() + field.otherValues();
+                    if (field.summary() != null) {
+                        nonMissing = Math.max(nonMissing, field.summary().count());
+                    }
+
+                    if (nonMissing == 0) {
+                        result.append(String.format("Field '%s' contains no values.\n", fieldName));
+                        return result.toString();
+                    }
+
+                    result.append(String.format("Values: %d\n", nonMissing));
+                    result.append(String.format("Missing values: %d\n\n", field.missing()));
+
+                    if (!field.topValues().isEmpty()) {
+                        result.append(String.format("Value Distribution (top %d):\n", field.topValues().size()));
+                        for (FieldStatistics.ValueCount valueCount : field.topValues()) {
+                            double percentage = (valueCount.count() * 100.0) / nonMissing;
+                            result.append(String.format("- %s: %d (%.1f%%)\n", valueCount.value(), valueCount.count(), percentage));
+                        }
+                        if (field.otherValues() > 0) {
+                            result.append(String.format("- (other values): %d\n", field.otherValues()));
+                        }
+                    }
+
+                    if (field.summary() != null) {
+                        result.append("\nSummary: ").append(formatSummary(field)).append("\n");
+                    }
+
+                    if (!field.percentiles().isEmpty()) {
+                        result.append("Percentiles: ");
+                        result.append(field.percentiles().entrySet().stream()
+                                           .map(entry -> String.format("p%s=%s", entry.getKey(), entry.getValue()))
+                                           .collect(Collectors.joining(", ")));
+                        result.append("\n");
+                    }
+
+                    // Determine field characteristics
+                    result.append("\nField Characteristics:\n");
+                    result.append(String.format("- Unique values: ~%d\n", field.uniqueValues()));
+                    result.append(String.format("- Data type: %s\n", field.kind()));
+                    result.append(String.format("- Suitable for categorical analysis: %s\n", field.uniqueValues() <= 20 ? "Yes" : "No"));
+
+                    return result.toString();
+                });
+    }
+
     /**
      * Formats a data record for readable display.
      */
@@ -302,37 +314,6 @@ public class DataAnalysisTools {
         }
     }
 
-    /**
-     * Analyzes field characteristics from sample data.
-     */
-    @SuppressWarnings("unchecked")
-    private Map<String, FieldStats> analyzeFields(List<Map> content) {
-        Map<String, FieldStats> fieldStats = new HashMap<>();
-        
-        try {
-            for (Map<String, Object> record : content) {
-                record.forEach((fieldName, value) -> {
-                    fieldStats.computeIfAbsent(fieldName, k -> new FieldStats()).addValue(value);
-                });
-            }
-        } catch (Exception e) {
-            log.warn("Error analyzing fields: {}", e.getMessage());
-        }
-        
-        return fieldStats;
-    }
-
-    /**
-     * Extracts a specific field value from a record.
-     */
-    private Object extractFieldValue(Map<String, Object> record, String fieldName) {
-        try {
-            return record.get(fieldName);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     /**
      * Analyzes patterns in search results.
      */
@@ -355,27 +336,6 @@ public class DataAnalysisTools {
         return analysis.toString();
     }
 
-    /**
-     * Determines the primary data type from a set of values.
-     */
-    private String determineFieldType(Set<Object> values) {
-        if (values.isEmpty()) {
-            return "Unknown";
-        }
-        
-        // Check if all values are of the same type
-        Set<Class<?>> types = values.stream()
-            .map(Object::getClass)
-            .collect(Collectors.toSet());
-        
-        if (types.size() == 1) {
-            Class<?> type = types.iterator().next();
-            return type.getSimpleName();
-        }
-        
-        return "Mixed types";
-    }
-
     /**
      * Creates an EntityContext for data operations using the participant injected during construction.
      */
@@ -384,33 +344,13 @@ public class DataAnalysisTools {
     }
 
     /**
-     * Helper class to track field statistics.
+     * Formats the min, max and average of a field.
      */
-    private static class FieldStats {
-        private int totalValues = 0;
-        private int nullValues = 0;
-        private Set<Object> uniqueValues = new HashSet<>();
-        private Class<?> primaryType = null;
-        
-        public void addValue(Object value) {
-            totalValues++;
-            if (value == null) {
-                nullValues++;
-            } else {
-                uniqueValues.add(value);
-                if (primaryType == null) {
-                    primaryType = value.getClass();
-                }
-            }
-        }
-        
-        @Override
-        public String toString() {
-            return String.format("Type: %s, Unique values: %d, Nulls: %d/%d", 
-                primaryType != null ? primaryType.getSimpleName() : "Unknown",
-                uniqueValues.size(), 
-                nullValues, 
-                totalValues);
+    private String formatSummary(FieldStatistics field) {
+        FieldStatistics.Summary summary = field.summary();
+        if (field.kind() == FieldStatistics.Kind.DATE) {
+            return String.format("Min: %s, Max: %s", summary.minAsString(), summary.maxAsString());
         }
+        return String.format("Min: %s, Max: %s, Avg: %.2f", summary.min(), summary.max(), summary.avg());
     }
-}
\ No newline at end of file
+}
@@ -27,6 +27,7 @@ public class DataInsightsServiceImpl implements DataInsightsService {
   //  private final ChatClient chatClient;
     // private final InsightsContextService contextService;
     // private final EntitiesService entitiesService;
+    // private final EntityStatisticsService statisticsService;
     // private final EntityDefinitionService entityDefinitionService;
     // private final ObjectMapper objectMapper;
 
@@ -116,7 +117,7 @@ public class DataInsightsServiceImpl implements DataInsightsService {
 //        try {
 //            // Create tools with participant context and progress reporting
 //            StructureDiscoveryTools progressStructureTools = new StructureDiscoveryTools(structureService, sink);
-//            DataAnalysisTools progressDataTools = new DataAnalysisTools(entitiesService, participant, sink);
+//            DataAnalysisTools progressDataTools = new DataAnalysisTools(entitiesService, statisticsService, participant, sink);
 //
 //            // Build context
 //            String context = contextService.buildAnalysisContext(request, participant);
@@ -208,7 +209,7 @@ public class DataInsightsServiceImpl implements DataInsightsService {
 //
 //            // Create tools with participant context and progress reporting
 //            StructureDiscoveryTools progressStructureTools = new StructureDiscoveryTools(structureService, sink);
-//            DataAnalysisTools progressDataTools = new DataAnalysisTools(entitiesService, participant, sink);
+//            DataAnalysisTools progressDataTools = new DataAnalysisTools(entitiesService, statisticsService, participant, sink);
 //
 //            // Build context
 //            String context = contextService.buildAnalysisContext(request, participant);
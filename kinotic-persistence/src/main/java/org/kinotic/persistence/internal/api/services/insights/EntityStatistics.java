@@ -0,0 +1,18 @@
+package org.kinotic.persistence.internal.api.services.insights;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Statistics computed server side for all aggregatable fields of an {@link org.kinotic.persistence.api.model.EntityDefinition}.
+ *
+ * @param entityDefinitionId the id of the {@link org.kinotic.persistence.api.model.EntityDefinition}
+ * @param totalCount         the total number of entities visible to the caller
+ * @param fields             the statistics for each aggregatable field
+ * @param computedAt         when the statistics were computed, results are cached for a short time
+ */
+public record EntityStatistics(String entityDefinitionId,
+                               long totalCount,
+                               List<FieldStatistics> fields,
+                               Instant computedAt) {
+}
@@ -0,0 +1,319 @@
+package org.kinotic.persistence.internal.api.services.insights;
+
+import co.elastic.clients.elasticsearch._types.aggregations.*;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import lombok.extern.slf4j.Slf4j;
+import org.kinotic.idl.api.schema.*;
+import org.kinotic.persistence.api.model.EntityContext;
+import org.kinotic.persistence.api.model.EntityDefinition;
+import org.kinotic.persistence.api.model.idl.decorators.FlattenedDecorator;
+import org.kinotic.persistence.api.model.idl.decorators.NestedDecorator;
+import org.kinotic.persistence.api.model.idl.decorators.NotIndexedDecorator;
+import org.kinotic.persistence.api.model.idl.decorators.TextDecorator;
+import org.kinotic.persistence.internal.api.services.DefaultEntitiesRepository;
+import org.kinotic.persistence.internal.api.services.EntityRepository;
+import org.kinotic.persistence.internal.cache.DefaultCaffeineCacheFactory;
+import org.kinotic.persistence.internal.cache.events.CacheEvictionEvent;
+import org.kinotic.persistence.internal.cache.events.EvictionSourceType;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Computes statistics for {@link EntityDefinition}s using Elasticsearch aggregations.
+ * Statistics are calculated over the full index in a single request, so the results are exact (or HyperLogLog / t-digest approximations)
+ * rather than extrapolated from a sample of entities.
+ * <p>
+ * Results are cached for a short time, since the same statistics are typically requested repeatedly while a visualization is generated.
+ * The cache key includes the participant and tenant selection so results are never shared across tenants.
+ */
+@Slf4j
+@Component
+public class EntityStatisticsService {
+
+    private static final String CARDINALITY = "cardinality_";
+    private static final String MISSING = "missing_";
+    private static final String PERCENTILES = "percentiles_";
+    private static final String STATS = "stats_";
+    private static final String TERMS = "terms_";
+
+    private static final int TOP_VALUES_SIZE = 10;
+
+    private final DefaultEntitiesRepository entitiesRepository;
+    private final AsyncCache<StatisticsKey, EntityStatistics> entityStatisticsCache;
+    private final AsyncCache<StatisticsKey, FieldStatistics> fieldStatisticsCache;
+
+    public EntityStatisticsService(DefaultEntitiesRepository entitiesRepository,
+                                   DefaultCaffeineCacheFactory cacheFactory) {
+        this.entitiesRepository = entitiesRepository;
+        this.entityStatisticsCache
+                = cacheFactory.<StatisticsKey, EntityStatistics>newBuilder()
+                              .name("entityStatisticsCache")
+                              .expireAfterWrite(Duration.ofMinutes(1))
+                              .maximumSize(1000)
+                              .buildAsync();
+        this.fieldStatisticsCache
+                = cacheFactory.<StatisticsKey, FieldStatistics>newBuilder()
+                              .name("fieldStatisticsCache")
+                              .expireAfterWrite(Duration.ofMinutes(1))
+                              .maximumSize(5000)
+                              .buildAsync();
+    }
+
+    /**
+     * Evicts cached statistics for a given {@link EntityDefinition}, since the schema and therefore the aggregatable fields may have changed.
+     * @param event the event containing the {@link EntityDefinition} to evict the caches for
+     */
+    @EventListener
+    public void handleEntityDefinitionCacheEviction(CacheEvictionEvent event) {
+        try {
+            if(event.getEvictionSourceType() == EvictionSourceType.ENTITY_DEFINITION){
+                String entityDefinitionId = event.getEntityDefinitionId();
+                entityStatisticsCache.asMap().keySet().removeIf(key -> key.entityDefinitionId().equals(entityDefinitionId));
+                fieldStatisticsCache.asMap().keySet().removeIf(key -> key.entityDefinitionId().equals(entityDefinitionId));
+            }
+        } catch (Exception e) {
+            log.error("failed to handle EntityDefinition statistics cache eviction (source: {})",
+                      event.getEvictionSource().getDisplayName(), e);
+        }
+    }
+
+    /**
+     * Gets the total count and the missing, unique value and summary statistics for all aggregatable fields of the given {@link EntityDefinition}.
+     * @param entityDefinitionId the id of the {@link EntityDefinition}
+     * @param context the context for this operation
+     * @return {@link CompletableFuture} emitting the {@link EntityStatistics}
+     */
+    public CompletableFuture<EntityStatistics> getEntityStatistics(String entityDefinitionId, EntityContext context) {
+        return entityStatisticsCache.get(StatisticsKey.of(entityDefinitionId, null, context),
+                                         (key, executor) -> computeEntityStatistics(entityDefinitionId, context));
+    }
+
+    /**
+     * Gets the distribution of a single field of the given {@link EntityDefinition}.
+     * This includes the top values for non date fields and the percentiles for numeric fields.
+     * @param entityDefinitionId the id of the {@link EntityDefinition}
+     * @param fieldName the dotted path of the field
+     * @param context the context for this operation
+     * @return {@link CompletableFuture} emitting the {@link FieldStatistics} or failing with an {@link IllegalArgumentException} if the field cannot be aggregated
+     */
+    public CompletableFuture<FieldStatistics> getFieldStatistics(String entityDefinitionId, String fieldName, EntityContext context) {
+        return fieldStatisticsCache.get(StatisticsKey.of(entityDefinitionId, fieldName, context),
+                                        (key, executor) -> computeFieldStatistics(entityDefinitionId, fieldName, context));
+    }
+
+    private CompletableFuture<EntityStatistics> computeEntityStatistics(String entityDefinitionId, EntityContext context) {
+        return entitiesRepository
+                .getEntityRepository(entityDefinitionId)
+                .thenCompose(repository -> {
+                    List<StatisticsField> fields = findAggregatableFields(repository.getEntityDefinition());
+
+                    Map<String, Aggregation> aggregations = new HashMap<>();
+                    for (int i = 0; i < fields.size(); i++) {
+                        StatisticsField field = fields.get(i);
+                        aggregations.put(CARDINALITY + i, Aggregation.of(a -> a.cardinality(c -> c.field(field.path()))));
+                        aggregations.put(MISSING + i, Aggregation.of(a -> a.missing(m -> m.field(field.path()))));
+                        if(field.kind() != FieldStatistics.Kind.CATEGORICAL){
+                            aggregations.put(STATS + i, Aggregation.of(a -> a.stats(s -> s.field(field.path()))));
+                        }
+                    }
+
+                    return repository
+                            .aggregate(aggregations, context)
+                            .thenApply(response -> {
+                                List<FieldStatistics> fieldStatistics = new ArrayList<>(fields.size());
+                                for (int i = 0; i < fields.size(); i++) {
+                                    fieldStatistics.add(toFieldStatistics(fields.get(i), String.valueOf(i), response.aggregations()));
+                                }
+                                return new EntityStatistics(entityDefinitionId,
+                                                            totalHits(response),
+                                                            fieldStatistics,
+                                                            Instant.now());
+                            });
+                });
+    }
+
+    private CompletableFuture<FieldStatistics> computeFieldStatistics(String entityDefinitionId, String fieldName, EntityContext context) {
+        return entitiesRepository
+                .getEntityRepository(entityDefinitionId)
+                .thenCompose(repository -> {
+                    StatisticsField field = findField(repository, fieldName);
+                    if(field == null){
+                        return CompletableFuture.failedFuture(
+                                new IllegalArgumentException("Field '" + fieldName + "' does not exist or cannot be aggregated for EntityDefinition " + entityDefinitionId));
+                    }
+
+                    Map<String, Aggregation> aggregations = new HashMap<>();
+                    aggregations.put(CARDINALITY, Aggregation.of(a -> a.cardinality(c -> c.field(field.path()))));
+                    aggregations.put(MISSING, Aggregation.of(a -> a.missing(m -> m.field(field.path()))));
+                    if(field.kind() != FieldStatistics.Kind.DATE){
+                        aggregations.put(TERMS, Aggregation.of(a -> a.terms(t -> t.field(field.path()).size(TOP_VALUES_SIZE))));
+                    }
+                    if(field.kind() != FieldStatistics.Kind.CATEGORICAL){
+                        aggregations.put(STATS, Aggregation.of(a -> a.stats(s -> s.field(field.path()))));
+                    }
+                    if(field.kind() == FieldStatistics.Kind.NUMERIC){
+                        aggregations.put(PERCENTILES, Aggregation.of(a -> a.percentiles(p -> p.field(field.path())
+                                                                                             .percents(1.0, 5.0, 25.0, 50.0, 75.0, 95.0, 99.0))));
+                    }
+
+                    return repository
+                            .aggregate(aggregations, context)
+                            .thenApply(response -> toFieldStatistics(field, "", response.aggregations()));
+                });
+    }
+
+    private static long totalHits(SearchResponse<Void> response) {
+        return response.hits().total() != null ? response.hits().total().value() : 0;
+    }
+
+    private static StatisticsField findField(EntityRepository repository, String fieldName) {
+        for (StatisticsField field : findAggregatableFields(repository.getEntityDefinition())) {
+            if(field.path().equals(fieldName)){
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private static List<StatisticsField> findAggregatableFields(EntityDefinition entityDefinition) {
+        List<StatisticsField> fields = new ArrayList<>();
+        collectAggregatableFields(entityDefinition.getSchema(), "", fields);
+        return fields;
+    }
+
+    private static void collectAggregatableFields(ObjectC3Type objectC3Type, String prefix, List<StatisticsField> fields) {
+        for (PropertyDefinition property : objectC3Type.getProperties()) {
+            // these are either not indexed or require a different aggregation structure
+            if(property.containsDecorator(NotIndexedDecorator.class)
+                    || property.containsDecorator(TextDecorator.class)
+                    || property.containsDecorator(FlattenedDecorator.class)
+                    || property.containsDecorator(NestedDecorator.class)){
+                continue;
+            }
+
+            String path = prefix + property.getName();
+            C3Type type = property.getType();
+            if(type instanceof ArrayC3Type arrayC3Type){
+                type = arrayC3Type.getContains();
+            }
+
+            if(type instanceof ObjectC3Type nestedObject){
+                collectAggregatableFields(nestedObject, path + ".", fields);
+            }else if(type instanceof NumberC3Type){
+                fields.add(new StatisticsField(path, FieldStatistics.Kind.NUMERIC));
+            }else if(type instanceof DateC3Type){
+                fields.add(new StatisticsField(path, FieldStatistics.Kind.DATE));
+            }else if(type instanceof StringC3Type
+                    || type instanceof EnumC3Type
+                    || type instanceof CharC3Type
+                    || type instanceof BooleanC3Type){
+                fields.add(new StatisticsField(path, FieldStatistics.Kind.CATEGORICAL));
+            }
+        }
+    }
+
+    private static FieldStatistics toFieldStatistics(StatisticsField field, String suffix, Map<String, Aggregate> aggregations) {
+        long missing = aggregations.get(MISSING + suffix).missing().docCount();
+        long uniqueValues = aggregations.get(CARDINALITY + suffix).cardinality().value();
+
+        FieldStatistics.Summary summary = null;
+        Aggregate statsAggregate = aggregations.get(STATS + suffix);
+        if(statsAggregate != null){
+            StatsAggregate stats = statsAggregate.stats();
+            if(stats.count() > 0){
+                summary = new FieldStatistics.Summary(stats.count(),
+                                                      stats.min(),
+                                                      stats.max(),
+                                                      stats.avg(),
+                                                      stats.sum(),
+                                                      stats.minAsString(),
+                                                      stats.maxAsString());
+            }
+        }
+
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        Aggregate percentilesAggregate = aggregations.get(PERCENTILES + suffix);
+        if(percentilesAggregate != null){
+            Percentiles values = percentilesAggregate.tdigestPercentiles().values();
+            if(values.isKeyed()){
+                values.keyed().forEach((percent, value) -> {
+                    if(value != null){
+                        percentiles.put(percent, Double.valueOf(value));
+                    }
+                });
+            }else{
+                for (ArrayPercentilesItem item : values.array()) {
+                    if(item.value() != null){
+                        percentiles.put(item.key(), item.value());
+                    }
+                }
+            }
+        }
+
+        List<FieldStatistics.ValueCount> topValues = new ArrayList<>();
+        long otherValues = 0;
+        Aggregate termsAggregate = aggregations.get(TERMS + suffix);
+        if(termsAggregate != null){
+            // the terms aggregate type depends on the mapped type of the field
+            if(termsAggregate.isSterms()){
+                StringTermsAggregate terms = termsAggregate.sterms();
+                for (StringTermsBucket bucket : terms.buckets().array()) {
+                    topValues.add(new FieldStatistics.ValueCount(bucket.key()._toJsonString(), bucket.docCount()));
+                }
+                otherValues = Objects.requireNonNullElse(terms.sumOtherDocCount(), 0L);
+            }else if(termsAggregate.isLterms()){
+                LongTermsAggregate terms = termsAggregate.lterms();
+                for (LongTermsBucket bucket : terms.buckets().array()) {
+                    String value = bucket.keyAsString() != null ? bucket.keyAsString() : String.valueOf(bucket.key());
+                    topValues.add(new FieldStatistics.ValueCount(value, bucket.docCount()));
+                }
+                otherValues = Objects.requireNonNullElse(terms.sumOtherDocCount(), 0L);
+            }else if(termsAggregate.isDterms()){
+                DoubleTermsAggregate terms = termsAggregate.dterms();
+                for (DoubleTermsBucket bucket : terms.buckets().array()) {
+                    String value = bucket.keyAsString() != null ? bucket.keyAsString() : String.valueOf(bucket.key());
+                    topValues.add(new FieldStatistics.ValueCount(value, bucket.docCount()));
+                }
+                otherValues = Objects.requireNonNullElse(terms.sumOtherDocCount(), 0L);
+            }
+        }
+
+        return new FieldStatistics(field.path(),
+                                   field.kind(),
+                                   missing,
+                                   uniqueValues,
+                                   summary,
+                                   percentiles,
+                                   topValues,
+                                   otherValues);
+    }
+
+    private record StatisticsField(String path, FieldStatistics.Kind kind) {
+    }
+
+    /**
+     * Statistics depend on which entities are visible, so the participant and tenant selection are part of the key.
+     * The participant is included so a cached result is never returned to a participant that was not authorized to compute it.
+     */
+    private record StatisticsKey(String entityDefinitionId,
+                                 String fieldName,
+                                 String participantId,
+                                 String tenantId,
+                                 List<String> tenantSelection) {
+
+        static StatisticsKey of(String entityDefinitionId, String fieldName, EntityContext context) {
+            return new StatisticsKey(entityDefinitionId,
+                                     fieldName,
+                                     context.getParticipant().getId(),
+                                     context.getParticipant().getTenantId(),
+                                     context.hasTenantSelection() ? List.copyOf(context.getTenantSelection()) : null);
+        }
+    }
+
+}
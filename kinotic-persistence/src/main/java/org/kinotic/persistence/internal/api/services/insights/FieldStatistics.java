@@ -0,0 +1,59 @@
+package org.kinotic.persistence.internal.api.services.insights;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics computed server side for a single field of an {@link org.kinotic.persistence.api.model.EntityDefinition}.
+ * All values are calculated over the full index, not a sample.
+ *
+ * @param fieldName      the dotted path of the field
+ * @param kind           the kind of statistics that apply to the field
+ * @param missing        the number of entities that have no value for the field
+ * @param uniqueValues   the approximate number of unique values, computed with HyperLogLog++ so may be off slightly for large values
+ * @param summary        the min, max, avg and sum of the field, null for {@link Kind#CATEGORICAL} fields or if there are no values
+ * @param percentiles    the approximate percentiles keyed by percent, only populated for {@link Kind#NUMERIC} field distributions
+ * @param topValues      the most frequent values, only populated for field distributions
+ * @param otherValues    the number of values that were not included in the top values
+ */
+public record FieldStatistics(String fieldName,
+                              Kind kind,
+                              long missing,
+                              long uniqueValues,
+                              Summary summary,
+                              Map<String, Double> percentiles,
+                              List<ValueCount> topValues,
+                              long otherValues) {
+
+    public enum Kind {
+        CATEGORICAL,
+        NUMERIC,
+        DATE
+    }
+
+    /**
+     * @param count       the number of values
+     * @param min         the smallest value
+     * @param max         the largest value
+     * @param avg         the average of all values
+     * @param sum         the sum of all values
+     * @param minAsString the formatted smallest value, this is only set for dates
+     * @param maxAsString the formatted largest value, this is only set for dates
+     */
+    public record Summary(long count,
+                          double min,
+                          double max,
+                          double avg,
+                          double sum,
+                          String minAsString,
+                          String maxAsString) {
+    }
+
+    /**
+     * @param value the value
+     * @param count the number of entities with the value
+     */
+    public record ValueCount(String value, long count) {
+    }
+
+}
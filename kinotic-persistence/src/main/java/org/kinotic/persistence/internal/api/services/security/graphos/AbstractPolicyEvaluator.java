@@ -2,79 +2,85 @@ package org.kinotic.persistence.internal.api.services.security.graphos;
 
 import io.opentelemetry.instrumentation.annotations.WithSpan;
 import org.kinotic.persistence.api.model.EntityContext;
-import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizationRequest;
 import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizer;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 
+/**
+ * Evaluates the entity and field policies of a {@link SharedPolicyManager} together with any operation policies,
+ * using a {@link PolicyPlan} compiled when the evaluator is created.
+ */
 public abstract class AbstractPolicyEvaluator implements PolicyEvaluator {
     protected final PolicyAuthorizer authorizer;
     protected final SharedPolicyManager sharedPolicyManager;
+    private final PolicyDecisionCache decisionCache;
+    private final String target;
+    private final String operation;
+    private final PolicyPlan plan;
+    private final int operationExpressionIndex;
+
+    public AbstractPolicyEvaluator(PolicyAuthorizer authorizer,
+                                   SharedPolicyManager sharedPolicyManager,
+                                   List<List<String>> operationPolicies) {
+        this(authorizer, sharedPolicyManager, operationPolicies, PolicyDecisionCache.disabled(), null, null);
+    }
 
-    public AbstractPolicyEvaluator(PolicyAuthorizer authorizer, SharedPolicyManager sharedPolicyManager) {
+    /**
+     * Creates a new evaluator that caches its decisions
+     * @param authorizer the authorizer to call for the policies
+     * @param sharedPolicyManager the policies shared by all operations
+     * @param operationPolicies the policies for the operation or null if there are none
+     * @param decisionCache the cache to store decisions in
+     * @param target the entity definition the policies apply to
+     * @param operation the operation the policies apply to or null if they do not depend on the operation
+     */
+    public AbstractPolicyEvaluator(PolicyAuthorizer authorizer,
+                                   SharedPolicyManager sharedPolicyManager,
+                                   List<List<String>> operationPolicies,
+                                   PolicyDecisionCache decisionCache,
+                                   String target,
+                                   String operation) {
         this.authorizer = authorizer;
         this.sharedPolicyManager = sharedPolicyManager;
+        this.decisionCache = decisionCache;
+        this.target = target;
+        this.operation = operation;
+
+        PolicyPlan.Builder builder = sharedPolicyManager.newPlanBuilder();
+        this.operationExpressionIndex = builder.addExpression(operationPolicies);
+        this.plan = builder.build();
     }
 
     @WithSpan
     @Override
     public CompletableFuture<AuthorizationResult> evaluatePolicies(EntityContext entityContext) {
-        Set<String> allPolicies = new HashSet<>(sharedPolicyManager.getSharedPolicies());
-        addOperationPolicies(allPolicies);
-
         // no need to call authorizer if there are no policies to evaluate
-        if (allPolicies.isEmpty()) {
+        if (plan.getPolicies().isEmpty()) {
 
             return CompletableFuture.completedFuture(new AuthorizationResult(true, true, Collections.emptyMap()));
 
         }else {
-            Map<String, PolicyAuthorizationRequest> policyRequests = allPolicies.stream()
-                                                                                .collect(Collectors.toMap(policy -> policy,
-                                                                                                          DefaultPolicyAuthorizationRequest::new));
-            List<PolicyAuthorizationRequest> requests = new ArrayList<>(policyRequests.values());
-
-            return authorizer.authorize(requests, entityContext)
-                             .thenApply(ignored -> {
-
-                                 Map<String, Boolean> fieldResults = evaluateFieldPolicies(policyRequests);
-
-                                 boolean operationAllowed = isOperationAllowed(policyRequests);
-
-                                 boolean entityAllowed = sharedPolicyManager.getEntityExpression() == null
-                                         || sharedPolicyManager.getEntityExpression().evaluate(policyRequests);
-
-                                 return new AuthorizationResult(operationAllowed, entityAllowed, fieldResults);
-                             });
+            return decisionCache.get(entityContext,
+                                     target,
+                                     operation,
+                                     sharedPolicyManager.getVersion(),
+                                     plan.getPolicies(),
+                                     () -> plan.evaluate(authorizer, entityContext).thenApply(this::toAuthorizationResult));
         }
     }
 
-    private Map<String, Boolean> evaluateFieldPolicies(Map<String, PolicyAuthorizationRequest> policyRequests) {
+    private AuthorizationResult toAuthorizationResult(boolean[] results) {
         Map<String, Boolean> fieldResults = new HashMap<>();
-        for (Map.Entry<String, PolicyExpression> entry : sharedPolicyManager.getFieldExpressions().entrySet()) {
-            String fieldName = entry.getKey();
-            PolicyExpression expression = entry.getValue();
-            fieldResults.put(fieldName, expression.evaluate(policyRequests));
+        for (Map.Entry<String, Integer> entry : sharedPolicyManager.getFieldExpressionIndexes().entrySet()) {
+            fieldResults.put(entry.getKey(), results[entry.getValue()]);
         }
-        return fieldResults;
-    }
-
-    // Abstract methods to be implemented by subclasses
-    /**
-     * Add operation specific policies to the provided set
-     * @param policies the set to add operation specific policies to
-     */
-    protected abstract void addOperationPolicies(Set<String> policies);
-
-    /**
-     * Determine if the operation is allowed based on the provided policy requests
-     * @param policyRequests the policy requests to evaluate
-     * @return true if the operation is allowed
-     */
-    protected abstract boolean isOperationAllowed(Map<String, PolicyAuthorizationRequest> policyRequests);
-}
-
 
+        boolean operationAllowed = operationExpressionIndex == PolicyPlan.NONE || results[operationExpressionIndex];
 
+        int entityExpressionIndex = sharedPolicyManager.getEntityExpressionIndex();
+        boolean entityAllowed = entityExpressionIndex == PolicyPlan.NONE || results[entityExpressionIndex];
 
+        return new AuthorizationResult(operationAllowed, entityAllowed, Collections.unmodifiableMap(fieldResults));
+    }
+}
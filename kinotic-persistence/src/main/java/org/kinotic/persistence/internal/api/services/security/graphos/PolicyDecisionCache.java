@@ -0,0 +1,146 @@
+package org.kinotic.persistence.internal.api.services.security.graphos;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.kinotic.core.api.security.Participant;
+import org.kinotic.persistence.api.model.EntityContext;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the decisions made by a {@link org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizer} for a short time,
+ * so repeated requests by the same participant do not need to be authorized again.
+ * <p>
+ * Decisions are keyed by the participant id, tenant, auth scope, metadata and roles, the tenant selection, the entity or named query,
+ * the operation and the version and set of policies evaluated.
+ * Concurrent evaluations for the same key are coalesced, only the first calls the authorizer and the others wait for its decision.
+ * Failed evaluations are not cached.
+ * <p>
+ * Cached decisions only depend on the participant and not on any other data in the {@link EntityContext},
+ * so a cache should only be used with a {@link org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizer} known to
+ * decide using the participant alone.
+ */
+public class PolicyDecisionCache {
+
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(5);
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final AtomicLong POLICY_VERSIONS = new AtomicLong();
+    private static final PolicyDecisionCache DISABLED = new PolicyDecisionCache(Duration.ZERO, 0);
+
+    /**
+     * Null when decisions are not cached
+     */
+    private final AsyncCache<DecisionKey, Object> cache;
+
+    /**
+     * Creates a new decision cache
+     * @param ttl how long a decision is cached, if zero or negative decisions are not cached
+     * @param maximumSize the maximum number of decisions cached
+     */
+    public PolicyDecisionCache(Duration ttl, long maximumSize) {
+        if (ttl != null && !ttl.isNegative() && !ttl.isZero() && maximumSize > 0) {
+            this.cache = Caffeine.newBuilder()
+                                 .expireAfterWrite(ttl)
+                                 .maximumSize(maximumSize)
+                                 .buildAsync();
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * @return a cache that does not cache any decisions
+     */
+    public static PolicyDecisionCache disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Every set of policies gets a new version, so decisions made for previous policies are never used for updated policies
+     * @return a new unique policy version
+     */
+    public static long nextPolicyVersion() {
+        return POLICY_VERSIONS.incrementAndGet();
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Gets the cached decision or makes a new decision using the provided function
+     * @param entityContext the context of the request being authorized
+     * @param target the entity definition or named query being accessed
+     * @param operation the operation being performed or null if the decision does not depend on the operation
+     * @param policyVersion the version of the policies being evaluated
+     * @param policies the policies being evaluated
+     * @param decision that calls the authorizer and evaluates its result
+     * @return a {@link CompletableFuture} that completes with the decision
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> get(EntityContext entityContext,
+                                        String target,
+                                        String operation,
+                                        long policyVersion,
+                                        Set<String> policies,
+                                        Supplier<CompletableFuture<T>> decision) {
+        Participant participant = entityContext != null ? entityContext.getParticipant() : null;
+        if (cache == null || participant == null || participant.getId() == null) {
+            return decision.get();
+        }
+
+        List<String> roles = participant.getRoles();
+        Map<String, String> metadata = participant.getMetadata();
+        DecisionKey key = new DecisionKey(participant.getId(),
+                                          participant.getTenantId(),
+                                          participant.getAuthScopeType(),
+                                          participant.getAuthScopeId(),
+                                          // copied since metadata may contain null values, which Map.copyOf does not allow
+                                          metadata != null ? new HashMap<>(metadata) : Map.of(),
+                                          roles != null ? Set.copyOf(roles) : Set.of(),
+                                          entityContext.hasTenantSelection() ? List.copyOf(entityContext.getTenantSelection()) : null,
+                                          target,
+                                          operation,
+                                          policyVersion,
+                                          policies);
+
+        return (CompletableFuture<T>) cache.get(key, (k, executor) -> decision.get());
+    }
+
+    /**
+     * Removes all decisions cached for the given entity definition or named query
+     * @param target to remove the decisions for
+     */
+    public void invalidate(String target) {
+        if (cache != null) {
+            cache.synchronous().asMap().keySet().removeIf(key -> key.target().equals(target));
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+    private record DecisionKey(String participantId,
+                               String tenantId,
+                               String authScopeType,
+                               String authScopeId,
+                               Map<String, String> metadata,
+                               Set<String> roles,
+                               List<String> tenantSelection,
+                               String target,
+                               String operation,
+                               long policyVersion,
+                               Set<String> policies) {
+    }
+}
@@ -1,42 +1,28 @@
 package org.kinotic.persistence.internal.api.services.security.graphos;
 
-import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizationRequest;
 import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizer;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * A PolicyEvaluator that supports policies for a given operation as well as entity policies
  */
 public class PolicyEvaluatorWithOperation extends AbstractPolicyEvaluator {
-    private final PolicyExpression operationExpression;
-    private final Set<String> operationPolicies = new HashSet<>();
 
     public PolicyEvaluatorWithOperation(
             PolicyAuthorizer authorizer,
             SharedPolicyManager sharedPolicyManager,
             List<List<String>> operationPolicies) {
-
-        super(authorizer, sharedPolicyManager);
-
-        if (operationPolicies != null) {
-            this.operationExpression = PolicyExpressionUtil.createPolicyExpression(operationPolicies);
-            PolicyExpressionUtil.collectPolicies(this.operationExpression, this.operationPolicies);
-        } else {
-            this.operationExpression = null;
-        }
-    }
-
-    @Override
-    protected void addOperationPolicies(Set<String> policies) {
-        policies.addAll(operationPolicies);
+        super(authorizer, sharedPolicyManager, operationPolicies);
     }
 
-    @Override
-    protected boolean isOperationAllowed(Map<String, PolicyAuthorizationRequest> policyRequests) {
-        return operationExpression == null || operationExpression.evaluate(policyRequests);
+    public PolicyEvaluatorWithOperation(
+            PolicyAuthorizer authorizer,
+            SharedPolicyManager sharedPolicyManager,
+            List<List<String>> operationPolicies,
+            PolicyDecisionCache decisionCache,
+            String target,
+            String operation) {
+        super(authorizer, sharedPolicyManager, operationPolicies, decisionCache, target, operation);
     }
 }
@@ -1,11 +1,7 @@
 package org.kinotic.persistence.internal.api.services.security.graphos;
 
-import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizationRequest;
 import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizer;
 
-import java.util.Map;
-import java.util.Set;
-
 /**
  * A PolicyEvaluator that does not evaluate any operation
  * This is useful when a policy evaluator is only concerned with evaluating shared policies
@@ -14,17 +10,14 @@ import java.util.Set;
 public class PolicyEvaluatorWithoutOperation extends AbstractPolicyEvaluator {
 
     public PolicyEvaluatorWithoutOperation(PolicyAuthorizer authorizer, SharedPolicyManager sharedPolicyManager) {
-        super(authorizer, sharedPolicyManager);
-    }
-
-    @Override
-    protected void addOperationPolicies(Set<String> policies) {
-        // No operation policies to add
+        // No operation policies, so operations are always allowed
+        super(authorizer, sharedPolicyManager, null);
     }
 
-    @Override
-    protected boolean isOperationAllowed(Map<String, PolicyAuthorizationRequest> policyRequests) {
-        return true; // Always allow operations since none are defined
+    public PolicyEvaluatorWithoutOperation(PolicyAuthorizer authorizer,
+                                           SharedPolicyManager sharedPolicyManager,
+                                           PolicyDecisionCache decisionCache,
+                                           String target) {
+        super(authorizer, sharedPolicyManager, null, decisionCache, target, null);
     }
 }
-
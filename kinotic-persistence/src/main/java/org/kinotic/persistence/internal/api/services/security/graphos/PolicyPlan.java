@@ -0,0 +1,261 @@
+package org.kinotic.persistence.internal.api.services.security.graphos;
+
+import org.kinotic.persistence.api.model.EntityContext;
+import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizationRequest;
+import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizer;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A compiled form of one or more GraphOS policy expressions, i.e. [['entity:add'], ['entity:update']].
+ * <p>
+ * Every distinct policy is assigned an integer slot, and each expression is stored as the AND groups that are ORed together,
+ * where every group is a bitset of the slots it requires. Groups that repeat, or that require all the policies of another group of
+ * the same expression, are dropped since they can never change the result.
+ * <p>
+ * Evaluation is lazy, the {@link PolicyAuthorizer} is only asked for the policies needed to decide the expressions that are still undecided.
+ * For each of these, the group that has not been denied and is missing the fewest decisions is requested first.
+ * When that group is authorized, the other groups of the expression are never sent to the authorizer.
+ */
+public final class PolicyPlan {
+
+    /**
+     * Returned by {@link Builder#addExpression(List)} when there is no expression to add
+     */
+    public static final int NONE = -1;
+
+    private static final byte UNDECIDED = 0;
+    private static final byte ALLOWED = 1;
+    private static final byte DENIED = 2;
+
+    private final String[] policies;
+    private final Set<String> policySet;
+    /**
+     * For each expression the bitsets of its AND groups, ordered smallest first
+     */
+    private final long[][][] expressions;
+    private final int words;
+
+    private PolicyPlan(List<String> policies, List<List<BitSet>> expressions) {
+        this.policies = policies.toArray(new String[0]);
+        this.policySet = Set.copyOf(policies);
+        this.words = (this.policies.length + 63) >>> 6;
+        this.expressions = new long[expressions.size()][][];
+        for (int i = 0; i < expressions.size(); i++) {
+            List<BitSet> groups = expressions.get(i);
+            this.expressions[i] = new long[groups.size()][];
+            for (int j = 0; j < groups.size(); j++) {
+                this.expressions[i][j] = Arrays.copyOf(groups.get(j).toLongArray(), words);
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return all the policies that may need to be authorized to evaluate this plan
+     */
+    public Set<String> getPolicies() {
+        return policySet;
+    }
+
+    public int getExpressionCount() {
+        return expressions.length;
+    }
+
+    /**
+     * Evaluates all the expressions of this plan, asking the authorizer only for the policies needed to decide them
+     * @param authorizer to authorize the policies
+     * @param entityContext the context of the request being authorized
+     * @return a {@link CompletableFuture} that completes with the result of each expression, indexed as returned by {@link Builder#addExpression(List)}
+     */
+    public CompletableFuture<boolean[]> evaluate(PolicyAuthorizer authorizer, EntityContext entityContext) {
+        return new Evaluation(authorizer, entityContext).next();
+    }
+
+    private static boolean intersects(long[] group, long[] slots) {
+        for (int i = 0; i < group.length; i++) {
+            if ((group[i] & slots[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int countMissing(long[] group, long[] authorized) {
+        int missing = 0;
+        for (int i = 0; i < group.length; i++) {
+            missing += Long.bitCount(group[i] & ~authorized[i]);
+        }
+        return missing;
+    }
+
+    /**
+     * The decisions made so far while evaluating a plan.
+     * Each round is only started once the previous round completed, so the state is never accessed concurrently.
+     */
+    private final class Evaluation {
+
+        private final PolicyAuthorizer authorizer;
+        private final EntityContext entityContext;
+        private final long[] authorized = new long[words];
+        private final long[] denied = new long[words];
+        private final byte[] results = new byte[expressions.length];
+
+        private Evaluation(PolicyAuthorizer authorizer, EntityContext entityContext) {
+            this.authorizer = authorizer;
+            this.entityContext = entityContext;
+        }
+
+        private CompletableFuture<boolean[]> next() {
+            long[] requested = new long[words];
+            boolean undecided = false;
+
+            for (int i = 0; i < expressions.length; i++) {
+                if (results[i] == UNDECIDED) {
+                    long[] cheapest = null;
+                    int cheapestMissing = Integer.MAX_VALUE;
+                    for (long[] group : expressions[i]) {
+                        if (intersects(group, denied)) {
+                            continue;
+                        }
+                        int missing = countMissing(group, authorized);
+                        if (missing == 0) {
+                            results[i] = ALLOWED;
+                            break;
+                        }
+                        if (missing < cheapestMissing) {
+                            cheapest = group;
+                            cheapestMissing = missing;
+                        }
+                    }
+                    if (results[i] == UNDECIDED) {
+                        if (cheapest == null) {
+                            results[i] = DENIED;
+                        } else {
+                            for (int w = 0; w < words; w++) {
+                                requested[w] |= cheapest[w] & ~authorized[w];
+                            }
+                            undecided = true;
+                        }
+                    }
+                }
+            }
+
+            if (!undecided) {
+                boolean[] ret = new boolean[results.length];
+                for (int i = 0; i < results.length; i++) {
+                    ret[i] = results[i] == ALLOWED;
+                }
+                return CompletableFuture.completedFuture(ret);
+            }
+
+            List<PolicyAuthorizationRequest> requests = new ArrayList<>();
+            int[] slots = new int[policies.length];
+            for (int w = 0; w < words; w++) {
+                long bits = requested[w];
+                while (bits != 0) {
+                    int slot = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    slots[requests.size()] = slot;
+                    requests.add(new DefaultPolicyAuthorizationRequest(policies[slot]));
+                    bits &= bits - 1;
+                }
+            }
+
+            return authorizer.authorize(requests, entityContext)
+                             .thenCompose(ignored -> {
+                                 // Every request is decided, so each round decides at least one more policy
+                                 for (int i = 0; i < requests.size(); i++) {
+                                     int slot = slots[i];
+                                     long[] decision = requests.get(i).isAuthorized() ? authorized : denied;
+                                     decision[slot >>> 6] |= 1L << slot;
+                                 }
+                                 return next();
+                             });
+        }
+    }
+
+    /**
+     * Compiles policy expressions into a {@link PolicyPlan}, expressions added share the policy slots
+     */
+    public static final class Builder {
+
+        private final List<String> policies = new ArrayList<>();
+        private final Map<String, Integer> slots = new HashMap<>();
+        private final List<List<BitSet>> expressions = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a policy expression to the plan
+         * @param policies the policy expression, the inner lists are ANDed together and the results are ORed
+         * @return the index of the expression in the results of {@link PolicyPlan#evaluate(PolicyAuthorizer, EntityContext)}
+         *         or {@link #NONE} if policies is null
+         */
+        public int addExpression(List<List<String>> policies) {
+            if (policies == null) {
+                return NONE;
+            }
+            if (policies.isEmpty()) {
+                throw new IllegalArgumentException("Policy EntityDefinition cannot be null or empty");
+            }
+
+            List<BitSet> groups = new ArrayList<>();
+            for (List<String> andGroup : policies) {
+                if (andGroup == null || andGroup.isEmpty()) {
+                    throw new IllegalArgumentException("AND group cannot be null or empty");
+                }
+                BitSet group = new BitSet();
+                for (String policy : andGroup) {
+                    group.set(slots.computeIfAbsent(policy, p -> {
+                        this.policies.add(p);
+                        return this.policies.size() - 1;
+                    }));
+                }
+                addGroup(groups, group);
+            }
+            groups.sort(Comparator.comparingInt(BitSet::cardinality));
+
+            expressions.add(groups);
+            return expressions.size() - 1;
+        }
+
+        /**
+         * @return a new builder containing the same expressions, so more can be added without changing this builder
+         */
+        public Builder copy() {
+            Builder copy = new Builder();
+            copy.policies.addAll(policies);
+            copy.slots.putAll(slots);
+            for (List<BitSet> groups : expressions) {
+                copy.expressions.add(new ArrayList<>(groups));
+            }
+            return copy;
+        }
+
+        public PolicyPlan build() {
+            return new PolicyPlan(policies, expressions);
+        }
+
+        private static void addGroup(List<BitSet> groups, BitSet group) {
+            for (BitSet existing : groups) {
+                if (containsAll(group, existing)) {
+                    // The group can only be authorized when the existing group is
+                    return;
+                }
+            }
+            groups.removeIf(existing -> containsAll(existing, group));
+            groups.add(group);
+        }
+
+        private static boolean containsAll(BitSet set, BitSet subset) {
+            BitSet missing = (BitSet) subset.clone();
+            missing.andNot(set);
+            return missing.isEmpty();
+        }
+    }
+}
@@ -6,6 +6,9 @@ import java.util.*;
 
 /**
  * Manages shared policies for a given set of domain and field policies
+ * <p>
+ * The policies are compiled once into a {@link PolicyPlan}, evaluators add their operation policies to a copy of it
+ * using {@link #newPlanBuilder()}.
  */
 public class SharedPolicyManager {
     @Getter
@@ -13,6 +16,19 @@ public class SharedPolicyManager {
     private final Map<String, PolicyExpression> fieldExpressions = new HashMap<>();
     private final Map<String, List<List<String>>> fieldPolicies;
     private final Set<String> sharedPolicies = new HashSet<>();
+    /**
+     * Identifies these policies, a new {@link SharedPolicyManager} is created whenever the policies are updated
+     * so decisions cached by the {@link PolicyDecisionCache} for previous policies are not used.
+     */
+    @Getter
+    private final long version = PolicyDecisionCache.nextPolicyVersion();
+    private final PolicyPlan.Builder planBuilder = PolicyPlan.builder();
+    /**
+     * The index of the entity expression in the plan or {@link PolicyPlan#NONE} if there are no entity policies
+     */
+    @Getter
+    private final int entityExpressionIndex;
+    private final Map<String, Integer> fieldExpressionIndexes = new HashMap<>();
 
     /**
      * Constructs a new SharedPolicyManager
@@ -29,6 +45,7 @@ public class SharedPolicyManager {
         } else {
             this.entityExpression = null;
         }
+        this.entityExpressionIndex = planBuilder.addExpression(entityPolicies);
 
         // Parse and store field policies
         if (fieldPolicies != null) {
@@ -37,6 +54,7 @@ public class SharedPolicyManager {
                 PolicyExpression expression = PolicyExpressionUtil.createPolicyExpression(entry.getValue());
                 this.fieldExpressions.put(fieldName, expression);
                 PolicyExpressionUtil.collectPolicies(expression, sharedPolicies);
+                this.fieldExpressionIndexes.put(fieldName, planBuilder.addExpression(entry.getValue()));
             }
         }
     }
@@ -49,6 +67,20 @@ public class SharedPolicyManager {
         return Collections.unmodifiableMap(fieldPolicies);
     }
 
+    /**
+     * @return the index of each field expression in the plan keyed by the field name
+     */
+    public Map<String, Integer> getFieldExpressionIndexes() {
+        return Collections.unmodifiableMap(fieldExpressionIndexes);
+    }
+
+    /**
+     * @return a builder containing the compiled entity and field policies, so operation policies can be added to it
+     */
+    public PolicyPlan.Builder newPlanBuilder() {
+        return planBuilder.copy();
+    }
+
     public Set<String> getSharedPolicies() {
         return Collections.unmodifiableSet(sharedPolicies);
     }
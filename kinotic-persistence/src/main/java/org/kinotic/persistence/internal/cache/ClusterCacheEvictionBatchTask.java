@@ -0,0 +1,149 @@
+package org.kinotic.persistence.internal.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ignite.lang.IgniteRunnable;
+import org.apache.ignite.resources.SpringApplicationContextResource;
+import org.apache.ignite.resources.SpringResource;
+import org.kinotic.persistence.internal.cache.events.CacheEvictionEvent;
+import org.kinotic.persistence.internal.cache.events.EvictionSourceOperation;
+import org.kinotic.persistence.internal.cache.events.EvictionSourceType;
+import org.springframework.context.ApplicationContext;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Ignite Compute Grid task that evicts a batch of coalesced cache entries on a cluster node.
+ * A single task is broadcast per flush of the {@link ClusterCacheEvictionService} dispatcher,
+ * rather than one task per {@link CacheEvictionEvent}.
+ * <p>
+ * Every eviction in the batch shares the same timestamp so that retries of the same flush are idempotent.
+ * <p>
+ * Spring Resource Injection:
+ * This task uses Apache Ignite's {@link SpringResource} annotation to inject Spring beans.
+ * Fields must be marked as {@code transient} to prevent serialization issues, injection happens
+ * automatically when the task is executed on each cluster node.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ClusterCacheEvictionBatchTask implements IgniteRunnable {
+
+    /**
+     * Spring-managed cache for tracking processed evictions, injected by Ignite.
+     */
+    @SpringResource(resourceClass = ProcessedEvictionsCache.class)
+    private transient ProcessedEvictionsCache processedEvictionsCache;
+
+    /**
+     * Spring-managed ApplicationContext injected by Ignite, used to publish the cluster eviction events.
+     */
+    @SpringApplicationContextResource
+    private transient ApplicationContext eventPublisher;
+
+    private final List<Eviction> evictions;
+    private final long timestamp; // Timestamp to prevent duplicate processing
+
+    @Override
+    public void run() {
+        if (eventPublisher == null) {
+            throw new IllegalStateException("ApplicationEventPublisher was not injected by Spring. " +
+                    "Ensure Ignite is started with IgniteSpring.start() and Spring ApplicationContext is available.");
+        }
+        if (processedEvictionsCache == null) {
+            throw new IllegalStateException("ProcessedEvictionsCache was not injected by Spring. " +
+                    "Ensure Ignite is started with IgniteSpring.start() and Spring ApplicationContext is available.");
+        }
+
+        RuntimeException firstFailure = null;
+        for (Eviction eviction : evictions) {
+            String evictionKey = eviction.evictionKey(timestamp);
+            try {
+                Long existingTimestamp = processedEvictionsCache.getIfPresent(evictionKey);
+                if (existingTimestamp != null && existingTimestamp.equals(timestamp)) {
+                    log.trace("Cache eviction already processed for key: {} (timestamp: {})", evictionKey, timestamp);
+                    continue;
+                }
+
+                eventPublisher.publishEvent(eviction.toClusterEvent());
+
+                processedEvictionsCache.put(evictionKey, timestamp);
+                log.trace("Successfully processed {} cache eviction for key: {} (timestamp: {})",
+                          eviction.evictionSourceType(), evictionKey, timestamp);
+
+            } catch (Exception e) {
+                // keep going so one bad entry does not block the rest of the batch, the retry will skip the processed ones
+                String message = String.format("Cache eviction failed for cluster key for %s (timestamp: %s)", evictionKey, timestamp);
+                log.error(message, e);
+                if (firstFailure == null) {
+                    firstFailure = new RuntimeException(message, e);
+                }
+            }
+        }
+
+        if (firstFailure != null) {
+            throw firstFailure;
+        }
+    }
+
+    /**
+     * A single eviction that is part of a batch. Uses IDs only to avoid serialization issues.
+     */
+    public record Eviction(EvictionSourceType evictionSourceType,
+                           EvictionSourceOperation evictionOperation,
+                           String organizationId,
+                           String applicationId,
+                           String entityDefinitionId,
+                           String namedQueryId) implements Serializable {
+
+        public static Eviction fromEvent(CacheEvictionEvent event) {
+            return new Eviction(event.getEvictionSourceType(),
+                                event.getEvictionOperation(),
+                                event.getOrganizationId(),
+                                event.getApplicationId(),
+                                event.getEntityDefinitionId(),
+                                event.getNamedQueryId());
+        }
+
+        /**
+         * @return a key identifying the cache entry being evicted, regardless of the operation.
+         *         Used to coalesce multiple evictions for the same target into one.
+         */
+        public String targetKey() {
+            return evictionSourceType + ":" + entityDefinitionId + ":" + namedQueryId;
+        }
+
+        String evictionKey(long timestamp) {
+            if (namedQueryId != null) {
+                return evictionSourceType + ":" + evictionOperation + ":" + applicationId + ":" + entityDefinitionId + ":" + namedQueryId + ":" + timestamp;
+            } else {
+                return evictionSourceType + ":" + evictionOperation + ":" + applicationId + ":" + entityDefinitionId + ":" + timestamp;
+            }
+        }
+
+        CacheEvictionEvent toClusterEvent() {
+            if (EvictionSourceType.ENTITY_DEFINITION == evictionSourceType) {
+                if (entityDefinitionId == null) {
+                    throw new IllegalArgumentException("EntityDefinition id is required for eviction");
+                }
+                if (evictionOperation == EvictionSourceOperation.MODIFY) {
+                    return CacheEvictionEvent.clusterModifiedEntityDefinition(organizationId, applicationId, entityDefinitionId);
+                } else if (evictionOperation == EvictionSourceOperation.DELETE) {
+                    return CacheEvictionEvent.clusterDeletedEntityDefinition(organizationId, applicationId, entityDefinitionId);
+                }
+            } else if (EvictionSourceType.NAMED_QUERY == evictionSourceType) {
+                if (namedQueryId == null) {
+                    throw new IllegalArgumentException("NamedQuery id is required for eviction");
+                }
+                if (evictionOperation == EvictionSourceOperation.MODIFY) {
+                    return CacheEvictionEvent.clusterModifiedNamedQuery(organizationId, applicationId, entityDefinitionId, namedQueryId);
+                } else if (evictionOperation == EvictionSourceOperation.DELETE) {
+                    return CacheEvictionEvent.clusterDeletedNamedQuery(organizationId, applicationId, entityDefinitionId, namedQueryId);
+                }
+            } else {
+                throw new IllegalArgumentException("Invalid eviction type: " + evictionSourceType);
+            }
+            throw new IllegalArgumentException("Invalid eviction operation: " + evictionOperation);
+        }
+    }
+}
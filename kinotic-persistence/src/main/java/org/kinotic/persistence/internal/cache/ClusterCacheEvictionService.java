@@ -5,18 +5,27 @@ import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.metrics.LongCounter;
 import io.opentelemetry.api.metrics.LongHistogram;
 import io.opentelemetry.api.metrics.Meter;
+import io.vertx.core.Vertx;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.cluster.ClusterGroup;
 import org.apache.ignite.lang.IgniteFuture;
 import org.kinotic.core.api.config.KinoticProperties;
+import org.kinotic.persistence.api.config.ClusterEvictionProperties;
 import org.kinotic.persistence.api.config.PersistenceProperties;
 import org.kinotic.persistence.internal.cache.events.CacheEvictionEvent;
 import org.kinotic.persistence.internal.cache.events.CacheEvictionSource;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Event-driven cache eviction service that uses Spring Application Events
  * to decouple cache eviction from direct service dependencies.
@@ -24,8 +33,13 @@ import java.util.concurrent.TimeUnit;
  * This eliminates circular dependencies by allowing services to listen for
  * cache eviction events rather than being directly called.
  *
+ * Evictions are dispatched asynchronously. Events for the same organization and application are coalesced
+ * for {@link ClusterEvictionProperties#getCoalesceWindowMs()} and then sent to the cluster as a single
+ * {@link ClusterCacheEvictionBatchTask}. Timeouts and retries are driven by Vert.x timers so the publishing
+ * thread is never blocked.
+ *
  * Includes OpenTelemetry metrics for monitoring cache eviction health and performance.
- * 
+ *
  * Created By Nic Padilla on 2/12/25
  */
 @Slf4j
@@ -35,19 +49,30 @@ public class ClusterCacheEvictionService {
     private final PersistenceProperties persistenceProperties;
     private final KinoticProperties kinoticProperties;
     private final Ignite ignite;
+    private final Vertx vertx;
+
+    /**
+     * Evictions waiting for their coalescing window to close, keyed by organization and application
+     */
+    private final ConcurrentHashMap<String, Map<String, ClusterCacheEvictionBatchTask.Eviction>> pendingEvictions = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedEvictions = new AtomicInteger();
+    private final AtomicInteger inFlightBatches = new AtomicInteger();
 
     private final LongCounter evictionRequestCounter;
     private final LongCounter clusterResultCounter;
     private final LongHistogram clusterDurationHistogram;
+    private final LongHistogram batchSizeHistogram;
     private final LongCounter retryCounter;
 
     public ClusterCacheEvictionService(KinoticProperties kinoticProperties,
                                        PersistenceProperties persistenceProperties,
                                        Ignite ignite,
+                                       Vertx vertx,
                                        OpenTelemetry openTelemetry) {
         this.kinoticProperties = kinoticProperties;
         this.persistenceProperties = persistenceProperties;
         this.ignite = ignite;
+        this.vertx = vertx;
 
         Meter meter = openTelemetry.getMeter("kinotic.cache.eviction");
 
@@ -67,14 +92,33 @@ public class ClusterCacheEvictionService {
                 .ofLongs()
                 .build();
 
+        batchSizeHistogram = meter.histogramBuilder("cache.eviction.cluster.batch.size")
+                .setDescription("Number of coalesced evictions sent in a single cluster broadcast")
+                .setUnit("evictions")
+                .ofLongs()
+                .build();
+
         retryCounter = meter.counterBuilder("cache.eviction.cluster.retries")
                 .setDescription("Number of retry attempts for cluster cache evictions")
                 .setUnit("retries")
                 .build();
+
+        meter.gaugeBuilder("cache.eviction.dispatcher.queue.depth")
+             .setDescription("Evictions waiting to be broadcast to the cluster")
+             .setUnit("evictions")
+             .ofLongs()
+             .buildWithCallback(measurement -> measurement.record(queuedEvictions.get()));
+
+        meter.gaugeBuilder("cache.eviction.dispatcher.inflight")
+             .setDescription("Eviction batches currently being broadcast or waiting to be retried")
+             .setUnit("batches")
+             .ofLongs()
+             .buildWithCallback(measurement -> measurement.record(inFlightBatches.get()));
     }
 
     /**
      * Handle cache eviction event for cluster-wide cache eviction.
+     * This only enqueues the eviction, the cluster broadcast happens asynchronously.
      *
      * @param event the event containing the entity definition or named query to evict the
      *              caches for
@@ -85,9 +129,8 @@ public class ClusterCacheEvictionService {
         try {
             // we need to clear on both eviction types
             if (event.getEvictionSource() == CacheEvictionSource.LOCAL_MESSAGE) {
-                long timestamp = System.currentTimeMillis();
                 if (!kinoticProperties.isDisableClustering()) {
-                    evictCachesClusterWideWithRetry(event, timestamp);
+                    enqueue(event);
                 }
             }
 
@@ -97,25 +140,7 @@ public class ClusterCacheEvictionService {
         }
     }
 
-    /**
-     * Evicts caches cluster-wide with retry logic to ensure all nodes are
-     * processed.
-     * Refreshes cluster topology on each retry attempt to handle node failures
-     * gracefully.
-     * Tracks metrics for monitoring and alerting.
-     *
-     * @param event the cache eviction event containing eviction details
-     */
-    private void evictCachesClusterWideWithRetry(CacheEvictionEvent event, long timestamp) {
-        Exception lastException = null;
-
-        // Generate timestamp once for all retry attempts to ensure consistent
-        // versioning
-        long startTime = System.currentTimeMillis();
-        boolean success = false;
-        int totalAttempts = 0;
-
-        // Track eviction request
+    private void enqueue(CacheEvictionEvent event) {
         Attributes requestAttributes = Attributes.builder()
                 .put("eviction.type", event.getEvictionSourceType().name())
                 .put("eviction.operation", event.getEvictionOperation().name())
@@ -123,110 +148,163 @@ public class ClusterCacheEvictionService {
                 .build();
         evictionRequestCounter.add(1, requestAttributes);
 
-        log.trace("Starting {} cache eviction for: {}:{}:{} with timestamp: {}",
+        String batchKey = event.getOrganizationId() + ":" + event.getApplicationId();
+        ClusterCacheEvictionBatchTask.Eviction eviction = ClusterCacheEvictionBatchTask.Eviction.fromEvent(event);
+
+        pendingEvictions.compute(batchKey, (key, evictions) -> {
+            if (evictions == null) {
+                evictions = new LinkedHashMap<>();
+                vertx.setTimer(persistenceProperties.getClusterEviction().getCoalesceWindowMs(),
+                               timerId -> flush(key));
+            }
+            // the latest operation for the same target wins, so only one eviction is sent per target
+            if (evictions.put(eviction.targetKey(), eviction) == null) {
+                queuedEvictions.incrementAndGet();
+            }
+            return evictions;
+        });
+
+        log.trace("Queued {} cache eviction for: {}:{}:{}",
                   event.getEvictionSourceType(), event.getApplicationId(),
-                  event.getEntityDefinitionId(), event.getNamedQueryId(), timestamp);
-
-        ClusterGroup servers = null;
-
-        for (int attempt = 1; attempt <= persistenceProperties.getClusterEviction()
-                                                              .getMaxCacheSyncRetryAttempts(); attempt++) {
-            totalAttempts = attempt;
-            try {
-                // Refresh cluster group on each attempt to handle topology changes
-                // (e.g., nodes going down or new nodes joining)
-                servers = ignite.cluster().forServers();
-
-                if (servers.nodes().isEmpty()) {
-                    log.warn("No server nodes available for cluster cache eviction (attempt {}/{})",
-                             attempt, persistenceProperties.getClusterEviction().getMaxCacheSyncRetryAttempts());
-                    return; // No point retrying if no servers available
+                  event.getEntityDefinitionId(), event.getNamedQueryId());
+    }
+
+    private void flush(String batchKey) {
+        Map<String, ClusterCacheEvictionBatchTask.Eviction> evictions = pendingEvictions.remove(batchKey);
+        if (evictions == null || evictions.isEmpty()) {
+            return;
+        }
+        queuedEvictions.addAndGet(-evictions.size());
+        inFlightBatches.incrementAndGet();
+
+        List<ClusterCacheEvictionBatchTask.Eviction> batch = new ArrayList<>(evictions.values());
+        batchSizeHistogram.record(batch.size());
+
+        // Generate timestamp once for all retry attempts to ensure consistent versioning
+        long timestamp = System.currentTimeMillis();
+        log.trace("Starting cache eviction broadcast of {} evictions for: {} with timestamp: {}",
+                  batch.size(), batchKey, timestamp);
+
+        broadcast(batchKey, batch, timestamp, 1);
+    }
+
+    /**
+     * Broadcasts the batch to the cluster, scheduling a retry on failure.
+     * Refreshes cluster topology on each attempt to handle node failures gracefully.
+     */
+    private void broadcast(String batchKey,
+                           List<ClusterCacheEvictionBatchTask.Eviction> batch,
+                           long timestamp,
+                           int attempt) {
+        ClusterEvictionProperties properties = persistenceProperties.getClusterEviction();
+        try {
+            // Refresh cluster group on each attempt to handle topology changes
+            // (e.g., nodes going down or new nodes joining)
+            ClusterGroup servers = ignite.cluster().forServers();
+
+            if (servers.nodes().isEmpty()) {
+                log.warn("No server nodes available for cluster cache eviction (attempt {}/{})",
+                         attempt, properties.getMaxCacheSyncRetryAttempts());
+                inFlightBatches.decrementAndGet();
+                return; // No point retrying if no servers available
+            }
+
+            log.trace("Attempt {}/{}: Broadcasting {} evictions to {} server nodes for {}",
+                      attempt, properties.getMaxCacheSyncRetryAttempts(),
+                      batch.size(), servers.nodes().size(), batchKey);
+
+            // Broadcast to all current server nodes using the same timestamp for idempotency
+            IgniteFuture<Void> future = ignite.compute(servers)
+                                              .broadcastAsync(new ClusterCacheEvictionBatchTask(batch, timestamp));
+
+            AtomicBoolean completed = new AtomicBoolean(false);
+            long timeoutTimerId = vertx.setTimer(properties.getCacheSyncTimeoutMs(), timerId -> {
+                if (completed.compareAndSet(false, true)) {
+                    try {
+                        future.cancel();
+                    } catch (Exception e) {
+                        log.debug("Failed to cancel timed out cache eviction broadcast for: {}", batchKey, e);
+                    }
+                    onAttemptFailed(batchKey, batch, timestamp, attempt,
+                                    new IllegalStateException("Timed out after " + properties.getCacheSyncTimeoutMs() + "ms"));
                 }
+            });
 
-                // Log cluster state for debugging
-                log.trace("Attempt {}/{}: Broadcasting to {} server nodes for {}:{}:{}",
-                          attempt, persistenceProperties.getClusterEviction().getMaxCacheSyncRetryAttempts(),
-                          servers.nodes().size(), event.getApplicationId(),
-                          event.getEntityDefinitionId(), event.getNamedQueryId());
-
-                ClusterCacheEvictionTask task = new ClusterCacheEvictionTask(
-                        event.getEvictionSourceType(),
-                        event.getEvictionOperation(),
-                        event.getOrganizationId(),
-                        event.getApplicationId(),
-                        event.getEntityDefinitionId(),
-                        event.getNamedQueryId(),
-                        timestamp);
-
-                // Broadcast to all current server nodes using the same timestamp for
-                // idempotency
-                IgniteFuture<Void> future = ignite.compute(servers).broadcastAsync(task);
-
-                // Wait for completion with timeout
-                future.get(persistenceProperties.getClusterEviction().getCacheSyncTimeoutMs(), TimeUnit.MILLISECONDS);
-
-                log.debug(
-                        "{} cache eviction successfully completed on all {} cluster nodes for: {}:{}:{} (timestamp: {}, attempt {}/{})",
-                        event.getEvictionSourceType(), servers.nodes().size(),
-                        event.getApplicationId(), event.getEntityDefinitionId(), event.getNamedQueryId(),
-                        timestamp, attempt, persistenceProperties.getClusterEviction().getMaxCacheSyncRetryAttempts());
-
-                success = true;
-                break; // Success - exit retry loop
-
-            } catch (Exception e) {
-                lastException = e;
-                log.warn("{} cache eviction failed on cluster for: {}:{}:{} (timestamp: {}, attempt {}/{}): {}",
-                         event.getEvictionSourceType(), event.getApplicationId(),
-                         event.getEntityDefinitionId(), event.getNamedQueryId(),
-                         timestamp, attempt, persistenceProperties.getClusterEviction().getMaxCacheSyncRetryAttempts(),
-                         e.getMessage());
-
-                // If this isn't the last attempt, wait before retrying
-                if (attempt < persistenceProperties.getClusterEviction().getMaxCacheSyncRetryAttempts()) {
+            future.listen(f -> {
+                if (completed.compareAndSet(false, true)) {
+                    vertx.cancelTimer(timeoutTimerId);
                     try {
-                        log.debug("Waiting {}ms before retry attempt {}",
-                                  persistenceProperties.getClusterEviction().getCacheSyncRetryDelayMs(), attempt + 1);
-                        Thread.sleep(persistenceProperties.getClusterEviction().getCacheSyncRetryDelayMs());
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        log.error("Retry interrupted for {} cache eviction: {}:{}:{} (timestamp: {})",
-                                  event.getEvictionSourceType(), event.getApplicationId(),
-                                  event.getEntityDefinitionId(), event.getNamedQueryId(), timestamp);
-                        break;
+                        f.get();
+                        log.debug("Cache eviction of {} evictions successfully completed on all {} cluster nodes for: {} (timestamp: {}, attempt {}/{})",
+                                  batch.size(), servers.nodes().size(), batchKey,
+                                  timestamp, attempt, properties.getMaxCacheSyncRetryAttempts());
+                        onBatchComplete(batch, timestamp, attempt, true);
+                    } catch (Exception e) {
+                        onAttemptFailed(batchKey, batch, timestamp, attempt, e);
                     }
                 }
-            }
+            });
+
+        } catch (Exception e) {
+            onAttemptFailed(batchKey, batch, timestamp, attempt, e);
         }
+    }
 
-        // Track retry attempts if any occurred
-        if (totalAttempts > 1) {
-            Attributes retryAttributes = Attributes.builder()
-                    .put("eviction.type", event.getEvictionSourceType().name())
-                    .put("eviction.operation", event.getEvictionOperation().name())
-                    .build();
-            retryCounter.add(totalAttempts - 1, retryAttributes);
+    private void onAttemptFailed(String batchKey,
+                                 List<ClusterCacheEvictionBatchTask.Eviction> batch,
+                                 long timestamp,
+                                 int attempt,
+                                 Throwable error) {
+        ClusterEvictionProperties properties = persistenceProperties.getClusterEviction();
+        log.warn("Cache eviction of {} evictions failed on cluster for: {} (timestamp: {}, attempt {}/{}): {}",
+                 batch.size(), batchKey, timestamp, attempt, properties.getMaxCacheSyncRetryAttempts(),
+                 error.getMessage());
+
+        if (attempt < properties.getMaxCacheSyncRetryAttempts()) {
+            log.debug("Scheduling retry attempt {} in {}ms", attempt + 1, properties.getCacheSyncRetryDelayMs());
+            vertx.setTimer(properties.getCacheSyncRetryDelayMs(),
+                           timerId -> broadcast(batchKey, batch, timestamp, attempt + 1));
+        } else {
+            // If we get here, all retry attempts failed
+            log.error("Failed to complete cache eviction on cluster for: {} (timestamp: {}) after {} attempts",
+                      batchKey, timestamp, attempt, error);
+            onBatchComplete(batch, timestamp, attempt, false);
         }
+    }
+
+    private void onBatchComplete(List<ClusterCacheEvictionBatchTask.Eviction> batch,
+                                 long timestamp,
+                                 int totalAttempts,
+                                 boolean success) {
+        inFlightBatches.decrementAndGet();
 
         // Track duration and result
-        long duration = System.currentTimeMillis() - startTime;
-        Attributes resultAttributes = Attributes.builder()
-                .put("eviction.type", event.getEvictionSourceType().name())
-                .put("eviction.operation", event.getEvictionOperation().name())
-                .put("result", success ? "success" : "failure")
-                .put("attempts", String.valueOf(totalAttempts))
-                .build();
+        long duration = System.currentTimeMillis() - timestamp;
+        for (ClusterCacheEvictionBatchTask.Eviction eviction : batch) {
+            // Track retry attempts if any occurred
+            if (totalAttempts > 1) {
+                Attributes retryAttributes = Attributes.builder()
+                        .put("eviction.type", eviction.evictionSourceType().name())
+                        .put("eviction.operation", eviction.evictionOperation().name())
+                        .build();
+                retryCounter.add(totalAttempts - 1, retryAttributes);
+            }
+
+            Attributes resultAttributes = Attributes.builder()
+                    .put("eviction.type", eviction.evictionSourceType().name())
+                    .put("eviction.operation", eviction.evictionOperation().name())
+                    .put("result", success ? "success" : "failure")
+                    .put("attempts", String.valueOf(totalAttempts))
+                    .build();
 
-        clusterDurationHistogram.record(duration, resultAttributes);
-        clusterResultCounter.add(1, resultAttributes);
+            clusterDurationHistogram.record(duration, resultAttributes);
+            clusterResultCounter.add(1, resultAttributes);
 
-        if (!success) {
-            // If we get here, all retry attempts failed
-            log.error("Failed to complete {} cache eviction on cluster for: {}:{}:{} (timestamp: {}) after {} attempts",
-                      event.getEvictionSourceType(), event.getApplicationId(),
-                      event.getEntityDefinitionId(), event.getNamedQueryId(),
-                      timestamp, persistenceProperties.getClusterEviction().getMaxCacheSyncRetryAttempts(), lastException);
+            if (!success) {
+                log.error("Cache eviction not applied cluster wide for: {}:{}:{} (timestamp: {})",
+                          eviction.applicationId(), eviction.entityDefinitionId(), eviction.namedQueryId(), timestamp);
+            }
         }
     }
 
-}
\ No newline at end of file
+}
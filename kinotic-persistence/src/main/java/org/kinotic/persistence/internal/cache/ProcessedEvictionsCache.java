@@ -9,7 +9,7 @@ import java.time.Duration;
 
 /**
  * Spring-managed cache for tracking processed eviction requests.
- * This bean holds the cache instance and is injected into {@link ClusterCacheEvictionTask}
+ * This bean holds the cache instance and is injected into {@link ClusterCacheEvictionBatchTask}
  * via Ignite's {@code @SpringResource} annotation.
  * <p>
  * The cache tracks eviction keys with timestamps to prevent duplicate processing
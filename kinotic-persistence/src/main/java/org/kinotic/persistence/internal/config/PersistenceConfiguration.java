@@ -4,7 +4,11 @@ import org.kinotic.core.api.config.KinoticProperties;
 import org.kinotic.persistence.api.config.KinoticPersistenceProperties;
 import org.kinotic.persistence.api.config.PersistenceProperties;
 import org.kinotic.persistence.api.services.security.AuthorizationServiceFactory;
+import org.kinotic.persistence.api.services.security.graphos.ParticipantPolicyAuthorizer;
+import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizationServiceFactory;
 import org.kinotic.persistence.internal.api.services.security.NoopAuthorizationServiceFactory;
+import org.kinotic.persistence.internal.api.services.security.graphos.PolicyDecisionCache;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,9 +16,21 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class PersistenceConfiguration {
 
+    /**
+     * Authorizes requests using the policies of entities and named queries when a {@link ParticipantPolicyAuthorizer} is provided,
+     * caching its decisions as configured by {@link PersistenceProperties#getPolicyDecisionCacheTtl()}.
+     * Otherwise, requests are not authorized.
+     */
     @Bean
     @ConditionalOnMissingBean
-    public AuthorizationServiceFactory authorizationServiceFactory(){
+    public AuthorizationServiceFactory authorizationServiceFactory(ObjectProvider<ParticipantPolicyAuthorizer> participantPolicyAuthorizer,
+                                                                   PersistenceProperties persistenceProperties){
+        ParticipantPolicyAuthorizer policyAuthorizer = participantPolicyAuthorizer.getIfAvailable();
+        if(policyAuthorizer != null){
+            return new PolicyAuthorizationServiceFactory(policyAuthorizer,
+                                                         new PolicyDecisionCache(persistenceProperties.getPolicyDecisionCacheTtl(),
+                                                                                 persistenceProperties.getPolicyDecisionCacheMaxSize()));
+        }
         return new NoopAuthorizationServiceFactory();
     }
 
@@ -4,6 +4,7 @@ import co.elastic.clients.elasticsearch._types.mapping.*;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
 import org.kinotic.idl.api.converter.Cacheable;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.schema.*;
 import org.kinotic.idl.api.schema.decorators.C3Decorator;
 import org.kinotic.persistence.api.model.DecoratedProperty;
@@ -16,7 +17,7 @@ import org.kinotic.persistence.internal.utils.PersistenceUtil;
  * Converts a {@link ObjectC3Type} to a {@link Property}
  * Created by Navíd Mitchell 🤪 on 4/27/23.
  */
-public class ObjectC3TypeToElastic implements C3TypeConverter<Property, ObjectC3Type, ElasticConversionState>, Cacheable {
+public class ObjectC3TypeToElastic implements C3TypeConverter<Property, ObjectC3Type, ElasticConversionState>, Cacheable, ClassBasedC3TypeConverter {
 
     @Override
     public Property convert(ObjectC3Type objectC3Type,
@@ -202,4 +203,9 @@ public class ObjectC3TypeToElastic implements C3TypeConverter<Property, ObjectC3
         return c3Type instanceof ObjectC3Type;
     }
 
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return ObjectC3Type.class.isAssignableFrom(c3TypeClass);
+    }
+
 }
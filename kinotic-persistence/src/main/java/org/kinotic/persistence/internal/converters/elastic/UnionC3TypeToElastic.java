@@ -4,6 +4,7 @@ import co.elastic.clients.elasticsearch._types.mapping.Property;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
 import org.kinotic.idl.api.converter.Cacheable;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.schema.C3Type;
 import org.kinotic.idl.api.schema.ObjectC3Type;
 import org.kinotic.idl.api.schema.PropertyDefinition;
@@ -16,7 +17,7 @@ import java.util.Map;
  * TODO: should root / entity objects be allowed to be a union type.
  * Created by Navíd Mitchell 🤪 on 5/26/23.
  */
-public class UnionC3TypeToElastic implements C3TypeConverter<Property, UnionC3Type, ElasticConversionState>, Cacheable {
+public class UnionC3TypeToElastic implements C3TypeConverter<Property, UnionC3Type, ElasticConversionState>, Cacheable, ClassBasedC3TypeConverter {
 
     @Override
     public Property convert(UnionC3Type unionType,
@@ -55,4 +56,9 @@ public class UnionC3TypeToElastic implements C3TypeConverter<Property, UnionC3Ty
         return c3Type instanceof UnionC3Type;
     }
 
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return UnionC3Type.class.isAssignableFrom(c3TypeClass);
+    }
+
 }
@@ -3,18 +3,24 @@ package org.kinotic.persistence.internal.converters.graphql;
 import graphql.schema.GraphQLList;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.schema.ArrayC3Type;
 import org.kinotic.idl.api.schema.C3Type;
 
 /**
  * Created By Navíd Mitchell 🤪on 2/26/25
  */
-public class ArrayC3TypeToGql implements C3TypeConverter<GqlTypeHolder, ArrayC3Type, GqlConversionState> {
+public class ArrayC3TypeToGql implements C3TypeConverter<GqlTypeHolder, ArrayC3Type, GqlConversionState>, ClassBasedC3TypeConverter {
     @Override
     public boolean supports(C3Type c3Type) {
         return c3Type instanceof ArrayC3Type;
     }
 
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return ArrayC3Type.class.isAssignableFrom(c3TypeClass);
+    }
+
     @Override
     public GqlTypeHolder convert(ArrayC3Type c3Type, C3ConversionContext<GqlTypeHolder, GqlConversionState> context) {
         // TODO: How do we want to specify that Nulls are allowed of not?
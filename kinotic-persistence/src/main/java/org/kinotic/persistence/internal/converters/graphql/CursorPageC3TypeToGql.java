@@ -4,6 +4,7 @@ import graphql.schema.GraphQLNamedOutputType;
 import io.swagger.v3.oas.models.media.Schema;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.schema.C3Type;
 import org.kinotic.persistence.api.model.idl.CursorPageC3Type;
 import org.kinotic.persistence.api.model.idl.PageC3Type;
@@ -15,12 +16,17 @@ import static graphql.schema.GraphQLNonNull.nonNull;
  * Converts a {@link PageC3Type} to an OpenApi {@link Schema}
  * Created by Navíd Mitchell 🤪 on 5/7/24.
  */
-public class CursorPageC3TypeToGql implements C3TypeConverter<GqlTypeHolder, CursorPageC3Type, GqlConversionState> {
+public class CursorPageC3TypeToGql implements C3TypeConverter<GqlTypeHolder, CursorPageC3Type, GqlConversionState>, ClassBasedC3TypeConverter {
     @Override
     public boolean supports(C3Type c3Type) {
         return c3Type instanceof CursorPageC3Type;
     }
 
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return CursorPageC3Type.class.isAssignableFrom(c3TypeClass);
+    }
+
     @Override
     public GqlTypeHolder convert(CursorPageC3Type c3Type, C3ConversionContext<GqlTypeHolder, GqlConversionState> conversionContext) {
         GqlTypeHolder ret = conversionContext.convert(c3Type.getContentType());
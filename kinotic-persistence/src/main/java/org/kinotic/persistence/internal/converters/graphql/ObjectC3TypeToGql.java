@@ -8,6 +8,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
 import org.kinotic.idl.api.converter.Cacheable;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.schema.C3Type;
 import org.kinotic.idl.api.schema.ObjectC3Type;
 import org.kinotic.idl.api.schema.PropertyDefinition;
@@ -25,7 +26,7 @@ import static graphql.schema.GraphQLTypeReference.typeRef;
 /**
  * Created by Navíd Mitchell 🤪 on 5/2/23.
  */
-public class ObjectC3TypeToGql implements C3TypeConverter<GqlTypeHolder, ObjectC3Type, GqlConversionState>, Cacheable {
+public class ObjectC3TypeToGql implements C3TypeConverter<GqlTypeHolder, ObjectC3Type, GqlConversionState>, Cacheable, ClassBasedC3TypeConverter {
 
 
     @Override
@@ -158,6 +159,11 @@ public class ObjectC3TypeToGql implements C3TypeConverter<GqlTypeHolder, ObjectC
         return c3Type instanceof ObjectC3Type;
     }
 
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return ObjectC3Type.class.isAssignableFrom(c3TypeClass);
+    }
+
     private boolean isNotNull(PropertyDefinition propertyDefinition) {
         return propertyDefinition.containsDecorator(NotNullC3Decorator.class);
     }
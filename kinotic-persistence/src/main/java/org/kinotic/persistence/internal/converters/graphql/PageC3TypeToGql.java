@@ -4,6 +4,7 @@ import graphql.schema.GraphQLNamedOutputType;
 import io.swagger.v3.oas.models.media.Schema;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.schema.C3Type;
 import org.kinotic.persistence.api.model.idl.PageC3Type;
 import org.kinotic.persistence.internal.utils.GqlUtils;
@@ -14,12 +15,17 @@ import static graphql.schema.GraphQLNonNull.nonNull;
  * Converts a {@link PageC3Type} to an OpenApi {@link Schema}
  * Created by Navíd Mitchell 🤪 on 5/7/24.
  */
-public class PageC3TypeToGql implements C3TypeConverter<GqlTypeHolder, PageC3Type, GqlConversionState> {
+public class PageC3TypeToGql implements C3TypeConverter<GqlTypeHolder, PageC3Type, GqlConversionState>, ClassBasedC3TypeConverter {
     @Override
     public boolean supports(C3Type c3Type) {
         return c3Type instanceof PageC3Type;
     }
 
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return PageC3Type.class.isAssignableFrom(c3TypeClass);
+    }
+
     @Override
     public GqlTypeHolder convert(PageC3Type c3Type, C3ConversionContext<GqlTypeHolder, GqlConversionState> conversionContext) {
         GqlTypeHolder ret = conversionContext.convert(c3Type.getContentType());
@@ -6,6 +6,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
 import org.kinotic.idl.api.converter.Cacheable;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.schema.C3Type;
 import org.kinotic.idl.api.schema.ObjectC3Type;
 import org.kinotic.idl.api.schema.UnionC3Type;
@@ -18,7 +19,7 @@ import static graphql.schema.GraphQLTypeReference.typeRef;
 /**
  * Created by Navíd Mitchell 🤪 on 5/27/23.
  */
-public class UnionC3TypeToGql implements C3TypeConverter<GqlTypeHolder, UnionC3Type, GqlConversionState>, Cacheable {
+public class UnionC3TypeToGql implements C3TypeConverter<GqlTypeHolder, UnionC3Type, GqlConversionState>, Cacheable, ClassBasedC3TypeConverter {
 
     @Override
     public GqlTypeHolder convert(UnionC3Type c3Type,
@@ -64,4 +65,9 @@ public class UnionC3TypeToGql implements C3TypeConverter<GqlTypeHolder, UnionC3T
         return c3Type instanceof UnionC3Type;
     }
 
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return UnionC3Type.class.isAssignableFrom(c3TypeClass);
+    }
+
 }
@@ -5,6 +5,7 @@ import io.swagger.v3.oas.models.media.Schema;
 import io.swagger.v3.oas.models.media.StringSchema;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.schema.ArrayC3Type;
 import org.kinotic.idl.api.schema.ByteC3Type;
 import org.kinotic.idl.api.schema.C3Type;
@@ -13,12 +14,17 @@ import org.kinotic.idl.api.schema.ObjectC3Type;
 /**
  * Created By Navíd Mitchell 🤪on 2/26/25
  */
-public class ArrayC3TypeTpOpenApi implements C3TypeConverter<Schema<?>, ArrayC3Type, OpenApiConversionState> {
+public class ArrayC3TypeTpOpenApi implements C3TypeConverter<Schema<?>, ArrayC3Type, OpenApiConversionState>, ClassBasedC3TypeConverter {
     @Override
     public boolean supports(C3Type c3Type) {
         return c3Type instanceof ArrayC3Type;
     }
 
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return ArrayC3Type.class.isAssignableFrom(c3TypeClass);
+    }
+
     @Override
     public Schema<?> convert(ArrayC3Type c3Type, C3ConversionContext<Schema<?>, OpenApiConversionState> context) {
         // byte arrays are a special case per the open api spec
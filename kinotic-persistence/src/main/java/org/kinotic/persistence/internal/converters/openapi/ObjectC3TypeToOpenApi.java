@@ -6,6 +6,7 @@ import io.swagger.v3.oas.models.media.Schema;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
 import org.kinotic.idl.api.converter.Cacheable;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.schema.*;
 import org.kinotic.idl.api.schema.decorators.NotNullC3Decorator;
 import org.kinotic.persistence.api.model.idl.decorators.DiscriminatorDecorator;
@@ -14,7 +15,7 @@ import org.kinotic.persistence.api.model.idl.decorators.ReadOnlyDecorator;
 /**
  * Created by Navíd Mitchell 🤪 on 5/15/23.
  */
-public class ObjectC3TypeToOpenApi implements C3TypeConverter<Schema<?>, ObjectC3Type, OpenApiConversionState>, Cacheable {
+public class ObjectC3TypeToOpenApi implements C3TypeConverter<Schema<?>, ObjectC3Type, OpenApiConversionState>, Cacheable, ClassBasedC3TypeConverter {
 
     @Override
     public Schema<?> convert(ObjectC3Type objectC3Type,
@@ -77,4 +78,9 @@ public class ObjectC3TypeToOpenApi implements C3TypeConverter<Schema<?>, ObjectC
     public boolean supports(C3Type c3Type) {
         return c3Type instanceof ObjectC3Type;
     }
+
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return ObjectC3Type.class.isAssignableFrom(c3TypeClass);
+    }
 }
@@ -4,6 +4,7 @@ import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.media.Schema;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.schema.C3Type;
 import org.kinotic.persistence.api.model.idl.PageC3Type;
 import org.kinotic.persistence.internal.utils.OpenApiUtils;
@@ -12,12 +13,17 @@ import org.kinotic.persistence.internal.utils.OpenApiUtils;
  * Converts a {@link PageC3Type} to an OpenApi {@link Schema}
  * Created by Navíd Mitchell 🤪 on 5/7/24.
  */
-public class PageC3TypeToOpenApi implements C3TypeConverter<Schema<?>, PageC3Type, OpenApiConversionState> {
+public class PageC3TypeToOpenApi implements C3TypeConverter<Schema<?>, PageC3Type, OpenApiConversionState>, ClassBasedC3TypeConverter {
     @Override
     public boolean supports(C3Type c3Type) {
         return c3Type instanceof PageC3Type;
     }
 
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return PageC3Type.class.isAssignableFrom(c3TypeClass);
+    }
+
     @Override
     public Schema<?> convert(PageC3Type c3Type, C3ConversionContext<Schema<?>, OpenApiConversionState> conversionContext) {
 
@@ -5,6 +5,7 @@ import io.swagger.v3.oas.models.media.ObjectSchema;
 import io.swagger.v3.oas.models.media.Schema;
 import org.kinotic.idl.api.converter.C3ConversionContext;
 import org.kinotic.idl.api.converter.C3TypeConverter;
+import org.kinotic.idl.api.converter.ClassBasedC3TypeConverter;
 import org.kinotic.idl.api.converter.C3TypeConverterContainer;
 import org.kinotic.idl.api.converter.Cacheable;
 import org.kinotic.idl.api.schema.C3Type;
@@ -16,7 +17,7 @@ import org.kinotic.persistence.api.model.idl.decorators.DiscriminatorDecorator;
  * {@link UnionC3TypeToOpenApi} is a {@link C3TypeConverterContainer} that converts a {@link UnionC3Type} to a {@link Schema}.
  * Created by Navíd Mitchell 🤪 on 5/27/23.
  */
-public class UnionC3TypeToOpenApi implements C3TypeConverter<Schema<?>, UnionC3Type, OpenApiConversionState>, Cacheable {
+public class UnionC3TypeToOpenApi implements C3TypeConverter<Schema<?>, UnionC3Type, OpenApiConversionState>, Cacheable, ClassBasedC3TypeConverter {
 
     @Override
     public Schema<?> convert(UnionC3Type c3Type,
@@ -49,4 +50,9 @@ public class UnionC3TypeToOpenApi implements C3TypeConverter<Schema<?>, UnionC3T
         return c3Type instanceof UnionC3Type;
     }
 
+    @Override
+    public boolean supportsClass(Class<? extends C3Type> c3TypeClass) {
+        return UnionC3Type.class.isAssignableFrom(c3TypeClass);
+    }
+
 }
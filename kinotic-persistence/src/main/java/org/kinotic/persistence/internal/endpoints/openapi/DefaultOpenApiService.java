@@ -1,7 +1,10 @@
 package org.kinotic.persistence.internal.endpoints.openapi;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
+import io.swagger.v3.core.util.ObjectMapperFactory;
 import io.swagger.v3.oas.models.*;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.media.*;
@@ -11,9 +14,10 @@ import io.swagger.v3.oas.models.responses.ApiResponses;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
 import io.swagger.v3.oas.models.servers.Server;
-import lombok.RequiredArgsConstructor;
 import org.apache.commons.text.WordUtils;
 import org.kinotic.core.api.crud.Pageable;
+import org.kinotic.core.api.crud.Sort;
+import org.kinotic.core.api.security.Participant;
 import org.kinotic.core.api.security.SecurityContext;
 import org.kinotic.idl.api.converter.IdlConverter;
 import org.kinotic.idl.api.schema.*;
@@ -28,31 +32,65 @@ import org.kinotic.persistence.api.services.EntityDefinitionService;
 import org.kinotic.persistence.api.services.NamedQueriesDefinitionService;
 import org.kinotic.persistence.internal.api.services.EntityDefinitionConversionService;
 import org.kinotic.persistence.internal.api.services.sql.SqlQueryType;
+import org.kinotic.persistence.internal.cache.DefaultCaffeineCacheFactory;
+import org.kinotic.persistence.internal.cache.events.CacheEvictionEvent;
 import org.kinotic.persistence.internal.converters.openapi.OpenApiConversionState;
 import org.kinotic.persistence.internal.utils.OpenApiUtils;
 import org.kinotic.persistence.internal.utils.QueryUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Navíd Mitchell 🤪on 3/17/23.
  */
-@RequiredArgsConstructor
 @Component
 public class DefaultOpenApiService implements OpenApiService {
     private static final Logger log = LoggerFactory.getLogger(DefaultOpenApiService.class);
+    private static final int ENTITY_DEFINITION_PAGE_SIZE = 100;
+    private static final com.fasterxml.jackson.databind.ObjectMapper openApiMapper;
+
+    static {
+        // Specific serializers are added to the ObjectMapper by the swagger implementation
+        openApiMapper = ObjectMapperFactory.createJson();
+    }
 
     private final NamedQueriesDefinitionService namedQueriesDefinitionService;
     private final EntityDefinitionConversionService entityDefinitionConversionService;
     private final EntityDefinitionService entityDefinitionService;
     private final PersistenceProperties persistenceProperties;
     private final SecurityContext securityContext;
-
+    private final AsyncCache<OpenApiSpecCacheKey, OpenApiSpec> openApiSpecCache;
+
+    public DefaultOpenApiService(NamedQueriesDefinitionService namedQueriesDefinitionService,
+                                 EntityDefinitionConversionService entityDefinitionConversionService,
+                                 EntityDefinitionService entityDefinitionService,
+                                 PersistenceProperties persistenceProperties,
+                                 SecurityContext securityContext,
+                                 DefaultCaffeineCacheFactory cacheFactory) {
+        this.namedQueriesDefinitionService = namedQueriesDefinitionService;
+        this.entityDefinitionConversionService = entityDefinitionConversionService;
+        this.entityDefinitionService = entityDefinitionService;
+        this.persistenceProperties = persistenceProperties;
+        this.securityContext = securityContext;
+        this.openApiSpecCache = cacheFactory.<OpenApiSpecCacheKey, OpenApiSpec>newBuilder()
+                                            .name("openApiSpecCache")
+                                            .expireAfterAccess(Duration.ofHours(20))
+                                            .maximumSize(2000)
+                                            .buildAsync();
+    }
 
     private static ApiResponses getDefaultResponses(){
         ApiResponses responses = new ApiResponses();
@@ -64,101 +102,194 @@ public class DefaultOpenApiService implements OpenApiService {
         return responses;
     }
 
+    /**
+     * Evicts the cached OpenAPI specs for an application event. This can be a change to a named
+     * query or a {@link EntityDefinition}, since both contribute to the spec.
+     *
+     * @param cacheEvictionEvent the event containing the {@link EntityDefinition} or named query to evict the
+     *              caches for
+     */
+    @EventListener
+    public void handleCacheEviction(CacheEvictionEvent cacheEvictionEvent) {
+        try {
+            String applicationId = cacheEvictionEvent.getApplicationId();
+            if (applicationId != null) {
+                openApiSpecCache.asMap().keySet().removeIf(key -> key.applicationId().equals(applicationId));
+            } else {
+                openApiSpecCache.synchronous().invalidateAll();
+            }
+        } catch (Exception e) {
+            log.error("Failed to handle OpenAPI spec cache eviction (source: {})",
+                      cacheEvictionEvent.getSource(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<OpenAPI> getOpenApiSpec(String applicationId) {
+        return getVersionedOpenApiSpec(applicationId).thenApply(OpenApiSpec::openApi);
+    }
+
     @WithSpan
     @Override
-    public CompletableFuture<OpenAPI> getOpenApiSpec(@SpanAttribute("applicationId") String applicationId) {
+    public CompletableFuture<OpenApiSpec> getVersionedOpenApiSpec(@SpanAttribute("applicationId") String applicationId) {
+        return openApiSpecCache.get(createCacheKey(applicationId),
+                                    (key, executor) -> createOpenApiSpec(applicationId));
+    }
+
+    /**
+     * The published {@link EntityDefinition}s are filtered by the caller's organization when org scope is enforced,
+     * so the caller's auth scope must be part of the key.
+     */
+    private OpenApiSpecCacheKey createCacheKey(String applicationId) {
+        Participant participant = securityContext.isElevatedAccess() ? null : securityContext.currentParticipant();
+        String authScope = participant != null
+                ? participant.getAuthScopeType() + ":" + participant.getAuthScopeId()
+                : null;
+        return new OpenApiSpecCacheKey(authScope, applicationId);
+    }
+
+    private CompletableFuture<OpenApiSpec> createOpenApiSpec(String applicationId) {
+        long now = System.nanoTime();
+        return findAllPublishedEntityDefinitions(applicationId, 0, new ArrayList<>())
+                .thenApplyAsync(entityDefinitions -> {
+                    OpenAPI openAPI = createOpenApi(applicationId, entityDefinitions);
+                    try {
+                        byte[] json = openApiMapper.writeValueAsBytes(openAPI);
+                        String eTag = createETag(json);
+
+                        log.debug("Finished creating OpenAPI spec for application: {} with {} EntityDefinitions in {}ms",
+                                  applicationId, entityDefinitions.size(),
+                                  TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - now));
+
+                        return new OpenApiSpec(openAPI, json, eTag);
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalStateException("OpenAPI spec for application " + applicationId + " could not be serialized", e);
+                    }
+                });
+    }
+
+    private CompletableFuture<List<EntityDefinition>> findAllPublishedEntityDefinitions(String applicationId,
+                                                                                         int pageNumber,
+                                                                                         List<EntityDefinition> entityDefinitions) {
+        // Sorted by id so the pages are stable, otherwise a definition could be returned on more than one page or on none
         return entityDefinitionService
-                .findAllPublishedForApplication(applicationId, Pageable.ofSize(100))
-                .thenComposeAsync(entityDefinitionPage -> {
-                    OpenAPI openAPI = new OpenAPI(SpecVersion.V30);
-
-                    Info info = new Info()
-                            .title(applicationId + " API")
-                            .version("1.0")
-                            .description("Provides access to the " + applicationId + " application API");
-                    openAPI.setInfo(info);
-
-                    openAPI.addServersItem(new Server().url(persistenceProperties.getStructuresBaseUrl() + ":"  + persistenceProperties.getOpenApiPort()));
-
-                    Components components = new Components();
-
-                    // security scheme
-                    if(persistenceProperties.getOpenApiSecurityType() == OpenApiSecurityType.BASIC){
-                        SecurityScheme securityScheme = new SecurityScheme();
-                        securityScheme.setType(SecurityScheme.Type.HTTP);
-                        securityScheme.setScheme("basic");
-                        components.addSecuritySchemes("BasicAuth", securityScheme);
-                        openAPI.setSecurity(List.of(new SecurityRequirement().addList("BasicAuth")));
-                    } else if (persistenceProperties.getOpenApiSecurityType() == OpenApiSecurityType.BEARER) {
-                        SecurityScheme securityScheme = new SecurityScheme();
-                        securityScheme.setType(SecurityScheme.Type.HTTP);
-                        securityScheme.setScheme("bearer");
-                        components.addSecuritySchemes("BearerAuth", securityScheme);
-                        openAPI.setSecurity(List.of(new SecurityRequirement().addList("BearerAuth")));
+                .findAllPublishedForApplication(applicationId,
+                                                Pageable.create(pageNumber, ENTITY_DEFINITION_PAGE_SIZE, Sort.by("id")))
+                .thenCompose(page -> {
+                    entityDefinitions.addAll(page.getContent());
+                    // The total is not always known, so a short page also ends the search
+                    Long totalElements = page.getTotalElements();
+                    if(page.getContent().size() < ENTITY_DEFINITION_PAGE_SIZE
+                            || (totalElements != null && entityDefinitions.size() >= totalElements)){
+                        // Sorted so the spec, and therefore the ETag, does not depend on the order returned by Elasticsearch
+                        entityDefinitions.sort(Comparator.comparing(EntityDefinition::getName));
+                        return CompletableFuture.completedFuture(entityDefinitions);
                     }
+                    return findAllPublishedEntityDefinitions(applicationId, pageNumber + 1, entityDefinitions);
+                });
+    }
 
-                    Paths paths = new Paths();
-                    String basePath = persistenceProperties.getOpenApiPath();
+    private static String createETag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 
-                    IdlConverter<Schema<?>, OpenApiConversionState> converter
-                            = entityDefinitionConversionService.createOpenApiConverter();
-                    for(EntityDefinition entityDefinition : entityDefinitionPage.getContent()){
+    @WithSpan
+    private OpenAPI createOpenApi(String applicationId, List<EntityDefinition> entityDefinitions) {
+        OpenAPI openAPI = new OpenAPI(SpecVersion.V30);
+
+        Info info = new Info()
+                .title(applicationId + " API")
+                .version("1.0")
+                .description("Provides access to the " + applicationId + " application API");
+        openAPI.setInfo(info);
+
+        openAPI.addServersItem(new Server().url(persistenceProperties.getStructuresBaseUrl() + ":"  + persistenceProperties.getOpenApiPort()));
+
+        Components components = new Components();
+
+        // security scheme
+        if(persistenceProperties.getOpenApiSecurityType() == OpenApiSecurityType.BASIC){
+            SecurityScheme securityScheme = new SecurityScheme();
+            securityScheme.setType(SecurityScheme.Type.HTTP);
+            securityScheme.setScheme("basic");
+            components.addSecuritySchemes("BasicAuth", securityScheme);
+            openAPI.setSecurity(List.of(new SecurityRequirement().addList("BasicAuth")));
+        } else if (persistenceProperties.getOpenApiSecurityType() == OpenApiSecurityType.BEARER) {
+            SecurityScheme securityScheme = new SecurityScheme();
+            securityScheme.setType(SecurityScheme.Type.HTTP);
+            securityScheme.setScheme("bearer");
+            components.addSecuritySchemes("BearerAuth", securityScheme);
+            openAPI.setSecurity(List.of(new SecurityRequirement().addList("BearerAuth")));
+        }
 
-                        Schema<?> schema = converter.convert(entityDefinition.getSchema());
-                        if(schema instanceof ObjectSchema){
+        Paths paths = new Paths();
+        String basePath = persistenceProperties.getOpenApiPath();
 
-                            components.addSchemas(entityDefinition.getName(), schema);
+        IdlConverter<Schema<?>, OpenApiConversionState> converter
+                = entityDefinitionConversionService.createOpenApiConverter();
+        for(EntityDefinition entityDefinition : entityDefinitions){
 
-                            if(entityDefinition.isMultiTenantSelectionEnabled()){
-                                addAdminPathItems(paths, entityDefinition);
-                            }
+            Schema<?> schema = converter.convert(entityDefinition.getSchema());
+            if(schema instanceof ObjectSchema){
 
-                            // Add path items for the EntityDefinition
-                            addDefaultPathItems(paths, entityDefinition);
+                components.addSchemas(entityDefinition.getName(), schema);
 
-                        }else{
-                            log.error("EntityDefinition {} schema did not convert to an OpenAPI ObjectSchema",
-                                      entityDefinition.getId());
-                        }
+                if(entityDefinition.isMultiTenantSelectionEnabled()){
+                    addAdminPathItems(paths, entityDefinition);
+                }
 
-                        addNamedQueryPathItems(paths, basePath, entityDefinition, converter, components);
-                    }
+                // Add path items for the EntityDefinition
+                addDefaultPathItems(paths, entityDefinition);
 
-                    // Add all the referenced schemas
-                    Map<String, Schema<?>> referencedSchemas = converter.getConversionContext()
-                                                                        .state()
-                                                                        .getReferencedSchemas();
-                    for(Map.Entry<String, Schema<?>> entry : referencedSchemas.entrySet()){
-                        components.addSchemas(entry.getKey(), entry.getValue());
-                    }
+            }else{
+                log.error("EntityDefinition {} schema did not convert to an OpenAPI ObjectSchema",
+                          entityDefinition.getId());
+            }
 
-                    ObjectSchema countSchema = new ObjectSchema();
-                    countSchema.addProperty("count", new IntegerSchema())
-                               .description("Contains the total count of items");
-                    components.addSchemas("CountResponse", countSchema);
-
-                    // Add TenantSpecificId schema
-                    ObjectSchema tenantSpecificIdSchema = new ObjectSchema();
-                    tenantSpecificIdSchema.description("A special Id that is used with Multi-tenant access endpoints")
-                                          .addProperty("entityId", new StringSchema().description("The id for the entity"))
-                                          .addProperty("tenantId", new StringSchema().description("The tenant id for the entity"));
-                    components.addSchemas("TenantSpecificId", tenantSpecificIdSchema);
-
-                    // Add Query with tenant selection schema
-                    ObjectSchema queryWithTenantSelectionSchema = new ObjectSchema();
-                    queryWithTenantSelectionSchema.description("A special Query object that is used with Multi-tenant access endpoints")
-                                                  .addProperty("query", new StringSchema()
-                                                          .description("The query text to be used for the operation"))
-                                                  .addProperty("tenantSelection",
-                                                               OpenApiUtils.createStringArraySchema("The list of tenants to use when executing the Query operation"));
-                    components.addSchemas("QueryWithTenantSelection", queryWithTenantSelectionSchema);
-
-                    openAPI.setPaths(paths);
-                    openAPI.components(components);
-                    return CompletableFuture.completedFuture(openAPI);
-                });
+            addNamedQueryPathItems(paths, basePath, entityDefinition, converter, components);
+        }
+
+        // Add all the referenced schemas
+        Map<String, Schema<?>> referencedSchemas = converter.getConversionContext()
+                                                            .state()
+                                                            .getReferencedSchemas();
+        for(Map.Entry<String, Schema<?>> entry : referencedSchemas.entrySet()){
+            components.addSchemas(entry.getKey(), entry.getValue());
+        }
+
+        ObjectSchema countSchema = new ObjectSchema();
+        countSchema.addProperty("count", new IntegerSchema())
+                   .description("Contains the total count of items");
+        components.addSchemas("CountResponse", countSchema);
+
+        // Add TenantSpecificId schema
+        ObjectSchema tenantSpecificIdSchema = new ObjectSchema();
+        tenantSpecificIdSchema.description("A special Id that is used with Multi-tenant access endpoints")
+                              .addProperty("entityId", new StringSchema().description("The id for the entity"))
+                              .addProperty("tenantId", new StringSchema().description("The tenant id for the entity"));
+        components.addSchemas("TenantSpecificId", tenantSpecificIdSchema);
+
+        // Add Query with tenant selection schema
+        ObjectSchema queryWithTenantSelectionSchema = new ObjectSchema();
+        queryWithTenantSelectionSchema.description("A special Query object that is used with Multi-tenant access endpoints")
+                                      .addProperty("query", new StringSchema()
+                                              .description("The query text to be used for the operation"))
+                                      .addProperty("tenantSelection",
+                                                   OpenApiUtils.createStringArraySchema("The list of tenants to use when executing the Query operation"));
+        components.addSchemas("QueryWithTenantSelection", queryWithTenantSelectionSchema);
+
+        openAPI.setPaths(paths);
+        openAPI.components(components);
+        return openAPI;
     }
 
+    private record OpenApiSpecCacheKey(String authScope, String applicationId) {}
+
     @WithSpan
     private void addAdminPathItems(Paths paths, EntityDefinition entityDefinition){
 
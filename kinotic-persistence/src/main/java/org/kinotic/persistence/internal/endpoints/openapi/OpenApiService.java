@@ -12,8 +12,16 @@ public interface OpenApiService {
     /**
      * Gets the OpenAPI spec for a given application
      * @param applicationId the application to get the OpenAPI spec for
-     * @return the OpenAPI spec
+     * @return the OpenAPI spec, this is shared and must not be modified
      */
     CompletableFuture<OpenAPI> getOpenApiSpec(String applicationId);
 
+    /**
+     * Gets the OpenAPI spec for a given application, along with its serialized JSON and ETag.
+     * The spec is cached until an {@link org.kinotic.persistence.api.model.EntityDefinition} or named query for the application changes.
+     * @param applicationId the application to get the OpenAPI spec for
+     * @return the {@link OpenApiSpec} for the application
+     */
+    CompletableFuture<OpenApiSpec> getVersionedOpenApiSpec(String applicationId);
+
 }
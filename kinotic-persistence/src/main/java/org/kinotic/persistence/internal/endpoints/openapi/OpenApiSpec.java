@@ -0,0 +1,14 @@
+package org.kinotic.persistence.internal.endpoints.openapi;
+
+import io.swagger.v3.oas.models.OpenAPI;
+
+/**
+ * A generated OpenAPI spec along with its serialized form.
+ * Instances are cached and shared, so neither the {@link OpenAPI} nor the json bytes should be modified.
+ *
+ * @param openApi the generated spec
+ * @param json    the spec serialized as JSON
+ * @param eTag    a strong ETag derived from the JSON, this is the same on every node for the same spec
+ */
+public record OpenApiSpec(OpenAPI openApi, byte[] json, String eTag) {
+}
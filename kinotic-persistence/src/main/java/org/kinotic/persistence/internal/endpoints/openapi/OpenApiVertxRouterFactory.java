@@ -1,6 +1,5 @@
 package org.kinotic.persistence.internal.endpoints.openapi;
 
-import io.swagger.v3.core.util.ObjectMapperFactory;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
@@ -30,7 +29,6 @@ import tools.jackson.databind.JavaType;
 import tools.jackson.databind.ObjectMapper;
 import tools.jackson.databind.type.TypeFactory;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -42,13 +40,6 @@ import java.util.function.Supplier;
 @Component
 public class OpenApiVertxRouterFactory {
 
-    private static final com.fasterxml.jackson.databind.ObjectMapper openApiMapper;
-
-    static {
-        // Specific serializers are added to the ObjectMapper by the swagger implementation
-        openApiMapper = ObjectMapperFactory.createJson();
-    }
-
     private final String adminApiBasePath;
     private final String apiBasePath;
     private final EntitiesRepository entitiesRepository;
@@ -115,15 +106,17 @@ public class OpenApiVertxRouterFactory {
                   String application = ctx.pathParam("application");
                   Validate.notNull(application, "application must not be null");
 
-                  Future.fromCompletionStage(openApiService.getOpenApiSpec(application), vertx.getOrCreateContext())
+                  Future.fromCompletionStage(openApiService.getVersionedOpenApiSpec(application), vertx.getOrCreateContext())
                         .onComplete((result, failure) -> {
                             if(failure == null){
-                                try {
-                                    byte[] bytes = openApiMapper.writeValueAsBytes(result);
+                                // Clients must revalidate, which is cheap since an unchanged spec is answered with a 304
+                                ctx.response().putHeader("ETag", result.eTag());
+                                ctx.response().putHeader("Cache-Control", "no-cache");
+                                if(VertxWebUtil.matchesIfNoneMatch(ctx.request().getHeader("If-None-Match"), result.eTag())){
+                                    ctx.response().setStatusCode(304).end();
+                                }else{
                                     ctx.response().putHeader("Content-Type", "application/json");
-                                    ctx.response().end(Buffer.buffer(bytes));
-                                } catch (IOException e) {
-                                    VertxWebUtil.writeException(ctx, e);
+                                    ctx.response().end(Buffer.buffer(result.json()));
                                 }
                             }else{
                                 VertxWebUtil.writeException(ctx, failure);
@@ -152,37 +145,41 @@ public class OpenApiVertxRouterFactory {
 
     private void addCreateUpdateRoutes(Router router,
                                        BodyHandler bodyHandler) {
-        // Bulk save
+        // Bulk save, the body is streamed so no body handler is used
         router.post(apiBasePath + ":application/:structureName/bulk")
               .consumes("application/json")
+              .consumes("application/x-ndjson")
               .produces("application/json")
-              .handler(bodyHandler)
               .handler(ctx -> {
 
                   String entityDefinitionId = VertxWebUtil.validateAndReturnEntityDefinitionId(ctx);
 
-                  handleNoReturnValue(ctx, () ->
-                          entitiesRepository.bulkSave(entityDefinitionId,
-                                                      new RawJson(ctx.body().buffer().getBytes()),
-                                                      new RoutingContextToEntityContextAdapter(ctx))
-                  );
+                  new StreamingBulkRequestHandler(ctx,
+                                                  objectMapper,
+                                                  properties,
+                                                  (entities, ec) -> entitiesRepository.bulkSave(entityDefinitionId,
+                                                                                                entities,
+                                                                                                ec))
+                          .start();
 
               });
 
-        // Bulk Update
+        // Bulk Update, the body is streamed so no body handler is used
         router.post(apiBasePath + ":application/:structureName/bulk-update")
               .consumes("application/json")
+              .consumes("application/x-ndjson")
               .produces("application/json")
-              .handler(bodyHandler)
               .handler(ctx -> {
 
                   String entityDefinitionId = VertxWebUtil.validateAndReturnEntityDefinitionId(ctx);
 
-                  handleNoReturnValue(ctx, () ->
-                          entitiesRepository.bulkUpdate(entityDefinitionId,
-                                                        new RawJson(ctx.body().buffer().getBytes()),
-                                                        new RoutingContextToEntityContextAdapter(ctx))
-                  );
+                  new StreamingBulkRequestHandler(ctx,
+                                                  objectMapper,
+                                                  properties,
+                                                  (entities, ec) -> entitiesRepository.bulkUpdate(entityDefinitionId,
+                                                                                                  entities,
+                                                                                                  ec))
+                          .start();
 
               });
 
@@ -0,0 +1,252 @@
+package org.kinotic.persistence.internal.endpoints.openapi;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+import org.kinotic.os.api.model.RawJson;
+import org.kinotic.persistence.api.config.PersistenceProperties;
+import org.kinotic.persistence.api.model.EntityContext;
+import org.kinotic.persistence.internal.utils.VertxWebUtil;
+import tools.jackson.core.JsonEncoding;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.async.ByteArrayFeeder;
+import tools.jackson.core.util.ByteArrayBuilder;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Streams the body of a bulk request to Elasticsearch as it is received, instead of buffering the entire body first.
+ * The body can either be a JSON array of entities or newline delimited JSON (NDJSON), and is parsed with a non-blocking parser.
+ * Every {@link PersistenceProperties#getOpenApiBulkChunkSize()} entities are sent as a single bulk request,
+ * and reading from the connection is paused while {@link PersistenceProperties#getOpenApiBulkMaxInFlight()} bulk requests are outstanding.
+ * <p>
+ * NOTE: since entities are persisted in chunks, a failure part way through the body leaves the previous chunks persisted.
+ * <p>
+ * A new instance must be created for every request. All methods are called on the Vert.x context of the request.
+ */
+class StreamingBulkRequestHandler {
+
+    private final RoutingContext ctx;
+    private final ObjectMapper objectMapper;
+    private final BiFunction<RawJson, EntityContext, CompletableFuture<Void>> bulkFunction;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final long maxEntitySize;
+    private final Context vertxContext;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final Deque<RawJson> pendingChunks = new ArrayDeque<>();
+
+    private ByteArrayBuilder chunkBuffer;
+    private JsonGenerator chunkGenerator;
+    private int chunkEntityCount = 0;
+    private long entityCount = 0;
+    private long bytesSinceLastEntity = 0;
+    private int objectDepth = 0;
+    private int arrayDepth = 0;
+    private boolean topLevelArray = false;
+    private int inFlight = 0;
+    private boolean ended = false;
+    private boolean finished = false;
+
+    StreamingBulkRequestHandler(RoutingContext ctx,
+                                ObjectMapper objectMapper,
+                                PersistenceProperties properties,
+                                BiFunction<RawJson, EntityContext, CompletableFuture<Void>> bulkFunction) {
+        this.ctx = ctx;
+        this.objectMapper = objectMapper;
+        this.bulkFunction = bulkFunction;
+        this.chunkSize = Math.max(1, properties.getOpenApiBulkChunkSize());
+        this.maxInFlight = Math.max(1, properties.getOpenApiBulkMaxInFlight());
+        this.maxEntitySize = properties.getMaxHttpBodySize();
+        this.vertxContext = ctx.vertx().getOrCreateContext();
+        this.parser = objectMapper.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.nonBlockingInputFeeder();
+    }
+
+    /**
+     * Starts reading the request body, the response is written once all entities are persisted or on the first failure.
+     */
+    void start() {
+        HttpServerRequest request = ctx.request();
+        request.pause();
+        request.handler(this::handleBuffer);
+        request.exceptionHandler(this::fail);
+        request.endHandler(v -> handleEnd());
+        request.resume();
+    }
+
+    private void handleBuffer(Buffer buffer) {
+        if(finished){
+            return; // draining the rest of a failed request
+        }
+        try {
+            byte[] bytes = buffer.getBytes();
+            feeder.feedInput(bytes, 0, bytes.length);
+            bytesSinceLastEntity += bytes.length;
+
+            parseAvailableTokens();
+
+            // The body limit now applies to a single entity, since the body as a whole is never held in memory
+            if(maxEntitySize > 0 && bytesSinceLastEntity > maxEntitySize){
+                throw new IllegalArgumentException("Entity exceeds the max size of " + maxEntitySize + " bytes");
+            }
+
+            dispatchChunks();
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private void handleEnd() {
+        if(finished){
+            return;
+        }
+        ended = true;
+        try {
+            feeder.endOfInput();
+            parseAvailableTokens();
+
+            if(objectDepth != 0 || arrayDepth != 0){
+                throw new IllegalArgumentException("Unexpected end of bulk request body");
+            }
+            if(chunkGenerator != null){
+                sealChunk();
+            }
+            if(entityCount == 0){
+                throw new IllegalArgumentException("No items found to create bulk request for");
+            }
+
+            dispatchChunks();
+            completeIfDone();
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private void parseAvailableTokens() {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+
+            if(objectDepth == 0){
+                // Skip the enclosing array if the body is a JSON array rather than NDJSON
+                if(token == JsonToken.START_ARRAY && !topLevelArray && entityCount == 0 && chunkGenerator == null){
+                    topLevelArray = true;
+                    arrayDepth++;
+                    continue;
+                }else if(token == JsonToken.END_ARRAY && topLevelArray && arrayDepth == 1){
+                    arrayDepth--;
+                    continue;
+                }else if(token != JsonToken.START_OBJECT){
+                    throw new IllegalArgumentException("Bulk requests must contain JSON objects, either as a JSON array or newline delimited");
+                }
+
+                if(chunkGenerator == null){
+                    startChunk();
+                }
+            }
+
+            chunkGenerator.copyCurrentEvent(parser);
+
+            if(token == JsonToken.START_OBJECT){
+                objectDepth++;
+            }else if(token == JsonToken.END_OBJECT){
+                objectDepth--;
+
+                if(objectDepth == 0){
+                    entityCount++;
+                    chunkEntityCount++;
+                    bytesSinceLastEntity = 0;
+
+                    if(chunkEntityCount >= chunkSize){
+                        sealChunk();
+                    }
+                }
+            }
+        }
+    }
+
+    private void startChunk() {
+        chunkBuffer = new ByteArrayBuilder();
+        chunkGenerator = objectMapper.createGenerator(chunkBuffer, JsonEncoding.UTF8);
+        chunkGenerator.writeStartArray();
+    }
+
+    private void sealChunk() {
+        chunkGenerator.writeEndArray();
+        chunkGenerator.close();
+        pendingChunks.add(new RawJson(chunkBuffer.toByteArray()));
+        chunkGenerator = null;
+        chunkBuffer = null;
+        chunkEntityCount = 0;
+    }
+
+    private void dispatchChunks() {
+        while (!pendingChunks.isEmpty() && inFlight < maxInFlight) {
+            RawJson chunk = pendingChunks.poll();
+            inFlight++;
+
+            CompletableFuture<Void> future;
+            try {
+                // A new context for every chunk, since the tenant selection is derived from the data in each chunk
+                future = bulkFunction.apply(chunk, new RoutingContextToEntityContextAdapter(ctx));
+            } catch (Exception e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+
+            Future.fromCompletionStage(future, vertxContext)
+                  .onComplete((unused, failure) -> {
+                      inFlight--;
+                      if(failure != null){
+                          fail(failure);
+                      }else if(!finished){
+                          dispatchChunks();
+                          completeIfDone();
+                      }
+                  });
+        }
+
+        // Apply back pressure to the connection while Elasticsearch catches up
+        if(!ended && !finished){
+            if(inFlight >= maxInFlight || !pendingChunks.isEmpty()){
+                ctx.request().pause();
+            }else{
+                ctx.request().resume();
+            }
+        }
+    }
+
+    private void completeIfDone() {
+        if(ended && !finished && inFlight == 0 && pendingChunks.isEmpty()){
+            finished = true;
+            parser.close();
+            new NoValueHandler(ctx).complete(null, null);
+        }
+    }
+
+    private void fail(Throwable throwable) {
+        if(finished){
+            return;
+        }
+        finished = true;
+        pendingChunks.clear();
+        if(chunkGenerator != null){
+            chunkGenerator.close();
+            chunkGenerator = null;
+        }
+        parser.close();
+        VertxWebUtil.writeException(ctx, throwable);
+        if(!ended){
+            // discard the remainder of the body
+            ctx.request().resume();
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.kinotic.core.api.config.CorsProperties;
 import org.kinotic.core.api.crud.*;
 import org.kinotic.core.api.exceptions.AuthenticationException;
 import org.kinotic.core.api.exceptions.AuthorizationException;
+import org.kinotic.core.api.exceptions.TooManyRequestsException;
 import org.kinotic.core.internal.utils.CorsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -146,6 +147,34 @@ public class VertxWebUtil {
         };
     }
 
+    /**
+     * Checks an If-None-Match request header against the current ETag of a resource.
+     * Weak comparison is used, as required for If-None-Match.
+     *
+     * @param ifNoneMatch the value of the If-None-Match header, may be null
+     * @param eTag        the current ETag of the resource
+     * @return true if the client already has the current representation and a 304 should be returned
+     */
+    public static boolean matchesIfNoneMatch(String ifNoneMatch, String eTag){
+        if(ifNoneMatch == null || ifNoneMatch.isBlank()){
+            return false;
+        }
+        String opaqueTag = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        for(String candidate : ifNoneMatch.split(",")){
+            candidate = candidate.trim();
+            if(candidate.equals("*")){
+                return true;
+            }
+            if(candidate.startsWith("W/")){
+                candidate = candidate.substring(2);
+            }
+            if(candidate.equals(opaqueTag)){
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static void writeException(RoutingContext context, Throwable throwable){
         HttpServerResponse response = context.response();
         String errorMessage;
@@ -170,6 +199,8 @@ public class VertxWebUtil {
                     statusCode = 401;
                 } else if (throwable instanceof AuthorizationException) {
                     statusCode = 403;
+                } else if (throwable instanceof TooManyRequestsException) {
+                    statusCode = 429;
                 } else {
                     statusCode = 500;
                 }
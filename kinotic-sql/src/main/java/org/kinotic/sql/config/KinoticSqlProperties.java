@@ -0,0 +1,55 @@
+package org.kinotic.sql.config;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Properties to configure how migrations and statements are executed.
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+@NoArgsConstructor
+@Component
+@ConfigurationProperties(prefix = "kinotic-sql")
+public class KinoticSqlProperties {
+
+    /**
+     * Consecutive INSERT statements for the same table in a migration are sent to Elasticsearch using bulk requests.
+     * This is the approximate maximum size in bytes of the documents sent in a single bulk request.
+     */
+    private long insertBatchBytes = 5 * 1024 * 1024;
+
+    /**
+     * Migrations for a project are run by one node at a time, using a lease stored in Elasticsearch.
+     * This is how long the lease is valid without being renewed, the node holding it renews it every third of this time.
+     */
+    private long migrationLockTtlMs = 60_000;
+
+    /**
+     * How long to wait for another node to finish running migrations for the same project before failing.
+     */
+    private long migrationLockWaitMs = 30 * 60_000;
+
+    /**
+     * How often to check if the migration lock held by another node has been released.
+     */
+    private long migrationLockPollMs = 2_000;
+
+    /**
+     * The statements of a migration that touch different tables or templates are run concurrently.
+     * This is the maximum number of statements, or groups of INSERT statements, running at the same time. Use 1 to run them one at a time.
+     */
+    private int migrationStatementParallelism = 4;
+
+    /**
+     * Parsed migrations are cached by the hash of their text, so the same migration is not parsed again.
+     * This is the maximum number of parsed migrations kept in the cache.
+     */
+    private long parsedMigrationCacheSize = 1_000;
+
+}
@@ -0,0 +1,55 @@
+package org.kinotic.sql.executor;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.mapping.Property;
+import co.elastic.clients.elasticsearch.indices.get_mapping.IndexMappingRecord;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the mapping properties of the indices used while running migrations, so each mapping is only fetched once per run.
+ * A new cache should be created for each run, and {@link #clear()} called whenever a statement may have changed a mapping.
+ */
+public class IndexMappingCache {
+
+    private final ElasticsearchAsyncClient client;
+    private final Map<String, CompletableFuture<Map<String, Property>>> mappings = new ConcurrentHashMap<>();
+
+    public IndexMappingCache(ElasticsearchAsyncClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Gets the mapping properties of the given index
+     * @param index the name of the index
+     * @return a {@link CompletableFuture} that completes with the mapping properties,
+     *         or null if the response does not contain a mapping for the name, such as when the name is an alias
+     */
+    public CompletableFuture<Map<String, Property>> get(String index) {
+        CompletableFuture<Map<String, Property>> ret = mappings.computeIfAbsent(index, this::fetch);
+        // Failures are not cached, so the next statement tries again
+        ret.whenComplete((properties, throwable) -> {
+            if (throwable != null) {
+                mappings.remove(index, ret);
+            }
+        });
+        return ret;
+    }
+
+    /**
+     * Removes all cached mappings
+     */
+    public void clear() {
+        mappings.clear();
+    }
+
+    private CompletableFuture<Map<String, Property>> fetch(String index) {
+        return client.indices().getMapping(m -> m.index(index))
+                     .thenApply(response -> {
+                         IndexMappingRecord indexMapping = response.get(index);
+                         return indexMapping != null ? indexMapping.mappings().properties() : null;
+                     });
+    }
+}
@@ -2,11 +2,16 @@ package org.kinotic.sql.executor;
 
 import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
 import co.elastic.clients.elasticsearch.core.search.TotalHits;
 import co.elastic.clients.elasticsearch.indices.ExistsRequest;
 import org.kinotic.sql.domain.Migration;
 import org.kinotic.sql.domain.MigrationContent;
+import org.kinotic.sql.config.KinoticSqlProperties;
 import org.kinotic.sql.domain.Statement;
+import org.kinotic.sql.domain.statements.InsertStatement;
+import org.kinotic.sql.executor.executors.InsertStatementExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -31,22 +36,34 @@ public class MigrationExecutor {
     private static final Logger log = LoggerFactory.getLogger(MigrationExecutor.class);
     private static final String MIGRATION_INDEX = "migration_history";
     public static final String SYSTEM_PROJECT = "structures_system";
+    private static final String VERSIONS_AGGREGATION = "versions";
+    private static final int MAX_MIGRATION_VERSIONS = 10_000;
 
     private final ElasticsearchAsyncClient client;
     private final List<StatementExecutor<?, ?>> executors;
+    private final InsertStatementExecutor insertStatementExecutor;
+    private final KinoticSqlProperties properties;
+    private final MigrationLock migrationLock;
 
     public MigrationExecutor(ElasticsearchAsyncClient client, 
-                             List<StatementExecutor<?, ?>> executors) {
+                             List<StatementExecutor<?, ?>> executors,
+                             InsertStatementExecutor insertStatementExecutor,
+                             KinoticSqlProperties properties,
+                             MigrationLock migrationLock) {
         this.client = client;
         this.executors = executors;
+        this.insertStatementExecutor = insertStatementExecutor;
+        this.properties = properties;
+        this.migrationLock = migrationLock;
     }
 
     /**
-     * Ensures that the migration tracking index exists in Elasticsearch
-     * @return CompletableFuture<Boolean> that completes with true if index was created, false if it already existed
+     * Ensures that the migration tracking and lock indices exist in Elasticsearch
+     * @return CompletableFuture<Boolean> that completes with true if the migration tracking index was created, false if it already existed
      */
     public CompletableFuture<Boolean> ensureMigrationIndexExists() {
-        return client.indices().exists(ExistsRequest.of(r -> r.index(MIGRATION_INDEX)))
+        return migrationLock.ensureLockIndexExists()
+            .thenCompose(ignored -> client.indices().exists(ExistsRequest.of(r -> r.index(MIGRATION_INDEX))))
             .thenCompose(exists -> {
                 if (!exists.value()) {
                     log.info("Creating migration history index...");
@@ -77,8 +94,6 @@ public class MigrationExecutor {
      * These will be executed on request for a specific project
      */
     public CompletableFuture<Void> executeProjectMigrations(List<Migration> migrations, String projectId) {
-        // FIXME: make sure migrations are not currently running for the same project
-        // Was thinking we can use Apache Ignite distributed lock or ACID cache transactions for this
         if (projectId == null || projectId.isEmpty()) {
             return CompletableFuture.failedFuture(new IllegalArgumentException("Project ID cannot be null or empty"));
         }
@@ -86,7 +101,9 @@ public class MigrationExecutor {
     }
 
     /**
-     * Executes migrations for a specific project context
+     * Executes migrations for a specific project context.
+     * The migrations are run while holding the {@link MigrationLock} for the project, so when multiple nodes start at the same time
+     * only one of them applies the migrations, and the others find them already applied once they get the lock.
      */
     private CompletableFuture<Void> executeMigrationsForProject(List<Migration> migrations, String projectId) {
         log.info("Executing migrations for project {}", projectId);
@@ -95,7 +112,6 @@ public class MigrationExecutor {
         sortedMigrations.sort(Comparator.comparingInt(Migration::getVersion));
         // Track seen versions to detect duplicates
         Set<Integer> seenVersions = new HashSet<>();
-        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
         for (Migration migration : sortedMigrations) {
             Integer version = migration.getVersion();
             if (!isValidVersion(version)) {
@@ -104,33 +120,88 @@ public class MigrationExecutor {
             if (!seenVersions.add(version)) {
                 throw new IllegalStateException("Duplicate migration version found: " + version + " (" + migration.getName() + ")");
             }
-            chain = chain.thenCompose(v -> isMigrationAppliedAsync(String.valueOf(version), projectId)
-                .thenCompose(applied -> {
-                    if (!applied) {
-                        log.info("Applying migration {} for project {}", version, projectId);
-                        MigrationContent content = migration.getContent();
-                        long start = System.currentTimeMillis();
-                        CompletableFuture<Void> statementChain = CompletableFuture.completedFuture(null);
-                        for (Statement statement : content.statements()) {
-                            statementChain = statementChain.thenCompose(v2 -> executeStatement(statement));
-                        }
-                        return statementChain.thenCompose(v2 -> {
-                            long duration = System.currentTimeMillis() - start;
-                            return recordMigrationAsync(version, projectId, migration.getName(), duration);
-                        });
-                    } else {
-                        log.debug("Migration {} already applied for project {}", version, projectId);
-                        return CompletableFuture.completedFuture(null);
-                    }
-                }));
         }
-        return chain;
+        if (sortedMigrations.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return migrationLock.withLock(projectId, lease -> getAppliedMigrationVersions(projectId).thenCompose(appliedVersions -> {
+            // Index mappings are only fetched once for all the migrations run
+            IndexMappingCache mappings = new IndexMappingCache(client);
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (Migration migration : sortedMigrations) {
+                int version = migration.getVersion();
+                if (appliedVersions.contains(version)) {
+                    log.debug("Migration {} already applied for project {}", version, projectId);
+                    continue;
+                }
+                chain = chain.thenCompose(v -> {
+                    if (lease.isLost()) {
+                        return CompletableFuture.failedFuture(new IllegalStateException("Migration lock for project " + projectId + " was lost"));
+                    }
+                    log.info("Applying migration {} for project {}", version, projectId);
+                    MigrationContent content = migration.getContent();
+                    long start = System.currentTimeMillis();
+                    // Statements touching different tables run concurrently, statements touching the same table run in order
+                    StatementPlan plan = StatementPlan.create(groupStatements(content.statements()));
+                    return plan.execute(group -> executeStatementGroup(group, mappings),
+                                        properties.getMigrationStatementParallelism())
+                               .thenCompose(v2 -> {
+                                   long duration = System.currentTimeMillis() - start;
+                                   return recordMigrationAsync(version, projectId, migration.getName(), duration);
+                               });
+                });
+            }
+            return chain;
+        }));
     }
 
     private boolean isValidVersion(Integer version) {
         return version != null && version > 0;
     }
 
+    /**
+     * Groups consecutive INSERT statements for the same table, so they can be sent using bulk requests.
+     * All other statements are in a group of their own.
+     */
+    private List<List<Statement>> groupStatements(List<Statement> statements) {
+        List<List<Statement>> groups = new ArrayList<>();
+        List<Statement> current = null;
+        for (Statement statement : statements) {
+            if (current != null
+                    && statement instanceof InsertStatement insert
+                    && current.getFirst() instanceof InsertStatement first
+                    && first.tableName().equals(insert.tableName())) {
+                current.add(statement);
+            } else {
+                current = new ArrayList<>();
+                current.add(statement);
+                groups.add(current);
+            }
+        }
+        return groups;
+    }
+
+    private CompletableFuture<Void> executeStatementGroup(List<Statement> group, IndexMappingCache mappings) {
+        if (group.getFirst() instanceof InsertStatement first) {
+            List<InsertStatement> inserts = new ArrayList<>(group.size());
+            for (Statement statement : group) {
+                inserts.add((InsertStatement) statement);
+            }
+            return insertStatementExecutor.executeMigrationBatch(first.tableName(), inserts, mappings, properties.getInsertBatchBytes())
+                .handle((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to execute {} INSERT statements for {} - Error: {}", inserts.size(), first.tableName(), ex.getMessage(), ex);
+                        throw new RuntimeException("Statement execution failed: " + first.getClass().getSimpleName() + " - " + ex.getMessage(), ex);
+                    }
+                    return null;
+                });
+        } else {
+            // Any other statement may change a mapping
+            return executeStatement(group.getFirst()).whenComplete((result, ex) -> mappings.clear());
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private CompletableFuture<Void> executeStatement(Statement statement) {
         StatementExecutor<Statement, ?> executor = (StatementExecutor<Statement, ?>) findExecutor(statement);
@@ -174,6 +245,35 @@ public class MigrationExecutor {
         });
     }
 
+    /**
+     * Gets all the migration versions that have been applied to a project, using a single aggregation query.
+     *
+     * @param projectId the project identifier
+     * @return CompletableFuture<Set<Integer>> that completes with the applied migration versions
+     */
+    public CompletableFuture<Set<Integer>> getAppliedMigrationVersions(String projectId) {
+        return client.search(s -> s
+                .index(MIGRATION_INDEX)
+                .size(0)
+                .query(q -> q
+                        .term(t -> t.field("projectId").value(projectId))
+                )
+                .aggregations(VERSIONS_AGGREGATION, a -> a
+                        .terms(t -> t.field("version").size(MAX_MIGRATION_VERSIONS))
+                ),
+                Void.class
+        ).thenApply(response -> {
+            Set<Integer> versions = new HashSet<>();
+            Aggregate aggregate = response.aggregations().get(VERSIONS_AGGREGATION);
+            if (aggregate != null) {
+                for (LongTermsBucket bucket : aggregate.lterms().buckets().array()) {
+                    versions.add((int) bucket.key());
+                }
+            }
+            return versions;
+        });
+    }
+
     /**
      * Gets the highest migration version that has been applied to a project.
      * 
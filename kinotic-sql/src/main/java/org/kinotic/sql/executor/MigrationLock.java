@@ -0,0 +1,280 @@
+package org.kinotic.sql.executor;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch.indices.ExistsRequest;
+import org.kinotic.sql.config.KinoticSqlProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A cluster-wide lock used to make sure migrations for a project are only run by one node at a time.
+ * <p>
+ * The lock is a lease document in Elasticsearch, created only if absent, with one document per project.
+ * While held, the lease is renewed by a heartbeat, so if the holder dies the lease expires and can be taken over by another node.
+ * All writes use the sequence number and primary term of the lease read, so two nodes can never both take over the same lease.
+ * Expiry is based on the clocks of the nodes, so the lease ttl should be much larger than any expected clock skew.
+ */
+@Component
+public class MigrationLock {
+    private static final Logger log = LoggerFactory.getLogger(MigrationLock.class);
+    private static final String LOCK_INDEX = "migration_lock";
+
+    private final ElasticsearchAsyncClient client;
+    private final KinoticSqlProperties properties;
+    private final String owner;
+
+    public MigrationLock(ElasticsearchAsyncClient client, KinoticSqlProperties properties) {
+        this.client = client;
+        this.properties = properties;
+        this.owner = hostName() + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * Ensures that the lock index exists in Elasticsearch
+     * @return CompletableFuture<Boolean> that completes with true if index was created, false if it already existed
+     */
+    public CompletableFuture<Boolean> ensureLockIndexExists() {
+        return client.indices().exists(ExistsRequest.of(r -> r.index(LOCK_INDEX)))
+            .thenCompose(exists -> {
+                if (!exists.value()) {
+                    log.info("Creating migration lock index...");
+                    return client.indices().create(c -> c
+                            .index(LOCK_INDEX)
+                            .mappings(m -> m
+                                    .properties("name", p -> p.keyword(k -> k))
+                                    .properties("owner", p -> p.keyword(k -> k))
+                                    .properties("acquiredAt", p -> p.date(d -> d))
+                                    .properties("expiresAt", p -> p.long_(l -> l))
+                            )
+                    ).handle((response, throwable) -> {
+                        // Another node may have created the index at the same time
+                        if (throwable != null && !isStatus(throwable, 400)) {
+                            throw asCompletionException(throwable);
+                        }
+                        return throwable == null;
+                    });
+                }
+                return CompletableFuture.completedFuture(false);
+            });
+    }
+
+    /**
+     * Acquires the lock with the given name, runs the action, and releases the lock once the action completes
+     * @param name of the lock to acquire
+     * @param action to run while the lock is held
+     * @return a {@link CompletableFuture} that completes with the result of the action,
+     *         or fails if the lock could not be acquired within {@link KinoticSqlProperties#getMigrationLockWaitMs()}
+     */
+    public <T> CompletableFuture<T> withLock(String name, Function<Lease, CompletableFuture<T>> action) {
+        return acquire(name).thenCompose(lease -> {
+            CompletableFuture<T> result;
+            try {
+                result = action.apply(lease);
+            } catch (Exception e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            return result.handle((value, throwable) -> lease.release()
+                                                            .handle((v, releaseError) -> {
+                                                                if (throwable != null) {
+                                                                    throw asCompletionException(throwable);
+                                                                }
+                                                                return value;
+                                                            }))
+                         .thenCompose(Function.identity());
+        });
+    }
+
+    private CompletableFuture<Lease> acquire(String name) {
+        CompletableFuture<Lease> ret = new CompletableFuture<>();
+        tryAcquire(name, ret, System.currentTimeMillis() + properties.getMigrationLockWaitMs(), true);
+        return ret;
+    }
+
+    private void tryAcquire(String name, CompletableFuture<Lease> future, long deadline, boolean first) {
+        long now = System.currentTimeMillis();
+        LockRecord record = new LockRecord(name, owner, now, now + properties.getMigrationLockTtlMs());
+
+        client.create(c -> c.index(LOCK_INDEX).id(name).document(record).refresh(Refresh.True))
+              .thenApply(response -> new Lease(name, response.seqNo(), response.primaryTerm()))
+              .exceptionallyCompose(throwable -> {
+                  if (isStatus(throwable, 409)) {
+                      return takeOverIfExpired(name);
+                  }
+                  return CompletableFuture.failedFuture(throwable);
+              })
+              .whenComplete((lease, throwable) -> {
+                  if (throwable != null) {
+                      future.completeExceptionally(throwable);
+                  } else if (lease != null) {
+                      log.info("Acquired migration lock for {}", name);
+                      lease.scheduleHeartbeat();
+                      future.complete(lease);
+                  } else if (System.currentTimeMillis() > deadline) {
+                      future.completeExceptionally(new IllegalStateException("Timed out waiting for the migration lock for " + name));
+                  } else {
+                      if (first) {
+                          log.info("Migrations for {} are being run by another node, waiting for them to complete", name);
+                      }
+                      CompletableFuture.delayedExecutor(properties.getMigrationLockPollMs(), TimeUnit.MILLISECONDS)
+                                       .execute(() -> tryAcquire(name, future, deadline, false));
+                  }
+              });
+    }
+
+    /**
+     * Takes over the lease if it has expired
+     * @return a {@link CompletableFuture} that completes with the lease, or null if the lease is still held by another node
+     */
+    private CompletableFuture<Lease> takeOverIfExpired(String name) {
+        return client.get(g -> g.index(LOCK_INDEX).id(name), LockRecord.class)
+                     .thenCompose(response -> {
+                         if (!response.found()) {
+                             // Released in the meantime, the next attempt can create it
+                             return CompletableFuture.completedFuture(null);
+                         }
+                         LockRecord current = response.source();
+                         long now = System.currentTimeMillis();
+                         if (current != null && current.expiresAt() > now) {
+                             return CompletableFuture.completedFuture(null);
+                         }
+                         log.warn("Migration lock for {} held by {} has expired, taking it over", name, current != null ? current.owner() : null);
+                         LockRecord record = new LockRecord(name, owner, now, now + properties.getMigrationLockTtlMs());
+                         return client.index(i -> i.index(LOCK_INDEX)
+                                                   .id(name)
+                                                   .document(record)
+                                                   .ifSeqNo(response.seqNo())
+                                                   .ifPrimaryTerm(response.primaryTerm())
+                                                   .refresh(Refresh.True))
+                                      .thenApply(indexResponse -> new Lease(name, indexResponse.seqNo(), indexResponse.primaryTerm()))
+                                      .exceptionally(throwable -> {
+                                          if (isStatus(throwable, 409)) {
+                                              // Another node took it over first
+                                              return null;
+                                          }
+                                          throw asCompletionException(throwable);
+                                      });
+                     });
+    }
+
+    private static boolean isStatus(Throwable throwable, int status) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof ElasticsearchException e && e.status() == status;
+    }
+
+    private static CompletionException asCompletionException(Throwable throwable) {
+        return throwable instanceof CompletionException completionException
+                ? completionException : new CompletionException(throwable);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * A held migration lock
+     */
+    public class Lease {
+        private final String name;
+        private long seqNo;
+        private long primaryTerm;
+        private volatile boolean released;
+        private volatile boolean lost;
+        private CompletableFuture<Void> pendingHeartbeat = CompletableFuture.completedFuture(null);
+
+        private Lease(String name, long seqNo, long primaryTerm) {
+            this.name = name;
+            this.seqNo = seqNo;
+            this.primaryTerm = primaryTerm;
+        }
+
+        /**
+         * @return true if the lease could not be renewed and may now be held by another node
+         */
+        public boolean isLost() {
+            return lost;
+        }
+
+        private void scheduleHeartbeat() {
+            long interval = Math.max(1, properties.getMigrationLockTtlMs() / 3);
+            CompletableFuture.delayedExecutor(interval, TimeUnit.MILLISECONDS).execute(this::heartbeat);
+        }
+
+        private synchronized void heartbeat() {
+            if (released || lost) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            LockRecord record = new LockRecord(name, owner, now, now + properties.getMigrationLockTtlMs());
+            pendingHeartbeat = client.index(i -> i.index(LOCK_INDEX)
+                                                  .id(name)
+                                                  .document(record)
+                                                  .ifSeqNo(seqNo)
+                                                  .ifPrimaryTerm(primaryTerm))
+                                     .handle((response, throwable) -> {
+                                         synchronized (this) {
+                                             if (throwable == null) {
+                                                 seqNo = response.seqNo();
+                                                 primaryTerm = response.primaryTerm();
+                                                 scheduleHeartbeat();
+                                             } else if (isStatus(throwable, 409)) {
+                                                 lost = true;
+                                                 log.error("Migration lock for {} was lost, another node may be running migrations", name);
+                                             } else {
+                                                 // Try again, the lease is still valid until it expires
+                                                 log.warn("Failed to renew migration lock for {}", name, throwable);
+                                                 scheduleHeartbeat();
+                                             }
+                                         }
+                                         return null;
+                                     });
+        }
+
+        private CompletableFuture<Void> release() {
+            CompletableFuture<Void> heartbeat;
+            synchronized (this) {
+                released = true;
+                heartbeat = pendingHeartbeat;
+            }
+            // Wait for a heartbeat in progress, so the delete uses the latest sequence number
+            return heartbeat.thenCompose(v -> {
+                synchronized (this) {
+                    if (lost) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return client.delete(d -> d.index(LOCK_INDEX)
+                                               .id(name)
+                                               .ifSeqNo(seqNo)
+                                               .ifPrimaryTerm(primaryTerm)
+                                               .refresh(Refresh.True))
+                                 .handle((response, throwable) -> {
+                                     if (throwable != null) {
+                                         log.warn("Failed to release migration lock for {}, it will expire", name, throwable);
+                                     } else {
+                                         log.info("Released migration lock for {}", name);
+                                     }
+                                     return null;
+                                 });
+                }
+            });
+        }
+    }
+
+    public record LockRecord(String name, String owner, long acquiredAt, long expiresAt) {}
+}
@@ -0,0 +1,281 @@
+package org.kinotic.sql.executor;
+
+import org.kinotic.sql.domain.Statement;
+import org.kinotic.sql.domain.statements.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Plans the execution of the statements of a migration, so statements that do not depend on each other can run concurrently.
+ * <p>
+ * Each statement depends on the earlier statements that touch the same table or template, so the order of the statements for any
+ * single table is always preserved. For example a CREATE TABLE, the INSERTs into it and an UPDATE of it run in order, while the
+ * statements for an unrelated table run at the same time.
+ * A REINDEX touches both its source and destination, and a CREATE INDEX TEMPLATE touches every table matching its index pattern
+ * as well as the component template it uses. Statements of an unknown type wait for all earlier statements, and all later
+ * statements wait for them.
+ */
+public class StatementPlan {
+
+    private static final String TABLE = "table:";
+    private static final String COMPONENT_TEMPLATE = "component_template:";
+    private static final String INDEX_TEMPLATE = "index_template:";
+
+    private final List<Node> nodes;
+
+    private StatementPlan(List<Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * Creates a plan for the given groups of statements, each group is executed as a unit
+     * @param groups the statement groups, in the order they appear in the migration
+     * @return the plan
+     */
+    public static StatementPlan create(List<List<Statement>> groups) {
+        List<Node> nodes = new ArrayList<>(groups.size());
+        Map<String, Node> lastByResource = new HashMap<>();
+        List<Node> patternNodes = new ArrayList<>();
+        List<Node> sinceBarrier = new ArrayList<>();
+        Node barrier = null;
+
+        for (List<Statement> group : groups) {
+            Statement statement = group.getFirst();
+            Set<String> resources = new LinkedHashSet<>();
+            List<Pattern> patterns = new ArrayList<>();
+            boolean known = resources(statement, resources, patterns);
+            Node node = new Node(group);
+
+            if (!known) {
+                // Unknown statements are ordered with respect to everything
+                node.dependencies.addAll(sinceBarrier);
+                if (barrier != null) {
+                    node.dependencies.add(barrier);
+                }
+                barrier = node;
+                sinceBarrier.clear();
+                lastByResource.clear();
+                patternNodes.clear();
+            } else {
+                if (barrier != null) {
+                    node.dependencies.add(barrier);
+                }
+                for (String resource : resources) {
+                    Node last = lastByResource.get(resource);
+                    if (last != null) {
+                        node.dependencies.add(last);
+                    }
+                    if (resource.startsWith(TABLE)) {
+                        String table = resource.substring(TABLE.length());
+                        for (Node patternNode : patternNodes) {
+                            if (patternNode.matches(table)) {
+                                node.dependencies.add(patternNode);
+                            }
+                        }
+                    }
+                }
+                if (!patterns.isEmpty()) {
+                    node.patterns = patterns;
+                    for (Map.Entry<String, Node> entry : lastByResource.entrySet()) {
+                        if (entry.getKey().startsWith(TABLE) && node.matches(entry.getKey().substring(TABLE.length()))) {
+                            node.dependencies.add(entry.getValue());
+                        }
+                    }
+                    patternNodes.add(node);
+                }
+                for (String resource : resources) {
+                    lastByResource.put(resource, node);
+                }
+                sinceBarrier.add(node);
+            }
+            nodes.add(node);
+        }
+        return new StatementPlan(nodes);
+    }
+
+    /**
+     * Executes the plan, starting each group once all the groups it depends on have completed
+     * @param executor executes a group of statements
+     * @param parallelism the maximum number of groups executing at the same time
+     * @return a {@link CompletableFuture} that completes once all groups have completed, or fails with the first failure once all
+     *         groups already started have completed if any of them failed. No more groups are started once a group has failed.
+     */
+    public CompletableFuture<Void> execute(Function<List<Statement>, CompletableFuture<Void>> executor, int parallelism) {
+        Limiter limiter = new Limiter(Math.max(1, parallelism));
+        Map<Node, CompletableFuture<Void>> futures = new IdentityHashMap<>();
+        for (Node node : nodes) {
+            CompletableFuture<?>[] dependencies = node.dependencies.stream()
+                                                                   .map(futures::get)
+                                                                   .toArray(CompletableFuture[]::new);
+            futures.put(node, CompletableFuture.allOf(dependencies)
+                                               .thenCompose(v -> limiter.submit(() -> executor.apply(node.statements))));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                                .handle((v, throwable) -> {
+                                    Throwable failure = limiter.failure.get();
+                                    if (failure != null) {
+                                        throw new CompletionException(failure);
+                                    }
+                                    if (throwable != null) {
+                                        throw throwable instanceof CompletionException e ? e : new CompletionException(throwable);
+                                    }
+                                    return null;
+                                });
+    }
+
+    /**
+     * Collects the resources touched by the statement
+     * @return false if the statement type is not known
+     */
+    private static boolean resources(Statement statement, Set<String> resources, List<Pattern> patterns) {
+        switch (statement) {
+            case CreateTableStatement s -> resources.add(TABLE + s.tableName());
+            case AlterTableStatement s -> resources.add(TABLE + s.tableName());
+            case InsertStatement s -> resources.add(TABLE + s.tableName());
+            case UpdateStatement s -> resources.add(TABLE + s.tableName());
+            case DeleteStatement s -> resources.add(TABLE + s.tableName());
+            case ReindexStatement s -> {
+                resources.add(TABLE + s.source());
+                resources.add(TABLE + s.dest());
+            }
+            case CreateComponentTemplateStatement s -> resources.add(COMPONENT_TEMPLATE + s.templateName());
+            case CreateIndexTemplateStatement s -> {
+                resources.add(INDEX_TEMPLATE + s.templateName());
+                if (s.componentTemplate() != null) {
+                    resources.add(COMPONENT_TEMPLATE + s.componentTemplate());
+                }
+                if (s.indexPattern() != null) {
+                    for (String pattern : s.indexPattern().split(",")) {
+                        patterns.add(globToPattern(pattern.trim()));
+                    }
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : glob.split("\\*", -1)) {
+            if (!regex.isEmpty()) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(part));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static final class Node {
+        private final List<Statement> statements;
+        private final Set<Node> dependencies = Collections.newSetFromMap(new IdentityHashMap<>());
+        private List<Pattern> patterns = List.of();
+
+        private Node(List<Statement> statements) {
+            this.statements = statements;
+        }
+
+        private boolean matches(String table) {
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(table).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Limits the number of tasks running at the same time, tasks are started in the order they are submitted.
+     * Once a task fails, tasks that have not started yet fail with the same error without being run.
+     */
+    private static final class Limiter {
+        private final Queue<Runnable> waiting = new ArrayDeque<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private int permits;
+        /**
+         * True while a thread is starting waiting tasks, so a task that completes while it is being started does not start the next
+         * one itself. This keeps tasks that complete synchronously from recursing through each other.
+         */
+        private boolean draining = false;
+
+        private Limiter(int permits) {
+            this.permits = permits;
+        }
+
+        private CompletableFuture<Void> submit(Supplier<CompletableFuture<Void>> task) {
+            CompletableFuture<Void> ret = new CompletableFuture<>();
+            Runnable run = () -> {
+                Throwable earlier = failure.get();
+                if (earlier != null) {
+                    release();
+                    ret.completeExceptionally(earlier);
+                    return;
+                }
+                CompletableFuture<Void> result;
+                try {
+                    result = task.get();
+                } catch (Exception e) {
+                    result = CompletableFuture.failedFuture(e);
+                }
+                result.whenComplete((v, throwable) -> {
+                    if (throwable != null) {
+                        // Recorded before releasing, so no waiting task is started after this one has failed
+                        failure.compareAndSet(null, throwable instanceof CompletionException && throwable.getCause() != null
+                                ? throwable.getCause() : throwable);
+                    }
+                    release();
+                    if (throwable != null) {
+                        ret.completeExceptionally(throwable);
+                    } else {
+                        ret.complete(null);
+                    }
+                });
+            };
+            synchronized (this) {
+                waiting.add(run);
+            }
+            drain();
+            return ret;
+        }
+
+        private void release() {
+            synchronized (this) {
+                permits++;
+            }
+            drain();
+        }
+
+        /**
+         * Starts waiting tasks while there are permits, unless another call is already doing so
+         */
+        private void drain() {
+            synchronized (this) {
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            while (true) {
+                Runnable next;
+                synchronized (this) {
+                    if (permits == 0 || waiting.isEmpty()) {
+                        draining = false;
+                        return;
+                    }
+                    permits--;
+                    next = waiting.poll();
+                }
+                next.run();
+            }
+        }
+    }
+}
@@ -1,17 +1,23 @@
 package org.kinotic.sql.executor.executors;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import org.kinotic.sql.domain.Statement;
 import org.kinotic.sql.domain.statements.InsertStatement;
+import org.kinotic.sql.executor.IndexMappingCache;
 import org.kinotic.sql.executor.StatementExecutor;
 import org.springframework.stereotype.Component;
 
 import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch._types.Refresh;
 import co.elastic.clients.elasticsearch._types.mapping.Property;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
 import co.elastic.clients.elasticsearch.indices.get_mapping.IndexMappingRecord;
 import lombok.RequiredArgsConstructor;
 
@@ -24,6 +30,11 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class InsertStatementExecutor implements StatementExecutor<InsertStatement, Void> {
 
+    /**
+     * Approximate size of the bulk action line and JSON syntax of each document
+     */
+    private static final int DOCUMENT_OVERHEAD_BYTES = 64;
+
     private final ElasticsearchAsyncClient client;
 
     @Override
@@ -40,39 +51,14 @@ public class InsertStatementExecutor implements StatementExecutor<InsertStatemen
     public CompletableFuture<Void> executeQuery(InsertStatement statement, Map<String, Object> parameters) {
         return client.indices().getMapping(m -> m.index(statement.tableName()))
             .thenCompose(mapping -> {
-                // Create a document with the specified values
-                final Map<String, Object> document = new HashMap<>();
-                
-                if (statement.columns().isEmpty()) {
-                    // If no columns specified, we need to validate against mapping
-                    IndexMappingRecord indexMapping = mapping.get(statement.tableName());
-                    if (indexMapping == null) {
-                        throw new IllegalArgumentException("Index '" + statement.tableName() + "' does not exist");
-                    }
-                    Map<String, Property> properties = indexMapping.mappings().properties();
-                    
-                    // Validate we have the right number of values
-                    if (statement.values().size() != properties.size()) {
-                        throw new IllegalArgumentException("Number of values must match number of fields in index when no columns specified");
-                    }
-                    
-                    // Add values in order of fields in mapping
-                    int i = 0;
-                    for (String field : properties.keySet()) {
-                        document.put(field, statement.values().get(i++));
-                    }
-                } else {
-                    // If columns are specified, just add the values directly
-                    for (int i = 0; i < statement.columns().size(); i++) {
-                        document.put(statement.columns().get(i), statement.values().get(i));
-                    }
-                }
+                IndexMappingRecord indexMapping = mapping.get(statement.tableName());
+                final Map<String, Object> document = buildDocument(statement,
+                                                                   indexMapping != null ? indexMapping.mappings().properties() : null);
 
                 // Index the document with optional refresh. When an "id" column is provided,
                 // use its value as the Elasticsearch _id so callers can look the document up
                 // by that same id later (e.g. IamCredentialStore#findById).
-                Object idValue = document.get("id");
-                String documentId = idValue instanceof String s ? s : null;
+                String documentId = documentId(document);
                 return client.index(i -> {
                     i.index(statement.tableName())
                      .document(document)
@@ -84,4 +70,133 @@ public class InsertStatementExecutor implements StatementExecutor<InsertStatemen
                 }).thenApply(response -> null);
             });
     }
-} 
\ No newline at end of file
+
+    /**
+     * Executes INSERT statements for the same table using as few bulk requests as possible.
+     * The index is refreshed once all documents are indexed if any of the statements requested a refresh.
+     *
+     * @param tableName  the table all the statements insert into
+     * @param statements the statements to execute, in order
+     * @param mappings   the mappings cached for the current migration run
+     * @param batchBytes the approximate maximum size of the documents sent in a single bulk request
+     * @return a {@link CompletableFuture} that completes once all documents are indexed, or fails with the first bulk request that failed
+     */
+    public CompletableFuture<Void> executeMigrationBatch(String tableName,
+                                                         List<InsertStatement> statements,
+                                                         IndexMappingCache mappings,
+                                                         long batchBytes) {
+        return mappings.get(tableName).thenCompose(properties -> {
+            List<List<BulkOperation>> batches = new ArrayList<>();
+            List<BulkOperation> batch = new ArrayList<>();
+            long bytes = 0;
+            boolean refresh = false;
+
+            for (InsertStatement statement : statements) {
+                Map<String, Object> document = buildDocument(statement, properties);
+                long documentBytes = estimateSize(document) + DOCUMENT_OVERHEAD_BYTES;
+                if (!batch.isEmpty() && bytes + documentBytes > batchBytes) {
+                    batches.add(batch);
+                    batch = new ArrayList<>();
+                    bytes = 0;
+                }
+                String documentId = documentId(document);
+                batch.add(BulkOperation.of(o -> o.index(i -> {
+                    i.document(document);
+                    if (documentId != null) {
+                        i.id(documentId);
+                    }
+                    return i;
+                })));
+                bytes += documentBytes;
+                refresh |= statement.refresh();
+            }
+            if (!batch.isEmpty()) {
+                batches.add(batch);
+            }
+
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (List<BulkOperation> operations : batches) {
+                chain = chain.thenCompose(v -> client.bulk(b -> b.index(tableName).operations(operations))
+                                                     .thenAccept(response -> checkBulkResponse(tableName, response)));
+            }
+            if (refresh) {
+                chain = chain.thenCompose(v -> client.indices().refresh(r -> r.index(tableName)))
+                             .thenApply(response -> null);
+            }
+            return chain;
+        });
+    }
+
+    private Map<String, Object> buildDocument(InsertStatement statement, Map<String, Property> properties) {
+        // Create a document with the specified values
+        final Map<String, Object> document = new HashMap<>();
+
+        if (statement.columns().isEmpty()) {
+            // If no columns specified, we need to validate against mapping
+            if (properties == null) {
+                throw new IllegalArgumentException("Index '" + statement.tableName() + "' does not exist");
+            }
+
+            // Validate we have the right number of values
+            if (statement.values().size() != properties.size()) {
+                throw new IllegalArgumentException("Number of values must match number of fields in index when no columns specified");
+            }
+
+            // Add values in order of fields in mapping
+            int i = 0;
+            for (String field : properties.keySet()) {
+                document.put(field, statement.values().get(i++));
+            }
+        } else {
+            // If columns are specified, just add the values directly
+            for (int i = 0; i < statement.columns().size(); i++) {
+                document.put(statement.columns().get(i), statement.values().get(i));
+            }
+        }
+        return document;
+    }
+
+    private static String documentId(Map<String, Object> document) {
+        Object idValue = document.get("id");
+        return idValue instanceof String s ? s : null;
+    }
+
+    private static void checkBulkResponse(String tableName, BulkResponse response) {
+        if (response.errors()) {
+            StringBuilder builder = new StringBuilder();
+            for (BulkResponseItem item : response.items()) {
+                var error = item.error();
+                if (error != null && error.reason() != null && builder.indexOf(error.reason()) == -1) {
+                    builder.append(error.reason()).append("\n");
+                }
+            }
+            String errorMessage = !builder.isEmpty() ? builder.toString() : "Unknown error occurred during bulk operation";
+            throw new IllegalStateException("Bulk insert into '" + tableName + "' failed with errors:\n" + errorMessage);
+        }
+    }
+
+    /**
+     * Estimates the size of the JSON for the given value, without serializing it
+     */
+    private static long estimateSize(Object value) {
+        if (value == null) {
+            return 4;
+        } else if (value instanceof CharSequence chars) {
+            return chars.length() + 2;
+        } else if (value instanceof Map<?, ?> map) {
+            long size = 2;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += String.valueOf(entry.getKey()).length() + 4 + estimateSize(entry.getValue());
+            }
+            return size;
+        } else if (value instanceof Iterable<?> iterable) {
+            long size = 2;
+            for (Object element : iterable) {
+                size += estimateSize(element) + 1;
+            }
+            return size;
+        } else {
+            return String.valueOf(value).length();
+        }
+    }
+}
@@ -28,6 +28,13 @@ import lombok.RequiredArgsConstructor;
 @Component
 @RequiredArgsConstructor
 public class ReindexStatementExecutor implements StatementExecutor<ReindexStatement, String> {
+    /**
+     * Task polling starts quickly, so small reindexes complete without waiting the full interval, and backs off to the maximum.
+     * Independent reindexes in a migration run concurrently, so their tasks are polled at the same time rather than one after another.
+     */
+    private static final long INITIAL_POLL_INTERVAL_MS = 100;
+    private static final long MAX_POLL_INTERVAL_MS = 2_000;
+
     private final ElasticsearchAsyncClient client;
 
     @Override
@@ -99,11 +106,11 @@ public class ReindexStatementExecutor implements StatementExecutor<ReindexStatem
 
     private CompletableFuture<Boolean> pollTaskUntilComplete(String taskId) {
         CompletableFuture<Boolean> future = new CompletableFuture<>();
-        pollTaskRecursive(taskId, future, Instant.now(), Duration.ofHours(1));
+        pollTaskRecursive(taskId, future, Instant.now(), Duration.ofHours(1), INITIAL_POLL_INTERVAL_MS);
         return future;
     }
 
-    private void pollTaskRecursive(String taskId, CompletableFuture<Boolean> future, Instant start, Duration timeout) {
+    private void pollTaskRecursive(String taskId, CompletableFuture<Boolean> future, Instant start, Duration timeout, long interval) {
         client.tasks().get(g -> g.taskId(taskId)).whenComplete((taskResp, ex) -> {
             if (ex != null) {
                 future.completeExceptionally(ex);
@@ -120,8 +127,9 @@ public class ReindexStatementExecutor implements StatementExecutor<ReindexStatem
                 future.completeExceptionally(new IllegalStateException("Timed out waiting for reindex task to complete"));
             } else {
                 // Schedule next poll
-                CompletableFuture.delayedExecutor(2, java.util.concurrent.TimeUnit.SECONDS)
-                    .execute(() -> pollTaskRecursive(taskId, future, start, timeout));
+                long nextInterval = Math.min(interval * 2, MAX_POLL_INTERVAL_MS);
+                CompletableFuture.delayedExecutor(interval, java.util.concurrent.TimeUnit.MILLISECONDS)
+                    .execute(() -> pollTaskRecursive(taskId, future, start, timeout, nextInterval));
             }
         });
     }
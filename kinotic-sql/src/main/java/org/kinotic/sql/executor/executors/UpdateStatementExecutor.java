@@ -1,6 +1,8 @@
 package org.kinotic.sql.executor.executors;
 
 import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ScriptLanguage;
 import co.elastic.clients.elasticsearch._types.ScriptSource;
 import co.elastic.clients.elasticsearch.core.UpdateByQueryResponse;
 import co.elastic.clients.json.JsonData;
@@ -12,19 +14,36 @@ import org.kinotic.sql.executor.QueryBuilder;
 import org.kinotic.sql.executor.StatementExecutor;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Executes UPDATE statements against Elasticsearch.
  * Applies SET assignments and evaluates WHERE clauses with comparison operators.
+ * <p>
+ * All values are passed to the painless script as params, so the script source only depends on the fields assigned and the operators used.
+ * Each distinct source is registered once as a stored script, with an id derived from a hash of the source,
+ * so Elasticsearch compiles it once no matter how many different values are used.
  * Created by Navíd Mitchell 🤝 Grok on 3/31/25.
  */
 @Component
 @RequiredArgsConstructor
 public class UpdateStatementExecutor implements StatementExecutor<UpdateStatement, Long> {
+    private static final String STORED_SCRIPT_PREFIX = "kinotic-update-";
+    private static final String RESOURCE_NOT_FOUND = "resource_not_found_exception";
+
     private final ElasticsearchAsyncClient client;
+    /**
+     * The stored script id for each script source registered, keyed by the script source
+     */
+    private final Map<String, CompletableFuture<String>> storedScripts = new ConcurrentHashMap<>();
 
     @Override
     public boolean supports(Statement statement) {
@@ -38,30 +57,84 @@ public class UpdateStatementExecutor implements StatementExecutor<UpdateStatemen
 
     @Override
     public CompletableFuture<Long> executeQuery(UpdateStatement statement, Map<String, Object> parameters) {
-        ScriptSource scriptSource = buildScript(statement.assignments(), parameters);
-        Map<String, Object> params = buildScriptParams(statement.assignments(), parameters);
-        Map<String, JsonData> scriptParams = convertToJsonDataMap(params);
+        ParameterizedScript script;
+        try {
+            script = buildScript(statement.assignments(), parameters);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Map<String, JsonData> scriptParams = convertToJsonDataMap(script.params());
+
+        return storedScriptId(script.source())
+                .thenCompose(scriptId -> updateByQuery(statement, parameters, scriptId, scriptParams))
+                .exceptionallyCompose(throwable -> {
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                            ? throwable.getCause() : throwable;
+                    if (isMissingScript(cause, scriptId(script.source()))) {
+                        // The stored script was removed from the cluster since it was registered, so register it again
+                        storedScripts.remove(script.source());
+                        return storedScriptId(script.source())
+                                .thenCompose(scriptId -> updateByQuery(statement, parameters, scriptId, scriptParams));
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                });
+    }
 
+    private CompletableFuture<Long> updateByQuery(UpdateStatement statement,
+                                                  Map<String, Object> parameters,
+                                                  String scriptId,
+                                                  Map<String, JsonData> scriptParams) {
         return client.updateByQuery(u -> u
                 .index(statement.tableName())
                 .query(QueryBuilder.buildQuery(statement.whereClause(), parameters))
-                .script(s -> s.source(scriptSource).params(scriptParams))
+                .script(s -> s.id(scriptId).params(scriptParams))
                 .refresh(statement.refresh())
         ).thenApply(UpdateByQueryResponse::updated);
     }
 
-    private ScriptSource buildScript(Map<String, Expression> assignments, Map<String, Object> parameters) {
+    /**
+     * Registers the script source as a stored script, if it has not been registered already
+     * @param source the painless script source
+     * @return a {@link CompletableFuture} that completes with the stored script id
+     */
+    private CompletableFuture<String> storedScriptId(String source) {
+        CompletableFuture<String> ret = storedScripts.computeIfAbsent(source, this::putStoredScript);
+        // Failures are not cached, so the next update tries to register the script again
+        ret.whenComplete((id, throwable) -> {
+            if (throwable != null) {
+                storedScripts.remove(source, ret);
+            }
+        });
+        return ret;
+    }
+
+    private CompletableFuture<String> putStoredScript(String source) {
+        String scriptId = scriptId(source);
+        return client.putScript(p -> p
+                .id(scriptId)
+                .script(s -> s.lang(ScriptLanguage.Painless)
+                              .source(ScriptSource.of(ssb -> ssb.scriptString(source))))
+        ).thenApply(response -> scriptId);
+    }
+
+    /**
+     * Builds the painless source for the assignments, with every value lifted into params named by the position of the assignment
+     */
+    private ParameterizedScript buildScript(Map<String, Expression> assignments, Map<String, Object> parameters) {
         StringBuilder script = new StringBuilder();
-        assignments.forEach((field, expr) -> {
+        Map<String, Object> params = new HashMap<>();
+        int index = 0;
+        for (Map.Entry<String, Expression> entry : assignments.entrySet()) {
+            String field = entry.getKey();
+            Expression expr = entry.getValue();
+            String param = "p" + index++;
             if (expr instanceof Expression.Literal literal) {
                 if ("?".equals(literal.getValue())) {
-                    if (parameters == null) {
-                        throw new IllegalStateException("Parameterized assignment not supported without parameters");
-                    }
-                    script.append("ctx._source.").append(field).append(" = params.").append(field).append(";");
+                    params.put(param, parameterValue(field, parameters, "Parameterized assignment not supported without parameters"));
                 } else {
-                    script.append("ctx._source.").append(field).append(" = params.").append(field).append(";");
+                    params.put(param, QueryBuilder.parseValue(literal.getValue()));
                 }
+                script.append("ctx._source.").append(field).append(" = params.").append(param).append(";");
             } else if (expr instanceof Expression.BinaryExpression binExpr) {
                 String operator = switch (binExpr.getOperator()) {
                     case "+" -> "+";
@@ -71,46 +144,32 @@ public class UpdateStatementExecutor implements StatementExecutor<UpdateStatemen
                     case "==" -> "=="; // Not typically used in SET, but included
                     default -> throw new IllegalStateException("Unsupported operator: " + binExpr.getOperator());
                 };
-                String right = "?".equals(binExpr.getRight()) ? "params." + field : binExpr.getRight();
+                String right;
+                if ("?".equals(binExpr.getRight())) {
+                    params.put(param, parameterValue(field, parameters, "Parameterized expression not supported without parameters"));
+                    right = "params." + param;
+                } else if (binExpr.getRight().matches("[a-zA-Z_][a-zA-Z_0-9]*")) { // A field reference
+                    right = "ctx._source." + binExpr.getRight();
+                } else {
+                    params.put(param, QueryBuilder.parseValue(binExpr.getRight()));
+                    right = "params." + param;
+                }
                 script.append("ctx._source.").append(field).append(" = ctx._source.").append(binExpr.getLeft())
                       .append(" ").append(operator).append(" ").append(right).append(";");
             }
-        });
-        return ScriptSource.of(ssb -> ssb.scriptString(script.toString()));
+        }
+        return new ParameterizedScript(script.toString(), params);
     }
 
-    private Map<String, Object> buildScriptParams(Map<String, Expression> assignments, Map<String, Object> parameters) {
-        Map<String, Object> params = new HashMap<>();
-        assignments.forEach((field, expr) -> {
-            if (expr instanceof Expression.Literal literal) {
-                if ("?".equals(literal.getValue())) {
-                    if (parameters == null) {
-                        throw new IllegalStateException("Parameterized assignment not supported without parameters");
-                    }
-                    Object paramValue = parameters.get(field);
-                    if (paramValue == null) {
-                        throw new IllegalArgumentException("Missing parameter for " + field);
-                    }
-                    params.put(field, paramValue);
-                } else {
-                    params.put(field, QueryBuilder.parseValue(literal.getValue()));
-                }
-            } else if (expr instanceof Expression.BinaryExpression binExpr) {
-                if ("?".equals(binExpr.getRight())) {
-                    if (parameters == null) {
-                        throw new IllegalStateException("Parameterized expression not supported without parameters");
-                    }
-                    Object paramValue = parameters.get(field);
-                    if (paramValue == null) {
-                        throw new IllegalArgumentException("Missing parameter for " + field);
-                    }
-                    params.put(field, paramValue);
-                } else if (!binExpr.getRight().matches("[a-zA-Z_][a-zA-Z_0-9]*")) { // Not a field reference
-                    params.put(field, QueryBuilder.parseValue(binExpr.getRight()));
-                }
-            }
-        });
-        return params;
+    private Object parameterValue(String field, Map<String, Object> parameters, String noParametersMessage) {
+        if (parameters == null) {
+            throw new IllegalStateException(noParametersMessage);
+        }
+        Object paramValue = parameters.get(field);
+        if (paramValue == null) {
+            throw new IllegalArgumentException("Missing parameter for " + field);
+        }
+        return paramValue;
     }
 
     private Map<String, JsonData> convertToJsonDataMap(Map<String, Object> params) {
@@ -120,4 +179,34 @@ public class UpdateStatementExecutor implements StatementExecutor<UpdateStatemen
         }
         return jsonDataParams;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return true if the failure is because the stored script does not exist,
+     *         other resources that may not be found, such as the index, are reported with other error types
+     */
+    private static boolean isMissingScript(Throwable cause, String scriptId) {
+        return cause instanceof ElasticsearchException e
+                && e.status() == 404
+                && e.error() != null
+                && RESOURCE_NOT_FOUND.equals(e.error().type())
+                && e.error().reason() != null
+                && e.error().reason().contains(scriptId);
+    }
+
+    private static String scriptId(String source) {
+        return STORED_SCRIPT_PREFIX + hash(source);
+    }
+
+    private static String hash(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record ParameterizedScript(String source, Map<String, Object> params) {
+    }
+}
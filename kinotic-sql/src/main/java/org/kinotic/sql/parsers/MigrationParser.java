@@ -1,12 +1,21 @@
 package org.kinotic.sql.parsers;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.kinotic.sql.config.KinoticSqlProperties;
 import org.kinotic.sql.domain.MigrationContent;
 import org.kinotic.sql.domain.Statement;
 import org.kinotic.sql.parser.KinoticSQLBaseVisitor;
@@ -17,40 +26,98 @@ import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 /**
  * Parses migration files (.sql) into a Migration object.
  * Uses StatementParser implementations to process individual statements.
  * The version is extracted from the filename in the format V<number>__<description>.sql
+ * <p>
+ * Parsing first uses the faster SLL prediction mode and only falls back to full LL prediction when SLL fails,
+ * which gives the same result since a failure in SLL mode is either a syntax error or an ambiguity only LL can resolve.
+ * Parsed content is cached by a hash of the migration text, so the same migration is only parsed once while it stays in the cache.
+ * The cache is bounded by {@link KinoticSqlProperties#getParsedMigrationCacheSize()}, since project migrations can be parsed at runtime.
  */
 @Component
-@RequiredArgsConstructor
 public class MigrationParser {
     private final List<StatementParser> statementParsers;
     private static final Logger log = LoggerFactory.getLogger(MigrationParser.class);
 
+    /**
+     * The parsed content of each migration, keyed by the SHA-256 hash of the migration text
+     */
+    private final Cache<String, MigrationContent> parsedMigrations;
+
+    public MigrationParser(List<StatementParser> statementParsers, KinoticSqlProperties properties) {
+        this.statementParsers = statementParsers;
+        this.parsedMigrations = Caffeine.newBuilder()
+                                        .maximumSize(properties.getParsedMigrationCacheSize())
+                                        .build();
+    }
+
     public MigrationContent parse(Resource resource) throws IOException {
         byte[] bytes = resource.getInputStream().readAllBytes();
         return parse(bytes);
     }
 
     public MigrationContent parse(String sql) {
-        return parse(CharStreams.fromString(sql));
+        return parseCached(sql.getBytes(StandardCharsets.UTF_8));
     }
 
     public MigrationContent parse(byte[] bytes) throws IOException {
-        return parse(CharStreams.fromStream(new java.io.ByteArrayInputStream(bytes)));
+        return parseCached(bytes);
+    }
+
+    private MigrationContent parseCached(byte[] bytes) {
+        String hash = hash(bytes);
+        MigrationContent content = parsedMigrations.getIfPresent(hash);
+        if (content == null) {
+            // Not using a loading get, so a migration that fails to parse does not block other threads parsing the same text
+            content = doParse(new String(bytes, StandardCharsets.UTF_8));
+            MigrationContent existing = parsedMigrations.asMap().putIfAbsent(hash, content);
+            if (existing != null) {
+                content = existing;
+            }
+        } else {
+            log.trace("Using cached parse for migration {}", hash);
+        }
+        return content;
     }
 
-    private MigrationContent parse(CharStream input) {
-        KinoticSQLLexer lexer = new KinoticSQLLexer(input);
+    private MigrationContent doParse(String sql) {
+        KinoticSQLLexer lexer = new KinoticSQLLexer(CharStreams.fromString(sql));
         CommonTokenStream tokens = new CommonTokenStream(lexer);
         KinoticSQLParser parser = new KinoticSQLParser(tokens);
-        KinoticSQLParser.MigrationsContext tree = parser.migrations();
+        KinoticSQLParser.MigrationsContext tree;
+
+        // First try with SLL prediction, bailing out on the first error instead of reporting and recovering
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        try {
+            tree = parser.migrations();
+        } catch (ParseCancellationException e) {
+            // Parse again with full LL prediction, which also reports any syntax errors
+            log.debug("SLL parsing failed, falling back to LL parsing");
+            tokens.seek(0);
+            parser.reset();
+            parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            tree = parser.migrations();
+        }
         return new MigrationVisitor(statementParsers).visit(tree);
     }
 
+    private static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     private static class MigrationVisitor extends KinoticSQLBaseVisitor<MigrationContent> {
         private final List<StatementParser> statementParsers;
 
@@ -69,7 +136,8 @@ public class MigrationParser {
                     parsedStatements.add(stmt);
                 }
             }
-            return new MigrationContent(parsedStatements);
+            // Content is cached and shared, so it must not be modified
+            return new MigrationContent(List.copyOf(parsedStatements));
         }
 
         private Statement parseStatement(KinoticSQLParser.StatementContext stmtCtx) {
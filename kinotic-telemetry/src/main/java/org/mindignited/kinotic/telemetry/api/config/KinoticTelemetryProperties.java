@@ -7,6 +7,8 @@ import lombok.experimental.Accessors;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Configuration properties for the OTel collector.
  * Created By Navíd Mitchell 🤪on 9/16/25
@@ -34,6 +36,16 @@ public class KinoticTelemetryProperties {
      */
     private Output output = new Output();
     
+    /**
+     * Tail based trace sampling configuration
+     */
+    private Sampling sampling = new Sampling();
+    
+    /**
+     * Span derived RED metrics configuration
+     */
+    private SpanMetrics spanMetrics = new SpanMetrics();
+    
     @Getter
     @Setter
     @Accessors(chain = true)
@@ -53,6 +65,24 @@ public class KinoticTelemetryProperties {
          * Enable/disable the receiver
          */
         private boolean enabled = true;
+        
+        /**
+         * When true export requests are buffered exactly as received, without being decoded.
+         * When false each request is split into its resource messages, which is only needed when individual
+         * resources must be routed or sampled.
+         */
+        private boolean passThrough = true;
+        
+        /**
+         * Enable/disable OTLP/HTTP on the receiver port, alongside OTLP gRPC.
+         * Accepts POST requests to /v1/traces, /v1/metrics and /v1/logs with protobuf or JSON bodies, which may be gzip compressed.
+         */
+        private boolean httpEnabled = true;
+        
+        /**
+         * Maximum size in bytes of a decompressed OTLP/HTTP request body, 0 or less for no limit
+         */
+        private long maxHttpBodySize = 16 * 1024 * 1024;
     }
     
     @Getter
@@ -71,14 +101,140 @@ public class KinoticTelemetryProperties {
         private String rollCycle = "HOURLY";
         
         /**
-         * Maximum number of items to batch before flushing
+         * Minimum number of items read from the buffer per batch.
+         * While there is a backlog the batch size grows up to {@link #maxBatchSize}, and shrinks back once the backlog is drained.
          */
         private int batchSize = 100;
         
         /**
-         * Maximum time in milliseconds to wait before flushing a batch
+         * Maximum number of items read from the buffer per batch
+         */
+        private int maxBatchSize = 2000;
+        
+        /**
+         * Maximum number of batches per signal that can be sent to each output without being acknowledged yet
+         */
+        private int maxInFlightBatches = 4;
+        
+        /**
+         * Maximum time in milliseconds to wait for new data when the buffer is empty
          */
         private long flushIntervalMs = 1000;
+        
+        /**
+         * Initial delay in milliseconds before unacknowledged data is read again after an output fails.
+         * The delay doubles for each consecutive failure, up to {@link #maxRetryBackoffMs}.
+         */
+        private long retryBackoffMs = 1000;
+        
+        /**
+         * Maximum delay in milliseconds before unacknowledged data is read again after an output fails
+         */
+        private long maxRetryBackoffMs = 30000;
+        
+        /**
+         * Number of consecutive failed batches after which an output's circuit breaker opens.
+         * While open no data is sent to the output, other outputs are not affected.
+         */
+        private int circuitBreakerFailureThreshold = 5;
+        
+        /**
+         * Time in milliseconds a circuit breaker stays open, before a single batch is sent to test the output again
+         */
+        private long circuitBreakerOpenMs = 30000;
+        
+        /**
+         * Interval in milliseconds at which the lag of every output is written to the metrics buffer, 0 or less to disable
+         */
+        private long lagReportIntervalMs = 15000;
+    }
+    
+    @Getter
+    @Setter
+    @Accessors(chain = true)
+    @NoArgsConstructor
+    public static class Sampling {
+        /**
+         * Enable/disable tail based sampling of traces, when disabled every span is sent to the outputs
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Time in milliseconds to wait for the spans of a trace after its first span is received, before deciding to keep it
+         */
+        private long decisionWaitMs = 10000;
+        
+        /**
+         * Maximum number of traces held while waiting for a decision.
+         * When exceeded the oldest traces are decided early.
+         */
+        private int maxTraces = 50000;
+        
+        /**
+         * Maximum encoded size in bytes of the spans held while waiting for a decision.
+         * When exceeded the oldest traces are decided early.
+         */
+        private long maxBytes = 256L * 1024 * 1024;
+        
+        /**
+         * Maximum number of decisions remembered, so spans arriving after their trace was decided follow the same decision
+         */
+        private int maxDecisions = 500000;
+        
+        /**
+         * Keep every trace that contains a span with an error status
+         */
+        private boolean keepErrors = true;
+        
+        /**
+         * Keep every trace that lasts at least this long in milliseconds, 0 or less to disable
+         */
+        private long latencyThresholdMs = 1000;
+        
+        /**
+         * Percentage of the remaining traces to keep, chosen consistently by trace id
+         */
+        private double samplingPercentage = 10.0;
+        
+        /**
+         * Maximum number of traces kept per second for each service, 0 or less for no limit.
+         * The service is taken from the service.name resource attribute.
+         */
+        private double maxTracesPerSecondPerService = 0;
+        
+        /**
+         * Maximum number of services a rate limit is tracked for.
+         * Beyond this the services seen least recently are forgotten, and their limit starts again with a full burst when seen again.
+         */
+        private int maxServices = 10000;
+    }
+    
+    @Getter
+    @Setter
+    @Accessors(chain = true)
+    @NoArgsConstructor
+    public static class SpanMetrics {
+        /**
+         * Enable/disable generating request rate, error and duration metrics from the spans received
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Interval in milliseconds at which the metrics are written to the metrics buffer
+         */
+        private long intervalMs = 15000;
+        
+        /**
+         * Maximum number of distinct service, operation, kind and status combinations tracked.
+         * Spans for new combinations beyond this are recorded under a service and operation named {@code _other}.
+         */
+        private int maxSeries = 10000;
+        
+        /**
+         * Upper bounds in milliseconds of the duration histogram buckets
+         */
+        private List<Double> durationBucketsMs = List.of(2.0, 4.0, 6.0, 8.0, 10.0, 50.0, 100.0, 200.0, 400.0, 800.0,
+                                                         1000.0, 1400.0, 2000.0, 5000.0, 10000.0, 15000.0);
     }
     
     @Getter
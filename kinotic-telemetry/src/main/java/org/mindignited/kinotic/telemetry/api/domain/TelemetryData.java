@@ -1,22 +1,47 @@
 package org.mindignited.kinotic.telemetry.api.domain;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 /**
- * Represents telemetry data that can be either traces or metrics.
+ * Represents telemetry data that can be traces, metrics or logs.
  */
 @Getter
-@RequiredArgsConstructor
 public class TelemetryData {
     
     private final TelemetryType type;
     private final byte[] data; // Serialized OTLP data (protobuf)
     private final long timestamp;
+    private final Encoding encoding;
+    
+    public TelemetryData(TelemetryType type, byte[] data, long timestamp) {
+        this(type, data, timestamp, Encoding.RESOURCE);
+    }
+    
+    public TelemetryData(TelemetryType type, byte[] data, long timestamp, Encoding encoding) {
+        this.type = type;
+        this.data = data;
+        this.timestamp = timestamp;
+        this.encoding = encoding;
+    }
     
     public enum TelemetryType {
         TRACES,
-        METRICS
+        METRICS,
+        LOGS
+    }
+    
+    /**
+     * How the OTLP data is encoded
+     */
+    public enum Encoding {
+        /**
+         * A single encoded resource message, such as {@code ResourceSpans} or {@code ResourceMetrics}
+         */
+        RESOURCE,
+        /**
+         * A complete encoded export request as received, such as {@code ExportTraceServiceRequest}
+         */
+        EXPORT_REQUEST
     }
     
     public static TelemetryData traces(byte[] data) {
@@ -26,5 +51,15 @@ public class TelemetryData {
     public static TelemetryData metrics(byte[] data) {
         return new TelemetryData(TelemetryType.METRICS, data, System.currentTimeMillis());
     }
+    
+    public static TelemetryData logs(byte[] data) {
+        return new TelemetryData(TelemetryType.LOGS, data, System.currentTimeMillis());
+    }
+    
+    /**
+     * Creates telemetry data for a complete, still encoded, export request of the given type.
+     */
+    public static TelemetryData exportRequest(TelemetryType type, byte[] data) {
+        return new TelemetryData(type, data, System.currentTimeMillis(), Encoding.EXPORT_REQUEST);
+    }
 }
-
@@ -1,10 +1,12 @@
 package org.mindignited.kinotic.telemetry.internal.services;
 
-import net.openhft.chronicle.queue.ChronicleQueue;
 import net.openhft.chronicle.queue.ExcerptAppender;
 import net.openhft.chronicle.queue.ExcerptTailer;
 import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.Wire;
 import org.mindignited.kinotic.telemetry.api.config.KinoticTelemetryProperties;
 import org.mindignited.kinotic.telemetry.api.domain.TelemetryData;
 import org.slf4j.Logger;
@@ -15,25 +17,36 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Chronicle Queue-based buffer for telemetry data.
- * Provides persistent, low-latency buffering of traces and metrics.
+ * Provides persistent, low-latency buffering of traces, metrics and logs, with a separate queue for each signal.
+ * <p>
+ * Data is read through {@link Cursor}s, one for each consumer of a queue, so every consumer reads at its own pace.
+ * A cursor has a read tailer, which reads ahead of what has been sent, and a named tailer that only moves forward
+ * once the data read has been acknowledged using {@link Cursor#commit(long)}.
+ * Named tailers persist their position in the queue, so after a restart reading resumes from the last acknowledged item.
+ * <p>
+ * Traces kept by tail sampling are written to a separate sampled traces queue, which the outputs read in place of the traces queue,
+ * so kept traces are delivered with the same guarantees as any other data.
  */
 @Component
 public class ChronicleQueueBuffer {
     
     private static final Logger log = LoggerFactory.getLogger(ChronicleQueueBuffer.class);
+    private static final String COMMITTED_TAILER_PREFIX = "kinotic-telemetry-";
+    private static final String SAMPLED_TRACES_DIRECTORY = "sampled-traces";
     
     private final KinoticTelemetryProperties.Buffer config;
-    private ChronicleQueue tracesQueue;
-    private ChronicleQueue metricsQueue;
-    private ExcerptAppender tracesAppender;
-    private ExcerptAppender metricsAppender;
-    private ExcerptTailer tracesTailer;
-    private ExcerptTailer metricsTailer;
+    private final Map<TelemetryData.TelemetryType, SignalQueue> queues = new EnumMap<>(TelemetryData.TelemetryType.class);
+    private SignalQueue sampledTraces;
+    private final Set<Cursor> cursors = ConcurrentHashMap.newKeySet();
     private final AtomicBoolean initialized = new AtomicBoolean(false);
     
     public ChronicleQueueBuffer(KinoticTelemetryProperties properties) {
@@ -51,25 +64,15 @@ public class ChronicleQueueBuffer {
                 
                 RollCycles rollCycle = parseRollCycle(config.getRollCycle());
                 
-                // Initialize traces queue
-                File tracesDir = new File(queueDir, "traces");
-                tracesQueue = SingleChronicleQueueBuilder.single(tracesDir)
-                        .rollCycle(rollCycle)
-                        .build();
-                tracesAppender = tracesQueue.createAppender();
-                tracesTailer = tracesQueue.createTailer();
-                
-                // Initialize metrics queue
-                File metricsDir = new File(queueDir, "metrics");
-                metricsQueue = SingleChronicleQueueBuilder.single(metricsDir)
-                        .rollCycle(rollCycle)
-                        .build();
-                metricsAppender = metricsQueue.createAppender();
-                metricsTailer = metricsQueue.createTailer();
+                for (TelemetryData.TelemetryType type : TelemetryData.TelemetryType.values()) {
+                    queues.put(type, openQueue(new File(queueDir, type.name().toLowerCase()), rollCycle));
+                }
+                sampledTraces = openQueue(new File(queueDir, SAMPLED_TRACES_DIRECTORY), rollCycle);
                 
                 log.info("Chronicle Queue buffer initialized at: {}", config.getPath());
             } catch (Exception e) {
                 log.error("Failed to initialize Chronicle Queue buffer", e);
+                closeQueues();
                 initialized.set(false);
                 throw new RuntimeException("Failed to initialize buffer", e);
             }
@@ -80,24 +83,7 @@ public class ChronicleQueueBuffer {
     public void shutdown() {
         if (initialized.get()) {
             try {
-                if (tracesTailer != null) {
-                    tracesTailer.close();
-                }
-                if (metricsTailer != null) {
-                    metricsTailer.close();
-                }
-                if (tracesAppender != null) {
-                    tracesAppender.close();
-                }
-                if (metricsAppender != null) {
-                    metricsAppender.close();
-                }
-                if (tracesQueue != null) {
-                    tracesQueue.close();
-                }
-                if (metricsQueue != null) {
-                    metricsQueue.close();
-                }
+                closeQueues();
                 log.info("Chronicle Queue buffer shut down");
             } catch (Exception e) {
                 log.error("Error shutting down Chronicle Queue buffer", e);
@@ -111,20 +97,29 @@ public class ChronicleQueueBuffer {
      * Write telemetry data to the appropriate queue.
      */
     public void write(TelemetryData data) {
+        write(queues.get(data.getType()), data);
+    }
+    
+    /**
+     * Write traces kept by tail sampling to the sampled traces queue.
+     */
+    public void writeSampledTraces(List<TelemetryData> traces) {
+        for (TelemetryData data : traces) {
+            write(sampledTraces, data);
+        }
+    }
+    
+    private void write(SignalQueue signalQueue, TelemetryData data) {
         if (!initialized.get()) {
             throw new IllegalStateException("Buffer not initialized");
         }
         
         try {
-            ExcerptAppender appender = switch (data.getType()) {
-                case TRACES -> tracesAppender;
-                case METRICS -> metricsAppender;
-            };
-            
-            appender.writeDocument(wire -> {
+            signalQueue.appender().writeDocument(wire -> {
                 wire.write("type").text(data.getType().name());
                 wire.write("timestamp").int64(data.getTimestamp());
                 wire.write("data").bytes(data.getData());
+                wire.write("encoding").text(data.getEncoding().name());
             });
         } catch (Exception e) {
             log.error("Failed to write telemetry data to buffer", e);
@@ -133,71 +128,60 @@ public class ChronicleQueueBuffer {
     }
     
     /**
-     * Read a batch of telemetry data from the queue.
+     * Opens a cursor for a consumer of the given queue. The cursor is positioned at the last item the consumer committed,
+     * or at the start of the queue for a new consumer.
+     *
+     * @param type       of the queue to read
+     * @param consumerId identifies the consumer, this must be stable across restarts and unique for the queue
+     * @return the cursor, which must be closed once it is no longer used
      */
-    public List<TelemetryData> readBatch(TelemetryData.TelemetryType type, int maxItems) {
-        if (!initialized.get()) {
-            return List.of();
-        }
-        
-        List<TelemetryData> batch = new ArrayList<>();
-        ExcerptTailer tailer = switch (type) {
-            case TRACES -> tracesTailer;
-            case METRICS -> metricsTailer;
-        };
-        
-        if (tailer == null) {
-            return batch;
-        }
-        
-        try {
-            int count = 0;
-            while (count < maxItems && tailer.readDocument(wire -> {
-                String typeStr = wire.read("type").text();
-                long timestamp = wire.read("timestamp").int64();
-                byte[] data = wire.read("data").bytes();
-                
-                TelemetryData.TelemetryType telemetryType = TelemetryData.TelemetryType.valueOf(typeStr);
-                TelemetryData telemetryData = new TelemetryData(telemetryType, data, timestamp);
-                batch.add(telemetryData);
-            })) {
-                count++;
-            }
-        } catch (Exception e) {
-            log.error("Failed to read telemetry data from buffer", e);
-        }
-        
-        return batch;
+    public Cursor openCursor(TelemetryData.TelemetryType type, String consumerId) {
+        return openCursor(queues.get(type), type, consumerId);
     }
     
     /**
-     * Check if the buffer has any data available.
+     * Opens a cursor for a consumer of the sampled traces queue, see {@link #openCursor(TelemetryData.TelemetryType, String)}
      */
-    public boolean hasData(TelemetryData.TelemetryType type) {
+    public Cursor openSampledTracesCursor(String consumerId) {
+        return openCursor(sampledTraces, TelemetryData.TelemetryType.TRACES, consumerId);
+    }
+    
+    private Cursor openCursor(SignalQueue signalQueue, TelemetryData.TelemetryType type, String consumerId) {
         if (!initialized.get()) {
-            return false;
+            throw new IllegalStateException("Buffer not initialized");
         }
-        
-        ExcerptTailer tailer = switch (type) {
-            case TRACES -> tracesTailer;
-            case METRICS -> metricsTailer;
-        };
-        
-        if (tailer == null) {
-            return false;
+        SingleChronicleQueue queue = signalQueue.queue();
+        Cursor cursor = new Cursor(type,
+                                   consumerId,
+                                   queue,
+                                   queue.createTailer(),
+                                   queue.createTailer(COMMITTED_TAILER_PREFIX + consumerId));
+        cursor.moveToCommitted();
+        cursors.add(cursor);
+        return cursor;
+    }
+    
+    private void closeQueues() {
+        for (Cursor cursor : cursors) {
+            cursor.close();
         }
-        
-        try {
-            // Try to read one document to see if data is available
-            // This will advance the tailer, but we'll read it again in readBatch
-            return tailer.readDocument(wire -> {
-                // Just check if we can read - don't process
-            });
-        } catch (Exception e) {
-            return false;
+        for (SignalQueue signalQueue : queues.values()) {
+            signalQueue.close();
+        }
+        queues.clear();
+        if (sampledTraces != null) {
+            sampledTraces.close();
+            sampledTraces = null;
         }
     }
     
+    private static SignalQueue openQueue(File directory, RollCycles rollCycle) {
+        SingleChronicleQueue queue = SingleChronicleQueueBuilder.single(directory)
+                .rollCycle(rollCycle)
+                .build();
+        return new SignalQueue(queue, queue.createAppender());
+    }
+    
     private RollCycles parseRollCycle(String rollCycle) {
         return switch (rollCycle.toUpperCase()) {
             case "HOURLY" -> RollCycles.FAST_HOURLY;
@@ -212,5 +196,202 @@ public class ChronicleQueueBuffer {
     public boolean isInitialized() {
         return initialized.get();
     }
+    
+    /**
+     * The queue for a single signal and its appender
+     */
+    private record SignalQueue(SingleChronicleQueue queue, ExcerptAppender appender) {
+        
+        void close() {
+            appender.close();
+            queue.close();
+        }
+    }
+    
+    /**
+     * The read position of a single consumer of a queue.
+     * <p>
+     * {@link #readBatch(int)}, {@link #commit(long)}, {@link #rewind()} and {@link #close()} must only be called by one thread at a time.
+     * {@link #lag()} can be called from any thread.
+     */
+    public class Cursor {
+        
+        private final TelemetryData.TelemetryType type;
+        private final String consumerId;
+        private final SingleChronicleQueue queue;
+        private final ExcerptTailer tailer;
+        private final ExcerptTailer committedTailer;
+        private volatile long committedIndex;
+        private volatile boolean closed;
+        
+        private Cursor(TelemetryData.TelemetryType type,
+                       String consumerId,
+                       SingleChronicleQueue queue,
+                       ExcerptTailer tailer,
+                       ExcerptTailer committedTailer) {
+            this.type = type;
+            this.consumerId = consumerId;
+            this.queue = queue;
+            this.tailer = tailer;
+            this.committedTailer = committedTailer;
+        }
+        
+        public TelemetryData.TelemetryType getType() {
+            return type;
+        }
+        
+        public String getConsumerId() {
+            return consumerId;
+        }
+        
+        /**
+         * Read a batch of telemetry data from the queue.
+         * The items read are not acknowledged, if they are not committed with {@link #commit(long)}
+         * they will be read again after {@link #rewind()} or a restart.
+         */
+        public Batch readBatch(int maxItems) {
+            if (closed || !initialized.get()) {
+                return Batch.EMPTY;
+            }
+            
+            List<TelemetryData> items = new ArrayList<>();
+            long lastIndex = -1;
+            try {
+                while (items.size() < maxItems) {
+                    try (DocumentContext dc = tailer.readingDocument()) {
+                        if (!dc.isPresent()) {
+                            break;
+                        }
+                        lastIndex = dc.index();
+                        Wire wire = dc.wire();
+                        String typeStr = wire.read("type").text();
+                        long timestamp = wire.read("timestamp").int64();
+                        byte[] data = wire.read("data").bytes();
+                        // Items written before the encoding was recorded are always single resources
+                        String encodingStr = wire.read("encoding").text();
+                        TelemetryData.Encoding encoding = encodingStr != null
+                                ? TelemetryData.Encoding.valueOf(encodingStr)
+                                : TelemetryData.Encoding.RESOURCE;
+                        
+                        items.add(new TelemetryData(TelemetryData.TelemetryType.valueOf(typeStr), data, timestamp, encoding));
+                    }
+                }
+            } catch (Exception e) {
+                // The document that failed is skipped, since reading it again would fail the same way
+                log.error("Failed to read telemetry data from buffer for {}", consumerId, e);
+            }
+            
+            return lastIndex == -1 ? Batch.EMPTY : new Batch(items, lastIndex);
+        }
+        
+        /**
+         * Acknowledges all items up to and including the given index, so they will not be read again after a restart.
+         *
+         * @param lastIndex the {@link Batch#lastIndex()} of the last batch acknowledged
+         */
+        public void commit(long lastIndex) {
+            if (closed || !initialized.get()) {
+                return;
+            }
+            if (committedTailer.moveToIndex(lastIndex)) {
+                // Move past the acknowledged item, so the committed position is the next item to send
+                try (DocumentContext dc = committedTailer.readingDocument()) {
+                    if (!dc.isPresent()) {
+                        log.warn("Committed {} item at index {} for {} could not be read", type, lastIndex, consumerId);
+                    }
+                }
+                committedIndex = committedTailer.index();
+            } else {
+                log.warn("Could not commit {} buffer position at index {} for {}", type, lastIndex, consumerId);
+            }
+        }
+        
+        /**
+         * Moves the read position back to the last committed position, so all unacknowledged items are read again.
+         */
+        public void rewind() {
+            if (closed || !initialized.get()) {
+                return;
+            }
+            moveToCommitted();
+        }
+        
+        /**
+         * @return the number of items in the queue that have not been committed yet, or -1 if it cannot be determined
+         */
+        public long lag() {
+            if (closed || !initialized.get()) {
+                return -1;
+            }
+            try {
+                long lastIndex = queue.lastIndex();
+                if (lastIndex < 0) {
+                    return 0;
+                }
+                long from = committedIndex;
+                if (from == 0) {
+                    from = queue.firstIndex();
+                }
+                if (from > lastIndex) {
+                    return 0;
+                }
+                // countExcerpts excludes the upper index
+                return queue.countExcerpts(from, lastIndex) + 1;
+            } catch (Exception e) {
+                log.debug("Could not determine the {} buffer lag for {}", type, consumerId, e);
+                return -1;
+            }
+        }
+        
+        /**
+         * Releases the tailers of this cursor, the committed position is kept.
+         */
+        public void close() {
+            if (!closed) {
+                closed = true;
+                cursors.remove(this);
+                tailer.close();
+                committedTailer.close();
+            }
+        }
+        
+        private void moveToCommitted() {
+            long index = committedTailer.index();
+            committedIndex = index;
+            
+            if (index == 0) {
+                // Nothing has been committed yet
+                tailer.toStart();
+            } else if (!tailer.moveToIndex(index)) {
+                if (index > queue.lastIndex()) {
+                    // Everything has been committed, the committed position is the next item to be written
+                    tailer.toEnd();
+                } else {
+                    // The committed position is no longer in the queue, so start from the oldest data available
+                    log.warn("Committed {} buffer position {} for {} is no longer available, resuming from the oldest data",
+                             type, index, consumerId);
+                    tailer.toStart();
+                }
+            }
+        }
+    }
+    
+    /**
+     * A batch of items read from the buffer.
+     *
+     * @param items     the items read
+     * @param lastIndex the queue index of the last item read, used to commit the batch once it has been acknowledged
+     */
+    public record Batch(List<TelemetryData> items, long lastIndex) {
+        
+        static final Batch EMPTY = new Batch(List.of(), -1);
+        
+        public boolean isEmpty() {
+            return items.isEmpty();
+        }
+        
+        public int size() {
+            return items.size();
+        }
+    }
 }
-
@@ -1,133 +1,561 @@
 package org.mindignited.kinotic.telemetry.internal.services;
 
+import io.opentelemetry.proto.collector.metrics.v1.ExportMetricsServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.InstrumentationScope;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.metrics.v1.AggregationTemporality;
+import io.opentelemetry.proto.metrics.v1.Gauge;
+import io.opentelemetry.proto.metrics.v1.Metric;
+import io.opentelemetry.proto.metrics.v1.NumberDataPoint;
+import io.opentelemetry.proto.metrics.v1.ResourceMetrics;
+import io.opentelemetry.proto.metrics.v1.ScopeMetrics;
+import io.opentelemetry.proto.metrics.v1.Sum;
+import io.opentelemetry.proto.resource.v1.Resource;
 import org.mindignited.kinotic.telemetry.api.config.KinoticTelemetryProperties;
 import org.mindignited.kinotic.telemetry.api.domain.TelemetryData;
+import org.mindignited.kinotic.telemetry.internal.services.output.CircuitBreaker;
 import org.mindignited.kinotic.telemetry.internal.services.output.OutputManager;
+import org.mindignited.kinotic.telemetry.internal.services.output.OutputProcessor;
+import org.mindignited.kinotic.telemetry.internal.services.output.PermanentOutputException;
+import org.mindignited.kinotic.telemetry.internal.services.sampling.TailSamplingProcessor;
+import org.mindignited.kinotic.telemetry.internal.services.spanmetrics.SpanMetricsProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Main service that orchestrates the OTel collector components.
  * Manages the flow: Receiver → Buffer → Output
+ * <p>
+ * Every consumer of a signal, each output as well as the tail sampling and span metrics stages, reads the buffer through
+ * its own {@link ChronicleQueueBuffer.Cursor} on its own thread. A slow or failing output therefore only delays its own data,
+ * and every other consumer keeps reading at full speed.
+ * <p>
+ * Each consumer reads continuously while there is a backlog rather than once per interval.
+ * The batch size grows while batches come back full and shrinks once the backlog is drained, and up to
+ * {@link KinoticTelemetryProperties.Buffer#getMaxInFlightBatches()} batches are sent without waiting for the previous ones.
+ * <p>
+ * Batches are committed to the cursor in order, and only once the consumer has acknowledged them. When a batch fails,
+ * everything after the last committed batch is read again after a backoff, so data is delivered at least once.
+ * A batch that fails with a {@link PermanentOutputException} can never succeed, so it is dropped and committed instead,
+ * and counted by the {@code telemetry.buffer.dropped} metric.
+ * Outputs also have a {@link CircuitBreaker}, which stops sending to an output that keeps failing until it has been open long enough.
+ * <p>
+ * When tail sampling is enabled outputs do not read traces, instead the {@link TailSamplingProcessor} writes the traces it keeps
+ * to the sampled traces queue once they are decided, and the outputs read that queue. The {@link SpanMetricsProcessor} reads every trace, so the span metrics include every span.
+ * <p>
+ * The lag of every consumer, the number of items not yet committed, is written to the metrics buffer as the
+ * {@code telemetry.buffer.lag} gauge every {@link KinoticTelemetryProperties.Buffer#getLagReportIntervalMs()},
+ * along with the number of items each consumer dropped.
  */
 @Service
 public class OtelCollectorService {
-    
+
     private static final Logger log = LoggerFactory.getLogger(OtelCollectorService.class);
-    
+    private static final String LAG_METRIC = "telemetry.buffer.lag";
+    private static final String DROPPED_METRIC = "telemetry.buffer.dropped";
+    private static final String TAIL_SAMPLING_CONSUMER = "tail-sampling";
+    private static final String SPAN_METRICS_CONSUMER = "span-metrics";
+    private static final String OUTPUT_CONSUMER_PREFIX = "output-";
+    private static final String SAMPLED_TRACES = "sampled-traces";
+
     private final ChronicleQueueBuffer buffer;
     private final OutputManager outputManager;
+    private final TailSamplingProcessor tailSamplingProcessor;
+    private final SpanMetricsProcessor spanMetricsProcessor;
     private final KinoticTelemetryProperties.Buffer bufferConfig;
-    private ScheduledExecutorService scheduler;
+    private final Map<String, DrainLoop> drainLoops = new ConcurrentHashMap<>();
     private final AtomicBoolean running = new AtomicBoolean(false);
-    
+    private ScheduledExecutorService lagReporter;
+
     public OtelCollectorService(
             ChronicleQueueBuffer buffer,
             OutputManager outputManager,
+            TailSamplingProcessor tailSamplingProcessor,
+            SpanMetricsProcessor spanMetricsProcessor,
             KinoticTelemetryProperties properties) {
         this.buffer = buffer;
         this.outputManager = outputManager;
+        this.tailSamplingProcessor = tailSamplingProcessor;
+        this.spanMetricsProcessor = spanMetricsProcessor;
         this.bufferConfig = properties.getBuffer();
     }
-    
-    @PostConstruct
+
+    /**
+     * Starts once the context is refreshed, so every output processor has been registered.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void onContextRefreshed() {
+        start();
+    }
+
     public void start() {
         if (running.compareAndSet(false, true)) {
             log.info("Starting OTel collector service...");
-            
-            // Start the scheduler for reading from buffer and sending to outputs
-            scheduler = Executors.newScheduledThreadPool(2);
-            
-            // Schedule periodic reading from buffer for traces
-            scheduler.scheduleWithFixedDelay(
-                    () -> processBuffer(TelemetryData.TelemetryType.TRACES),
-                    0,
-                    bufferConfig.getFlushIntervalMs(),
-                    TimeUnit.MILLISECONDS
-            );
-            
-            // Schedule periodic reading from buffer for metrics
-            scheduler.scheduleWithFixedDelay(
-                    () -> processBuffer(TelemetryData.TelemetryType.METRICS),
-                    0,
-                    bufferConfig.getFlushIntervalMs(),
-                    TimeUnit.MILLISECONDS
-            );
-            
+
+            outputManager.getProcessors().forEach(this::startOutput);
+            outputManager.addRegistrationListener(processor -> {
+                if (running.get()) {
+                    startOutput(processor);
+                }
+            });
+
+            if (tailSamplingProcessor.isEnabled()) {
+                startDrainLoop(drainLoopKey(TAIL_SAMPLING_CONSUMER, TelemetryData.TelemetryType.TRACES),
+                               () -> buffer.openCursor(TelemetryData.TelemetryType.TRACES, TAIL_SAMPLING_CONSUMER),
+                               items -> {
+                                   tailSamplingProcessor.offer(items);
+                                   return CompletableFuture.completedFuture(null);
+                               },
+                               () -> true,
+                               null);
+            }
+            if (spanMetricsProcessor.isEnabled()) {
+                startDrainLoop(drainLoopKey(SPAN_METRICS_CONSUMER, TelemetryData.TelemetryType.TRACES),
+                               () -> buffer.openCursor(TelemetryData.TelemetryType.TRACES, SPAN_METRICS_CONSUMER),
+                               items -> {
+                                   spanMetricsProcessor.record(items);
+                                   return CompletableFuture.completedFuture(null);
+                               },
+                               () -> true,
+                               null);
+            }
+
+            if (bufferConfig.getLagReportIntervalMs() > 0) {
+                lagReporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "otel-lag-reporter");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                lagReporter.scheduleAtFixedRate(this::reportLagSafely,
+                                                bufferConfig.getLagReportIntervalMs(),
+                                                bufferConfig.getLagReportIntervalMs(),
+                                                TimeUnit.MILLISECONDS);
+            }
+
             log.info("OTel collector service started");
         }
     }
-    
+
     @PreDestroy
     public void stop() {
         if (running.compareAndSet(true, false)) {
             log.info("Stopping OTel collector service...");
-            
-            if (scheduler != null) {
-                scheduler.shutdown();
-                try {
-                    if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
-                        log.warn("Scheduler did not terminate gracefully, forcing shutdown");
-                        scheduler.shutdownNow();
-                    }
-                } catch (InterruptedException e) {
-                    log.warn("Interrupted while waiting for scheduler to terminate");
-                    scheduler.shutdownNow();
-                    Thread.currentThread().interrupt();
+
+            if (lagReporter != null) {
+                lagReporter.shutdownNow();
+                lagReporter = null;
+            }
+
+            List<DrainLoop> loops = List.copyOf(drainLoops.values());
+            loops.forEach(DrainLoop::requestStop);
+            try {
+                for (DrainLoop loop : loops) {
+                    loop.join(TimeUnit.SECONDS.toMillis(10));
                 }
+            } catch (InterruptedException e) {
+                log.warn("Interrupted while waiting for drain threads to terminate");
+                loops.forEach(DrainLoop::interrupt);
+                Thread.currentThread().interrupt();
             }
-            
+            drainLoops.clear();
+
             log.info("OTel collector service stopped");
         }
     }
-    
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
     /**
-     * Process data from the buffer and send to outputs.
+     * @return the number of items not yet committed by each consumer, keyed by consumer and signal
      */
-    private void processBuffer(TelemetryData.TelemetryType type) {
-        if (!buffer.isInitialized()) {
-            return;
+    public Map<String, Long> getLag() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+        for (DrainLoop loop : drainLoops.values()) {
+            ret.put(loop.key, loop.cursor.lag());
         }
-        
-        try {
-            // Check if there's data available
-            if (!buffer.hasData(type)) {
-                return;
+        return ret;
+    }
+
+    private void startOutput(OutputProcessor processor) {
+        String outputType = processor.getType();
+        String consumerId = OUTPUT_CONSUMER_PREFIX + outputType;
+        Function<List<TelemetryData>, CompletableFuture<Void>> sink = items -> {
+            if (!processor.isEnabled()) {
+                return CompletableFuture.completedFuture(null);
             }
-            
-            // Read a batch from the buffer
-            List<TelemetryData> batch = buffer.readBatch(type, bufferConfig.getBatchSize());
-            
-            if (batch.isEmpty()) {
+            if (!processor.isReady()) {
+                // Retried after a backoff rather than acknowledged, so no data is lost while the output starts
+                return CompletableFuture.failedFuture(new IllegalStateException("Output " + outputType + " is not ready"));
+            }
+            return processor.process(items);
+        };
+        BooleanSupplier registered = () -> outputManager.getProcessor(outputType) == processor;
+        CircuitBreaker circuitBreaker = outputManager.getCircuitBreaker(outputType);
+
+        for (TelemetryData.TelemetryType type : TelemetryData.TelemetryType.values()) {
+            if (type == TelemetryData.TelemetryType.TRACES && tailSamplingProcessor.isEnabled()) {
+                // the tail sampling stage writes the traces it keeps to the sampled traces queue
+                startDrainLoop(consumerId + "/" + SAMPLED_TRACES,
+                               () -> buffer.openSampledTracesCursor(consumerId),
+                               sink,
+                               registered,
+                               circuitBreaker);
+            } else {
+                startDrainLoop(drainLoopKey(consumerId, type),
+                               () -> buffer.openCursor(type, consumerId),
+                               sink,
+                               registered,
+                               circuitBreaker);
+            }
+        }
+    }
+
+    private static String drainLoopKey(String consumerId, TelemetryData.TelemetryType type) {
+        return consumerId + "/" + type.name().toLowerCase();
+    }
+
+    private void startDrainLoop(String key,
+                                Supplier<ChronicleQueueBuffer.Cursor> cursor,
+                                Function<List<TelemetryData>, CompletableFuture<Void>> sink,
+                                BooleanSupplier registered,
+                                CircuitBreaker circuitBreaker) {
+        // A replaced output reuses the position of the output it replaced, so the previous loop must release it first
+        DrainLoop previous = drainLoops.remove(key);
+        if (previous != null) {
+            previous.requestStop();
+            try {
+                previous.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 return;
             }
-            
-            log.debug("Processing batch of {} {} items", batch.size(), type);
-            
-            // Send to output processors
-            outputManager.process(batch)
-                    .thenRun(() -> log.debug("Successfully processed batch of {} {} items", batch.size(), type))
-                    .exceptionally(error -> {
-                        log.error("Error processing batch of {} {} items", batch.size(), type, error);
-                        return null;
-                    });
-            
+        }
+
+        DrainLoop loop = new DrainLoop(key, cursor.get(), sink, registered, circuitBreaker);
+        drainLoops.put(key, loop);
+        loop.start();
+    }
+
+    private void reportLagSafely() {
+        try {
+            reportLag();
         } catch (Exception e) {
-            log.error("Error processing buffer for type: {}", type, e);
+            log.error("Error reporting buffer lag", e);
         }
     }
-    
-    public boolean isRunning() {
-        return running.get();
+
+    private void reportLag() {
+        long now = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        Gauge.Builder gauge = Gauge.newBuilder();
+        Sum.Builder dropped = Sum.newBuilder()
+                                 .setIsMonotonic(true)
+                                 .setAggregationTemporality(AggregationTemporality.AGGREGATION_TEMPORALITY_CUMULATIVE);
+        for (DrainLoop loop : drainLoops.values()) {
+            long lag = loop.cursor.lag();
+            if (lag < 0) {
+                continue;
+            }
+            gauge.addDataPoints(NumberDataPoint.newBuilder()
+                                               .addAttributes(stringAttribute("consumer", loop.cursor.getConsumerId()))
+                                               .addAttributes(stringAttribute("signal", loop.cursor.getType().name().toLowerCase()))
+                                               .setTimeUnixNano(now)
+                                               .setAsInt(lag));
+            dropped.addDataPoints(NumberDataPoint.newBuilder()
+                                                 .addAttributes(stringAttribute("consumer", loop.cursor.getConsumerId()))
+                                                 .addAttributes(stringAttribute("signal", loop.cursor.getType().name().toLowerCase()))
+                                                 .setStartTimeUnixNano(loop.startTimeUnixNano)
+                                                 .setTimeUnixNano(now)
+                                                 .setAsInt(loop.droppedItems.get()));
+        }
+        if (gauge.getDataPointsCount() == 0) {
+            return;
+        }
+
+        ExportMetricsServiceRequest request = ExportMetricsServiceRequest.newBuilder()
+                .addResourceMetrics(ResourceMetrics.newBuilder()
+                        .setResource(Resource.newBuilder().addAttributes(stringAttribute("service.name", "kinotic-telemetry")))
+                        .addScopeMetrics(ScopeMetrics.newBuilder()
+                                .setScope(InstrumentationScope.newBuilder().setName("kinotic-telemetry"))
+                                .addMetrics(Metric.newBuilder()
+                                        .setName(LAG_METRIC)
+                                        .setDescription("Number of buffered items not yet acknowledged by each consumer")
+                                        .setUnit("{item}")
+                                        .setGauge(gauge))
+                                .addMetrics(Metric.newBuilder()
+                                        .setName(DROPPED_METRIC)
+                                        .setDescription("Number of buffered items dropped by each consumer because they were permanently rejected")
+                                        .setUnit("{item}")
+                                        .setSum(dropped))))
+                .build();
+        buffer.write(TelemetryData.exportRequest(TelemetryData.TelemetryType.METRICS, request.toByteArray()));
     }
-}
 
+    private static KeyValue stringAttribute(String key, String value) {
+        return KeyValue.newBuilder()
+                       .setKey(key)
+                       .setValue(AnyValue.newBuilder().setStringValue(value))
+                       .build();
+    }
+
+    private record InFlightBatch(ChronicleQueueBuffer.Batch batch, CompletableFuture<Void> future) {
+    }
+
+    /**
+     * Reads from the buffer for a single consumer of a signal and sends to the consumer.
+     * All cursor access happens on the thread running this loop.
+     */
+    private class DrainLoop implements Runnable {
+
+        private final String key;
+        private final ChronicleQueueBuffer.Cursor cursor;
+        private final Function<List<TelemetryData>, CompletableFuture<Void>> sink;
+        private final BooleanSupplier registered;
+        private final CircuitBreaker circuitBreaker;
+        private final Deque<InFlightBatch> inFlight = new ArrayDeque<>();
+        private final int minBatchSize;
+        private final int maxBatchSize;
+        private final int maxInFlight;
+        private final long idleNanos;
+        private final Thread thread;
+        private final long startTimeUnixNano = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        private final AtomicLong droppedItems = new AtomicLong();
+        private volatile boolean stopRequested;
+        private ChronicleQueueBuffer.Batch heldBatch;
+        private int batchSize;
+        private long retryBackoffMs;
+
+        DrainLoop(String key,
+                  ChronicleQueueBuffer.Cursor cursor,
+                  Function<List<TelemetryData>, CompletableFuture<Void>> sink,
+                  BooleanSupplier registered,
+                  CircuitBreaker circuitBreaker) {
+            this.key = key;
+            this.cursor = cursor;
+            this.sink = sink;
+            this.registered = registered;
+            this.circuitBreaker = circuitBreaker;
+            this.minBatchSize = Math.max(1, bufferConfig.getBatchSize());
+            this.maxBatchSize = Math.max(minBatchSize, bufferConfig.getMaxBatchSize());
+            this.maxInFlight = Math.max(1, bufferConfig.getMaxInFlightBatches());
+            this.idleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, bufferConfig.getFlushIntervalMs()));
+            this.batchSize = minBatchSize;
+            this.retryBackoffMs = bufferConfig.getRetryBackoffMs();
+            this.thread = new Thread(this, "otel-drain-" + key.replace('/', '-'));
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void requestStop() {
+            stopRequested = true;
+            LockSupport.unpark(thread);
+        }
+
+        void join(long millis) throws InterruptedException {
+            thread.join(millis);
+            if (thread.isAlive()) {
+                log.warn("Drain thread {} did not terminate gracefully", thread.getName());
+                thread.interrupt();
+            }
+        }
+
+        void interrupt() {
+            thread.interrupt();
+        }
+
+        private boolean isActive() {
+            return running.get() && !stopRequested && !thread.isInterrupted();
+        }
+
+        @Override
+        public void run() {
+            while (isActive()) {
+                try {
+                    if (!registered.getAsBoolean()) {
+                        log.info("Consumer {} is no longer registered, stopping", key);
+                        drainLoops.remove(key, this);
+                        break;
+                    }
+
+                    if (!commitAcknowledged()) {
+                        recoverFromFailure();
+                        continue;
+                    }
+
+                    if (inFlight.size() >= maxInFlight) {
+                        // Woken up as soon as any batch completes
+                        LockSupport.parkNanos(this, idleNanos);
+                        continue;
+                    }
+
+                    // A batch held back by the circuit breaker is sent before anything new is read
+                    ChronicleQueueBuffer.Batch batch = heldBatch != null ? heldBatch : cursor.readBatch(batchSize);
+                    heldBatch = null;
+                    if (batch.lastIndex() == -1) {
+                        batchSize = minBatchSize;
+                        LockSupport.parkNanos(this, idleNanos);
+                        continue;
+                    }
+
+                    if (circuitBreaker != null && !batch.isEmpty() && !circuitBreaker.tryAcquire()) {
+                        heldBatch = batch;
+                        long remaining = circuitBreaker.remainingOpenNanos();
+                        LockSupport.parkNanos(this, remaining > 0 ? remaining : idleNanos);
+                        continue;
+                    }
+
+                    // A full batch means there is a backlog, so read more at once until it is drained
+                    if (batch.size() >= batchSize) {
+                        batchSize = Math.min(maxBatchSize, batchSize * 2);
+                    } else if (batch.size() < batchSize / 2) {
+                        batchSize = Math.max(minBatchSize, batchSize / 2);
+                    }
+
+                    send(batch);
+
+                } catch (Exception e) {
+                    log.error("Error processing buffer for {}", key, e);
+                    LockSupport.parkNanos(this, idleNanos);
+                }
+            }
+            drainOnStop();
+        }
+
+        private void send(ChronicleQueueBuffer.Batch batch) {
+            log.debug("Processing batch of {} items for {}", batch.size(), key);
+
+            CompletableFuture<Void> future;
+            if (batch.isEmpty()) {
+                // Only unreadable items were read, these are committed so they are not read again
+                future = CompletableFuture.completedFuture(null);
+            } else {
+                try {
+                    future = sink.apply(batch.items());
+                } catch (Exception e) {
+                    future = CompletableFuture.failedFuture(e);
+                }
+                if (circuitBreaker != null) {
+                    future = future.whenComplete((unused, throwable) -> {
+                        // A permanent failure means the output is reachable, it is the data that was rejected
+                        if (throwable == null || PermanentOutputException.isPermanent(throwable)) {
+                            circuitBreaker.recordSuccess();
+                        } else if (circuitBreaker.recordFailure()) {
+                            log.warn("Circuit breaker for {} opened", circuitBreaker.getName());
+                        }
+                    });
+                }
+            }
+            inFlight.addLast(new InFlightBatch(batch, future));
+            future.whenComplete((unused, throwable) -> LockSupport.unpark(thread));
+        }
+
+        /**
+         * Commits completed batches in the order they were read.
+         * Batches that failed permanently are dropped and committed too, since sending them again would fail again.
+         * @return false if a batch failed with a failure that may succeed when retried
+         */
+        private boolean commitAcknowledged() {
+            while (!inFlight.isEmpty() && inFlight.peekFirst().future().isDone()) {
+                InFlightBatch head = inFlight.peekFirst();
+                if (head.future().isCompletedExceptionally()) {
+                    Throwable failure = head.future().exceptionNow();
+                    if (!PermanentOutputException.isPermanent(failure)) {
+                        return false;
+                    }
+                    droppedItems.addAndGet(head.batch().size());
+                    log.error("Dropping batch of {} items for {}, it was permanently rejected", head.batch().size(), key, failure);
+                } else {
+                    log.debug("Successfully processed batch of {} items for {}", head.batch().size(), key);
+                }
+                inFlight.pollFirst();
+                cursor.commit(head.batch().lastIndex());
+                retryBackoffMs = bufferConfig.getRetryBackoffMs();
+            }
+            return true;
+        }
+
+        /**
+         * Waits for the remaining batches, then reads everything after the last committed batch again after a backoff.
+         * Batches sent after the failed one may be delivered twice.
+         */
+        private void recoverFromFailure() {
+            InFlightBatch failed = inFlight.peekFirst();
+            failed.future().exceptionally(throwable -> {
+                log.error("Error processing batch of {} items for {}, retrying in {}ms",
+                          failed.batch().size(), key, retryBackoffMs, throwable);
+                return null;
+            });
+
+            awaitInFlight(TimeUnit.MILLISECONDS.toNanos(bufferConfig.getMaxRetryBackoffMs()));
+            inFlight.clear();
+            heldBatch = null;
+            cursor.rewind();
+            batchSize = minBatchSize;
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryBackoffMs);
+            long remaining;
+            while (isActive() && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+            retryBackoffMs = Math.min(bufferConfig.getMaxRetryBackoffMs(), retryBackoffMs * 2);
+        }
+
+        private void drainOnStop() {
+            awaitInFlight(TimeUnit.SECONDS.toNanos(5));
+            try {
+                commitAcknowledged();
+            } catch (Exception e) {
+                log.error("Error committing buffer for {} on shutdown", key, e);
+            }
+            if (!inFlight.isEmpty()) {
+                log.info("{} batches for {} were not acknowledged before shutdown, they will be sent again on restart",
+                         inFlight.size(), key);
+            }
+            cursor.close();
+        }
+
+        private void awaitInFlight(long timeoutNanos) {
+            long deadline = System.nanoTime() + timeoutNanos;
+            for (InFlightBatch batch : inFlight) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                try {
+                    batch.future().get(remaining, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception ignored) {
+                    // failures and timeouts are handled by the caller
+                }
+            }
+        }
+    }
+}
@@ -1,30 +1,59 @@
 package org.mindignited.kinotic.telemetry.internal.services;
 
-import io.grpc.stub.StreamObserver;
-import io.opentelemetry.proto.collector.metrics.v1.ExportMetricsServiceRequest;
-import io.opentelemetry.proto.collector.metrics.v1.ExportMetricsServiceResponse;
-import io.opentelemetry.proto.collector.metrics.v1.MetricsServiceGrpc;
-import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
-import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceResponse;
-import io.opentelemetry.proto.collector.trace.v1.TraceServiceGrpc;
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.vertx.core.Future;
 import io.vertx.core.VerticleBase;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.grpc.common.GrpcMessageDecoder;
+import io.vertx.grpc.common.GrpcMessageEncoder;
+import io.vertx.grpc.common.GrpcStatus;
+import io.vertx.grpc.common.ServiceMethod;
+import io.vertx.grpc.common.ServiceName;
+import io.vertx.grpc.server.GrpcServerRequest;
 import io.vertx.grpcio.server.GrpcIoServer;
-import io.vertx.grpcio.server.GrpcIoServiceBridge;
 import org.mindignited.kinotic.telemetry.api.config.KinoticTelemetryProperties;
 import org.mindignited.kinotic.telemetry.api.domain.TelemetryData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 /**
  * Vert.x gRPC-based receiver for OTLP data.
- * Handles OTLP gRPC endpoints for traces and metrics using Vert.x gRPC/IO Server.
+ * Handles OTLP gRPC endpoints for traces, metrics and logs using Vert.x gRPC/IO Server.
+ * When {@link KinoticTelemetryProperties.Receiver#isHttpEnabled()} is true the same server also accepts OTLP/HTTP requests,
+ * which are handled by {@link OtlpHttpHandler}.
+ * <p>
+ * Export requests are handled as raw protobuf messages and are never decoded into objects,
+ * they are only checked to be structurally valid by {@link OtlpFrames#validate(byte[])} and rejected with INVALID_ARGUMENT if not.
+ * When {@link KinoticTelemetryProperties.Receiver#isPassThrough()} is enabled each request is buffered exactly as received,
+ * otherwise it is split into its resource messages at the wire level using {@link OtlpFrames}.
  */
 public class OtelReceiver extends VerticleBase {
     
     private static final Logger log = LoggerFactory.getLogger(OtelReceiver.class);
     
+    private static final ServiceMethod<Buffer, Buffer> TRACE_EXPORT = ServiceMethod.server(
+            ServiceName.create("opentelemetry.proto.collector.trace.v1.TraceService"),
+            "Export",
+            GrpcMessageEncoder.IDENTITY,
+            GrpcMessageDecoder.IDENTITY);
+    
+    private static final ServiceMethod<Buffer, Buffer> METRICS_EXPORT = ServiceMethod.server(
+            ServiceName.create("opentelemetry.proto.collector.metrics.v1.MetricsService"),
+            "Export",
+            GrpcMessageEncoder.IDENTITY,
+            GrpcMessageDecoder.IDENTITY);
+    
+    private static final ServiceMethod<Buffer, Buffer> LOGS_EXPORT = ServiceMethod.server(
+            ServiceName.create("opentelemetry.proto.collector.logs.v1.LogsService"),
+            "Export",
+            GrpcMessageEncoder.IDENTITY,
+            GrpcMessageDecoder.IDENTITY);
+    
     private final KinoticTelemetryProperties.Receiver config;
     private final ChronicleQueueBuffer buffer;
     private HttpServer httpServer;
@@ -45,96 +74,29 @@ public class OtelReceiver extends VerticleBase {
         try {
             // Create Vert.x gRPC/IO server
             grpcServer = GrpcIoServer.server(vertx);
-
-            // Create trace service implementation
-            TraceServiceGrpc.TraceServiceImplBase traceService = new TraceServiceGrpc.TraceServiceImplBase() {
-                @Override
-                public void export(ExportTraceServiceRequest request, StreamObserver<ExportTraceServiceResponse> responseObserver) {
-                    try {
-                        if (request == null || request.getResourceSpansCount() == 0) {
-                            responseObserver.onError(io.grpc.Status.INVALID_ARGUMENT
-                                    .withDescription("Empty request")
-                                    .asException());
-                            return;
-                        }
-                        
-                        // Extract and store each ResourceSpans individually
-                        int totalBytes = 0;
-                        for (var resourceSpans : request.getResourceSpansList()) {
-                            byte[] data = resourceSpans.toByteArray();
-                            TelemetryData telemetryData = TelemetryData.traces(data);
-                            buffer.write(telemetryData);
-                            totalBytes += data.length;
-                        }
-
-                        // Send success response
-                        ExportTraceServiceResponse response = ExportTraceServiceResponse.newBuilder().build();
-                        responseObserver.onNext(response);
-                        responseObserver.onCompleted();
-                        
-                        log.debug("Received {} ResourceSpans ({} total bytes) of trace data via gRPC", 
-                                request.getResourceSpansCount(), totalBytes);
-                    } catch (Exception e) {
-                        log.error("Error handling traces", e);
-                        responseObserver.onError(io.grpc.Status.INTERNAL
-                                .withDescription("Internal server error: " + e.getMessage())
-                                .withCause(e)
-                                .asException());
-                    }
-                }
-            };
             
-            // Create metrics service implementation
-            MetricsServiceGrpc.MetricsServiceImplBase metricsService = new MetricsServiceGrpc.MetricsServiceImplBase() {
-                @Override
-                public void export(ExportMetricsServiceRequest request, StreamObserver<ExportMetricsServiceResponse> responseObserver) {
-                    try {
-                        if (request == null || request.getResourceMetricsCount() == 0) {
-                            responseObserver.onError(io.grpc.Status.INVALID_ARGUMENT
-                                    .withDescription("Empty request")
-                                    .asException());
-                            return;
-                        }
-                        
-                        // Extract and store each ResourceMetrics individually
-                        int totalBytes = 0;
-                        for (var resourceMetrics : request.getResourceMetricsList()) {
-                            byte[] data = resourceMetrics.toByteArray();
-                            TelemetryData telemetryData = TelemetryData.metrics(data);
-                            buffer.write(telemetryData);
-                            totalBytes += data.length;
-                        }
-                        
-                        // Send success response
-                        ExportMetricsServiceResponse response = ExportMetricsServiceResponse.newBuilder().build();
-                        responseObserver.onNext(response);
-                        responseObserver.onCompleted();
-                        
-                        log.debug("Received {} ResourceMetrics ({} total bytes) of metrics data via gRPC", 
-                                request.getResourceMetricsCount(), totalBytes);
-                    } catch (Exception e) {
-                        log.error("Error handling metrics", e);
-                        responseObserver.onError(io.grpc.Status.INTERNAL
-                                .withDescription("Internal server error: " + e.getMessage())
-                                .withCause(e)
-                                .asException());
-                    }
-                }
-            };
+            // Both services are bound with identity codecs, so the handlers receive the undecoded request message
+            grpcServer.callHandler(TRACE_EXPORT, request -> handleExport(request, TelemetryData.TelemetryType.TRACES));
+            grpcServer.callHandler(METRICS_EXPORT, request -> handleExport(request, TelemetryData.TelemetryType.METRICS));
+            grpcServer.callHandler(LOGS_EXPORT, request -> handleExport(request, TelemetryData.TelemetryType.LOGS));
             
-            // Bridge the services to the gRPC server
-            GrpcIoServiceBridge traceBridge = GrpcIoServiceBridge.bridge(traceService);
-            traceBridge.bind(grpcServer);
+            OtlpHttpHandler httpHandler = config.isHttpEnabled() ? new OtlpHttpHandler(config, buffer) : null;
             
-            GrpcIoServiceBridge metricsBridge = GrpcIoServiceBridge.bridge(metricsService);
-            metricsBridge.bind(grpcServer);
-            
-            // Create HTTP/2 server to host the gRPC server
-            httpServer = vertx.createHttpServer();
-            return httpServer.requestHandler(grpcServer)
+            // Create HTTP/2 server to host the gRPC server, HTTP/1.1 and h2c are both accepted for OTLP/HTTP
+            // Decompression is enabled so gzip compressed OTLP/HTTP bodies are inflated before they are handled
+            httpServer = vertx.createHttpServer(new HttpServerOptions().setDecompressionSupported(true));
+            return httpServer.requestHandler(request -> {
+                        String contentType = request.getHeader(HttpHeaders.CONTENT_TYPE);
+                        if (httpHandler == null || (contentType != null && contentType.startsWith("application/grpc"))) {
+                            grpcServer.handle(request);
+                        } else {
+                            httpHandler.handle(request);
+                        }
+                    })
                     .listen(config.getPort(), config.getHost())
                     .onSuccess(server -> {
-                        log.info("OTel gRPC receiver started on {}:{}", config.getHost(), config.getPort());
+                        log.info("OTel gRPC receiver started on {}:{} (OTLP/HTTP: {}, pass through: {})",
+                                 config.getHost(), config.getPort(), config.isHttpEnabled(), config.isPassThrough());
                     })
                     .onFailure(error -> {
                         log.error("Failed to start OTel receiver", error);
@@ -146,6 +108,56 @@ public class OtelReceiver extends VerticleBase {
         }
     }
     
+    private void handleExport(GrpcServerRequest<Buffer, Buffer> request, TelemetryData.TelemetryType type) {
+        request.last()
+               .onSuccess(message -> {
+                   try {
+                       if (message == null || message.length() == 0) {
+                           // An export request without any resources is valid OTLP and there is nothing to buffer
+                           request.response().end(Buffer.buffer());
+                           return;
+                       }
+                       
+                       byte[] data = message.getBytes();
+                       try {
+                           OtlpFrames.validate(data);
+                       } catch (InvalidProtocolBufferException e) {
+                           log.debug("Invalid {} export request", type, e);
+                           request.response()
+                                  .status(GrpcStatus.INVALID_ARGUMENT)
+                                  .statusMessage("Invalid request: " + e.getMessage())
+                                  .end();
+                           return;
+                       }
+                       
+                       int count;
+                       if (config.isPassThrough()) {
+                           buffer.write(TelemetryData.exportRequest(type, data));
+                           count = 1;
+                       } else {
+                           // Only split into resources when something needs to act on them individually
+                           List<byte[]> resources = OtlpFrames.splitResources(data);
+                           for (byte[] resource : resources) {
+                               buffer.write(new TelemetryData(type, resource, System.currentTimeMillis()));
+                           }
+                           count = resources.size();
+                       }
+                       
+                       // An empty Export*ServiceResponse encodes to zero bytes
+                       request.response().end(Buffer.buffer());
+                       
+                       log.debug("Received {} {} items ({} total bytes) via gRPC", count, type, data.length);
+                   } catch (Exception e) {
+                       log.error("Error handling {}", type, e);
+                       request.response()
+                              .status(GrpcStatus.INTERNAL)
+                              .statusMessage("Internal server error: " + e.getMessage())
+                              .end();
+                   }
+               })
+               .onFailure(error -> log.debug("Failed to read {} export request", type, error));
+    }
+    
     @Override
     public Future<?> stop() {
         try {
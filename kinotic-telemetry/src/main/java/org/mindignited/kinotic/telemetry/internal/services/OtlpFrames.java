@@ -0,0 +1,127 @@
+package org.mindignited.kinotic.telemetry.internal.services;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import org.mindignited.kinotic.telemetry.api.domain.TelemetryData;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Works with OTLP export requests at the protobuf wire level, without materializing any protobuf objects.
+ * <p>
+ * Every OTLP export request ({@code ExportTraceServiceRequest}, {@code ExportMetricsServiceRequest} and {@code ExportLogsServiceRequest})
+ * consists only of a repeated resource message in field 1. Since protobuf merges repeated fields when messages are concatenated,
+ * export requests can be combined by concatenating their bytes, and a single resource message becomes an export request
+ * by prefixing it with the field 1 tag and its length.
+ */
+public final class OtlpFrames {
+
+    /**
+     * The tag of the repeated resource field, field 1 length delimited, shared by all OTLP export requests
+     */
+    private static final int RESOURCE_FIELD_TAG = WireFormat.makeTag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+    private OtlpFrames() {
+    }
+
+    /**
+     * Checks that an encoded export request is structurally valid protobuf, without decoding it.
+     * Every field tag and length of the request and of each resource message in it is checked, so truncated or corrupt
+     * requests are rejected before they are buffered. Deeper messages are not checked.
+     * An empty request is valid, it is an export request without any resources.
+     *
+     * @param exportRequest the encoded export request
+     * @throws InvalidProtocolBufferException if the request is not a valid export request
+     */
+    public static void validate(byte[] exportRequest) throws InvalidProtocolBufferException {
+        try {
+            CodedInputStream in = CodedInputStream.newInstance(exportRequest);
+            while (!in.isAtEnd()) {
+                int tag = in.readTag();
+                if (tag == RESOURCE_FIELD_TAG) {
+                    int length = in.readRawVarint32();
+                    int oldLimit = in.pushLimit(length);
+                    skipFields(in);
+                    in.popLimit(oldLimit);
+                } else if (!in.skipField(tag)) {
+                    throw new InvalidProtocolBufferException("Unexpected end group tag in export request");
+                }
+            }
+        } catch (InvalidProtocolBufferException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new InvalidProtocolBufferException(e);
+        }
+    }
+
+    private static void skipFields(CodedInputStream in) throws IOException {
+        while (!in.isAtEnd()) {
+            if (!in.skipField(in.readTag())) {
+                throw new InvalidProtocolBufferException("Unexpected end group tag in resource message");
+            }
+        }
+    }
+
+    /**
+     * Splits an encoded export request into the encoded resource messages it contains.
+     * This is only needed when something must act on individual resources, otherwise the request can be stored as is.
+     *
+     * @param exportRequest the encoded export request
+     * @return the encoded resource messages
+     * @throws IOException if the request is not a valid export request
+     */
+    public static List<byte[]> splitResources(byte[] exportRequest) throws IOException {
+        List<byte[]> ret = new ArrayList<>();
+        CodedInputStream in = CodedInputStream.newInstance(exportRequest);
+        while (!in.isAtEnd()) {
+            int tag = in.readTag();
+            if (tag == RESOURCE_FIELD_TAG) {
+                ret.add(in.readByteArray());
+            } else if (!in.skipField(tag)) {
+                break;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Combines the given telemetry data into a single encoded export request.
+     *
+     * @param items to combine, these must all be of the same {@link TelemetryData.TelemetryType}
+     * @return the encoded export request
+     */
+    public static byte[] toExportRequest(List<TelemetryData> items) {
+        int size = 0;
+        for (TelemetryData item : items) {
+            size += encodedSize(item);
+        }
+
+        byte[] ret = new byte[size];
+        CodedOutputStream out = CodedOutputStream.newInstance(ret);
+        try {
+            for (TelemetryData item : items) {
+                if (item.getEncoding() == TelemetryData.Encoding.EXPORT_REQUEST) {
+                    out.writeRawBytes(item.getData());
+                } else {
+                    out.writeByteArray(1, item.getData());
+                }
+            }
+            out.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException("Export request size was calculated incorrectly", e);
+        }
+        return ret;
+    }
+
+    private static int encodedSize(TelemetryData item) {
+        int length = item.getData().length;
+        if (item.getEncoding() == TelemetryData.Encoding.EXPORT_REQUEST) {
+            return length;
+        }
+        return CodedOutputStream.computeTagSize(1) + CodedOutputStream.computeUInt32SizeNoTag(length) + length;
+    }
+}
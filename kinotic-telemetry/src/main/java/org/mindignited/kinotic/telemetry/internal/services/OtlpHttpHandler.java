@@ -0,0 +1,201 @@
+package org.mindignited.kinotic.telemetry.internal.services;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.util.JsonFormat;
+import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
+import io.opentelemetry.proto.collector.metrics.v1.ExportMetricsServiceRequest;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.mindignited.kinotic.telemetry.api.config.KinoticTelemetryProperties;
+import org.mindignited.kinotic.telemetry.api.domain.TelemetryData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Handles OTLP/HTTP export requests for traces, metrics and logs.
+ * Request bodies can be binary protobuf ({@code application/x-protobuf}) or JSON ({@code application/json}),
+ * gzip compressed bodies are decompressed by the HTTP server.
+ * <p>
+ * Protobuf bodies are buffered without being decoded, the same way as the gRPC receiver, once {@link OtlpFrames#validate(byte[])}
+ * has checked they are structurally valid.
+ * JSON bodies must be decoded, and are converted to their protobuf encoding before being buffered.
+ */
+public class OtlpHttpHandler implements Handler<HttpServerRequest> {
+    
+    private static final Logger log = LoggerFactory.getLogger(OtlpHttpHandler.class);
+    
+    private static final String PROTOBUF_CONTENT_TYPE = "application/x-protobuf";
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    
+    private static final Map<String, TelemetryData.TelemetryType> PATHS = Map.of(
+            "/v1/traces", TelemetryData.TelemetryType.TRACES,
+            "/v1/metrics", TelemetryData.TelemetryType.METRICS,
+            "/v1/logs", TelemetryData.TelemetryType.LOGS);
+    
+    /**
+     * OTLP/JSON encodes trace and span ids as hex, while the protobuf JSON mapping expects base64 for bytes fields
+     */
+    private static final Set<String> HEX_ID_FIELDS = Set.of("traceId", "spanId", "parentSpanId",
+                                                             "trace_id", "span_id", "parent_span_id");
+    
+    private final KinoticTelemetryProperties.Receiver config;
+    private final ChronicleQueueBuffer buffer;
+    
+    public OtlpHttpHandler(KinoticTelemetryProperties.Receiver config, ChronicleQueueBuffer buffer) {
+        this.config = config;
+        this.buffer = buffer;
+    }
+    
+    @Override
+    public void handle(HttpServerRequest request) {
+        TelemetryData.TelemetryType type = PATHS.get(request.path());
+        if (type == null) {
+            end(request, 404, "Not found");
+            return;
+        }
+        if (request.method() != HttpMethod.POST) {
+            end(request, 405, "Only POST is supported");
+            return;
+        }
+        
+        String contentType = mediaType(request.getHeader(HttpHeaders.CONTENT_TYPE));
+        boolean json = JSON_CONTENT_TYPE.equals(contentType);
+        if (!json && !PROTOBUF_CONTENT_TYPE.equals(contentType)) {
+            end(request, 415, "Unsupported content type, expected " + PROTOBUF_CONTENT_TYPE + " or " + JSON_CONTENT_TYPE);
+            return;
+        }
+        
+        Buffer body = Buffer.buffer();
+        long maxBodySize = config.getMaxHttpBodySize();
+        boolean[] tooLarge = new boolean[1];
+        request.handler(chunk -> {
+            if (tooLarge[0]) {
+                return; // discarding the rest of the body
+            }
+            if (maxBodySize > 0 && body.length() + chunk.length() > maxBodySize) {
+                tooLarge[0] = true;
+                end(request, 413, "Request body exceeds the max size of " + maxBodySize + " bytes");
+                return;
+            }
+            body.appendBuffer(chunk);
+        });
+        request.exceptionHandler(error -> log.debug("Failed to read {} OTLP/HTTP request", type, error));
+        request.endHandler(v -> {
+            if (!tooLarge[0]) {
+                handleBody(request, type, json, body);
+            }
+        });
+    }
+    
+    private void handleBody(HttpServerRequest request, TelemetryData.TelemetryType type, boolean json, Buffer body) {
+        byte[] data;
+        try {
+            if (body.length() == 0) {
+                data = new byte[0];
+            } else if (json) {
+                data = jsonToProtobuf(type, body);
+            } else {
+                data = body.getBytes();
+                // JSON bodies are always valid once converted, protobuf bodies are checked before they are buffered
+                OtlpFrames.validate(data);
+            }
+        } catch (Exception e) {
+            log.debug("Invalid {} OTLP/HTTP request", type, e);
+            end(request, 400, "Invalid request body: " + e.getMessage());
+            return;
+        }
+        
+        try {
+            int count;
+            if (data.length == 0) {
+                // An export request without any resources is valid OTLP and there is nothing to buffer
+                count = 0;
+            } else if (config.isPassThrough()) {
+                buffer.write(TelemetryData.exportRequest(type, data));
+                count = 1;
+            } else {
+                List<byte[]> resources = OtlpFrames.splitResources(data);
+                for (byte[] resource : resources) {
+                    buffer.write(new TelemetryData(type, resource, System.currentTimeMillis()));
+                }
+                count = resources.size();
+            }
+            
+            // An empty Export*ServiceResponse, in the same encoding as the request
+            request.response()
+                   .putHeader(HttpHeaders.CONTENT_TYPE, json ? JSON_CONTENT_TYPE : PROTOBUF_CONTENT_TYPE)
+                   .end(json ? Buffer.buffer("{}") : Buffer.buffer());
+            
+            log.debug("Received {} {} items ({} total bytes) via OTLP/HTTP", count, type, data.length);
+        } catch (Exception e) {
+            log.error("Error handling {}", type, e);
+            end(request, 500, "Internal server error: " + e.getMessage());
+        }
+    }
+    
+    private static byte[] jsonToProtobuf(TelemetryData.TelemetryType type, Buffer body) throws Exception {
+        JsonObject json = new JsonObject(body);
+        convertHexIds(json);
+        
+        Message.Builder builder = switch (type) {
+            case TRACES -> ExportTraceServiceRequest.newBuilder();
+            case METRICS -> ExportMetricsServiceRequest.newBuilder();
+            case LOGS -> ExportLogsServiceRequest.newBuilder();
+        };
+        JsonFormat.parser().ignoringUnknownFields().merge(json.encode(), builder);
+        return builder.build().toByteArray();
+    }
+    
+    private static void convertHexIds(JsonObject json) {
+        for (String field : List.copyOf(json.fieldNames())) {
+            Object value = json.getValue(field);
+            if (value instanceof String hex && HEX_ID_FIELDS.contains(field)) {
+                json.put(field, Base64.getEncoder().encodeToString(HexFormat.of().parseHex(hex)));
+            } else if (value instanceof JsonObject object) {
+                convertHexIds(object);
+            } else if (value instanceof JsonArray array) {
+                convertHexIds(array);
+            }
+        }
+    }
+    
+    private static void convertHexIds(JsonArray json) {
+        for (int i = 0; i < json.size(); i++) {
+            Object value = json.getValue(i);
+            if (value instanceof JsonObject object) {
+                convertHexIds(object);
+            } else if (value instanceof JsonArray array) {
+                convertHexIds(array);
+            }
+        }
+    }
+    
+    private static String mediaType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int separator = contentType.indexOf(';');
+        return (separator >= 0 ? contentType.substring(0, separator) : contentType).trim().toLowerCase();
+    }
+    
+    private static void end(HttpServerRequest request, int statusCode, String message) {
+        if (!request.response().ended()) {
+            request.response()
+                   .setStatusCode(statusCode)
+                   .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain")
+                   .end(message);
+        }
+    }
+}
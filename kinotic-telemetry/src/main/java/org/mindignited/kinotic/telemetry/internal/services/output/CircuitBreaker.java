@@ -0,0 +1,95 @@
+package org.mindignited.kinotic.telemetry.internal.services.output;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A circuit breaker for a single output.
+ * <p>
+ * The breaker opens after a number of consecutive failures. Once it has been open for the configured time it is half open,
+ * and allows a single request through to test the output. A success closes the breaker again, a failure keeps it open.
+ * <p>
+ * This class is thread safe.
+ */
+public class CircuitBreaker {
+    
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+    
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private State state = State.CLOSED;
+    private boolean probeInFlight;
+    
+    public CircuitBreaker(String name, int failureThreshold, long openMs) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, openMs));
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Checks if a request may be sent, when half open only a single request is allowed until its result is recorded.
+     *
+     * @return true if the request may be sent
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield false;
+                }
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+    
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+    
+    /**
+     * @return true if this failure opened the breaker
+     */
+    public synchronized boolean recordFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * @return the time in nanoseconds until the breaker will allow a request, or 0 if it allows requests now
+     */
+    public synchronized long remainingOpenNanos() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openNanos - (System.nanoTime() - openedAtNanos));
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -1,6 +1,6 @@
 package org.mindignited.kinotic.telemetry.internal.services.output;
 
-import org.mindignited.kinotic.telemetry.api.domain.TelemetryData;
+import org.mindignited.kinotic.telemetry.api.config.KinoticTelemetryProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -9,11 +9,14 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
- * Manages multiple output processors and routes telemetry data to them.
+ * Manages multiple output processors.
+ * Every output has its own {@link CircuitBreaker}, used by the drain loops of the {@code OtelCollectorService},
+ * so a failing output is not sent data while its breaker is open.
  */
 @Component
 public class OutputManager {
@@ -21,6 +24,13 @@ public class OutputManager {
     private static final Logger log = LoggerFactory.getLogger(OutputManager.class);
     
     private final Map<String, OutputProcessor> processors = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final List<Consumer<OutputProcessor>> registrationListeners = new CopyOnWriteArrayList<>();
+    private final KinoticTelemetryProperties.Buffer bufferConfig;
+    
+    public OutputManager(KinoticTelemetryProperties properties) {
+        this.bufferConfig = properties.getBuffer();
+    }
     
     /**
      * Register an output processor.
@@ -37,6 +47,7 @@ public class OutputManager {
         }
         
         processors.put(type, processor);
+        circuitBreakers.computeIfAbsent(type, this::newCircuitBreaker);
         log.info("Registered output processor: {}", type);
         
         // If already initialized, initialize this processor immediately
@@ -49,6 +60,21 @@ public class OutputManager {
         } catch (Exception e) {
             log.error("Failed to initialize newly registered processor: {}", type, e);
         }
+        
+        for (Consumer<OutputProcessor> listener : registrationListeners) {
+            try {
+                listener.accept(processor);
+            } catch (Exception e) {
+                log.error("Error notifying listener of registered processor: {}", type, e);
+            }
+        }
+    }
+    
+    /**
+     * Adds a listener that is called every time an output processor is registered.
+     */
+    public void addRegistrationListener(Consumer<OutputProcessor> listener) {
+        registrationListeners.add(listener);
     }
     
     /**
@@ -56,6 +82,7 @@ public class OutputManager {
      */
     public void unregister(String type) {
         OutputProcessor processor = processors.remove(type);
+        circuitBreakers.remove(type);
         if (processor != null) {
             processor.shutdown();
             log.info("Unregistered output processor: {}", type);
@@ -70,35 +97,23 @@ public class OutputManager {
     }
     
     /**
-     * Process telemetry data through all enabled processors.
+     * Get all registered output processors.
      */
-    public CompletableFuture<Void> process(List<TelemetryData> data) {
-        if (data == null || data.isEmpty()) {
-            return CompletableFuture.completedFuture(null);
-        }
-        
-        List<OutputProcessor> enabledProcessors = processors.values().stream()
-                .filter(OutputProcessor::isEnabled)
-                .filter(OutputProcessor::isReady)
-                .toList();
-        
-        if (enabledProcessors.isEmpty()) {
-            log.debug("No enabled output processors available");
-            return CompletableFuture.completedFuture(null);
-        }
-        
-        List<CompletableFuture<Void>> futures = enabledProcessors.stream()
-                .map(processor -> {
-                    try {
-                        return processor.process(data);
-                    } catch (Exception e) {
-                        log.error("Error processing data with processor: {}", processor.getType(), e);
-                        return CompletableFuture.<Void>failedFuture(e);
-                    }
-                })
-                .toList();
-        
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    public List<OutputProcessor> getProcessors() {
+        return List.copyOf(processors.values());
+    }
+    
+    private CircuitBreaker newCircuitBreaker(String name) {
+        return new CircuitBreaker(name,
+                                  bufferConfig.getCircuitBreakerFailureThreshold(),
+                                  bufferConfig.getCircuitBreakerOpenMs());
+    }
+    
+    /**
+     * Get the circuit breaker used when reading the buffer for an output processor by type.
+     */
+    public CircuitBreaker getCircuitBreaker(String type) {
+        return circuitBreakers.get(type);
     }
     
     /**
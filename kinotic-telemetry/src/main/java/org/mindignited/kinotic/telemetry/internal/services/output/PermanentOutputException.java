@@ -0,0 +1,28 @@
+package org.mindignited.kinotic.telemetry.internal.services.output;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Thrown by an {@link OutputProcessor} when data was rejected in a way that sending it again can never fix,
+ * such as an endpoint responding that the request is invalid.
+ * Data that fails with this exception is dropped rather than retried.
+ */
+public class PermanentOutputException extends RuntimeException {
+
+    public PermanentOutputException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * @param throwable a failure, possibly wrapped by a {@link java.util.concurrent.CompletableFuture}
+     * @return true if the failure is a {@link PermanentOutputException}
+     */
+    public static boolean isPermanent(Throwable throwable) {
+        Throwable current = throwable;
+        while ((current instanceof CompletionException || current instanceof ExecutionException) && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current instanceof PermanentOutputException;
+    }
+}
@@ -2,51 +2,69 @@ package org.mindignited.kinotic.telemetry.internal.services.output.otlp;
 
 import io.grpc.Status;
 import io.grpc.StatusException;
-import io.grpc.stub.StreamObserver;
-import io.opentelemetry.proto.collector.metrics.v1.ExportMetricsServiceRequest;
-import io.opentelemetry.proto.collector.metrics.v1.ExportMetricsServiceResponse;
-import io.opentelemetry.proto.collector.metrics.v1.MetricsServiceGrpc;
-import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
-import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceResponse;
-import io.opentelemetry.proto.collector.trace.v1.TraceServiceGrpc;
-import io.opentelemetry.proto.metrics.v1.ResourceMetrics;
-import io.opentelemetry.proto.trace.v1.ResourceSpans;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.SocketAddress;
+import io.vertx.grpc.common.GrpcMessageDecoder;
+import io.vertx.grpc.common.GrpcMessageEncoder;
+import io.vertx.grpc.common.GrpcStatus;
+import io.vertx.grpc.common.ServiceMethod;
+import io.vertx.grpc.common.ServiceName;
 import io.vertx.grpcio.client.GrpcIoClient;
-import io.vertx.grpcio.client.GrpcIoClientChannel;
 import org.mindignited.kinotic.telemetry.api.config.KinoticTelemetryProperties;
 import org.mindignited.kinotic.telemetry.api.domain.TelemetryData;
+import org.mindignited.kinotic.telemetry.internal.services.OtlpFrames;
 import org.mindignited.kinotic.telemetry.internal.services.output.OutputProcessor;
+import org.mindignited.kinotic.telemetry.internal.services.output.PermanentOutputException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import com.google.protobuf.InvalidProtocolBufferException;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * OTLP gRPC output processor that sends telemetry data to an OTLP gRPC endpoint using Vert.x gRPC client.
+ * <p>
+ * Export requests are assembled from the buffered bytes with {@link OtlpFrames} and sent as raw protobuf messages,
+ * so telemetry is never decoded on its way through the collector.
  */
 @Component
 public class OtlpGrpcOutput implements OutputProcessor {
     
     private static final Logger log = LoggerFactory.getLogger(OtlpGrpcOutput.class);
     
+    private static final ServiceMethod<Buffer, Buffer> TRACE_EXPORT = ServiceMethod.client(
+            ServiceName.create("opentelemetry.proto.collector.trace.v1.TraceService"),
+            "Export",
+            GrpcMessageEncoder.IDENTITY,
+            GrpcMessageDecoder.IDENTITY);
+    
+    private static final ServiceMethod<Buffer, Buffer> METRICS_EXPORT = ServiceMethod.client(
+            ServiceName.create("opentelemetry.proto.collector.metrics.v1.MetricsService"),
+            "Export",
+            GrpcMessageEncoder.IDENTITY,
+            GrpcMessageDecoder.IDENTITY);
+    
+    private static final ServiceMethod<Buffer, Buffer> LOGS_EXPORT = ServiceMethod.client(
+            ServiceName.create("opentelemetry.proto.collector.logs.v1.LogsService"),
+            "Export",
+            GrpcMessageEncoder.IDENTITY,
+            GrpcMessageDecoder.IDENTITY);
+    
     private final KinoticTelemetryProperties.Output config;
     private final Vertx vertx;
     private GrpcIoClient grpcClient;
-    private GrpcIoClientChannel channel;
-    private TraceServiceGrpc.TraceServiceStub traceStub;
-    private MetricsServiceGrpc.MetricsServiceStub metricsStub;
     private SocketAddress serverAddress;
     private final AtomicBoolean initialized = new AtomicBoolean(false);
     private final AtomicBoolean enabled = new AtomicBoolean(true);
@@ -78,13 +96,6 @@ public class OtlpGrpcOutput implements OutputProcessor {
                 // Create socket address
                 serverAddress = SocketAddress.inetSocketAddress(port, host);
                 
-                // Create gRPC channel
-                channel = new GrpcIoClientChannel(grpcClient, serverAddress);
-                
-                // Create async stubs (non-blocking)
-                traceStub = TraceServiceGrpc.newStub(channel);
-                metricsStub = MetricsServiceGrpc.newStub(channel);
-                
                 log.info("OTLP gRPC output initialized: {}:{}", host, port);
             } catch (Exception e) {
                 log.error("Failed to initialize OTLP gRPC output", e);
@@ -130,86 +141,39 @@ public class OtlpGrpcOutput implements OutputProcessor {
             return CompletableFuture.completedFuture(null);
         }
         
-        // Group data by type
-        List<TelemetryData> traces = data.stream()
-                .filter(d -> d.getType() == TelemetryData.TelemetryType.TRACES)
-                .toList();
-        
-        List<TelemetryData> metrics = data.stream()
-                .filter(d -> d.getType() == TelemetryData.TelemetryType.METRICS)
-                .toList();
-        
-        // Process both traces and metrics in parallel using Futures
-        Future<Void> tracesFuture = traces.isEmpty() 
-                ? Future.succeededFuture() 
-                : processTracesAsync(traces);
+        // Group data by type, each signal is sent as a single export request
+        Map<TelemetryData.TelemetryType, List<TelemetryData>> byType = new EnumMap<>(TelemetryData.TelemetryType.class);
+        for (TelemetryData item : data) {
+            byType.computeIfAbsent(item.getType(), type -> new ArrayList<>()).add(item);
+        }
         
-        Future<Void> metricsFuture = metrics.isEmpty() 
-                ? Future.succeededFuture() 
-                : processMetricsAsync(metrics);
+        // Process all signals in parallel, failures are propagated so the batch is not acknowledged and will be sent again
+        List<Future<Void>> futures = new ArrayList<>(byType.size());
+        for (Map.Entry<TelemetryData.TelemetryType, List<TelemetryData>> entry : byType.entrySet()) {
+            TelemetryData.TelemetryType type = entry.getKey();
+            Buffer request = Buffer.buffer(OtlpFrames.toExportRequest(entry.getValue()));
+            futures.add(exportWithRetry(exportMethod(type), type.name().toLowerCase(), request, 0));
+        }
         
-        // Combine both futures
-        Future<Void> combinedFuture = tracesFuture.compose(v -> metricsFuture);
-        return combinedFuture.toCompletionStage()
+        return Future.all(futures)
+                .toCompletionStage()
                 .thenApply(v -> (Void) null)
-                .toCompletableFuture()
-                .exceptionally(error -> {
-                    log.error("Error processing telemetry data", error);
-                    return null;
-                });
+                .toCompletableFuture();
     }
     
-    private Future<Void> processTracesAsync(List<TelemetryData> traces) {
-        if (traceStub == null) {
-            return Future.succeededFuture();
-        }
-        
-        return processTracesWithRetry(traces, 0);
+    private static ServiceMethod<Buffer, Buffer> exportMethod(TelemetryData.TelemetryType type) {
+        return switch (type) {
+            case TRACES -> TRACE_EXPORT;
+            case METRICS -> METRICS_EXPORT;
+            case LOGS -> LOGS_EXPORT;
+        };
     }
     
-    private Future<Void> processTracesWithRetry(List<TelemetryData> traces, int retryCount) {
+    private Future<Void> exportWithRetry(ServiceMethod<Buffer, Buffer> method, String signal, Buffer request, int retryCount) {
         try {
-            // Parse protobuf data and create export request
-            ExportTraceServiceRequest.Builder requestBuilder = ExportTraceServiceRequest.newBuilder();
-            
-            for (TelemetryData data : traces) {
-                try {
-                    ResourceSpans resourceSpans = ResourceSpans.parseFrom(data.getData());
-                    requestBuilder.addResourceSpans(resourceSpans);
-                } catch (InvalidProtocolBufferException e) {
-                    log.warn("Failed to parse trace data, skipping", e);
-                }
-            }
-            
-            if (requestBuilder.getResourceSpansCount() == 0) {
-                return Future.succeededFuture();
-            }
-            
-            ExportTraceServiceRequest request = requestBuilder.build();
-            Promise<ExportTraceServiceResponse> promise = Promise.promise();
-            
-            traceStub.export(request, new StreamObserver<ExportTraceServiceResponse>() {
-                @Override
-                public void onNext(ExportTraceServiceResponse value) {
-                    promise.complete(value);
-                }
-                
-                @Override
-                public void onError(Throwable t) {
-                    promise.fail(t);
-                }
-                
-                @Override
-                public void onCompleted() {
-                    if (!promise.future().isComplete()) {
-                        promise.complete();
-                    }
-                }
-            });
-            
-            Future<ExportTraceServiceResponse> responseFuture = promise.future();
-            return responseFuture.<Void>map(v -> {
-                        log.debug("Exported {} traces via OTLP gRPC", request.getResourceSpansCount());
+            return export(method, request)
+                    .<Void>map(v -> {
+                        log.debug("Exported {} bytes of {} via OTLP gRPC", request.length(), signal);
                         return null;
                     })
                     .recover(error -> {
@@ -218,117 +182,67 @@ public class OtlpGrpcOutput implements OutputProcessor {
                             status = ((StatusException) error).getStatus();
                         }
                         
-                        if (status != null && 
-                            (status.getCode() == Status.Code.UNAVAILABLE || 
-                             status.getCode() == Status.Code.DEADLINE_EXCEEDED)) {
+                        // Transport failures, such as the endpoint refusing connections, carry no status and are retried
+                        if (isRetryable(status)) {
                             if (retryCount < config.getMaxRetries()) {
-                                log.warn("Failed to export traces, retrying ({}/{})", retryCount + 1, config.getMaxRetries());
+                                log.warn("Failed to export {}, retrying ({}/{})", signal, retryCount + 1, config.getMaxRetries());
                                 // Wait before retry using Vertx timer
                                 Promise<Void> delayPromise = Promise.promise();
                                 vertx.setTimer(TimeUnit.MILLISECONDS.toMillis(config.getRetryDelayMs()), id -> {
                                     delayPromise.complete();
                                 });
                                 return delayPromise.future()
-                                        .<Void>compose(v -> processTracesWithRetry(traces, retryCount + 1));
+                                        .<Void>compose(v -> exportWithRetry(method, signal, request, retryCount + 1));
                             } else {
-                                log.error("Failed to export traces after {} retries", config.getMaxRetries(), error);
+                                log.error("Failed to export {} after {} retries", signal, config.getMaxRetries(), error);
                                 return Future.<Void>failedFuture(error);
                             }
                         } else {
-                            log.error("Failed to export traces", error);
-                            return Future.<Void>failedFuture(error);
+                            // Sending the same request again would be rejected again, so it is dropped rather than retried
+                            log.error("Export of {} was rejected with {}, it will not be retried", signal, status.getCode(), error);
+                            return Future.<Void>failedFuture(new PermanentOutputException("Export of " + signal + " was rejected with "
+                                                                                                  + status.getCode(), error));
                         }
                     });
         } catch (Exception e) {
-            log.error("Unexpected error exporting traces", e);
+            log.error("Unexpected error exporting {}", signal, e);
             return Future.failedFuture(e);
         }
     }
     
-    private Future<Void> processMetricsAsync(List<TelemetryData> metrics) {
-        if (metricsStub == null) {
-            return Future.succeededFuture();
+    /**
+     * The status codes the OTLP specification defines as retryable, a null status is a transport failure and is retried too.
+     * RESOURCE_EXHAUSTED is retried since the endpoint is only asking the collector to slow down.
+     */
+    private static boolean isRetryable(Status status) {
+        if (status == null) {
+            return true;
         }
-        
-        return processMetricsWithRetry(metrics, 0);
+        return switch (status.getCode()) {
+            case CANCELLED, DEADLINE_EXCEEDED, RESOURCE_EXHAUSTED, ABORTED, OUT_OF_RANGE, UNAVAILABLE, DATA_LOSS -> true;
+            default -> false;
+        };
     }
     
-    private Future<Void> processMetricsWithRetry(List<TelemetryData> metrics, int retryCount) {
-        try {
-            // Parse protobuf data and create export request
-            ExportMetricsServiceRequest.Builder requestBuilder = ExportMetricsServiceRequest.newBuilder();
-            
-            for (TelemetryData data : metrics) {
-                try {
-                    ResourceMetrics resourceMetrics = ResourceMetrics.parseFrom(data.getData());
-                    requestBuilder.addResourceMetrics(resourceMetrics);
-                } catch (InvalidProtocolBufferException e) {
-                    log.warn("Failed to parse metrics data, skipping", e);
-                }
-            }
-            
-            if (requestBuilder.getResourceMetricsCount() == 0) {
-                return Future.succeededFuture();
-            }
-            
-            ExportMetricsServiceRequest request = requestBuilder.build();
-            Promise<ExportMetricsServiceResponse> promise = Promise.promise();
-            
-            metricsStub.export(request, new StreamObserver<ExportMetricsServiceResponse>() {
-                @Override
-                public void onNext(ExportMetricsServiceResponse value) {
-                    promise.complete(value);
-                }
-                
-                @Override
-                public void onError(Throwable t) {
-                    promise.fail(t);
-                }
-                
-                @Override
-                public void onCompleted() {
-                    if (!promise.future().isComplete()) {
-                        promise.complete();
-                    }
-                }
-            });
-            
-            Future<ExportMetricsServiceResponse> responseFuture = promise.future();
-            return responseFuture.<Void>map(v -> {
-                        log.debug("Exported {} metrics via OTLP gRPC", request.getResourceMetricsCount());
-                        return null;
-                    })
-                    .recover(error -> {
-                        Status status = null;
-                        if (error instanceof StatusException) {
-                            status = ((StatusException) error).getStatus();
-                        }
-                        
-                        if (status != null && 
-                            (status.getCode() == Status.Code.UNAVAILABLE || 
-                             status.getCode() == Status.Code.DEADLINE_EXCEEDED)) {
-                            if (retryCount < config.getMaxRetries()) {
-                                log.warn("Failed to export metrics, retrying ({}/{})", retryCount + 1, config.getMaxRetries());
-                                // Wait before retry using Vertx timer
-                                Promise<Void> delayPromise = Promise.promise();
-                                vertx.setTimer(TimeUnit.MILLISECONDS.toMillis(config.getRetryDelayMs()), id -> {
-                                    delayPromise.complete();
-                                });
-                                return delayPromise.future()
-                                        .<Void>compose(v -> processMetricsWithRetry(metrics, retryCount + 1));
-                            } else {
-                                log.error("Failed to export metrics after {} retries", config.getMaxRetries(), error);
-                                return Future.<Void>failedFuture(error);
+    /**
+     * Sends a single export request, failing with a {@link StatusException} if the endpoint responds with a non OK status.
+     */
+    private Future<Void> export(ServiceMethod<Buffer, Buffer> method, Buffer request) {
+        return grpcClient.request(serverAddress, method)
+                .compose(clientRequest -> {
+                    clientRequest.timeout(config.getTimeoutMs(), TimeUnit.MILLISECONDS);
+                    clientRequest.end(request);
+                    return clientRequest.response();
+                })
+                .compose(response -> response.end()
+                        .transform(ar -> {
+                            GrpcStatus status = response.status();
+                            if (status != null && status != GrpcStatus.OK) {
+                                return Future.failedFuture(new StatusException(Status.fromCodeValue(status.code)
+                                                                                     .withDescription(response.statusMessage())));
                             }
-                        } else {
-                            log.error("Failed to export metrics", error);
-                            return Future.<Void>failedFuture(error);
-                        }
-                    });
-        } catch (Exception e) {
-            log.error("Unexpected error exporting metrics", e);
-            return Future.failedFuture(e);
-        }
+                            return ar.succeeded() ? Future.<Void>succeededFuture() : Future.<Void>failedFuture(ar.cause());
+                        }));
     }
     
     @Override
@@ -338,7 +252,7 @@ public class OtlpGrpcOutput implements OutputProcessor {
     
     @Override
     public boolean isReady() {
-        return initialized.get() && grpcClient != null && channel != null;
+        return initialized.get() && grpcClient != null && serverAddress != null;
     }
 }
 
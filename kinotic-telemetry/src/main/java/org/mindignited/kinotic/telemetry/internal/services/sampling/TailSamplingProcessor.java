@@ -0,0 +1,362 @@
+package org.mindignited.kinotic.telemetry.internal.services.sampling;
+
+import com.google.protobuf.ByteString;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.resource.v1.Resource;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.ScopeSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import io.opentelemetry.proto.trace.v1.Status;
+import org.mindignited.kinotic.telemetry.api.config.KinoticTelemetryProperties;
+import org.mindignited.kinotic.telemetry.api.domain.TelemetryData;
+import org.mindignited.kinotic.telemetry.internal.services.ChronicleQueueBuffer;
+import org.mindignited.kinotic.telemetry.internal.services.OtlpFrames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tail based sampling of traces, between the buffer and the outputs.
+ * <p>
+ * Spans are grouped by trace id and held for {@link KinoticTelemetryProperties.Sampling#getDecisionWaitMs()} after the first
+ * span of the trace arrives. The trace is then kept if it contains an error, if it lasted longer than the latency threshold,
+ * or if it is chosen by probabilistic sampling. Kept traces are subject to a per service rate limit, and are then written to the
+ * sampled traces queue of the {@link ChronicleQueueBuffer}, which the outputs read with the same retries as any other data.
+ * <p>
+ * Traces waiting for a decision are held on the heap, bounded by {@link KinoticTelemetryProperties.Sampling#getMaxTraces()} and
+ * {@link KinoticTelemetryProperties.Sampling#getMaxBytes()}. When either is exceeded the oldest traces are decided early.
+ * When every trace would be kept, the data is passed to the sampled traces queue without being decoded.
+ * <p>
+ * Decisions are remembered, so spans that arrive after their trace was decided are kept or dropped the same way.
+ * Rate limits are tracked for at most {@link KinoticTelemetryProperties.Sampling#getMaxServices()} services,
+ * since the service name is supplied by clients.
+ * <p>
+ * NOTE: spans are acknowledged to the buffer once they are held here, so traces waiting for a decision are lost if the
+ * collector stops abruptly. Traces waiting for a decision when the collector is stopped are decided immediately.
+ */
+@Component
+public class TailSamplingProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(TailSamplingProcessor.class);
+    private static final String SERVICE_NAME = "service.name";
+    private static final String UNKNOWN_SERVICE = "unknown_service";
+
+    private final KinoticTelemetryProperties.Sampling config;
+    private final ChronicleQueueBuffer buffer;
+    // Ordered by when the first span of the trace arrived
+    private final LinkedHashMap<ByteString, PendingTrace> pending = new LinkedHashMap<>();
+    private final LinkedHashMap<ByteString, Boolean> decisions;
+    private final LinkedHashMap<String, RateLimiter> rateLimiters;
+    private List<TelemetryData> released = new ArrayList<>();
+    private long pendingBytes;
+    private ScheduledExecutorService scheduler;
+    private long keptTraces;
+    private long droppedTraces;
+
+    public TailSamplingProcessor(KinoticTelemetryProperties properties, ChronicleQueueBuffer buffer) {
+        this.config = properties.getSampling();
+        this.buffer = buffer;
+        int maxDecisions = Math.max(1, config.getMaxDecisions());
+        this.decisions = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteString, Boolean> eldest) {
+                return size() > maxDecisions;
+            }
+        };
+        // Access ordered, so the services seen least recently are forgotten first
+        int maxServices = Math.max(1, config.getMaxServices());
+        this.rateLimiters = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RateLimiter> eldest) {
+                return size() > maxServices;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("Tail sampling is disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otel-tail-sampling");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(100, Math.min(1000, config.getDecisionWaitMs() / 10));
+        scheduler.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Tail sampling started, decision wait {}ms, sampling {}%", config.getDecisionWaitMs(), config.getSamplingPercentage());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush(true);
+        } catch (Exception e) {
+            log.warn("Failed to write sampled traces on shutdown", e);
+        }
+        scheduler = null;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Adds trace data to the sampling window. The data is held until its trace is decided, and is then either written to the
+     * sampled traces queue or dropped.
+     *
+     * @param items trace data read from the buffer
+     */
+    public void offer(List<TelemetryData> items) {
+        if (keepsEveryTrace()) {
+            // Every trace would be kept, so there is nothing to decide
+            synchronized (this) {
+                released.addAll(items);
+            }
+            return;
+        }
+        for (TelemetryData item : items) {
+            ExportTraceServiceRequest request;
+            try {
+                request = ExportTraceServiceRequest.parseFrom(OtlpFrames.toExportRequest(List.of(item)));
+            } catch (Exception e) {
+                log.warn("Failed to parse trace data, skipping", e);
+                continue;
+            }
+            for (ResourceSpans resourceSpans : request.getResourceSpansList()) {
+                addResourceSpans(resourceSpans);
+            }
+        }
+    }
+
+    /**
+     * Splits the resource spans into one fragment per trace, keeping the resource and scope of every span.
+     */
+    private void addResourceSpans(ResourceSpans resourceSpans) {
+        Map<ByteString, ResourceSpans.Builder> fragments = new HashMap<>();
+        for (ScopeSpans scopeSpans : resourceSpans.getScopeSpansList()) {
+            Map<ByteString, ScopeSpans.Builder> scopeFragments = new HashMap<>();
+            for (Span span : scopeSpans.getSpansList()) {
+                scopeFragments.computeIfAbsent(span.getTraceId(), traceId -> ScopeSpans.newBuilder()
+                                                                                       .setScope(scopeSpans.getScope())
+                                                                                       .setSchemaUrl(scopeSpans.getSchemaUrl()))
+                              .addSpans(span);
+            }
+            scopeFragments.forEach((traceId, builder) -> fragments.computeIfAbsent(traceId, id -> ResourceSpans.newBuilder()
+                                                                                                               .setResource(resourceSpans.getResource())
+                                                                                                               .setSchemaUrl(resourceSpans.getSchemaUrl()))
+                                                                  .addScopeSpans(builder));
+        }
+
+        String serviceName = serviceName(resourceSpans.getResource());
+        synchronized (this) {
+            fragments.forEach((traceId, builder) -> addFragment(traceId, serviceName, builder.build()));
+        }
+    }
+
+    private void addFragment(ByteString traceId, String serviceName, ResourceSpans fragment) {
+        Boolean decision = decisions.get(traceId);
+        if (decision != null) {
+            // A late span for a trace that has already been decided
+            if (decision) {
+                released.add(TelemetryData.traces(fragment.toByteArray()));
+            }
+            return;
+        }
+
+        PendingTrace trace = pending.computeIfAbsent(traceId, id -> new PendingTrace(System.nanoTime(), serviceName));
+        trace.add(fragment);
+        pendingBytes += fragment.getSerializedSize();
+
+        // Decide the oldest traces early rather than growing without bound
+        Iterator<Map.Entry<ByteString, PendingTrace>> iterator = pending.entrySet().iterator();
+        while (pending.size() > config.getMaxTraces() || (pendingBytes > config.getMaxBytes() && iterator.hasNext())) {
+            Map.Entry<ByteString, PendingTrace> eldest = iterator.next();
+            iterator.remove();
+            decide(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    /**
+     * @return true if every trace would be kept, so the spans do not need to be held for a decision
+     */
+    private boolean keepsEveryTrace() {
+        return config.getSamplingPercentage() >= 100 && config.getMaxTracesPerSecondPerService() <= 0;
+    }
+
+    private void flushSafely() {
+        try {
+            flush(false);
+        } catch (Exception e) {
+            log.error("Error deciding sampled traces", e);
+        }
+    }
+
+    /**
+     * Decides every trace that has waited long enough, or all traces if all is true,
+     * and writes the kept traces to the sampled traces queue.
+     */
+    private void flush(boolean all) {
+        List<TelemetryData> toSend;
+        synchronized (this) {
+            long decideBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(config.getDecisionWaitMs());
+            Iterator<Map.Entry<ByteString, PendingTrace>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<ByteString, PendingTrace> entry = iterator.next();
+                if (!all && entry.getValue().firstSeenNanos - decideBefore > 0) {
+                    break; // every later trace arrived after this one
+                }
+                iterator.remove();
+                decide(entry.getKey(), entry.getValue());
+            }
+            toSend = released;
+            released = new ArrayList<>();
+        }
+
+        if (toSend.isEmpty()) {
+            return;
+        }
+        log.debug("Writing {} sampled trace fragments, {} traces kept and {} dropped so far", toSend.size(), keptTraces, droppedTraces);
+        buffer.writeSampledTraces(toSend);
+    }
+
+    private void decide(ByteString traceId, PendingTrace trace) {
+        pendingBytes -= trace.bytes;
+        boolean keep = (config.isKeepErrors() && trace.error)
+                       || (config.getLatencyThresholdMs() > 0
+                           && trace.durationNanos() >= TimeUnit.MILLISECONDS.toNanos(config.getLatencyThresholdMs()))
+                       || isSampled(traceId);
+
+        if (keep && config.getMaxTracesPerSecondPerService() > 0) {
+            keep = rateLimiters.computeIfAbsent(trace.serviceName, name -> new RateLimiter(config.getMaxTracesPerSecondPerService()))
+                               .tryAcquire();
+        }
+
+        decisions.put(traceId, keep);
+        if (keep) {
+            keptTraces++;
+            for (ResourceSpans fragment : trace.fragments) {
+                released.add(TelemetryData.traces(fragment.toByteArray()));
+            }
+        } else {
+            droppedTraces++;
+        }
+    }
+
+    /**
+     * Trace ids are random, so the low bits of the id give a consistent decision for the same trace on every collector
+     */
+    private boolean isSampled(ByteString traceId) {
+        double percentage = config.getSamplingPercentage();
+        if (percentage >= 100) {
+            return true;
+        } else if (percentage <= 0) {
+            return false;
+        }
+        long value = 0;
+        int start = Math.max(0, traceId.size() - Long.BYTES);
+        for (int i = start; i < traceId.size(); i++) {
+            value = (value << 8) | (traceId.byteAt(i) & 0xFF);
+        }
+        return Long.remainderUnsigned(value, 10_000) < (long) (percentage * 100);
+    }
+
+    private static String serviceName(Resource resource) {
+        for (KeyValue attribute : resource.getAttributesList()) {
+            if (SERVICE_NAME.equals(attribute.getKey())) {
+                return attribute.getValue().getStringValue();
+            }
+        }
+        return UNKNOWN_SERVICE;
+    }
+
+    /**
+     * The spans received so far for a trace that has not been decided yet
+     */
+    private static final class PendingTrace {
+
+        private final long firstSeenNanos;
+        private final String serviceName;
+        private final List<ResourceSpans> fragments = new ArrayList<>();
+        private boolean error;
+        private long minStartTimeUnixNano = Long.MAX_VALUE;
+        private long maxEndTimeUnixNano = Long.MIN_VALUE;
+        private long bytes;
+
+        private PendingTrace(long firstSeenNanos, String serviceName) {
+            this.firstSeenNanos = firstSeenNanos;
+            this.serviceName = serviceName;
+        }
+
+        private void add(ResourceSpans fragment) {
+            fragments.add(fragment);
+            bytes += fragment.getSerializedSize();
+            for (ScopeSpans scopeSpans : fragment.getScopeSpansList()) {
+                for (Span span : scopeSpans.getSpansList()) {
+                    if (span.getStatus().getCode() == Status.StatusCode.STATUS_CODE_ERROR) {
+                        error = true;
+                    }
+                    minStartTimeUnixNano = Math.min(minStartTimeUnixNano, span.getStartTimeUnixNano());
+                    maxEndTimeUnixNano = Math.max(maxEndTimeUnixNano, span.getEndTimeUnixNano());
+                }
+            }
+        }
+
+        private long durationNanos() {
+            return maxEndTimeUnixNano > minStartTimeUnixNano ? maxEndTimeUnixNano - minStartTimeUnixNano : 0;
+        }
+    }
+
+    /**
+     * Token bucket allowing a number of traces per second, with a burst of up to one second
+     */
+    private static final class RateLimiter {
+
+        private final double perSecond;
+        private final double burst;
+        private double tokens;
+        private long lastRefillNanos;
+
+        private RateLimiter(double perSecond) {
+            this.perSecond = perSecond;
+            this.burst = Math.max(1, perSecond);
+            this.tokens = burst;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        private boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * perSecond);
+            lastRefillNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+    }
+}
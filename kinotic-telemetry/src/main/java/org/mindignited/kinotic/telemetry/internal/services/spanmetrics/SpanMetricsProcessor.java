@@ -0,0 +1,453 @@
+package org.mindignited.kinotic.telemetry.internal.services.spanmetrics;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
+import io.opentelemetry.proto.collector.metrics.v1.ExportMetricsServiceRequest;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.InstrumentationScope;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.metrics.v1.AggregationTemporality;
+import io.opentelemetry.proto.metrics.v1.Histogram;
+import io.opentelemetry.proto.metrics.v1.HistogramDataPoint;
+import io.opentelemetry.proto.metrics.v1.Metric;
+import io.opentelemetry.proto.metrics.v1.NumberDataPoint;
+import io.opentelemetry.proto.metrics.v1.ResourceMetrics;
+import io.opentelemetry.proto.metrics.v1.ScopeMetrics;
+import io.opentelemetry.proto.metrics.v1.Sum;
+import io.opentelemetry.proto.resource.v1.Resource;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.ScopeSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import io.opentelemetry.proto.trace.v1.Status;
+import org.mindignited.kinotic.telemetry.api.config.KinoticTelemetryProperties;
+import org.mindignited.kinotic.telemetry.api.domain.TelemetryData;
+import org.mindignited.kinotic.telemetry.internal.services.ChronicleQueueBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Derives request rate, error and duration (RED) metrics from the spans received by the collector.
+ * <p>
+ * Spans are aggregated per service, operation, span kind and status code. Every {@link KinoticTelemetryProperties.SpanMetrics#getIntervalMs()}
+ * the aggregates are written to the metrics buffer as cumulative OTLP metrics, so they are exported like any other metrics:
+ * <ul>
+ *     <li>{@code traces.span.metrics.calls} a monotonic sum of the number of spans, errors are the calls with {@code status.code} {@code STATUS_CODE_ERROR}</li>
+ *     <li>{@code traces.span.metrics.duration} a histogram of span durations in milliseconds</li>
+ * </ul>
+ * Spans are read from the buffer independently of the outputs and of any sampling, so the metrics reflect every span received.
+ * <p>
+ * Recording only touches atomic counters, so it never blocks the thread emitting the metrics.
+ */
+@Component
+public class SpanMetricsProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(SpanMetricsProcessor.class);
+    private static final String SERVICE_NAME = "service.name";
+    private static final String UNKNOWN_SERVICE = "unknown_service";
+    private static final String OVERFLOW = "_other";
+    private static final String CALLS_METRIC = "traces.span.metrics.calls";
+    private static final String DURATION_METRIC = "traces.span.metrics.duration";
+    private static final ByteString SERVICE_NAME_BYTES = ByteString.copyFromUtf8(SERVICE_NAME);
+
+    // Tags of the fields read from the encoded trace data
+    private static final int RESOURCE_SPANS_TAG = WireFormat.makeTag(ExportTraceServiceRequest.RESOURCE_SPANS_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int RESOURCE_TAG = WireFormat.makeTag(ResourceSpans.RESOURCE_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int SCOPE_SPANS_TAG = WireFormat.makeTag(ResourceSpans.SCOPE_SPANS_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int ATTRIBUTES_TAG = WireFormat.makeTag(Resource.ATTRIBUTES_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int KEY_TAG = WireFormat.makeTag(KeyValue.KEY_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int VALUE_TAG = WireFormat.makeTag(KeyValue.VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int STRING_VALUE_TAG = WireFormat.makeTag(AnyValue.STRING_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int SPANS_TAG = WireFormat.makeTag(ScopeSpans.SPANS_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int SPAN_NAME_TAG = WireFormat.makeTag(Span.NAME_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int SPAN_KIND_TAG = WireFormat.makeTag(Span.KIND_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+    private static final int START_TIME_TAG = WireFormat.makeTag(Span.START_TIME_UNIX_NANO_FIELD_NUMBER, WireFormat.WIRETYPE_FIXED64);
+    private static final int END_TIME_TAG = WireFormat.makeTag(Span.END_TIME_UNIX_NANO_FIELD_NUMBER, WireFormat.WIRETYPE_FIXED64);
+    private static final int STATUS_TAG = WireFormat.makeTag(Span.STATUS_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int STATUS_CODE_TAG = WireFormat.makeTag(Status.CODE_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+
+    private final KinoticTelemetryProperties.SpanMetrics config;
+    private final ChronicleQueueBuffer buffer;
+    private final double[] bounds;
+    private final ConcurrentHashMap<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    private final long startTimeUnixNano = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    private ScheduledExecutorService scheduler;
+
+    public SpanMetricsProcessor(KinoticTelemetryProperties properties, ChronicleQueueBuffer buffer) {
+        this.config = properties.getSpanMetrics();
+        this.buffer = buffer;
+        this.bounds = config.getDurationBucketsMs().stream()
+                            .mapToDouble(Double::doubleValue)
+                            .sorted()
+                            .distinct()
+                            .toArray();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("Span metrics are disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otel-span-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1000, config.getIntervalMs());
+        scheduler.scheduleAtFixedRate(this::emitSafely, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Span metrics started, emitting every {}ms", interval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        emitSafely();
+        scheduler = null;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Records the spans contained in the given trace data.
+     * Only the fields the metrics need are read from the encoded data, without parsing it into protobuf objects.
+     *
+     * @param items trace data read from the buffer
+     */
+    public void record(List<TelemetryData> items) {
+        for (TelemetryData item : items) {
+            try {
+                if (item.getEncoding() == TelemetryData.Encoding.EXPORT_REQUEST) {
+                    CodedInputStream in = CodedInputStream.newInstance(item.getData());
+                    // Resource spans are read as views of the data instead of copies
+                    in.enableAliasing(true);
+                    while (!in.isAtEnd()) {
+                        int tag = in.readTag();
+                        if (tag == RESOURCE_SPANS_TAG) {
+                            recordResourceSpans(in.readBytes());
+                        } else {
+                            skipField(in, tag);
+                        }
+                    }
+                } else {
+                    recordResourceSpans(UnsafeByteOperations.unsafeWrap(item.getData()));
+                }
+            } catch (Exception e) {
+                log.warn("Failed to parse trace data for span metrics, skipping", e);
+            }
+        }
+    }
+
+    /**
+     * Records the spans of an encoded {@code ResourceSpans}.
+     * The resource may be encoded after the spans, so the service name is found before the spans are read.
+     */
+    private void recordResourceSpans(ByteString resourceSpans) throws IOException {
+        String serviceName = null;
+        CodedInputStream in = resourceSpans.newCodedInput();
+        while (!in.isAtEnd()) {
+            int tag = in.readTag();
+            if (tag == RESOURCE_TAG) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                serviceName = readServiceName(in);
+                in.popLimit(limit);
+            } else {
+                skipField(in, tag);
+            }
+        }
+        if (serviceName == null) {
+            serviceName = UNKNOWN_SERVICE;
+        }
+
+        in = resourceSpans.newCodedInput();
+        while (!in.isAtEnd()) {
+            int tag = in.readTag();
+            if (tag == SCOPE_SPANS_TAG) {
+                int scopeLimit = in.pushLimit(in.readRawVarint32());
+                while (!in.isAtEnd()) {
+                    int scopeTag = in.readTag();
+                    if (scopeTag == SPANS_TAG) {
+                        int spanLimit = in.pushLimit(in.readRawVarint32());
+                        recordSpan(serviceName, in);
+                        in.popLimit(spanLimit);
+                    } else {
+                        skipField(in, scopeTag);
+                    }
+                }
+                in.popLimit(scopeLimit);
+            } else {
+                skipField(in, tag);
+            }
+        }
+    }
+
+    /**
+     * Reads the {@code service.name} attribute of an encoded {@code Resource}
+     * @return the service name or null if the resource does not have one
+     */
+    private static String readServiceName(CodedInputStream in) throws IOException {
+        String ret = null;
+        while (!in.isAtEnd()) {
+            int tag = in.readTag();
+            if (tag == ATTRIBUTES_TAG) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                boolean serviceName = false;
+                String value = "";
+                while (!in.isAtEnd()) {
+                    int attributeTag = in.readTag();
+                    if (attributeTag == KEY_TAG) {
+                        serviceName = SERVICE_NAME_BYTES.equals(in.readBytes());
+                    } else if (attributeTag == VALUE_TAG) {
+                        int valueLimit = in.pushLimit(in.readRawVarint32());
+                        value = readStringValue(in);
+                        in.popLimit(valueLimit);
+                    } else {
+                        skipField(in, attributeTag);
+                    }
+                }
+                in.popLimit(limit);
+                // The first service.name attribute wins
+                if (serviceName && ret == null) {
+                    ret = value;
+                }
+            } else {
+                skipField(in, tag);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Reads the string value of an encoded {@code AnyValue}
+     * @return the string value, or an empty string if the value is not a string
+     */
+    private static String readStringValue(CodedInputStream in) throws IOException {
+        String ret = "";
+        while (!in.isAtEnd()) {
+            int tag = in.readTag();
+            if (tag == STRING_VALUE_TAG) {
+                ret = in.readString();
+            } else {
+                skipField(in, tag);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Reads the name, kind, status code and timestamps of an encoded {@code Span}, skipping everything else
+     */
+    private void recordSpan(String serviceName, CodedInputStream in) throws IOException {
+        String name = "";
+        int kind = 0;
+        int statusCode = 0;
+        long startTimeUnixNano = 0;
+        long endTimeUnixNano = 0;
+        while (!in.isAtEnd()) {
+            int tag = in.readTag();
+            if (tag == SPAN_NAME_TAG) {
+                name = in.readString();
+            } else if (tag == SPAN_KIND_TAG) {
+                kind = in.readEnum();
+            } else if (tag == START_TIME_TAG) {
+                startTimeUnixNano = in.readFixed64();
+            } else if (tag == END_TIME_TAG) {
+                endTimeUnixNano = in.readFixed64();
+            } else if (tag == STATUS_TAG) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                while (!in.isAtEnd()) {
+                    int statusTag = in.readTag();
+                    if (statusTag == STATUS_CODE_TAG) {
+                        statusCode = in.readEnum();
+                    } else {
+                        skipField(in, statusTag);
+                    }
+                }
+                in.popLimit(limit);
+            } else {
+                skipField(in, tag);
+            }
+        }
+        recordSpan(serviceName, name, kind, statusCode, endTimeUnixNano - startTimeUnixNano);
+    }
+
+    private void recordSpan(String serviceName, String operation, int kind, int statusCode, long durationNanos) {
+        SeriesKey key = new SeriesKey(serviceName, operation, kind, statusCode);
+        Series target = series.get(key);
+        if (target == null) {
+            if (series.size() >= config.getMaxSeries()) {
+                // Service names, kinds and status codes are all client supplied, so the service is collapsed as well
+                // and only known kinds and status codes are kept. This caps the overflow series at one per known kind and status code.
+                key = new SeriesKey(OVERFLOW,
+                                    OVERFLOW,
+                                    Span.SpanKind.forNumber(kind) != null ? kind : Span.SpanKind.SPAN_KIND_UNSPECIFIED_VALUE,
+                                    Status.StatusCode.forNumber(statusCode) != null ? statusCode : Status.StatusCode.STATUS_CODE_UNSET_VALUE);
+            }
+            target = series.computeIfAbsent(key, k -> new Series(bounds.length + 1));
+        }
+
+        double durationMs = Math.max(0, durationNanos) / 1_000_000.0;
+        target.count.increment();
+        target.sumMs.add(durationMs);
+        target.buckets.incrementAndGet(bucketIndex(durationMs));
+    }
+
+    private static void skipField(CodedInputStream in, int tag) throws IOException {
+        if (!in.skipField(tag)) {
+            throw new InvalidProtocolBufferException("Unexpected end group tag in trace data");
+        }
+    }
+
+    private int bucketIndex(double value) {
+        int index = Arrays.binarySearch(bounds, value);
+        // Bucket bounds are inclusive upper bounds
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void emitSafely() {
+        try {
+            emit();
+        } catch (Exception e) {
+            log.error("Error emitting span metrics", e);
+        }
+    }
+
+    private void emit() {
+        ExportMetricsServiceRequest request = snapshot(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()));
+        if (request != null) {
+            buffer.write(TelemetryData.exportRequest(TelemetryData.TelemetryType.METRICS, request.toByteArray()));
+            log.debug("Emitted span metrics for {} series", series.size());
+        }
+    }
+
+    /**
+     * Builds the metrics for the current aggregates
+     * @param now the time of the data points in nanoseconds since the epoch
+     * @return the export request for the metrics, or null if no spans have been recorded
+     */
+    ExportMetricsServiceRequest snapshot(long now) {
+        if (series.isEmpty()) {
+            return null;
+        }
+
+        Map<String, List<Map.Entry<SeriesKey, Series>>> byService = new LinkedHashMap<>();
+        for (Map.Entry<SeriesKey, Series> entry : series.entrySet()) {
+            byService.computeIfAbsent(entry.getKey().serviceName(), name -> new ArrayList<>()).add(entry);
+        }
+
+        ExportMetricsServiceRequest.Builder request = ExportMetricsServiceRequest.newBuilder();
+        for (Map.Entry<String, List<Map.Entry<SeriesKey, Series>>> service : byService.entrySet()) {
+            Sum.Builder calls = Sum.newBuilder()
+                                   .setIsMonotonic(true)
+                                   .setAggregationTemporality(AggregationTemporality.AGGREGATION_TEMPORALITY_CUMULATIVE);
+            Histogram.Builder durations = Histogram.newBuilder()
+                                                   .setAggregationTemporality(AggregationTemporality.AGGREGATION_TEMPORALITY_CUMULATIVE);
+
+            for (Map.Entry<SeriesKey, Series> entry : service.getValue()) {
+                List<KeyValue> attributes = attributes(entry.getKey());
+                Series value = entry.getValue();
+
+                HistogramDataPoint.Builder point = HistogramDataPoint.newBuilder()
+                                                                     .addAllAttributes(attributes)
+                                                                     .setStartTimeUnixNano(startTimeUnixNano)
+                                                                     .setTimeUnixNano(now)
+                                                                     .addAllExplicitBounds(Arrays.stream(bounds).boxed().toList());
+                long count = 0;
+                for (int i = 0; i < value.buckets.length(); i++) {
+                    long bucketCount = value.buckets.get(i);
+                    point.addBucketCounts(bucketCount);
+                    count += bucketCount;
+                }
+                // The count is taken from the buckets, so it is consistent with them even while spans are being recorded
+                point.setCount(count).setSum(value.sumMs.sum());
+                durations.addDataPoints(point);
+
+                calls.addDataPoints(NumberDataPoint.newBuilder()
+                                                   .addAllAttributes(attributes)
+                                                   .setStartTimeUnixNano(startTimeUnixNano)
+                                                   .setTimeUnixNano(now)
+                                                   .setAsInt(value.count.sum()));
+            }
+
+            request.addResourceMetrics(
+                    ResourceMetrics.newBuilder()
+                                   .setResource(Resource.newBuilder().addAttributes(stringAttribute(SERVICE_NAME, service.getKey())))
+                                   .addScopeMetrics(ScopeMetrics.newBuilder()
+                                                                .setScope(InstrumentationScope.newBuilder().setName("kinotic-telemetry-spanmetrics"))
+                                                                .addMetrics(Metric.newBuilder()
+                                                                                  .setName(CALLS_METRIC)
+                                                                                  .setDescription("Number of spans received")
+                                                                                  .setUnit("{call}")
+                                                                                  .setSum(calls))
+                                                                .addMetrics(Metric.newBuilder()
+                                                                                  .setName(DURATION_METRIC)
+                                                                                  .setDescription("Duration of the spans received")
+                                                                                  .setUnit("ms")
+                                                                                  .setHistogram(durations))));
+        }
+
+        return request.build();
+    }
+
+    private static List<KeyValue> attributes(SeriesKey key) {
+        Span.SpanKind kind = Span.SpanKind.forNumber(key.kind());
+        Status.StatusCode statusCode = Status.StatusCode.forNumber(key.statusCode());
+        return List.of(stringAttribute("span.name", key.operation()),
+                       stringAttribute("span.kind", kind != null ? kind.name() : String.valueOf(key.kind())),
+                       stringAttribute("status.code", statusCode != null ? statusCode.name() : String.valueOf(key.statusCode())));
+    }
+
+    private static KeyValue stringAttribute(String key, String value) {
+        return KeyValue.newBuilder()
+                       .setKey(key)
+                       .setValue(AnyValue.newBuilder().setStringValue(value))
+                       .build();
+    }
+
+    private record SeriesKey(String serviceName, String operation, int kind, int statusCode) {
+    }
+
+    /**
+     * The cumulative aggregates for a single series
+     */
+    private static final class Series {
+
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sumMs = new DoubleAdder();
+        private final AtomicLongArray buckets;
+
+        private Series(int bucketCount) {
+            this.buckets = new AtomicLongArray(bucketCount);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.mindignited.kinotic.telemetry.internal.services;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.resource.v1.Resource;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.ScopeSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OtlpFramesTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OtlpFramesTest.class);
+
+    @Test
+    public void testEmptyExportRequestIsValid() throws IOException {
+        OtlpFrames.validate(new byte[0]);
+        assertEquals(List.of(), OtlpFrames.splitResources(new byte[0]));
+    }
+
+    @Test
+    public void testTruncatedExportRequestIsInvalid() {
+        byte[] request = exportRequest(1, 1);
+        assertThrows(InvalidProtocolBufferException.class,
+                     () -> OtlpFrames.validate(Arrays.copyOf(request, request.length - 1)));
+    }
+
+    /**
+     * Compares validating and splitting a request into resources, which is all the receivers do, with fully decoding it.
+     * Timings depend on the machine, so they are logged rather than asserted.
+     */
+    @Test
+    public void testValidateAndSplitThroughput() throws IOException {
+        byte[] request = exportRequest(10, 100);
+        int iterations = 2_000;
+
+        // warm up both paths before measuring
+        for (int i = 0; i < iterations; i++) {
+            OtlpFrames.validate(request);
+            ExportTraceServiceRequest.parseFrom(request);
+        }
+
+        long resources = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            OtlpFrames.validate(request);
+            resources += OtlpFrames.splitResources(request).size();
+        }
+        long framesNanos = System.nanoTime() - start;
+
+        long decodedResources = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            decodedResources += ExportTraceServiceRequest.parseFrom(request).getResourceSpansCount();
+        }
+        long decodeNanos = System.nanoTime() - start;
+
+        assertEquals(10L * iterations, resources);
+        assertEquals(resources, decodedResources);
+        log.info("{} requests of {} bytes: validate and split {} MB/s, full decode {} MB/s",
+                 iterations,
+                 request.length,
+                 megabytesPerSecond(request.length, iterations, framesNanos),
+                 megabytesPerSecond(request.length, iterations, decodeNanos));
+    }
+
+    private static long megabytesPerSecond(int requestLength, int iterations, long nanos) {
+        return (long) requestLength * iterations * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos) / (1024 * 1024);
+    }
+
+    private static byte[] exportRequest(int resourceCount, int spansPerResource) {
+        ExportTraceServiceRequest.Builder request = ExportTraceServiceRequest.newBuilder();
+        for (int i = 0; i < resourceCount; i++) {
+            ScopeSpans.Builder scopeSpans = ScopeSpans.newBuilder();
+            for (int j = 0; j < spansPerResource; j++) {
+                scopeSpans.addSpans(Span.newBuilder()
+                                        .setName("GET /items/" + j)
+                                        .setKind(Span.SpanKind.SPAN_KIND_SERVER)
+                                        .setStartTimeUnixNano(j)
+                                        .setEndTimeUnixNano(j + 1_000_000L));
+            }
+            request.addResourceSpans(ResourceSpans.newBuilder()
+                                                  .setResource(Resource.newBuilder()
+                                                                       .addAttributes(KeyValue.newBuilder()
+                                                                                              .setKey("service.name")
+                                                                                              .setValue(AnyValue.newBuilder().setStringValue("service-" + i))))
+                                                  .addScopeSpans(scopeSpans));
+        }
+        return request.build().toByteArray();
+    }
+}
@@ -0,0 +1,198 @@
+package org.mindignited.kinotic.telemetry.internal.services.spanmetrics;
+
+import io.opentelemetry.proto.collector.metrics.v1.ExportMetricsServiceRequest;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.metrics.v1.HistogramDataPoint;
+import io.opentelemetry.proto.metrics.v1.Metric;
+import io.opentelemetry.proto.metrics.v1.NumberDataPoint;
+import io.opentelemetry.proto.metrics.v1.ResourceMetrics;
+import io.opentelemetry.proto.resource.v1.Resource;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.ScopeSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import io.opentelemetry.proto.trace.v1.Status;
+import org.junit.jupiter.api.Test;
+import org.mindignited.kinotic.telemetry.api.config.KinoticTelemetryProperties;
+import org.mindignited.kinotic.telemetry.api.domain.TelemetryData;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpanMetricsProcessorTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    public void testDurationsAreBucketedByInclusiveUpperBound() {
+        SpanMetricsProcessor processor = processor(100);
+
+        ResourceSpans resourceSpans = resourceSpans("checkout",
+                                                    span("GET /cart", Span.SpanKind.SPAN_KIND_SERVER, Status.StatusCode.STATUS_CODE_OK, 5),
+                                                    span("GET /cart", Span.SpanKind.SPAN_KIND_SERVER, Status.StatusCode.STATUS_CODE_OK, 10),
+                                                    span("GET /cart", Span.SpanKind.SPAN_KIND_SERVER, Status.StatusCode.STATUS_CODE_OK, 50));
+        processor.record(List.of(
+                TelemetryData.exportRequest(TelemetryData.TelemetryType.TRACES,
+                                            ExportTraceServiceRequest.newBuilder().addResourceSpans(resourceSpans).build().toByteArray()),
+                // A single resource, with the resource encoded after the spans
+                TelemetryData.traces(concat(ResourceSpans.newBuilder()
+                                                         .addScopeSpans(ScopeSpans.newBuilder()
+                                                                                  .addSpans(span("GET /cart",
+                                                                                                 Span.SpanKind.SPAN_KIND_SERVER,
+                                                                                                 Status.StatusCode.STATUS_CODE_OK,
+                                                                                                 500)))
+                                                         .build().toByteArray(),
+                                            ResourceSpans.newBuilder().setResource(resourceSpans.getResource()).build().toByteArray()))));
+
+        ExportMetricsServiceRequest request = processor.snapshot(System.currentTimeMillis() * MILLIS);
+
+        assertNotNull(request);
+        assertEquals(1, request.getResourceMetricsCount());
+        ResourceMetrics resourceMetrics = request.getResourceMetrics(0);
+        assertEquals("checkout", resourceMetrics.getResource().getAttributes(0).getValue().getStringValue());
+
+        Metric duration = metric(resourceMetrics, "traces.span.metrics.duration");
+        assertEquals(1, duration.getHistogram().getDataPointsCount());
+        HistogramDataPoint point = duration.getHistogram().getDataPoints(0);
+        assertEquals(List.of(10.0, 100.0), point.getExplicitBoundsList());
+        assertEquals(List.of(2L, 1L, 1L), point.getBucketCountsList());
+        assertEquals(4, point.getCount());
+        assertEquals(565.0, point.getSum(), 0.001);
+
+        Metric calls = metric(resourceMetrics, "traces.span.metrics.calls");
+        assertEquals(4, calls.getSum().getDataPoints(0).getAsInt());
+    }
+
+    @Test
+    public void testSeriesBeyondTheLimitShareBoundedOverflowSeries() {
+        SpanMetricsProcessor processor = processor(1);
+
+        ResourceSpans.Builder resourceSpans = resourceSpans("checkout",
+                                                            span("GET /cart", Span.SpanKind.SPAN_KIND_SERVER, Status.StatusCode.STATUS_CODE_OK, 1),
+                                                            span("GET /items", Span.SpanKind.SPAN_KIND_SERVER, Status.StatusCode.STATUS_CODE_OK, 1),
+                                                            span("GET /orders", Span.SpanKind.SPAN_KIND_SERVER, Status.StatusCode.STATUS_CODE_OK, 1))
+                .toBuilder();
+        // Kinds and status codes that are not known must not create more overflow series
+        for (int i = 0; i < 100; i++) {
+            resourceSpans.getScopeSpansBuilder(0)
+                         .addSpans(Span.newBuilder()
+                                       .setName("GET /unknown/" + i)
+                                       .setKindValue(100 + i)
+                                       .setStatus(Status.newBuilder().setCodeValue(100 + i))
+                                       .setStartTimeUnixNano(0)
+                                       .setEndTimeUnixNano(MILLIS));
+        }
+        processor.record(List.of(TelemetryData.traces(resourceSpans.build().toByteArray())));
+
+        ExportMetricsServiceRequest request = processor.snapshot(System.currentTimeMillis() * MILLIS);
+
+        assertNotNull(request);
+        assertEquals(Map.of("checkout GET /cart SPAN_KIND_SERVER STATUS_CODE_OK", 1L,
+                            "_other _other SPAN_KIND_SERVER STATUS_CODE_OK", 2L,
+                            "_other _other SPAN_KIND_UNSPECIFIED STATUS_CODE_UNSET", 100L),
+                     calls(request));
+    }
+
+    @Test
+    public void testServicesBeyondTheLimitShareBoundedOverflowSeries() {
+        SpanMetricsProcessor processor = processor(10);
+
+        ExportTraceServiceRequest.Builder request = ExportTraceServiceRequest.newBuilder();
+        // Service names are client supplied, so every span here would be a new series if services were not collapsed
+        for (int i = 0; i < 1000; i++) {
+            request.addResourceSpans(resourceSpans("service-" + i,
+                                                   span("GET /cart", Span.SpanKind.SPAN_KIND_SERVER, Status.StatusCode.STATUS_CODE_OK, 1),
+                                                   span("GET /cart", Span.SpanKind.SPAN_KIND_SERVER, Status.StatusCode.STATUS_CODE_ERROR, 1)));
+        }
+        processor.record(List.of(TelemetryData.exportRequest(TelemetryData.TelemetryType.TRACES, request.build().toByteArray())));
+
+        ExportMetricsServiceRequest metrics = processor.snapshot(System.currentTimeMillis() * MILLIS);
+
+        assertNotNull(metrics);
+        Map<String, Long> calls = calls(metrics);
+        assertEquals(12, calls.size());
+        // The first five services fill the limit with one series for each status code
+        for (int i = 0; i < 5; i++) {
+            assertEquals(1L, calls.get("service-" + i + " GET /cart SPAN_KIND_SERVER STATUS_CODE_OK"));
+            assertEquals(1L, calls.get("service-" + i + " GET /cart SPAN_KIND_SERVER STATUS_CODE_ERROR"));
+        }
+        assertEquals(995L, calls.get("_other _other SPAN_KIND_SERVER STATUS_CODE_OK"));
+        assertEquals(995L, calls.get("_other _other SPAN_KIND_SERVER STATUS_CODE_ERROR"));
+        assertEquals(6, metrics.getResourceMetricsCount());
+    }
+
+    private static SpanMetricsProcessor processor(int maxSeries) {
+        KinoticTelemetryProperties properties = new KinoticTelemetryProperties();
+        properties.getSpanMetrics()
+                  .setEnabled(true)
+                  .setMaxSeries(maxSeries)
+                  .setDurationBucketsMs(List.of(100.0, 10.0));
+        // The buffer is only used when the metrics are emitted
+        return new SpanMetricsProcessor(properties, null);
+    }
+
+    private static ResourceSpans resourceSpans(String serviceName, Span... spans) {
+        return ResourceSpans.newBuilder()
+                            .setResource(Resource.newBuilder()
+                                                 .addAttributes(KeyValue.newBuilder()
+                                                                        .setKey("service.name")
+                                                                        .setValue(AnyValue.newBuilder().setStringValue(serviceName))))
+                            .addScopeSpans(ScopeSpans.newBuilder().addAllSpans(List.of(spans)))
+                            .build();
+    }
+
+    private static Span span(String name, Span.SpanKind kind, Status.StatusCode statusCode, long durationMs) {
+        long start = System.currentTimeMillis() * MILLIS;
+        return Span.newBuilder()
+                   .setName(name)
+                   .setKind(kind)
+                   .setStatus(Status.newBuilder().setCode(statusCode))
+                   .setStartTimeUnixNano(start)
+                   .setEndTimeUnixNano(start + durationMs * MILLIS)
+                   .build();
+    }
+
+    private static Map<String, Long> calls(ExportMetricsServiceRequest request) {
+        Map<String, Long> ret = new HashMap<>();
+        for (ResourceMetrics resourceMetrics : request.getResourceMetricsList()) {
+            String serviceName = attribute(resourceMetrics.getResource().getAttributesList(), "service.name");
+            for (NumberDataPoint point : metric(resourceMetrics, "traces.span.metrics.calls").getSum().getDataPointsList()) {
+                ret.put(serviceName
+                                + " " + attribute(point.getAttributesList(), "span.name")
+                                + " " + attribute(point.getAttributesList(), "span.kind")
+                                + " " + attribute(point.getAttributesList(), "status.code"),
+                        point.getAsInt());
+            }
+        }
+        return ret;
+    }
+
+    private static Metric metric(ResourceMetrics resourceMetrics, String name) {
+        return resourceMetrics.getScopeMetrics(0)
+                              .getMetricsList()
+                              .stream()
+                              .filter(metric -> metric.getName().equals(name))
+                              .findFirst()
+                              .orElseThrow();
+    }
+
+    private static String attribute(List<KeyValue> attributes, String key) {
+        for (KeyValue attribute : attributes) {
+            if (attribute.getKey().equals(key)) {
+                return attribute.getValue().getStringValue();
+            }
+        }
+        return null;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] ret = new byte[first.length + second.length];
+        System.arraycopy(first, 0, ret, 0, first.length);
+        System.arraycopy(second, 0, ret, first.length, second.length);
+        return ret;
+    }
+}
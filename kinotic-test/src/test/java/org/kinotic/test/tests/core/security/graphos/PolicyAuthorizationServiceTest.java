@@ -7,13 +7,19 @@ import org.kinotic.persistence.api.model.*;
 import org.kinotic.persistence.api.model.idl.decorators.EntityServiceDecoratorsConfig;
 import org.kinotic.persistence.api.model.idl.decorators.EntityServiceDecoratorsDecorator;
 import org.kinotic.persistence.api.model.idl.decorators.PolicyDecorator;
+import org.kinotic.persistence.api.services.security.AuthorizationService;
+import org.kinotic.persistence.api.services.security.graphos.ParticipantPolicyAuthorizer;
 import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizationRequest;
 import org.kinotic.persistence.api.services.security.graphos.EntityDefinitionPolicyAuthorizationService;
+import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizationServiceFactory;
 import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizer;
+import org.kinotic.persistence.internal.api.model.DefaultEntityContext;
+import org.kinotic.persistence.internal.sample.DummyParticipant;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -119,6 +125,51 @@ public class PolicyAuthorizationServiceTest {
         assertTrue(exception.getCause().getMessage().contains("Operation SAVE not allowed."));
     }
 
+    @Test
+    public void testFactoryCachesDecisionsOfParticipantPolicyAuthorizer() {
+        AtomicInteger authorizeCalls = new AtomicInteger();
+        ParticipantPolicyAuthorizer countingAuthorizer = (requests, entityContext) -> {
+            authorizeCalls.incrementAndGet();
+            return authorizer.authorize(requests, entityContext);
+        };
+        AuthorizationService<EntityOperation> service = new PolicyAuthorizationServiceFactory(countingAuthorizer)
+                .createEntityDefinitionAuthorizationService(createStructureWithNoFieldPolicies())
+                .join();
+        EntityContext context = new DefaultEntityContext(new DummyParticipant("tenant1", "user1"));
+
+        assertDoesNotThrow(() -> service.authorize(EntityOperation.FIND_ALL, context).join());
+        int callsForFirstRequest = authorizeCalls.get();
+        assertDoesNotThrow(() -> service.authorize(EntityOperation.FIND_ALL, context).join());
+
+        assertTrue(callsForFirstRequest > 0);
+        assertEquals(callsForFirstRequest, authorizeCalls.get()); // The second request used the cached decisions
+
+        // Denied decisions are cached the same way
+        assertThrows(CompletionException.class, () -> service.authorize(EntityOperation.SAVE, context).join());
+        int callsForDeniedRequest = authorizeCalls.get();
+        assertThrows(CompletionException.class, () -> service.authorize(EntityOperation.SAVE, context).join());
+        assertEquals(callsForDeniedRequest, authorizeCalls.get());
+    }
+
+    @Test
+    public void testFactoryDoesNotCacheDecisionsOfOtherPolicyAuthorizers() {
+        AtomicInteger authorizeCalls = new AtomicInteger();
+        PolicyAuthorizer countingAuthorizer = (requests, entityContext) -> {
+            authorizeCalls.incrementAndGet();
+            return authorizer.authorize(requests, entityContext);
+        };
+        AuthorizationService<EntityOperation> service = new PolicyAuthorizationServiceFactory(countingAuthorizer)
+                .createEntityDefinitionAuthorizationService(createStructureWithNoFieldPolicies())
+                .join();
+        EntityContext context = new DefaultEntityContext(new DummyParticipant("tenant1", "user1"));
+
+        assertDoesNotThrow(() -> service.authorize(EntityOperation.FIND_ALL, context).join());
+        int callsForFirstRequest = authorizeCalls.get();
+        assertDoesNotThrow(() -> service.authorize(EntityOperation.FIND_ALL, context).join());
+
+        assertEquals(2 * callsForFirstRequest, authorizeCalls.get()); // The authorizer may use more than the participant
+    }
+
     private EntityDefinition createStructureWithNoFieldPolicies() {
         EntityDefinition structure = new EntityDefinition();
         structure.setApplicationId("testApplication");
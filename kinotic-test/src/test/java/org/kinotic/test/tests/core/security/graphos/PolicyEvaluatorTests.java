@@ -3,13 +3,19 @@ package org.kinotic.test.tests.core.security.graphos;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.kinotic.persistence.api.model.EntityContext;
+import org.kinotic.persistence.internal.api.model.DefaultEntityContext;
 import org.kinotic.persistence.internal.api.services.security.graphos.*;
 import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizationRequest;
 import org.kinotic.persistence.api.services.security.graphos.PolicyAuthorizer;
+import org.kinotic.persistence.internal.sample.DummyParticipant;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -160,6 +166,70 @@ public class PolicyEvaluatorTests {
         assertTrue(sharedPolicyManager.getSharedPolicies().contains("policy7"));
     }
 
+    @Test
+    public void testPolicyDecisionsAreCachedAndCoalesced() throws Exception {
+        AtomicInteger authorizeCalls = new AtomicInteger();
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        PolicyAuthorizer countingAuthorizer = (requests, entityContext) -> {
+            authorizeCalls.incrementAndGet();
+            return pending.thenCompose(ignored -> authorizer.authorize(requests, entityContext));
+        };
+
+        PolicyDecisionCache decisionCache = new PolicyDecisionCache(Duration.ofMinutes(1), 100);
+        PolicyEvaluator evaluator = new PolicyEvaluatorWithoutOperation(countingAuthorizer, sharedPolicyManager, decisionCache, "entity");
+        EntityContext context = new DefaultEntityContext(new DummyParticipant("tenant1", "user1"));
+
+        CompletableFuture<AuthorizationResult> first = evaluator.evaluatePolicies(context);
+        CompletableFuture<AuthorizationResult> second = evaluator.evaluatePolicies(context);
+        pending.complete(null);
+
+        assertEquals(first.get(), second.get());
+        assertEquals(first.get(), evaluator.evaluatePolicies(context).get());
+        assertEquals(1, authorizeCalls.get()); // Concurrent and later evaluations use the same decision
+
+        evaluator.evaluatePolicies(new DefaultEntityContext(new DummyParticipant("tenant1", "user2"))).get();
+        assertEquals(2, authorizeCalls.get()); // Other participants are authorized separately
+
+        evaluator.evaluatePolicies(new DefaultEntityContext(new DummyParticipant("tenant1", "user1")
+                                                                    .setAuthScopeType("ORGANIZATION")
+                                                                    .setAuthScopeId("org1"))).get();
+        assertEquals(3, authorizeCalls.get()); // The same participant id in another auth scope is authorized separately
+
+        SharedPolicyManager updatedPolicyManager = new SharedPolicyManager(List.of(List.of("policy3")), sharedPolicyManager.getFieldPolicies());
+        new PolicyEvaluatorWithoutOperation(countingAuthorizer, updatedPolicyManager, decisionCache, "entity").evaluatePolicies(context).get();
+        assertEquals(4, authorizeCalls.get()); // Updated policies are authorized again
+    }
+
+    @Test
+    public void testOnlyPoliciesNeededToDecideAreAuthorized() throws Exception {
+        List<String> requestedPolicies = new ArrayList<>();
+        PolicyAuthorizer recordingAuthorizer = (requests, entityContext) -> {
+            requests.forEach(request -> requestedPolicies.add(request.policy()));
+            return authorizer.authorize(requests, entityContext);
+        };
+
+        List<List<String>> operationPolicies = List.of(
+                List.of("policy1", "policy2"), // AND group, policy2 is denied
+                List.of("policy1", "policy2", "policy8"), // Can never be allowed without the first group
+                List.of("policy9", "policy4") // OR group, only needed once the first group is denied
+        );
+
+        PolicyEvaluator evaluator = new PolicyEvaluatorWithOperation(recordingAuthorizer, sharedPolicyManager, operationPolicies);
+
+        AuthorizationResult result = evaluator.evaluatePolicies(null).get();
+
+        assertFalse(result.operationAllowed());
+        assertTrue(result.entityAllowed());
+        assertEquals(Map.of(
+                "firstName", true, // Satisfied by policy6 alone
+                "lastName", false
+        ), result.fieldResults());
+
+        assertFalse(requestedPolicies.contains("policy5")); // policy6 decided firstName before the larger AND group was needed
+        assertFalse(requestedPolicies.contains("policy8"));
+        assertEquals(requestedPolicies.size(), Set.copyOf(requestedPolicies).size()); // No policy is authorized twice
+    }
+
     // Mock Implementation for PolicyAuthorizer
     private static class MockPolicyAuthorizer implements PolicyAuthorizer {
         @Override
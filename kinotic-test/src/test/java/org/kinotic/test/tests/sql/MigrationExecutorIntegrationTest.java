@@ -1,26 +1,38 @@
 package org.kinotic.test.tests.sql;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import org.junit.jupiter.api.Test;
+import org.kinotic.sql.config.KinoticSqlProperties;
 import org.kinotic.sql.domain.Migration;
 import org.kinotic.sql.domain.MigrationContent;
 import org.kinotic.sql.executor.MigrationExecutor;
+import org.kinotic.sql.executor.MigrationLock;
 import org.kinotic.sql.parsers.MigrationParser;
 import org.kinotic.test.support.elastic.ElasticTestBase;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.Refresh;
 import co.elastic.clients.elasticsearch._types.mapping.Property;
 import co.elastic.clients.elasticsearch.cluster.GetComponentTemplateResponse;
 import co.elastic.clients.elasticsearch.core.CountResponse;
+import co.elastic.clients.elasticsearch.core.GetResponse;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.indices.GetIndexTemplateResponse;
 import co.elastic.clients.elasticsearch.indices.GetMappingResponse;
@@ -40,6 +52,9 @@ class MigrationExecutorIntegrationTest extends ElasticTestBase {
     @Autowired
     private MigrationParser migrationParser;
 
+    @Autowired
+    private KinoticSqlProperties kinoticSqlProperties;
+
     // Simple in-memory Migration implementation for tests
     static class TestMigration implements Migration {
         private final Integer version;
@@ -439,4 +454,232 @@ class MigrationExecutorIntegrationTest extends ElasticTestBase {
         assertEquals("Float", properties.get("float_field")._kind().name());
         assertEquals("Double", properties.get("double_field")._kind().name());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void whenSllParsingFails_thenLlFallbackGivesTheSameResult() {
+        // Given
+        String sql = """
+            CREATE TABLE parser_fallback (id TEXT, age INTEGER NOT INDEXED);
+            ALTER TABLE parser_fallback ADD COLUMN name KEYWORD;
+            INSERT INTO parser_fallback (id, age, name) VALUES ('1', 25, 'john') WITH REFRESH;
+            """;
+        // The grammar has no ambiguity that only LL prediction can resolve, so SLL parsing is made to fail with a stray token,
+        // which LL parsing reports and recovers from, the same as it did before SLL parsing was used.
+        String sqlNeedingFallback = """
+            CREATE TABLE parser_fallback (id TEXT, age INTEGER NOT INDEXED);
+            ;
+            ALTER TABLE parser_fallback ADD COLUMN name KEYWORD;
+            INSERT INTO parser_fallback (id, age, name) VALUES ('1', 25, 'john') WITH REFRESH;
+            """;
+
+        // When
+        MigrationContent parsed = migrationParser.parse(sql);
+        MigrationContent parsedWithFallback = migrationParser.parse(sqlNeedingFallback);
+
+        // Then
+        assertEquals(3, parsed.statements().size());
+        assertEquals(parsed, parsedWithFallback);
+    }
+
+    @Test
+    void whenManyInserts_thenAllDocumentsIndexedInBatches() throws Exception {
+        // Given
+        StringBuilder migrationContent = new StringBuilder("""
+            CREATE TABLE test_table_bulk_insert (
+                id TEXT,
+                name TEXT,
+                age INTEGER
+            );
+            """);
+        int documents = 25;
+        for (int i = 1; i <= documents; i++) {
+            migrationContent.append("INSERT INTO test_table_bulk_insert (id, name, age) VALUES ('")
+                            .append(i).append("', 'name").append(i).append("', ").append(i).append(")")
+                            .append(i == documents ? " WITH REFRESH;\n" : ";\n");
+        }
+        Migration migration = migration(1, "V1__bulk_insert", migrationContent.toString());
+
+        long batchBytes = kinoticSqlProperties.getInsertBatchBytes();
+        // Small enough that the documents are split across many bulk requests
+        kinoticSqlProperties.setInsertBatchBytes(200);
+        try {
+            // When
+            migrationExecutor.executeProjectMigrations(List.of(migration), "test_project_bulk_insert").get();
+        } finally {
+            kinoticSqlProperties.setInsertBatchBytes(batchBytes);
+        }
+
+        // Then
+        CountResponse count = client.count(c -> c.index("test_table_bulk_insert"));
+        assertEquals(documents, count.count());
+        @SuppressWarnings("rawtypes")
+        GetResponse<Map> document = client.get(g -> g.index("test_table_bulk_insert").id("7"), Map.class);
+        assertTrue(document.found()); // The id column is used as the document id
+        assertEquals("name7", document.source().get("name"));
+    }
+
+    @Test
+    void whenBulkInsertHasInvalidDocument_thenMigrationFailsAndIsNotRecorded() throws Exception {
+        // Given
+        String migrationContent = """
+            CREATE TABLE test_table_bulk_insert_invalid (
+                id TEXT,
+                age INTEGER
+            );
+            INSERT INTO test_table_bulk_insert_invalid (id, age) VALUES ('1', 1);
+            INSERT INTO test_table_bulk_insert_invalid (id, age) VALUES ('2', 'not a number') WITH REFRESH;
+            """;
+        Migration migration = migration(1, "V1__bulk_insert_invalid", migrationContent);
+
+        // When/Then
+        assertThrows(ExecutionException.class, () ->
+            migrationExecutor.executeProjectMigrations(List.of(migration), "test_project_bulk_insert_invalid").get()
+        );
+        assertTrue(migrationExecutor.getAppliedMigrationVersions("test_project_bulk_insert_invalid").get().isEmpty());
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    void whenStoredScriptRemoved_thenUpdateRegistersItAgain() throws Exception {
+        // Given
+        String createTableContent = """
+            CREATE TABLE test_table_update_script (
+                id TEXT,
+                age INTEGER
+            );
+            INSERT INTO test_table_update_script (id, age) VALUES ('1', 20) WITH REFRESH;
+            """;
+        String firstUpdateContent = """
+            UPDATE test_table_update_script SET age == 21 WHERE id == '1' WITH REFRESH;
+            """;
+        String secondUpdateContent = """
+            UPDATE test_table_update_script SET age == 22 WHERE id == '1' WITH REFRESH;
+            """;
+        String project = "test_project_update_script";
+        // Both updates use the same script source, only the params differ
+        String scriptId = "kinotic-update-" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                                                                                    .digest("ctx._source.age = params.p0;".getBytes(StandardCharsets.UTF_8)),
+                                                                       0, 16);
+
+        migrationExecutor.executeProjectMigrations(List.of(migration(1, "V1__create_test_table", createTableContent),
+                                                           migration(2, "V2__first_update", firstUpdateContent)), project).get();
+        assertTrue(client.getScript(g -> g.id(scriptId)).found());
+
+        // When
+        client.deleteScript(d -> d.id(scriptId));
+        migrationExecutor.executeProjectMigrations(List.of(migration(3, "V3__second_update", secondUpdateContent)), project).get();
+
+        // Then
+        assertTrue(client.getScript(g -> g.id(scriptId)).found());
+        @SuppressWarnings("rawtypes")
+        GetResponse<Map> document = client.get(g -> g.index("test_table_update_script").id("1"), Map.class);
+        assertEquals(22, document.source().get("age"));
+    }
+
+    @Test
+    void whenUpdatedTableDoesNotExist_thenIndexNotFoundIsReported() {
+        // Given
+        String updateContent = """
+            UPDATE test_table_update_missing SET age == 21 WHERE id == '1';
+            """;
+        Migration migration = migration(1, "V1__update_missing_table", updateContent);
+
+        // When
+        ExecutionException thrown = assertThrows(ExecutionException.class, () ->
+            migrationExecutor.executeProjectMigrations(List.of(migration), "test_project_update_missing").get()
+        );
+
+        // Then
+        Throwable cause = thrown;
+        while (cause != null && !(cause instanceof ElasticsearchException)) {
+            cause = cause.getCause();
+        }
+        assertNotNull(cause, "The Elasticsearch error should be the cause of the failure");
+        assertEquals("index_not_found_exception", ((ElasticsearchException) cause).error().type());
+    }
+
+    @Test
+    void whenMigrationsRunConcurrently_thenEachMigrationIsAppliedOnce() throws Exception {
+        // Given
+        String project = "test_project_lock_concurrent";
+        List<Migration> migrations = List.of(
+            migration(1, "V1__create_test_table", """
+                CREATE TABLE test_table_lock_concurrent (
+                    id TEXT,
+                    name TEXT
+                );
+                """),
+            migration(2, "V2__insert_test_data", """
+                INSERT INTO test_table_lock_concurrent (id, name) VALUES ('1', 'test') WITH REFRESH;
+                """));
+
+        // When
+        CompletableFuture<Void> first = migrationExecutor.executeProjectMigrations(migrations, project);
+        CompletableFuture<Void> second = migrationExecutor.executeProjectMigrations(migrations, project);
+        CompletableFuture.allOf(first, second).get();
+
+        // Then
+        client.indices().refresh(r -> r.index("migration_history"));
+        CountResponse count = client.count(c -> c.index("migration_history")
+                                                 .query(q -> q.term(t -> t.field("projectId").value(project))));
+        assertEquals(2, count.count()); // The run that waited for the lock found both migrations already applied
+        assertEquals(Set.of(1, 2), migrationExecutor.getAppliedMigrationVersions(project).get());
+    }
+
+    @Test
+    void whenLockLeaseExpired_thenItIsTakenOver() throws Exception {
+        // Given
+        String project = "test_project_lock_expired";
+        long now = System.currentTimeMillis();
+        client.index(i -> i.index("migration_lock")
+                           .id(project)
+                           .document(new MigrationLock.LockRecord(project, "crashed-node", now - 120_000, now - 60_000))
+                           .refresh(Refresh.True));
+        Migration migration = migration(1, "V1__create_test_table", """
+            CREATE TABLE test_table_lock_expired (
+                id TEXT
+            );
+            """);
+
+        // When
+        migrationExecutor.executeProjectMigrations(List.of(migration), project).get();
+
+        // Then
+        assertEquals(Set.of(1), migrationExecutor.getAppliedMigrationVersions(project).get());
+        assertFalse(client.exists(e -> e.index("migration_lock").id(project)).value()); // Released once the migrations completed
+    }
+
+    @Test
+    void whenLockLeaseHeldByAnotherNode_thenMigrationsWaitAndTimeOut() throws Exception {
+        // Given
+        String project = "test_project_lock_held";
+        long now = System.currentTimeMillis();
+        client.index(i -> i.index("migration_lock")
+                           .id(project)
+                           .document(new MigrationLock.LockRecord(project, "other-node", now, now + 600_000))
+                           .refresh(Refresh.True));
+        Migration migration = migration(1, "V1__create_test_table", """
+            CREATE TABLE test_table_lock_held (
+                id TEXT
+            );
+            """);
+
+        long waitMs = kinoticSqlProperties.getMigrationLockWaitMs();
+        long pollMs = kinoticSqlProperties.getMigrationLockPollMs();
+        kinoticSqlProperties.setMigrationLockWaitMs(500).setMigrationLockPollMs(100);
+        try {
+            // When
+            ExecutionException thrown = assertThrows(ExecutionException.class, () ->
+                migrationExecutor.executeProjectMigrations(List.of(migration), project).get()
+            );
+
+            // Then
+            assertTrue(thrown.getCause() instanceof IllegalStateException);
+            assertTrue(migrationExecutor.getAppliedMigrationVersions(project).get().isEmpty());
+            assertFalse(asyncClient.indices().exists(e -> e.index("test_table_lock_held")).get().value());
+        } finally {
+            kinoticSqlProperties.setMigrationLockWaitMs(waitMs).setMigrationLockPollMs(pollMs);
+            client.delete(d -> d.index("migration_lock").id(project).refresh(Refresh.True));
+        }
+    }
+}
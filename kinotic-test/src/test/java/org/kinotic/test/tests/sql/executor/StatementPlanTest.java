@@ -0,0 +1,95 @@
+package org.kinotic.test.tests.sql.executor;
+
+import org.junit.jupiter.api.Test;
+import org.kinotic.sql.domain.Statement;
+import org.kinotic.sql.domain.statements.CreateTableStatement;
+import org.kinotic.sql.domain.statements.InsertStatement;
+import org.kinotic.sql.executor.StatementPlan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementPlanTest {
+
+    @Test
+    void whenStatementPlanExecuted_thenOnlyStatementsForTheSameTableWait() throws Exception {
+        // Given
+        CreateTableStatement createA = new CreateTableStatement("plan_table_a", List.of());
+        InsertStatement insertA = new InsertStatement("plan_table_a", List.of("id"), List.of("1"));
+        CreateTableStatement createB = new CreateTableStatement("plan_table_b", List.of());
+        StatementPlan plan = StatementPlan.create(List.of(List.of(createA), List.of(insertA), List.of(createB)));
+
+        List<Statement> started = new ArrayList<>();
+        Map<Statement, CompletableFuture<Void>> pending = new HashMap<>();
+
+        // When
+        CompletableFuture<Void> done = plan.execute(group -> {
+            started.add(group.getFirst());
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            pending.put(group.getFirst(), result);
+            return result;
+        }, 4);
+
+        // Then
+        assertEquals(List.of(createA, createB), started); // The INSERT waits for its table, the other table does not
+        pending.get(createA).complete(null);
+        assertEquals(List.of(createA, createB, insertA), started);
+        pending.get(insertA).complete(null);
+        assertFalse(done.isDone());
+        pending.get(createB).complete(null);
+        done.get();
+    }
+
+    @Test
+    void whenStatementGroupFails_thenNoMoreGroupsAreStarted() {
+        // Given
+        CreateTableStatement createA = new CreateTableStatement("plan_fail_a", List.of());
+        CreateTableStatement createB = new CreateTableStatement("plan_fail_b", List.of());
+        CreateTableStatement createC = new CreateTableStatement("plan_fail_c", List.of());
+        StatementPlan plan = StatementPlan.create(List.of(List.of(createA), List.of(createB), List.of(createC)));
+        RuntimeException failure = new RuntimeException("create failed");
+        List<Statement> executed = new ArrayList<>();
+
+        // When
+        CompletableFuture<Void> done = plan.execute(group -> {
+            executed.add(group.getFirst());
+            return group.getFirst() == createA
+                    ? CompletableFuture.failedFuture(failure)
+                    : CompletableFuture.completedFuture(null);
+        }, 1);
+
+        // Then
+        ExecutionException thrown = assertThrows(ExecutionException.class, done::get);
+        assertSame(failure, thrown.getCause());
+        assertEquals(List.of(createA), executed); // The independent tables are not created once a group has failed
+    }
+
+    @Test
+    void whenManyQueuedGroupsCompleteSynchronously_thenNoStackOverflow() throws Exception {
+        // Given
+        List<List<Statement>> groups = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            groups.add(List.of(new CreateTableStatement("plan_queued_" + i, List.of())));
+        }
+        StatementPlan plan = StatementPlan.create(groups);
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        AtomicInteger executed = new AtomicInteger();
+
+        // When
+        CompletableFuture<Void> done = plan.execute(group -> executed.getAndIncrement() == 0
+                ? first
+                : CompletableFuture.completedFuture(null), 1);
+        first.complete(null); // Releases all the queued groups from this thread
+
+        // Then
+        done.get();
+        assertEquals(groups.size(), executed.get());
+    }
+}
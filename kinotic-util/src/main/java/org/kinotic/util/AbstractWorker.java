@@ -35,6 +35,7 @@ public abstract class AbstractWorker implements Runnable, Worker {
     public synchronized void shutdown(boolean interrupt) throws InterruptedException{
         if(!stopped.get() && workThread != null){
             stopped.set(true);
+            onStop();
             if(interrupt){
                 workThread.interrupt();
             }
@@ -42,6 +43,13 @@ public abstract class AbstractWorker implements Runnable, Worker {
         }
     }
 
+    /**
+     * Called by {@link #shutdown(boolean)} once the worker is stopped and before waiting for the work thread to finish.
+     * Subclasses can override this to release anything the work thread may be blocked on.
+     */
+    protected void onStop(){
+    }
+
     @Override
     public String getName() {
         return threadName;
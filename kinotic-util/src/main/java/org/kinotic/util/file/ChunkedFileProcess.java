@@ -0,0 +1,287 @@
+package org.kinotic.util.file;
+
+import org.kinotic.util.UncheckedInterruptedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Processes a large file as chunks that are handed to the {@link FileProcessorOptions#getChunkConsumer()} in parallel.
+ * <p>
+ * The file is split into chunks of about {@link FileProcessorOptions#getChunkSize()} bytes, each ending just after a
+ * {@link FileProcessorOptions#getRecordDelimiter()}, and each chunk is memory mapped when it is processed.
+ * Once a chunk is processed it is recorded in a checkpoint file in the target directory,
+ * so if processing stops before the file is done, the chunks already processed are skipped when the file is processed again.
+ * Once all chunks are processed the {@link FileProcessorOptions#getChunkedFileCompletion()} is called, then the file is moved or deleted.
+ * The file is handled as failed if any chunk or the completion fails.
+ */
+class ChunkedFileProcess {
+    private static final Logger log = LoggerFactory.getLogger(ChunkedFileProcess.class);
+    private static final String FINGERPRINT = "fingerprint";
+    private static final String COMPLETED = "completed";
+
+    private final FileProcessEvent event;
+    private final FileProcessorOptions options;
+    private final FileChannel channel;
+    /**
+     * Chunk i starts at offsets[i] and ends at offsets[i + 1]
+     */
+    private final long[] offsets;
+    private final Path checkpointPath;
+    private final String fingerprint;
+    private final BitSet completed;
+    private final AtomicInteger remaining = new AtomicInteger();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private volatile boolean abandoned = false;
+
+    private ChunkedFileProcess(FileProcessEvent event,
+                               FileProcessorOptions options,
+                               FileChannel channel,
+                               long[] offsets,
+                               Path checkpointPath,
+                               String fingerprint,
+                               BitSet completed) {
+        this.event = event;
+        this.options = options;
+        this.channel = channel;
+        this.offsets = offsets;
+        this.checkpointPath = checkpointPath;
+        this.fingerprint = fingerprint;
+        this.completed = completed;
+    }
+
+    /**
+     * Splits the file for the event into chunks, skipping any chunks already processed according to the checkpoint
+     */
+    public static ChunkedFileProcess open(FileProcessEvent event, FileProcessorOptions options) throws IOException {
+        Path sourcePath = event.getSourcePath();
+        FileChannel channel = FileChannel.open(sourcePath, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            long[] offsets = split(channel, size, options.getChunkSize(), options.getRecordDelimiter());
+            String fingerprint = size
+                    + ":" + Files.getLastModifiedTime(sourcePath).toMillis()
+                    + ":" + options.getChunkSize()
+                    + ":" + options.getRecordDelimiter();
+            Path checkpointPath = options.getTargetDirectory()
+                                         .resolve("checkpoints")
+                                         .resolve(options.getSourceDirectory().relativize(sourcePath) + ".checkpoint");
+            BitSet completed = readCheckpoint(checkpointPath, fingerprint);
+            return new ChunkedFileProcess(event, options, channel, offsets, checkpointPath, fingerprint, completed);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getSourcePath() {
+        return event.getSourcePath();
+    }
+
+    /**
+     * Hands all chunks not already processed to the workers.
+     * Chunks that do not fit in the work queue are processed by the calling thread,
+     * so workers never block waiting for space in the queue they take from.
+     */
+    public void dispatch(BlockingQueue<FileProcessEvent> workQueue, AtomicBoolean stopped) {
+        List<Integer> toProcess = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 0; i < offsets.length - 1; i++) {
+                if (!completed.get(i)) {
+                    toProcess.add(i);
+                }
+            }
+        }
+        if (toProcess.isEmpty()) {
+            complete();
+            return;
+        }
+        if (toProcess.size() < offsets.length - 1) {
+            log.info("Resuming {} with {} of {} chunks remaining", getSourcePath(), toProcess.size(), offsets.length - 1);
+        }
+
+        remaining.set(toProcess.size());
+        for (int index : toProcess) {
+            if (!workQueue.offer(new FileChunkProcessEvent(this, index))) {
+                processChunk(index, stopped);
+            }
+        }
+    }
+
+    /**
+     * Processes a single chunk, completing the file if it is the last chunk to be processed
+     */
+    public void processChunk(int index, AtomicBoolean stopped) {
+        try {
+            if (stopped.get()) {
+                abandoned = true;
+            } else if (failure.get() == null && !abandoned) {
+                long offset = offsets[index];
+                long length = offsets[index + 1] - offset;
+                if (length > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Chunk " + index + " of " + getSourcePath()
+                                                            + " is larger than 2GB, a record may be missing its delimiter");
+                }
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                options.getChunkConsumer().accept(new FileChunk(getSourcePath(), index, offsets.length - 1, offset, buffer));
+                checkpoint(index);
+            }
+        } catch (UncheckedInterruptedException e) {
+            // shutting down, so the file will be processed again later starting from the checkpoint
+            abandoned = true;
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            if (remaining.decrementAndGet() == 0) {
+                complete();
+            }
+        }
+    }
+
+    private void complete() {
+        try {
+            channel.close();
+            Exception e = failure.get();
+            if (!abandoned && e == null && options.getChunkedFileCompletion() != null) {
+                try {
+                    options.getChunkedFileCompletion().accept(getSourcePath());
+                } catch (UncheckedInterruptedException ie) {
+                    // shutting down, so the completion will be called again once the file is processed again
+                    abandoned = true;
+                } catch (Exception ce) {
+                    e = ce;
+                }
+            }
+            if (abandoned) {
+                log.debug("Processing of {} stopped before all chunks were processed", getSourcePath());
+            } else {
+                if (e != null) {
+                    FileUtil.handleFailed(options.getSourceDirectory(),
+                                          options.getTargetDirectory(),
+                                          getSourcePath(),
+                                          e);
+                } else if (options.isDeleteProcessedFiles()) {
+
+                    Files.delete(getSourcePath());
+
+                } else {
+                    FileUtil.handleSuccessWithMove(options.getSourceDirectory(),
+                                                   options.getTargetDirectory(),
+                                                   getSourcePath());
+                }
+                Files.deleteIfExists(checkpointPath);
+            }
+        } catch (Exception e) {
+            log.error("Error completing chunked file " + getSourcePath(), e);
+        } finally {
+            event.workerDone();
+        }
+    }
+
+    private synchronized void checkpoint(int index) throws IOException {
+        completed.set(index);
+        StringJoiner indexes = new StringJoiner(",");
+        completed.stream().forEach(i -> indexes.add(Integer.toString(i)));
+
+        Properties properties = new Properties();
+        properties.setProperty(FINGERPRINT, fingerprint);
+        properties.setProperty(COMPLETED, indexes.toString());
+
+        // write to a temporary file first so a crash never leaves a partial checkpoint
+        Files.createDirectories(checkpointPath.getParent());
+        Path temp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, null);
+        }
+        Files.move(temp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static BitSet readCheckpoint(Path checkpointPath, String fingerprint) {
+        BitSet ret = new BitSet();
+        if (Files.exists(checkpointPath)) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(checkpointPath)) {
+                properties.load(in);
+            } catch (IOException e) {
+                log.warn("Could not read checkpoint " + checkpointPath + ", all chunks will be processed", e);
+                return ret;
+            }
+            // only use the checkpoint if the file and chunking are the same as when it was written
+            if (fingerprint.equals(properties.getProperty(FINGERPRINT))) {
+                String indexes = properties.getProperty(COMPLETED, "");
+                try {
+                    for (String index : indexes.split(",")) {
+                        if (!index.isBlank()) {
+                            ret.set(Integer.parseInt(index.trim()));
+                        }
+                    }
+                } catch (NumberFormatException e) {
+                    log.warn("Invalid checkpoint " + checkpointPath + ", all chunks will be processed", e);
+                    ret.clear();
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Finds the chunk boundaries, each chunk ending just after the first delimiter found once the chunk size is reached
+     * @return the offset of each chunk followed by the size of the file
+     */
+    private static long[] split(FileChannel channel, long size, int chunkSize, byte delimiter) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        offsets.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long start = 0;
+        while (start + chunkSize < size) {
+            long end = findDelimiter(channel, start + chunkSize - 1, size, delimiter, buffer);
+            if (end >= size) {
+                break;
+            }
+            offsets.add(end);
+            start = end;
+        }
+        offsets.add(size);
+
+        long[] ret = new long[offsets.size()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = offsets.get(i);
+        }
+        return ret;
+    }
+
+    /**
+     * @return the position just after the first delimiter at or after the given position, or the size if there is none
+     */
+    private static long findDelimiter(FileChannel channel, long position, long size, byte delimiter, ByteBuffer buffer) throws IOException {
+        long pos = position;
+        while (pos < size) {
+            buffer.clear();
+            int read = channel.read(buffer, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == delimiter) {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+}
@@ -9,15 +9,16 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Collections;
-import java.util.List;
-import java.util.TreeSet;
+import java.util.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
+ * Finds the files to process and passes them to the workers, grouped by directory.
+ * Either polls the source directory, or watches it for changes when {@link FileBulkProcessorOptions#isWatchForChanges()} is true.
  *
  * Created by navid on 9/16/19
  */
@@ -25,44 +26,278 @@ class FileBulkProcessorMaster extends AbstractWorker {
     private static final Logger log = LoggerFactory.getLogger(FileBulkProcessorMaster.class);
 
     private final FileBulkProcessorOptions options;
+    /**
+     * The absolute source directory, since watched directories and the files found in them are absolute
+     */
+    private final Path sourceDirectory;
 
     private final BlockingQueue<FileBulkProcessEvent> workQueue;
     private final ConcurrentHashMap<String, PathResult> activeFileProcessesMap = new ConcurrentHashMap<>();
 
+    // Only used by the master thread when watching for changes, other than being closed by shutdown
+    private volatile WatchService watchService = null;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    /**
+     * Files created or modified that have not been passed to a worker yet, with the time of the last event for each
+     */
+    private final Map<Path, Long> pendingFiles = new HashMap<>();
+
     public FileBulkProcessorMaster(String threadName,
                                    FileBulkProcessorOptions options,
                                    BlockingQueue<FileBulkProcessEvent> workQueue) {
         super(threadName);
         this.options = options;
+        this.sourceDirectory = options.getSourceDirectory().toAbsolutePath();
 
         this.workQueue = workQueue;
     }
 
     @Override
     protected void doWork() throws Exception {
+        if(options.isWatchForChanges()){
+            try {
+                watchForChanges();
+            } catch (ClosedWatchServiceException e) {
+                // closed by shutdown
+                if(!stopped.get()){
+                    throw e;
+                }
+            }
+        }else{
+            pollForChanges();
+        }
+    }
+
+    /**
+     * Closes the watch service before shutdown waits for the master thread, since the master may be blocked waiting for events
+     */
+    @Override
+    protected void onStop() {
+        closeWatchService();
+    }
+
+    private void closeWatchService(){
+        WatchService toClose = watchService;
+        if(toClose != null){
+            try {
+                toClose.close();
+            } catch (IOException e) {
+                log.warn("Error closing watch service", e);
+            }
+        }
+    }
+
+    private void pollForChanges() throws IOException {
         // make sure we do not load more files while the workers are still processing existing ones
         while(workQueue.remainingCapacity() <= 0){
             trySleep(5000);
         }
         if(!stopped.get()) {
-            try(Stream<Path> list = Files.list(options.getSourceDirectory())) {
+            scan();
+            trySleep(options.getPollInterval().toMillis());
+        }
+    }
 
-                List<Path> sortedPath = list.sorted(Collections.reverseOrder())
-                                            .collect(Collectors.toList());
+    private void scan() throws IOException {
+        try(Stream<Path> list = Files.list(sourceDirectory)) {
 
-                for (Path path : sortedPath) {
-                    if (stopped.get()) {
-                        break;
+            List<Path> sortedPath = list.sorted(Collections.reverseOrder())
+                                        .collect(Collectors.toList());
+
+            for (Path path : sortedPath) {
+                if (stopped.get()) {
+                    break;
+                }
+                if (Files.isDirectory(path)) {
+                    walkDirectory(path);
+                }
+            }
+        }
+    }
+
+    private void watchForChanges() throws IOException, InterruptedException {
+        if(watchService == null){
+            watchService = sourceDirectory.getFileSystem().newWatchService();
+            if(stopped.get()){
+                // shutdown may have looked for the watch service before it was created
+                closeWatchService();
+                return;
+            }
+            registerDirectories(sourceDirectory, false);
+            // pick up any files written before the directories were registered
+            scan();
+        }
+
+        WatchKey key;
+        if(pendingFiles.isEmpty()){
+            key = watchService.take();
+        }else{
+            key = watchService.poll(millisUntilNextPendingFileIsDue(), TimeUnit.MILLISECONDS);
+        }
+
+        boolean overflow = false;
+        while(key != null){
+            overflow |= handleEvents(key);
+            key = watchService.poll();
+        }
+
+        if(overflow && !stopped.get()){
+            // events were lost, so register any directories we missed and look at everything again
+            log.debug("Watch service overflowed, rescanning {}", sourceDirectory);
+            registerDirectories(sourceDirectory, false);
+            scan();
+        }
+
+        dispatchPendingFiles();
+    }
+
+    /**
+     * Handles the events for a watched directory
+     * @return true if the watch service reported that events were lost
+     */
+    private boolean handleEvents(WatchKey key) throws IOException {
+        boolean overflow = false;
+        Path dir = watchedDirectories.get(key);
+        for(WatchEvent<?> event : key.pollEvents()){
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW){
+                overflow = true;
+            }else if(dir != null){
+                Path path = dir.resolve((Path) event.context()).toAbsolutePath();
+                if(event.kind() == StandardWatchEventKinds.ENTRY_DELETE){
+                    // files are removed from a directory once processed
+                    deleteEmptyDirectory(dir);
+                }else if(Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)){
+                    if(event.kind() == StandardWatchEventKinds.ENTRY_CREATE){
+                        // files may have been written to the directory before it was registered
+                        registerDirectories(path, true);
                     }
-                    if (Files.isDirectory(path)) {
-                        walkDirectory(path);
+                }else if(!dir.equals(sourceDirectory)){
+                    pendingFiles.put(path, now());
+                }
+            }
+        }
+        if(!key.reset()){
+            watchedDirectories.remove(key);
+        }
+        return overflow;
+    }
+
+    /**
+     * Registers the directory and all of its subdirectories with the watch service
+     * @param addFiles if true any files already in the directories are added to the pending files
+     */
+    private void registerDirectories(Path start, boolean addFiles) throws IOException {
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<>(){
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    WatchKey key = dir.register(watchService,
+                                                StandardWatchEventKinds.ENTRY_CREATE,
+                                                StandardWatchEventKinds.ENTRY_MODIFY,
+                                                StandardWatchEventKinds.ENTRY_DELETE);
+                    watchedDirectories.put(key, dir.toAbsolutePath());
+                    return stopped.get() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if(addFiles && !file.toAbsolutePath().getParent().equals(sourceDirectory)){
+                        pendingFiles.put(file.toAbsolutePath(), now());
                     }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    // the file or directory may have been removed while walking
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (NoSuchFileException e) {
+            log.trace("Directory removed before it could be watched {}", start);
+        }
+    }
+
+    private long millisUntilNextPendingFileIsDue(){
+        long oldest = Collections.min(pendingFiles.values());
+        return Math.max(0, oldest + options.getDebounceInterval().toMillis() - now());
+    }
+
+    /**
+     * Passes all the pending files that have not changed for the debounce interval to the workers
+     */
+    private void dispatchPendingFiles() throws InterruptedException {
+        long now = now();
+        long debounce = options.getDebounceInterval().toMillis();
+        Map<Path, TreeSet<PathResult>> resultsByDirectory = new LinkedHashMap<>();
+
+        Iterator<Map.Entry<Path, Long>> iterator = pendingFiles.entrySet().iterator();
+        while(iterator.hasNext()){
+            Map.Entry<Path, Long> entry = iterator.next();
+            if(now - entry.getValue() >= debounce){
+                Path path = entry.getKey();
+                if(!Files.isRegularFile(path)){
+                    // the file may have already been processed by a scan
+                    iterator.remove();
+                }else if(activeFileProcessesMap.containsKey(path.toString())){
+                    // a worker is still processing an earlier version, so check the file again once it has had time to finish
+                    entry.setValue(now);
+                }else{
+                    iterator.remove();
+                    PathResult result = new PathResult(path);
+                    activeFileProcessesMap.put(path.toString(), result);
+                    resultsByDirectory.computeIfAbsent(path.getParent(), dir -> newResults()).add(result);
+                }
+            }
+        }
+
+        Iterator<TreeSet<PathResult>> results = resultsByDirectory.values().iterator();
+        try {
+            while(results.hasNext()){
+                TreeSet<PathResult> next = results.next();
+                workQueue.put(new FileBulkProcessEvent(next, options, activeFileProcessesMap));
+                results.remove();
+            }
+        } finally {
+            // anything not passed to a worker, such as when interrupted by shutdown, is no longer active
+            for(TreeSet<PathResult> remaining : resultsByDirectory.values()){
+                for(PathResult result : remaining){
+                    activeFileProcessesMap.remove(result.getPath().toString());
                 }
             }
-            trySleep(options.getPollInterval().toMillis());
         }
     }
 
+    private void deleteEmptyDirectory(Path dir){
+        if (options.isDeleteEmptySourceDirectories()
+                && !dir.equals(sourceDirectory)
+                && dir.startsWith(sourceDirectory)) {
+            try {
+                Files.delete(dir);
+
+                if(log.isTraceEnabled()){
+                    log.trace("Directory Deleted"+ dir);
+                }
+            } catch (DirectoryNotEmptyException | NoSuchFileException e){
+                // this is a standard case since files may be written in a race type scenario
+            } catch (Exception e) {
+                log.error("Error deleting directory",e);
+            }
+        }
+    }
+
+    private TreeSet<PathResult> newResults(){
+        if(options.getPathComparator() != null){
+            return new TreeSet<>(options.getPathComparator());
+        }else{
+            return new TreeSet<>();
+        }
+    }
+
+    private static long now(){
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
     private void walkDirectory(Path path) throws IOException{
         if(log.isTraceEnabled()){
             log.trace("Walking Directory " + path.toString());
@@ -74,11 +309,7 @@ class FileBulkProcessorMaster extends AbstractWorker {
 
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                if(options.getPathComparator() != null){
-                    results = new TreeSet<>(options.getPathComparator());
-                }else{
-                    results = new TreeSet<>();
-                }
+                results = newResults();
 
                 if (stopped.get()) {
                     return FileVisitResult.TERMINATE;
@@ -125,8 +356,8 @@ class FileBulkProcessorMaster extends AbstractWorker {
                 try {
                     // if we encounter any empty directories we delete.
                     if (options.isDeleteEmptySourceDirectories()
-                            && !dir.equals(options.getSourceDirectory())
-                            && dir.startsWith(options.getSourceDirectory())) {
+                            && !dir.equals(sourceDirectory)
+                            && dir.startsWith(sourceDirectory)) {
 
                         Files.delete(dir);
 
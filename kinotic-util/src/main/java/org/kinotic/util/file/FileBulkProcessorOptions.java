@@ -25,6 +25,8 @@ public class FileBulkProcessorOptions {
     private int numberOfWorkersToStart = Math.max(Runtime.getRuntime().availableProcessors(), 1);
     private boolean deleteProcessedFiles = false;
     private boolean deleteEmptySourceDirectories = false;
+    private boolean watchForChanges = false;
+    private Duration debounceInterval = Duration.ofSeconds(1);
 
     public FileBulkProcessorOptions(Path sourceDirectory,
                                     Path targetDirectory,
@@ -111,4 +113,35 @@ public class FileBulkProcessorOptions {
         this.deleteEmptySourceDirectories = deleteEmptySourceDirectories;
         return this;
     }
+
+    /**
+     * If true the source directory is watched for changes using a {@link java.nio.file.WatchService} instead of being polled.
+     * Files are picked up as soon as they have not changed for the {@link #getDebounceInterval()},
+     * and the source directory is only scanned again when the watch service reports that events were lost.
+     * @return true if the source directory should be watched for changes
+     */
+    public boolean isWatchForChanges() {
+        return watchForChanges;
+    }
+
+    public FileBulkProcessorOptions withWatchForChanges(boolean watchForChanges) {
+        this.watchForChanges = watchForChanges;
+        return this;
+    }
+
+    /**
+     * When watching for changes this is how long a file must go without being created or modified before it is processed,
+     * so files that are still being written are not processed early
+     * @return the debounce interval
+     */
+    public Duration getDebounceInterval() {
+        return debounceInterval;
+    }
+
+    public FileBulkProcessorOptions withDebounceInterval(Duration debounceInterval) {
+        Validate.notNull(debounceInterval, "The debounce interval cannot be null");
+        Validate.isTrue(!debounceInterval.isNegative(), "The debounce interval must not be negative");
+        this.debounceInterval = debounceInterval;
+        return this;
+    }
 }
@@ -0,0 +1,68 @@
+package org.kinotic.util.file;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * A part of a large file to process, that always starts and ends on a record boundary.
+ * See {@link FileProcessorOptions#withChunkConsumer(java.util.function.Consumer)}
+ */
+public class FileChunk {
+
+    private final Path sourcePath;
+    private final int index;
+    private final int chunkCount;
+    private final long offset;
+    private final ByteBuffer buffer;
+
+    public FileChunk(Path sourcePath, int index, int chunkCount, long offset, ByteBuffer buffer) {
+        this.sourcePath = sourcePath;
+        this.index = index;
+        this.chunkCount = chunkCount;
+        this.offset = offset;
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return the file this chunk is part of
+     */
+    public Path getSourcePath() {
+        return sourcePath;
+    }
+
+    /**
+     * @return the position of this chunk in the file, starting at 0
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the total number of chunks the file was split into
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * @return the offset of the first byte of this chunk in the file
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of bytes in this chunk
+     */
+    public int getLength() {
+        return buffer.limit();
+    }
+
+    /**
+     * The contents of this chunk, memory mapped from the file
+     * @return a read only buffer positioned at the start of the chunk
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+}
@@ -0,0 +1,30 @@
+package org.kinotic.util.file;
+
+/**
+ * An event to process one chunk of a large file.
+ * The file is only done once all of its chunks are processed, which is handled by the {@link ChunkedFileProcess}
+ */
+class FileChunkProcessEvent extends FileProcessEvent {
+
+    private final ChunkedFileProcess chunkedFile;
+    private final int chunkIndex;
+
+    public FileChunkProcessEvent(ChunkedFileProcess chunkedFile, int chunkIndex) {
+        super(chunkedFile.getSourcePath(), null);
+        this.chunkedFile = chunkedFile;
+        this.chunkIndex = chunkIndex;
+    }
+
+    public ChunkedFileProcess getChunkedFile() {
+        return chunkedFile;
+    }
+
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    @Override
+    public void workerDone() {
+        // the file is done once all of the chunks are done
+    }
+}
@@ -63,6 +63,15 @@ public class FileProcessor {
                     log.warn("Interrupted while shutting down worker "+worker.getName());
                 }
             }
+            // chunks still queued will never be processed, so abandon them to let their files close and be processed again later
+            FileProcessEvent work;
+            while((work = workQueue.poll()) != null){
+                if(work instanceof FileChunkProcessEvent chunkWork){
+                    chunkWork.getChunkedFile().processChunk(chunkWork.getChunkIndex(), stopped);
+                }else{
+                    work.workerDone();
+                }
+            }
             log.info("File processor shutdown for path "+fileProcessorOptions.getSourceDirectory());
         }
     }
@@ -6,6 +6,7 @@ import org.apache.commons.lang3.Validate;
 
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -25,6 +26,11 @@ public class FileProcessorOptions {
     private int maxQueueSize = 1000;
     private boolean deleteProcessedFiles = false;
     private boolean deleteEmptySourceDirectories = false;
+    private Consumer<FileChunk> chunkConsumer = null;
+    private Consumer<Path> chunkedFileCompletion = null;
+    private long chunkingThreshold = 256L * 1024 * 1024;
+    private int chunkSize = 32 * 1024 * 1024;
+    private byte recordDelimiter = '\n';
 
     /**
      * The options for the file processor
@@ -121,4 +127,76 @@ public class FileProcessorOptions {
         this.maxQueueSize = maxQueueSize;
         return this;
     }
+
+    public Consumer<FileChunk> getChunkConsumer() {
+        return chunkConsumer;
+    }
+
+    /**
+     * If set, files at least {@link #getChunkingThreshold()} bytes in size are split into chunks that are processed in parallel by the workers,
+     * instead of being passed to the file consumer.
+     * Each chunk ends on a record boundary, and the file is done once all of its chunks are processed.
+     * If the consumer throws an exception for any chunk the processor will consider the file failed and perform the failed logic.
+     * @param chunkConsumer to do the actual work for each chunk, this must be thread safe
+     * @return these options
+     */
+    public FileProcessorOptions withChunkConsumer(Consumer<FileChunk> chunkConsumer) {
+        this.chunkConsumer = chunkConsumer;
+        return this;
+    }
+
+    public Consumer<Path> getChunkedFileCompletion() {
+        return chunkedFileCompletion;
+    }
+
+    /**
+     * If set, this is called once all chunks of a file have been processed successfully, before the file is moved or deleted.
+     * It can be used to merge the results of the chunks, since chunks may be processed in any order.
+     * It is not called if any chunk failed, or if the processor was shut down before all chunks were processed.
+     * If it throws an exception the processor will consider the file failed and perform the failed logic.
+     * @param chunkedFileCompletion called with the path of each chunked file once all of its chunks are processed
+     * @return these options
+     */
+    public FileProcessorOptions withChunkedFileCompletion(Consumer<Path> chunkedFileCompletion) {
+        this.chunkedFileCompletion = chunkedFileCompletion;
+        return this;
+    }
+
+    /**
+     * @return the size in bytes at which files are split into chunks when a chunk consumer is set
+     */
+    public long getChunkingThreshold() {
+        return chunkingThreshold;
+    }
+
+    public FileProcessorOptions withChunkingThreshold(long chunkingThreshold) {
+        Validate.isTrue(chunkingThreshold > 0, "The chunking threshold must be greater than 0");
+        this.chunkingThreshold = chunkingThreshold;
+        return this;
+    }
+
+    /**
+     * @return the approximate size in bytes of each chunk, a chunk is extended past this size to the end of the current record
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public FileProcessorOptions withChunkSize(int chunkSize) {
+        Validate.isTrue(chunkSize > 0, "The chunk size must be greater than 0");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @return the byte that ends each record, chunks are only split after this byte
+     */
+    public byte getRecordDelimiter() {
+        return recordDelimiter;
+    }
+
+    public FileProcessorOptions withRecordDelimiter(byte recordDelimiter) {
+        this.recordDelimiter = recordDelimiter;
+        return this;
+    }
 }
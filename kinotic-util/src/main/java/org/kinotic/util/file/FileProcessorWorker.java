@@ -35,10 +35,24 @@ class FileProcessorWorker extends AbstractWorker {
     @Override
     protected void doWork() throws Exception{
         FileProcessEvent work = workQueue.take();
+        if(work instanceof FileChunkProcessEvent chunkWork){
+            // the file is completed by whichever worker processes its last chunk
+            chunkWork.getChunkedFile().processChunk(chunkWork.getChunkIndex(), stopped);
+            return;
+        }
+        boolean chunked = false;
         try {
             if(!stopped.get()){
                 // make sure file still exists, this should always be true but here for sanity
-                if(Files.exists(work.getSourcePath())) {
+                if(options.getChunkConsumer() != null
+                        && Files.exists(work.getSourcePath())
+                        && Files.size(work.getSourcePath()) >= options.getChunkingThreshold()) {
+
+                    ChunkedFileProcess chunkedFile = ChunkedFileProcess.open(work, options);
+                    chunked = true;
+                    chunkedFile.dispatch(workQueue, stopped);
+
+                } else if(Files.exists(work.getSourcePath())) {
 
                     boolean finished = false;
                     // Have consumer do the work
@@ -72,7 +86,10 @@ class FileProcessorWorker extends AbstractWorker {
         } catch (Exception e) {
             log.error("Worker unhandled exception",e);
         }
-        work.workerDone();
+        // chunked files are done once all of their chunks are processed
+        if(!chunked) {
+            work.workerDone();
+        }
     }
 
 }
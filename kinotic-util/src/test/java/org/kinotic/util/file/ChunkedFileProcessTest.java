@@ -0,0 +1,120 @@
+package org.kinotic.util.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kinotic.util.UncheckedInterruptedException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkedFileProcessTest {
+
+    private static final int CHUNK_SIZE = 16;
+
+    @Test
+    public void testRecordSpanningChunkBoundaryIsNotSplit(@TempDir Path tempDir) throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("source"));
+        Path target = Files.createDirectories(tempDir.resolve("target"));
+        // The second record is longer than a chunk, so it starts in one chunk and would end several chunks later
+        String content = "first\n" + "x".repeat(3 * CHUNK_SIZE) + "\n" + "third\n" + "fourth record\n" + "last";
+        Path file = Files.writeString(source.resolve("data.txt"), content);
+
+        Map<Integer, String> chunks = new ConcurrentHashMap<>();
+        FileProcessorOptions options = options(source, target)
+                .withChunkConsumer(chunk -> chunks.put(chunk.getIndex(), contents(chunk)));
+
+        process(file, options);
+
+        List<String> ordered = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            ordered.add(chunks.get(i));
+        }
+        assertEquals(content, String.join("", ordered));
+        assertEquals(List.of("first\n" + "x".repeat(3 * CHUNK_SIZE) + "\n",
+                             "third\nfourth record\n",
+                             "last"),
+                     ordered);
+        for (String chunk : ordered.subList(0, ordered.size() - 1)) {
+            assertTrue(chunk.endsWith("\n"), "Every chunk but the last ends with a delimiter");
+        }
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testProcessingResumesFromCheckpoint(@TempDir Path tempDir) throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("source"));
+        Path target = Files.createDirectories(tempDir.resolve("target"));
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            content.append("record-").append(i).append("-padding\n");
+        }
+        Path file = Files.writeString(source.resolve("data.txt"), content.toString());
+        Path checkpoint = target.resolve("checkpoints").resolve("data.txt.checkpoint");
+
+        // The first attempt is stopped at the third chunk, like a shutdown would
+        List<Integer> firstAttempt = new CopyOnWriteArrayList<>();
+        List<Path> completions = new CopyOnWriteArrayList<>();
+        process(file, options(source, target)
+                .withChunkConsumer(chunk -> {
+                    if (chunk.getIndex() == 2) {
+                        throw new UncheckedInterruptedException();
+                    }
+                    firstAttempt.add(chunk.getIndex());
+                })
+                .withChunkedFileCompletion(completions::add));
+
+        assertEquals(List.of(0, 1), firstAttempt);
+        assertTrue(completions.isEmpty());
+        assertTrue(Files.exists(file));
+        assertTrue(Files.exists(checkpoint));
+
+        List<Integer> secondAttempt = new CopyOnWriteArrayList<>();
+        List<String> secondAttemptContents = new CopyOnWriteArrayList<>();
+        process(file, options(source, target)
+                .withChunkConsumer(chunk -> {
+                    secondAttempt.add(chunk.getIndex());
+                    secondAttemptContents.add(contents(chunk));
+                })
+                .withChunkedFileCompletion(completions::add));
+
+        assertFalse(secondAttempt.isEmpty());
+        assertFalse(secondAttempt.contains(0));
+        assertFalse(secondAttempt.contains(1));
+        assertEquals(2, secondAttempt.getFirst());
+        assertTrue(secondAttemptContents.getFirst().startsWith("record-"));
+        assertEquals(List.of(file), completions);
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    private static FileProcessorOptions options(Path source, Path target) {
+        return new FileProcessorOptions(source, target, path -> true)
+                .withChunkingThreshold(1)
+                .withChunkSize(CHUNK_SIZE);
+    }
+
+    /**
+     * Processes every chunk on the calling thread, since a {@link SynchronousQueue} without a waiting worker never accepts a chunk
+     */
+    private static void process(Path file, FileProcessorOptions options) throws IOException {
+        ChunkedFileProcess chunkedFile = ChunkedFileProcess.open(new FileProcessEvent(file, new ConcurrentHashMap<>()), options);
+        chunkedFile.dispatch(new SynchronousQueue<>(), new AtomicBoolean(false));
+    }
+
+    private static String contents(FileChunk chunk) {
+        byte[] bytes = new byte[chunk.getLength()];
+        chunk.getBuffer().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,51 @@
+package org.kinotic.util.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBulkProcessorMasterTest {
+
+    @Test
+    public void testWatchedFilesAreProcessedAndShutdownReturns(@TempDir Path tempDir) throws Exception {
+        Path source = Files.createDirectories(tempDir.resolve("source"));
+        Path target = Files.createDirectories(tempDir.resolve("target"));
+        List<Path> processed = new CopyOnWriteArrayList<>();
+        FileBulkProcessorOptions options = new FileBulkProcessorOptions(source, target, event -> {
+            for (PathResult result : event.getSources()) {
+                processed.add(result.getPath());
+                result.setProcessed();
+            }
+        }).withWatchForChanges(true)
+          .withDebounceInterval(Duration.ofMillis(100));
+
+        BlockingQueue<FileBulkProcessEvent> workQueue = new LinkedBlockingQueue<>();
+        FileBulkProcessorMaster master = new FileBulkProcessorMaster("test-master", options, workQueue);
+        FileBulkProcessorWorker worker = new FileBulkProcessorWorker("test-worker", workQueue, options.getEventConsumer());
+        worker.start();
+        master.start();
+        try {
+            // Files directly in the source directory are ignored, so the file is written to a new subdirectory
+            Path file = Files.createDirectories(source.resolve("batch")).resolve("data.txt");
+            Files.writeString(file, "data");
+
+            await().atMost(Duration.ofSeconds(30)).until(() -> processed.contains(file));
+            await().atMost(Duration.ofSeconds(10)).until(() -> !Files.exists(file)); // moved to the target directory
+            assertEquals(1, processed.size());
+        } finally {
+            // The master is blocked waiting for watch events, so this only returns if the watch service is closed before joining
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> master.shutdown(false));
+            worker.shutdown(true);
+        }
+    }
+}